@@ -0,0 +1,45 @@
+package io.openbas.authorisation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker of an outbound integration: after consecutive failures, requests fail fast during
+ * the open duration instead of waiting on a stalled remote. Once the duration elapsed, requests go
+ * through again and the first failure opens the circuit anew, until a success closes it.
+ */
+class CircuitBreaker {
+
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+
+  private int consecutiveFailures = 0;
+  private Instant openUntil = Instant.MIN;
+
+  CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+  }
+
+  /**
+   * @return true if the request can be sent, false while the circuit is open
+   */
+  synchronized boolean allowRequest() {
+    return !this.clock.instant().isBefore(this.openUntil);
+  }
+
+  synchronized void onSuccess() {
+    this.consecutiveFailures = 0;
+    this.openUntil = Instant.MIN;
+  }
+
+  synchronized void onFailure() {
+    this.consecutiveFailures++;
+    if (this.consecutiveFailures >= this.failureThreshold) {
+      this.openUntil = this.clock.instant().plus(this.openDuration);
+    }
+  }
+}
@@ -1,16 +1,41 @@
 package io.openbas.authorisation;
 
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,18 +43,48 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class HttpClientFactory {
 
+  private static final AttributeKey<String> TARGET = AttributeKey.stringKey("target");
+  private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+
   private final X509TrustManager trustManager;
 
+  private final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+  private volatile HttpClient streamingHttpClient;
+
+  @Value("${openbas.http-client.connect-timeout:10s}")
+  private Duration connectTimeout = Duration.ofSeconds(10);
+
+  @Value("${openbas.http-client.read-timeout:60s}")
+  private Duration readTimeout = Duration.ofSeconds(60);
+
+  @Value("${openbas.http-client.max-connections-per-target:20}")
+  private int maxConnectionsPerTarget = 20;
+
+  @Value("${openbas.http-client.max-retries:3}")
+  private int maxRetries = 3;
+
+  @Value("${openbas.http-client.retry-interval:1s}")
+  private Duration retryInterval = Duration.ofSeconds(1);
+
+  @Value("${openbas.http-client.circuit-breaker.failure-threshold:5}")
+  private int failureThreshold = 5;
+
+  @Value("${openbas.http-client.circuit-breaker.open-duration:30s}")
+  private Duration openDuration = Duration.ofSeconds(30);
+
+  private ObjectProvider<Meter> meterProvider;
+
+  @Autowired
+  public void setMeterProvider(ObjectProvider<Meter> meterProvider) {
+    this.meterProvider = meterProvider;
+  }
+
   /** Create default httpClient for all the app with extra trusted certs */
   public CloseableHttpClient httpClientCustom() {
     try {
-      SSLContext sslContext = SSLContext.getInstance("TLS");
-      sslContext.init(null, new TrustManager[] {trustManager}, null);
-      SSLConnectionSocketFactory sslConFactory =
-          SSLConnectionSocketFactoryBuilder.create().setSslContext(sslContext).build();
       HttpClientConnectionManager cm =
           PoolingHttpClientConnectionManagerBuilder.create()
-              .setSSLSocketFactory(sslConFactory)
+              .setSSLSocketFactory(sslSocketFactory())
               .build();
       return HttpClients.custom().setConnectionManager(cm).build();
     } catch (Exception e) {
@@ -37,4 +92,143 @@ public class HttpClientFactory {
       return HttpClients.createDefault();
     }
   }
+
+  /**
+   * Returns the shared client of an outbound integration, with extra trusted certs. Connections are
+   * pooled and kept alive across requests, and requests are bounded by timeouts, retried with a
+   * jittered backoff and guarded by a circuit breaker. The client must not be closed by the caller.
+   *
+   * @param target the name of the integration, like {@code crowdstrike}
+   * @return the client of the integration
+   */
+  public CloseableHttpClient httpClient(@NotBlank final String target) {
+    return this.clients.computeIfAbsent(target, this::buildHttpClient);
+  }
+
+  /**
+   * Returns the shared client of streamed responses, negotiating HTTP/2 when available
+   *
+   * @return the client, which must not be closed by the caller
+   */
+  public HttpClient streamingHttpClient() {
+    HttpClient client = this.streamingHttpClient;
+    if (client == null) {
+      synchronized (this) {
+        client = this.streamingHttpClient;
+        if (client == null) {
+          HttpClient.Builder builder =
+              HttpClient.newBuilder()
+                  .version(HttpClient.Version.HTTP_2)
+                  .connectTimeout(this.connectTimeout);
+          try {
+            builder.sslContext(sslContext());
+          } catch (Exception e) {
+            log.error("Unable to load the custom ssl context", e);
+          }
+          client = builder.build();
+          this.streamingHttpClient = client;
+        }
+      }
+    }
+    return client;
+  }
+
+  @PreDestroy
+  public void close() {
+    this.clients.values().forEach(client -> client.close(CloseMode.GRACEFUL));
+    this.clients.clear();
+  }
+
+  // -- PRIVATE --
+
+  private Meter noopMeter() {
+    return OpenTelemetry.noop().getMeter("openbas-api-meter");
+  }
+
+  private SSLContext sslContext() throws Exception {
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(null, new TrustManager[] {trustManager}, null);
+    return sslContext;
+  }
+
+  private SSLConnectionSocketFactory sslSocketFactory() throws Exception {
+    return SSLConnectionSocketFactoryBuilder.create().setSslContext(sslContext()).build();
+  }
+
+  private CloseableHttpClient buildHttpClient(String target) {
+    PoolingHttpClientConnectionManagerBuilder connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(this.maxConnectionsPerTarget)
+            .setMaxConnTotal(this.maxConnectionsPerTarget)
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.of(this.connectTimeout))
+                    .setSocketTimeout(Timeout.of(this.readTimeout))
+                    .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                    .build());
+    try {
+      connectionManager.setSSLSocketFactory(sslSocketFactory());
+    } catch (Exception e) {
+      log.error("Unable to load the custom ssl context", e);
+    }
+    Meter meter =
+        this.meterProvider != null
+            ? this.meterProvider.getIfAvailable(this::noopMeter)
+            : noopMeter();
+    CircuitBreaker circuitBreaker =
+        new CircuitBreaker(this.failureThreshold, this.openDuration, Clock.systemUTC());
+    DoubleHistogram duration =
+        meter
+            .histogramBuilder("openbas.http.client.duration")
+            .setDescription("Duration of the outbound HTTP requests")
+            .setUnit("ms")
+            .build();
+    LongCounter errors =
+        meter
+            .counterBuilder("openbas.http.client.errors")
+            .setDescription("Outbound HTTP requests failed or answered with a server error")
+            .build();
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager.build())
+        .setDefaultRequestConfig(
+            RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(this.connectTimeout))
+                .setResponseTimeout(Timeout.of(this.readTimeout))
+                .build())
+        .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+        .evictIdleConnections(TimeValue.ofMinutes(1))
+        .setRetryStrategy(new JitteredRetryStrategy(this.maxRetries, this.retryInterval))
+        .addExecInterceptorFirst(
+            "circuit-breaker",
+            (request, scope, chain) -> {
+              if (!circuitBreaker.allowRequest()) {
+                errors.add(1, Attributes.of(TARGET, target, OUTCOME, "circuit_open"));
+                throw new IOException("Circuit open for " + target + ", request not sent");
+              }
+              long start = System.nanoTime();
+              try {
+                ClassicHttpResponse response = chain.proceed(request, scope);
+                boolean serverError = response.getCode() >= 500;
+                if (serverError) {
+                  circuitBreaker.onFailure();
+                  errors.add(1, Attributes.of(TARGET, target, OUTCOME, "server_error"));
+                } else {
+                  circuitBreaker.onSuccess();
+                }
+                duration.record(
+                    (System.nanoTime() - start) / 1_000_000d,
+                    Attributes.of(
+                        TARGET, target, OUTCOME, serverError ? "server_error" : "success"));
+                return response;
+              } catch (IOException | HttpException | RuntimeException e) {
+                circuitBreaker.onFailure();
+                errors.add(1, Attributes.of(TARGET, target, OUTCOME, "io_error"));
+                duration.record(
+                    (System.nanoTime() - start) / 1_000_000d,
+                    Attributes.of(TARGET, target, OUTCOME, "io_error"));
+                throw e;
+              }
+            })
+        .build();
+  }
 }
@@ -0,0 +1,51 @@
+package io.openbas.authorisation;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Retries idempotent requests failing on I/O errors, or answered with 429 or 503, with an
+ * exponential and jittered backoff, so that the retries of concurrent requests do not hit the
+ * remote at once. A {@code Retry-After} header answered by the remote takes precedence.
+ */
+class JitteredRetryStrategy extends DefaultHttpRequestRetryStrategy {
+
+  private final Duration interval;
+
+  JitteredRetryStrategy(int maxRetries, Duration interval) {
+    super(maxRetries, TimeValue.ofMilliseconds(interval.toMillis()));
+    this.interval = interval;
+  }
+
+  @Override
+  public TimeValue getRetryInterval(HttpResponse response, int execCount, HttpContext context) {
+    if (response.containsHeader(HttpHeaders.RETRY_AFTER)) {
+      return super.getRetryInterval(response, execCount, context);
+    }
+    return backoff(execCount);
+  }
+
+  @Override
+  public TimeValue getRetryInterval(
+      HttpRequest request, IOException exception, int execCount, HttpContext context) {
+    return backoff(execCount);
+  }
+
+  /**
+   * @param execCount the number of executions of the request so far
+   * @return the interval before the next execution, between half and one and a half of the
+   *     exponential backoff
+   */
+  TimeValue backoff(int execCount) {
+    long exponential = this.interval.toMillis() << Math.min(Math.max(execCount - 1, 0), 10);
+    double jitter = 0.5 + ThreadLocalRandom.current().nextDouble();
+    return TimeValue.ofMilliseconds((long) (exponential * jitter));
+  }
+}
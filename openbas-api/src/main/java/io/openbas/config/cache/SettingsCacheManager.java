@@ -0,0 +1,107 @@
+package io.openbas.config.cache;
+
+import static io.openbas.helper.StreamHelper.fromIterable;
+
+import io.openbas.database.model.Setting;
+import io.openbas.database.repository.SettingRepository;
+import jakarta.validation.constraints.NotBlank;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory snapshot of the platform settings. Any change of the settings table bumps its version
+ * in the database, so that each node reloads its snapshot once the version moved, checking it at
+ * most once per {@code openbas.settings.revalidate-interval}. Local writes invalidate the snapshot
+ * right away.
+ */
+@Service
+public class SettingsCacheManager {
+
+  private final SettingRepository settingRepository;
+  private final Clock clock;
+
+  @Value("${openbas.settings.revalidate-interval:5s}")
+  private Duration revalidateInterval = Duration.ofSeconds(5);
+
+  private volatile Snapshot snapshot;
+
+  private record Snapshot(Long version, Map<String, Setting> settings, Instant checkedAt) {}
+
+  @Autowired
+  public SettingsCacheManager(SettingRepository settingRepository) {
+    this(settingRepository, Clock.systemUTC());
+  }
+
+  SettingsCacheManager(SettingRepository settingRepository, Clock clock) {
+    this.settingRepository = settingRepository;
+    this.clock = clock;
+  }
+
+  /**
+   * @return the settings by key, not to be modified
+   */
+  public Map<String, Setting> settings() {
+    return snapshot().settings();
+  }
+
+  /**
+   * @param key the key of the setting
+   * @return a copy of the setting, if defined
+   */
+  public Optional<Setting> setting(@NotBlank final String key) {
+    return Optional.ofNullable(settings().get(key)).map(SettingsCacheManager::copy);
+  }
+
+  /** Drops the snapshot, reloaded on the next read. To be called after writing settings. */
+  public synchronized void invalidate() {
+    this.snapshot = null;
+  }
+
+  // -- PRIVATE --
+
+  private static Setting copy(Setting setting) {
+    Setting copy = new Setting(setting.getKey(), setting.getValue());
+    copy.setId(setting.getId());
+    return copy;
+  }
+
+  private boolean isFresh(Snapshot current, Instant now) {
+    return current != null && now.isBefore(current.checkedAt().plus(this.revalidateInterval));
+  }
+
+  private Snapshot snapshot() {
+    Snapshot current = this.snapshot;
+    Instant now = this.clock.instant();
+    if (isFresh(current, now)) {
+      return current;
+    }
+    synchronized (this) {
+      current = this.snapshot;
+      if (isFresh(current, now)) {
+        return current;
+      }
+      // Version read before the settings: a change in between only triggers one more reload.
+      // Compared by equality as a rolled back change brings the version back.
+      Long version = this.settingRepository.getSettingsVersion();
+      if (current != null && version != null && version.equals(current.version())) {
+        current = new Snapshot(current.version(), current.settings(), now);
+      } else {
+        Map<String, Setting> settings =
+            fromIterable(this.settingRepository.findAll()).stream()
+                .map(SettingsCacheManager::copy)
+                .collect(Collectors.toUnmodifiableMap(Setting::getKey, Function.identity()));
+        current = new Snapshot(version, settings, now);
+      }
+      this.snapshot = current;
+      return current;
+    }
+  }
+}
@@ -1,7 +1,5 @@
 package io.openbas.execution;
 
-import static io.openbas.injector_contract.variables.VariableHelper.*;
-
 import io.openbas.config.OpenBASConfig;
 import io.openbas.database.model.Exercise;
 import io.openbas.database.model.Injection;
@@ -9,9 +7,10 @@ import io.openbas.database.model.User;
 import io.openbas.database.model.Variable;
 import io.openbas.service.VariableService;
 import jakarta.annotation.Resource;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -30,45 +29,51 @@ public class ExecutionContextService {
 
   public ExecutionContext executionContext(
       @NotNull final User user, Injection injection, List<String> teams) {
-    ExecutionContext executionContext = new ExecutionContext(user, teams);
+    return executionContextTemplate(injection).executionContext(user, teams);
+  }
+
+  public ExecutionContext executionContext(
+      @NotNull final User user, Exercise exercise, String team) {
+    return executionContextTemplate(exercise).executionContext(user, team);
+  }
+
+  // -- TEMPLATE --
+
+  /**
+   * Build the values shared by the execution contexts of all the users targeted by an injection, to
+   * be built once whatever the number of users
+   */
+  public ExecutionContextTemplate executionContextTemplate(@NotNull final Injection injection) {
     if (injection.getExercise() != null) {
-      String exerciseId = injection.getExercise().getId();
-      String queryParams = "?user=" + user.getId() + "&inject=" + injection.getId();
-      String baseUrl = this.openBASCOnfig.getBaseUrl();
-      executionContext.put(PLAYER_URI, baseUrl + "/private/" + exerciseId + queryParams);
-      executionContext.put(CHALLENGES_URI, baseUrl + "/challenges/" + exerciseId + queryParams);
-      executionContext.put(SCOREBOARD_URI, baseUrl + "/scoreboard/" + exerciseId + queryParams);
-      executionContext.put(
-          LESSONS_URI, baseUrl + "/lessons/simulation/" + exerciseId + queryParams);
-      executionContext.put(EXERCISE, injection.getExercise());
-      fillDynamicSimulationVariable(executionContext, exerciseId);
+      return new ExecutionContextTemplate(
+          injection.getExercise(),
+          injection.getId(),
+          this.openBASCOnfig.getBaseUrl(),
+          toMap(this.variableService.variablesFromExercise(injection.getExercise().getId())));
     } else if (injection.getScenario() != null) {
-      fillDynamicScenarioVariable(executionContext, injection.getScenario().getId());
+      return new ExecutionContextTemplate(
+          null,
+          null,
+          null,
+          toMap(this.variableService.variablesFromScenario(injection.getScenario().getId())));
     }
-
-    return executionContext;
+    return new ExecutionContextTemplate(null, null, null, Map.of());
   }
 
-  public ExecutionContext executionContext(
-      @NotNull final User user, Exercise exercise, String team) {
-    ExecutionContext executionContext = new ExecutionContext(user, List.of(team));
-    if (exercise != null) {
-      fillDynamicSimulationVariable(executionContext, exercise.getId());
+  /** Build the values shared by the execution contexts of the players of a simulation */
+  public ExecutionContextTemplate executionContextTemplate(final Exercise exercise) {
+    if (exercise == null) {
+      return new ExecutionContextTemplate(null, null, null, Map.of());
     }
-    return executionContext;
+    return new ExecutionContextTemplate(
+        null, null, null, toMap(this.variableService.variablesFromExercise(exercise.getId())));
   }
 
   // -- PRIVATE --
 
-  private void fillDynamicSimulationVariable(
-      @NotNull ExecutionContext executionContext, @NotBlank final String exerciseId) {
-    List<Variable> variables = this.variableService.variablesFromExercise(exerciseId);
-    variables.forEach((v) -> executionContext.put(v.getKey(), v.getValue()));
-  }
-
-  private void fillDynamicScenarioVariable(
-      @NotNull ExecutionContext executionContext, @NotBlank final String scenarioId) {
-    List<Variable> variables = this.variableService.variablesFromScenario(scenarioId);
-    variables.forEach((v) -> executionContext.put(v.getKey(), v.getValue()));
+  private static Map<String, String> toMap(@NotNull final List<Variable> variables) {
+    Map<String, String> values = new LinkedHashMap<>();
+    variables.forEach((v) -> values.put(v.getKey(), v.getValue()));
+    return values;
   }
 }
@@ -0,0 +1,54 @@
+package io.openbas.execution;
+
+import static io.openbas.injector_contract.variables.VariableHelper.*;
+
+import io.openbas.database.model.Exercise;
+import io.openbas.database.model.User;
+import jakarta.validation.constraints.NotNull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values shared by the execution contexts of all the users targeted by an injection: the variables
+ * of its simulation or scenario and its base URIs. Built once per injection, the execution context
+ * of a user only adds the values specific to this user.
+ */
+public final class ExecutionContextTemplate {
+
+  private final Exercise exercise;
+  private final String injectId;
+  private final String baseUrl;
+  private final Map<String, String> variables;
+
+  ExecutionContextTemplate(
+      Exercise exercise, String injectId, String baseUrl, Map<String, String> variables) {
+    this.exercise = exercise;
+    this.injectId = injectId;
+    this.baseUrl = baseUrl;
+    this.variables = Collections.unmodifiableMap(new LinkedHashMap<>(variables));
+  }
+
+  public ExecutionContext executionContext(@NotNull final User user, List<String> teams) {
+    ExecutionContext executionContext = new ExecutionContext(user, teams);
+    if (this.exercise != null) {
+      String exerciseId = this.exercise.getId();
+      String queryParams = "?user=" + user.getId() + "&inject=" + this.injectId;
+      executionContext.put(PLAYER_URI, this.baseUrl + "/private/" + exerciseId + queryParams);
+      executionContext.put(
+          CHALLENGES_URI, this.baseUrl + "/challenges/" + exerciseId + queryParams);
+      executionContext.put(
+          SCOREBOARD_URI, this.baseUrl + "/scoreboard/" + exerciseId + queryParams);
+      executionContext.put(
+          LESSONS_URI, this.baseUrl + "/lessons/simulation/" + exerciseId + queryParams);
+      executionContext.put(EXERCISE, this.exercise);
+    }
+    executionContext.putAll(this.variables);
+    return executionContext;
+  }
+
+  public ExecutionContext executionContext(@NotNull final User user, String team) {
+    return executionContext(user, List.of(team));
+  }
+}
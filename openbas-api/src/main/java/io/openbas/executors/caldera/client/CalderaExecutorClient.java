@@ -266,7 +266,8 @@ public class CalderaExecutorClient {
   // -- PRIVATE --
 
   private String get(@NotBlank final String uri) throws IOException {
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("caldera");
       HttpGet httpGet = new HttpGet(this.config.getRestApiV2Url() + uri);
       // Headers
       httpGet.addHeader(KEY_HEADER, this.config.getApiKey());
@@ -279,7 +280,8 @@ public class CalderaExecutorClient {
 
   private String post(@NotBlank final String url, @NotNull final Map<String, Object> body)
       throws IOException {
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("caldera");
       HttpPost httpPost = new HttpPost(url);
       // Headers
       httpPost.addHeader(KEY_HEADER, this.config.getApiKey());
@@ -295,25 +297,37 @@ public class CalderaExecutorClient {
 
   private void patch(@NotBlank final String url, @NotNull final Map<String, Object> body)
       throws IOException {
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("caldera");
       HttpPatch httpPatch = new HttpPatch(url);
       // Headers
       httpPatch.addHeader(KEY_HEADER, this.config.getApiKey());
       // Body
       StringEntity entity = new StringEntity(this.objectMapper.writeValueAsString(body));
       httpPatch.setEntity(entity);
-      httpClient.execute(httpPatch);
+      httpClient.execute(
+          httpPatch,
+          response -> {
+            EntityUtils.consume(response.getEntity());
+            return null;
+          });
     } catch (IOException e) {
       throw new ClientProtocolException("Unexpected response for request on: " + url, e);
     }
   }
 
   private void delete(@NotBlank final String url) throws IOException {
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("caldera");
       HttpDelete httpdelete = new HttpDelete(url);
       // Headers
       httpdelete.addHeader(KEY_HEADER, this.config.getApiKey());
-      httpClient.execute(httpdelete);
+      httpClient.execute(
+          httpdelete,
+          response -> {
+            EntityUtils.consume(response.getEntity());
+            return null;
+          });
     } catch (IOException e) {
       throw new ClientProtocolException("Unexpected response for request on: " + url, e);
     }
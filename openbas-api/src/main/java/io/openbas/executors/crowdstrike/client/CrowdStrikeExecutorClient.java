@@ -184,7 +184,8 @@ public class CrowdStrikeExecutorClient {
     if (this.lastAuthentication.isBefore(Instant.now().minusSeconds(AUTH_TIMEOUT))) {
       this.authenticate();
     }
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("crowdstrike");
       HttpGet httpGet = new HttpGet(this.config.getApiUrl() + uri);
       // Headers
       httpGet.addHeader("Authorization", "Bearer " + this.token);
@@ -199,7 +200,8 @@ public class CrowdStrikeExecutorClient {
     if (this.lastAuthentication.isBefore(Instant.now().minusSeconds(AUTH_TIMEOUT))) {
       this.authenticate();
     }
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("crowdstrike");
       HttpPost httpPost = new HttpPost(this.config.getApiUrl() + uri);
       // Headers
       httpPost.addHeader("Authorization", "Bearer " + this.token);
@@ -225,7 +227,8 @@ public class CrowdStrikeExecutorClient {
   }
 
   private void authenticate() throws IOException {
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("crowdstrike");
       HttpPost httpPost = new HttpPost(this.config.getApiUrl() + OAUTH_URI);
       // Headers
       httpPost.addHeader("content-type", "application/x-www-form-urlencoded");
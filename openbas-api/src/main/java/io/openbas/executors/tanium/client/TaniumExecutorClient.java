@@ -120,7 +120,8 @@ public class TaniumExecutorClient {
   // -- PRIVATE --
 
   private String post(@NotNull final Map<String, Object> body) throws IOException {
-    try (CloseableHttpClient httpClient = httpClientFactory.httpClientCustom()) {
+    try {
+      CloseableHttpClient httpClient = httpClientFactory.httpClient("tanium");
       HttpPost httpPost = new HttpPost(this.config.getGatewayUrl());
       // Headers
       httpPost.addHeader(KEY_HEADER, this.config.getApiKey());
@@ -10,10 +10,12 @@ import io.openbas.database.specification.InjectSpecification;
 import io.openbas.execution.ExecutableInject;
 import io.openbas.execution.ExecutionContext;
 import io.openbas.execution.ExecutionContextService;
+import io.openbas.execution.ExecutionContextTemplate;
 import jakarta.annotation.Resource;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
@@ -77,12 +79,18 @@ public class InjectHelper {
   }
 
   private List<ExecutionContext> usersFromInjection(Injection injection) {
-    return getUsersFromInjection(injection).collect(groupingBy(Tuple2::getT1)).entrySet().stream()
+    Map<User, List<Tuple2<User, String>>> teamsByUser =
+        getUsersFromInjection(injection).collect(groupingBy(Tuple2::getT1));
+    if (teamsByUser.isEmpty()) {
+      return List.of();
+    }
+    ExecutionContextTemplate template =
+        this.executionContextService.executionContextTemplate(injection);
+    return teamsByUser.entrySet().stream()
         .map(
             entry ->
-                this.executionContextService.executionContext(
+                template.executionContext(
                     entry.getKey(),
-                    injection,
                     entry.getValue().stream().flatMap(ua -> Stream.of(ua.getT2())).toList()))
         .toList();
   }
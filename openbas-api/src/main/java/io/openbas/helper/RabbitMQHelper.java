@@ -10,6 +10,7 @@ import java.time.Duration;
 import java.util.Collections;
 import javax.net.ssl.SSLContext;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.BasicHttpClientConnectionManager;
@@ -24,6 +25,7 @@ import org.apache.hc.core5.http.config.RegistryBuilder;
 import org.apache.hc.core5.ssl.SSLContextBuilder;
 import org.apache.hc.core5.ssl.SSLContexts;
 import org.apache.hc.core5.ssl.TrustStrategy;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.json.BasicJsonParser;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
@@ -35,6 +37,13 @@ import org.springframework.web.client.RestTemplate;
 @Slf4j
 public class RabbitMQHelper {
 
+  private static final Duration TIMEOUT = Duration.ofSeconds(2);
+  private static final ConnectionConfig CONNECTION_CONFIG =
+      ConnectionConfig.custom()
+          .setConnectTimeout(Timeout.of(TIMEOUT))
+          .setSocketTimeout(Timeout.of(TIMEOUT))
+          .build();
+
   private static String rabbitMQVersion;
 
   /**
@@ -96,10 +105,7 @@ public class RabbitMQHelper {
           IOException,
           CertificateException {
     RestTemplate restTemplate =
-        new RestTemplateBuilder()
-            .setConnectTimeout(Duration.ofSeconds(2))
-            .setReadTimeout(Duration.ofSeconds(2))
-            .build();
+        new RestTemplateBuilder().setConnectTimeout(TIMEOUT).setReadTimeout(TIMEOUT).build();
 
     if (rabbitmqConfig.isSsl() && rabbitmqConfig.isManagementInsecure()) {
       HttpComponentsClientHttpRequestFactory requestFactoryHttp =
@@ -118,6 +124,7 @@ public class RabbitMQHelper {
 
       BasicHttpClientConnectionManager connectionManager =
           new BasicHttpClientConnectionManager(socketFactoryRegistry);
+      connectionManager.setConnectionConfig(CONNECTION_CONFIG);
       CloseableHttpClient httpClient =
           HttpClients.custom().setConnectionManager(connectionManager).build();
       requestFactoryHttp.setHttpClient(httpClient);
@@ -133,6 +140,7 @@ public class RabbitMQHelper {
       HttpClientConnectionManager cm =
           PoolingHttpClientConnectionManagerBuilder.create()
               .setSSLSocketFactory(sslConFactory)
+              .setDefaultConnectionConfig(CONNECTION_CONFIG)
               .build();
       CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(cm).build();
       ClientHttpRequestFactory requestFactory =
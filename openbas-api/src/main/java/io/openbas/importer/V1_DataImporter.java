@@ -31,24 +31,32 @@ import io.openbas.telemetry.metric_collectors.ActionMetricCollector;
 import io.openbas.utils.Constants;
 import jakarta.activation.MimetypesFileTypeMap;
 import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.*;
-import java.util.function.Supplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class V1_DataImporter implements Importer {
 
+  private static final int IMPORT_BATCH_SIZE = 250;
+
   // region variables
   @Resource protected ObjectMapper mapper;
   private final FileService documentService;
@@ -72,9 +80,9 @@ public class V1_DataImporter implements Importer {
   private final LessonsCategoryRepository lessonsCategoryRepository;
   private final LessonsQuestionRepository lessonsQuestionRepository;
   private final VariableRepository variableRepository;
-  private final InjectDependenciesRepository injectDependenciesRepository;
   private final PayloadCreationService payloadCreationService;
   @Autowired private CollectorRepository collectorRepository;
+  @PersistenceContext private EntityManager entityManager;
 
   // endregion
 
@@ -181,23 +189,16 @@ public class V1_DataImporter implements Importer {
   // -- TAGS --
 
   private void importTags(JsonNode importNode, String prefix, Map<String, Base> baseIds) {
-    resolveJsonElements(importNode, prefix + "tags")
-        .forEach(
-            nodeTag -> {
-              String id = nodeTag.get("tag_id").textValue();
-              if (baseIds.get(id) != null) {
-                // Already import
-                return;
-              }
-              String name = nodeTag.get("tag_name").textValue();
-
-              List<Tag> existingTags = this.tagRepository.findByNameIgnoreCase(name);
-              if (!existingTags.isEmpty()) {
-                baseIds.put(id, existingTags.getFirst());
-              } else {
-                baseIds.put(id, this.tagRepository.save(createTag(nodeTag)));
-              }
-            });
+    baseIds.putAll(
+        resolveByNaturalKey(
+            resolveJsonElements(importNode, prefix + "tags"),
+            "tag_id",
+            "tag_name",
+            baseIds,
+            this.tagRepository::findAllByNameInIgnoreCase,
+            Tag::getName,
+            this::createTag,
+            this.tagRepository::saveAll));
   }
 
   private Tag createTag(JsonNode jsonNode) {
@@ -467,12 +468,12 @@ public class V1_DataImporter implements Importer {
       Scenario savedScenario,
       String contentType,
       Map<String, Base> baseIds) {
-    try {
-      this.documentService.uploadFile(
-          target, entry.getData(), entry.getContentLength(), contentType);
+    try (InputStream data = entry.getData()) {
+      this.documentService.uploadFile(target, data, entry.getContentLength(), contentType);
     } catch (Exception e) {
       throw new ImportException(e);
     }
+    deleteFileOnRollback(target);
 
     Document document = new Document();
     document.setTarget(target);
@@ -494,31 +495,39 @@ public class V1_DataImporter implements Importer {
     baseIds.put(nodeDoc.get("document_id").textValue(), savedDocument);
   }
 
-  // -- ORGANIZATION --
-
-  private void importOrganizations(JsonNode importNode, String prefix, Map<String, Base> baseIds) {
-    resolveJsonElements(importNode, prefix + "organizations")
-        .forEach(
-            nodeOrganization -> {
-              String id = nodeOrganization.get("organization_id").textValue();
-              if (baseIds.get(id) != null) {
-                // Already import
-                return;
+  /** Uploaded files are not transactional, remove them if the import they belong to fails */
+  private void deleteFileOnRollback(String target) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+              try {
+                documentService.deleteFile(target);
+              } catch (Exception e) {
+                log.warn("Cannot delete file {} of a failed import", target, e);
               }
-              String name = nodeOrganization.get("organization_name").textValue();
+            }
+          }
+        });
+  }
 
-              List<Organization> existingOrganizations =
-                  this.organizationRepository.findByNameIgnoreCase(name);
+  // -- ORGANIZATION --
 
-              if (!existingOrganizations.isEmpty()) {
-                baseIds.put(id, existingOrganizations.getFirst());
-              } else {
-                baseIds.put(
-                    id,
-                    this.organizationRepository.save(
-                        createOrganization(nodeOrganization, baseIds)));
-              }
-            });
+  private void importOrganizations(JsonNode importNode, String prefix, Map<String, Base> baseIds) {
+    baseIds.putAll(
+        resolveByNaturalKey(
+            resolveJsonElements(importNode, prefix + "organizations"),
+            "organization_id",
+            "organization_name",
+            baseIds,
+            this.organizationRepository::findAllByNameInIgnoreCase,
+            Organization::getName,
+            nodeOrganization -> createOrganization(nodeOrganization, baseIds),
+            this.organizationRepository::saveAll));
   }
 
   private Organization createOrganization(JsonNode importNode, Map<String, Base> baseIds) {
@@ -536,23 +545,16 @@ public class V1_DataImporter implements Importer {
   // -- USERS --
 
   private void importUsers(JsonNode importNode, String prefix, Map<String, Base> baseIds) {
-    resolveJsonElements(importNode, prefix + "users")
-        .forEach(
-            nodeUser -> {
-              String id = nodeUser.get("user_id").textValue();
-              if (baseIds.get(id) != null) {
-                // Already import
-                return;
-              }
-              String email = nodeUser.get("user_email").textValue();
-
-              User existingUser = this.userRepository.findByEmailIgnoreCase(email).orElse(null);
-
-              baseIds.put(
-                  id,
-                  Objects.requireNonNullElseGet(
-                      existingUser, () -> this.userRepository.save(createUser(nodeUser, baseIds))));
-            });
+    baseIds.putAll(
+        resolveByNaturalKey(
+            resolveJsonElements(importNode, prefix + "users"),
+            "user_id",
+            "user_email",
+            baseIds,
+            this.userRepository::findAllByEmailInIgnoreCase,
+            User::getEmail,
+            nodeUser -> createUser(nodeUser, baseIds),
+            this.userRepository::saveAll));
   }
 
   private User createUser(JsonNode jsonNode, Map<String, Base> baseIds) {
@@ -610,57 +612,47 @@ public class V1_DataImporter implements Importer {
       Map<String, Base> baseIds,
       Exercise savedExercise,
       Scenario savedScenario) {
-    Map<String, Team> baseTeams = new HashMap<>();
-
-    resolveJsonElements(importNode, prefix + "teams")
-        .forEach(
-            nodeTeam -> {
-              String id = nodeTeam.get("team_id").textValue();
-              if (baseIds.get(id) != null) {
-                // Already import
-                return;
-              }
-              String name = nodeTeam.get("team_name").textValue();
-
-              // Prevent duplication of team, based on the team name and not contextual
-              List<Team> existingTeams =
-                  this.teamRepository.findByNameIgnoreCaseAndNotContextual(name);
+    // Prevent duplication of team, based on the team name and not contextual
+    return resolveByNaturalKey(
+        resolveJsonElements(importNode, prefix + "teams"),
+        "team_id",
+        "team_name",
+        baseIds,
+        this.teamRepository::findAllByLowerNameInAndNotContextual,
+        Team::getName,
+        nodeTeam -> {
+          // skip creating contextual team if atomic testing
+          if (nodeTeam.has("team_contextual")) {
+            boolean isContextual = nodeTeam.get("team_contextual").booleanValue();
+            if (isContextual && savedExercise == null && savedScenario == null) {
+              return null;
+            }
+          }
 
-              if (!existingTeams.isEmpty()) {
-                baseTeams.put(id, existingTeams.getFirst());
-              } else {
-                // skip creating contextual team if atomic testing
-                if (nodeTeam.has("team_contextual")) {
-                  boolean isContextual = nodeTeam.get("team_contextual").booleanValue();
-                  if (isContextual && savedExercise == null && savedScenario == null) {
-                    return;
-                  }
-                }
-
-                Team team = createTeam(nodeTeam, baseIds);
-                // Tags
-                List<String> teamTagIds = resolveJsonIds(nodeTeam, "team_tags");
-                Set<Tag> tagsForTeam =
-                    teamTagIds.stream()
-                        .map(baseIds::get)
-                        .filter(Objects::nonNull)
-                        .map(Tag.class::cast)
-                        .collect(Collectors.toSet());
-                team.setTags(tagsForTeam);
-                // Users
-                List<String> teamUserIds = resolveJsonIds(nodeTeam, "team_users");
-                List<User> usersForTeam =
-                    teamUserIds.stream()
-                        .map(baseIds::get)
-                        .filter(Objects::nonNull)
-                        .map(User.class::cast)
-                        .toList();
-                team.setUsers(usersForTeam);
-                Team savedTeam = this.teamRepository.save(team);
-                baseTeams.put(id, savedTeam);
-              }
-            });
-    return baseTeams;
+          Team team = createTeam(nodeTeam, baseIds);
+          // Tags
+          List<String> teamTagIds = resolveJsonIds(nodeTeam, "team_tags");
+          Set<Tag> tagsForTeam =
+              teamTagIds.stream()
+                  .map(baseIds::get)
+                  .filter(Objects::nonNull)
+                  .map(Tag.class::cast)
+                  .collect(Collectors.toSet());
+          team.setTags(tagsForTeam);
+          // Users
+          List<String> teamUserIds = resolveJsonIds(nodeTeam, "team_users");
+          List<User> usersForTeam =
+              teamUserIds.stream()
+                  .map(baseIds::get)
+                  .filter(Objects::nonNull)
+                  .map(User.class::cast)
+                  .toList();
+          team.setUsers(usersForTeam);
+          return team;
+        },
+        this.teamRepository::saveAll,
+        // Contextual teams belong to their simulation or scenario, one per imported team
+        team -> !Boolean.TRUE.equals(team.getContextual()));
   }
 
   private Team createTeam(JsonNode jsonNode, Map<String, Base> baseIds) {
@@ -682,25 +674,16 @@ public class V1_DataImporter implements Importer {
   // -- CHALLENGES --
 
   private void importChallenges(JsonNode importNode, String prefix, Map<String, Base> baseIds) {
-    resolveJsonElements(importNode, prefix + "challenges")
-        .forEach(
-            nodeChallenge -> {
-              String id = nodeChallenge.get("challenge_id").textValue();
-              if (baseIds.get(id) != null) {
-                // Already import
-                return;
-              }
-              String name = nodeChallenge.get("challenge_name").textValue();
-
-              List<Challenge> existingChallenges =
-                  this.challengeRepository.findByNameIgnoreCase(name);
-              if (!existingChallenges.isEmpty()) {
-                baseIds.put(id, existingChallenges.getFirst());
-              } else {
-                baseIds.put(
-                    id, this.challengeRepository.save(createChallenge(nodeChallenge, baseIds)));
-              }
-            });
+    baseIds.putAll(
+        resolveByNaturalKey(
+            resolveJsonElements(importNode, prefix + "challenges"),
+            "challenge_id",
+            "challenge_name",
+            baseIds,
+            this.challengeRepository::findAllByNameInIgnoreCase,
+            Challenge::getName,
+            nodeChallenge -> createChallenge(nodeChallenge, baseIds),
+            this.challengeRepository::saveAll));
   }
 
   private Challenge createChallenge(JsonNode nodeChallenge, Map<String, Base> baseIds) {
@@ -739,24 +722,16 @@ public class V1_DataImporter implements Importer {
   // -- CHANNELS --
 
   private void importChannels(JsonNode importNode, String prefix, Map<String, Base> baseIds) {
-    resolveJsonElements(importNode, prefix + "channels")
-        .forEach(
-            nodeChannel -> {
-              String id = nodeChannel.get("channel_id").textValue();
-              if (baseIds.get(id) != null) {
-                // Already import
-                return;
-              }
-              String channelName = nodeChannel.get("channel_name").textValue();
-
-              List<Channel> existingChannels =
-                  this.channelRepository.findByNameIgnoreCase(channelName);
-              if (!existingChannels.isEmpty()) {
-                baseIds.put(id, existingChannels.getFirst());
-              } else {
-                baseIds.put(id, this.channelRepository.save(createChannel(nodeChannel, baseIds)));
-              }
-            });
+    baseIds.putAll(
+        resolveByNaturalKey(
+            resolveJsonElements(importNode, prefix + "channels"),
+            "channel_id",
+            "channel_name",
+            baseIds,
+            this.channelRepository::findAllByNameInIgnoreCase,
+            Channel::getName,
+            nodeChannel -> createChannel(nodeChannel, baseIds),
+            this.channelRepository::saveAll));
   }
 
   private Channel createChannel(JsonNode nodeChannel, Map<String, Base> baseIds) {
@@ -924,249 +899,254 @@ public class V1_DataImporter implements Importer {
       Exercise savedExercise,
       Scenario savedScenario,
       Map<String, Base> baseIds) {
-    Supplier<Stream<JsonNode>> injectsStream =
-        () ->
-            importNode.has(prefix + "injects")
-                ? resolveJsonElements(importNode, prefix + "injects")
-                : Objects.equals(prefix, "inject_")
-                    ? resolveJsonElements(importNode, prefix + "information")
-                    : Stream.of();
-
-    // Getting a list of all the children of the dependency
-    List<String> children =
-        injectsStream
-            .get()
-            .flatMap(
-                jsonNode -> {
-                  // List of dependencies of the inject
-                  List<JsonNode> dependsOn =
-                      StreamSupport.stream(jsonNode.get("inject_depends_on").spliterator(), false)
-                          .toList();
-
-                  // We return a stream containing all the children of the dependencies of the
-                  // inject
-                  return dependsOn.stream()
-                      .map(
-                          dependency ->
-                              dependency
-                                  .get("dependency_relationship")
-                                  .get("inject_children_id")
-                                  .asText());
-                })
-            .toList();
+    Stream<JsonNode> injectsStream =
+        importNode.has(prefix + "injects")
+            ? resolveJsonElements(importNode, prefix + "injects")
+            : Objects.equals(prefix, "inject_")
+                ? resolveJsonElements(importNode, prefix + "information")
+                : Stream.of();
+    List<JsonNode> injects = sortInjectsByDependencies(injectsStream.toList());
+
+    // Resolve every referenced injector contract at once
+    Set<String> contractIds =
+        injects.stream()
+            .map(injectNode -> injectNode.get("inject_injector_contract"))
+            .filter(contractNode -> contractNode != null && !contractNode.isNull())
+            .map(contractNode -> contractNode.get("injector_contract_id").textValue())
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    Set<String> existingContractIds = new HashSet<>();
+    this.injectorContractRepository
+        .findAllById(contractIds)
+        .forEach(contract -> existingContractIds.add(contract.getId()));
+
+    ImportedInjects importedInjects = new ImportedInjects();
+    List<InjectDependency> dependencies = new ArrayList<>();
+    injects.forEach(
+        injectNode ->
+            importInject(injectNode, existingContractIds, baseIds, importedInjects, dependencies));
+    if (importedInjects.ids.isEmpty()) {
+      return;
+    }
 
-    // Getting a list of all the injects that have no parents
-    Stream<JsonNode> injectsNoParent =
-        injectsStream
-            .get()
-            .filter(jsonNode -> !children.contains(jsonNode.get("inject_id").asText()));
+    // Injects and their links are inserted natively with one statement each
+    this.injectRepository.importSaveAll(
+        toArray(importedInjects.ids),
+        toArray(importedInjects.titles),
+        toArray(importedInjects.descriptions),
+        toArray(importedInjects.countries),
+        toArray(importedInjects.cities),
+        toArray(importedInjects.contracts),
+        toArray(importedInjects.allTeams),
+        toArray(importedInjects.enabled),
+        savedExercise != null ? savedExercise.getId() : null,
+        savedExercise == null && savedScenario != null ? savedScenario.getId() : null,
+        toArray(importedInjects.dependsDurations),
+        toArray(importedInjects.contents));
+    if (!importedInjects.tagInjectIds.isEmpty()) {
+      this.injectRepository.addAllTags(
+          toArray(importedInjects.tagInjectIds), toArray(importedInjects.tagIds));
+    }
+    if (!importedInjects.teamInjectIds.isEmpty()) {
+      this.injectRepository.addAllTeams(
+          toArray(importedInjects.teamInjectIds), toArray(importedInjects.teamIds));
+    }
+    if (!importedInjects.documentInjectIds.isEmpty()) {
+      this.injectDocumentRepository.addAllInjectDocs(
+          toArray(importedInjects.documentInjectIds),
+          toArray(importedInjects.documentIds),
+          toArray(importedInjects.documentsAttached));
+    }
+    // Dependencies only reference the injects inserted natively
+    dependencies.forEach(this.entityManager::persist);
+  }
 
-    importInjects(
-        baseIds,
-        savedExercise,
-        savedScenario,
-        injectsNoParent.toList(),
-        injectsStream.get().toList());
+  private static String[] toArray(List<String> values) {
+    return values.toArray(String[]::new);
   }
 
-  private void importInjects(
-      Map<String, Base> baseIds,
-      Exercise exercise,
-      Scenario scenario,
-      List<JsonNode> injectsToAdd,
-      List<JsonNode> allInjects) {
-    List<String> originalIds = new ArrayList<>();
-    injectsToAdd.forEach(
-        injectNode -> {
-          String injectId = UUID.randomUUID().toString();
-          String id = injectNode.get("inject_id").textValue();
-          String title = injectNode.get("inject_title").textValue();
-          String description = injectNode.get("inject_description").textValue();
-          String country = injectNode.get("inject_country").textValue();
-          String city = injectNode.get("inject_city").textValue();
-          boolean enabled =
-              ofNullable(injectNode.get("inject_enabled")).map(JsonNode::booleanValue).orElse(true);
-          String injectorContractIdFromNode = null;
-          JsonNode injectContractNode = injectNode.get("inject_injector_contract");
-          if (injectContractNode != null && !injectContractNode.isNull()) {
-            injectorContractIdFromNode = injectContractNode.get("injector_contract_id").textValue();
-          }
+  /**
+   * Order injects so that each one comes after all its parents, with a single topological sort.
+   * Dependencies on injects absent from the import are ignored and injects in a dependency cycle
+   * are not imported.
+   */
+  private List<JsonNode> sortInjectsByDependencies(List<JsonNode> injects) {
+    Map<String, JsonNode> injectsById = new LinkedHashMap<>();
+    injects.forEach(
+        injectNode -> injectsById.put(injectNode.get("inject_id").asText(), injectNode));
+
+    Map<String, Integer> parentCounts = new HashMap<>();
+    Map<String, List<String>> childrenByParent = new HashMap<>();
+    Set<Map.Entry<String, String>> relationships = new HashSet<>();
+    injectsById.keySet().forEach(id -> parentCounts.put(id, 0));
+    for (JsonNode injectNode : injectsById.values()) {
+      for (JsonNode dependsOnNode : injectNode.path("inject_depends_on")) {
+        JsonNode relationship = dependsOnNode.get("dependency_relationship");
+        String parentId = relationship.get("inject_parent_id").asText();
+        String childId = relationship.get("inject_children_id").asText();
+        if (injectsById.containsKey(parentId)
+            && injectsById.containsKey(childId)
+            && relationships.add(Map.entry(parentId, childId))) {
+          childrenByParent.computeIfAbsent(parentId, k -> new ArrayList<>()).add(childId);
+          parentCounts.merge(childId, 1, Integer::sum);
+        }
+      }
+    }
 
-          // Check If inject contract exists
-          if (injectorContractIdFromNode == null) {
-            log.warn("Import Inject Failed: Missing injector contract ID on inject: {}", injectId);
-            return;
+    Deque<String> ready = new ArrayDeque<>();
+    parentCounts.forEach(
+        (id, count) -> {
+          if (count == 0) {
+            ready.add(id);
           }
-          Optional<InjectorContract> injectorContract =
-              this.injectorContractRepository.findById(injectorContractIdFromNode);
-
-          String injectorContractId = null;
-
-          // If not, rely on payload
-          if (injectorContract.isEmpty()) {
-            JsonNode payloadNode = injectContractNode.get("injector_contract_payload");
-            if (!payloadNode.isNull() && !payloadNode.isEmpty()) {
-              String externalId = payloadNode.get("payload_external_id").textValue();
-              // Rely on external collector
-              if (hasText(externalId)) {
-                Optional<InjectorContract> injectorContractFromPayload =
-                    this.injectorContractRepository.findOne(byPayloadExternalId(externalId));
-                if (injectorContractFromPayload.isPresent()) {
-                  injectorContractId = injectorContractFromPayload.get().getId();
-                  // Create new payload
-                } else {
-                  log.info(
-                      "Inject comes from a collector not set up in your environment, a new payload has been created.");
-                  injectorContractId = importPayload(payloadNode, baseIds);
-                }
-                // Create new payload
-              } else {
-                injectorContractId = importPayload(payloadNode, baseIds);
-              }
-            }
+        });
+    List<JsonNode> sorted = new ArrayList<>(injectsById.size());
+    while (!ready.isEmpty()) {
+      String id = ready.poll();
+      sorted.add(injectsById.get(id));
+      for (String childId : childrenByParent.getOrDefault(id, List.of())) {
+        if (parentCounts.merge(childId, -1, Integer::sum) == 0) {
+          ready.add(childId);
+        }
+      }
+    }
+    if (sorted.size() < injectsById.size()) {
+      log.warn(
+          "Import Inject Failed: {} injects are part of a dependency cycle",
+          injectsById.size() - sorted.size());
+    }
+    return sorted;
+  }
+
+  private void importInject(
+      JsonNode injectNode,
+      Set<String> existingContractIds,
+      Map<String, Base> baseIds,
+      ImportedInjects importedInjects,
+      List<InjectDependency> dependencies) {
+    String injectId = UUID.randomUUID().toString();
+    String id = injectNode.get("inject_id").textValue();
+    String title = injectNode.get("inject_title").textValue();
+    String description = injectNode.get("inject_description").textValue();
+    String country = injectNode.get("inject_country").textValue();
+    String city = injectNode.get("inject_city").textValue();
+    boolean enabled =
+        ofNullable(injectNode.get("inject_enabled")).map(JsonNode::booleanValue).orElse(true);
+    String injectorContractIdFromNode = null;
+    JsonNode injectContractNode = injectNode.get("inject_injector_contract");
+    if (injectContractNode != null && !injectContractNode.isNull()) {
+      injectorContractIdFromNode = injectContractNode.get("injector_contract_id").textValue();
+    }
+
+    // Check If inject contract exists
+    if (injectorContractIdFromNode == null) {
+      log.warn("Import Inject Failed: Missing injector contract ID on inject: {}", injectId);
+      return;
+    }
+
+    String injectorContractId = null;
+
+    // If not, rely on payload
+    if (!existingContractIds.contains(injectorContractIdFromNode)) {
+      JsonNode payloadNode = injectContractNode.get("injector_contract_payload");
+      if (!payloadNode.isNull() && !payloadNode.isEmpty()) {
+        String externalId = payloadNode.get("payload_external_id").textValue();
+        // Rely on external collector
+        if (hasText(externalId)) {
+          Optional<InjectorContract> injectorContractFromPayload =
+              this.injectorContractRepository.findOne(byPayloadExternalId(externalId));
+          if (injectorContractFromPayload.isPresent()) {
+            injectorContractId = injectorContractFromPayload.get().getId();
+            // Create new payload
           } else {
-            injectorContractId = injectorContract.get().getId();
+            log.info(
+                "Inject comes from a collector not set up in your environment, a new payload has been created.");
+            injectorContractId = importPayload(payloadNode, baseIds);
           }
+          // Create new payload
+        } else {
+          injectorContractId = importPayload(payloadNode, baseIds);
+        }
+      }
+    } else {
+      injectorContractId = injectorContractIdFromNode;
+    }
 
-          if (injectorContractId == null) {
-            log.warn(
-                "Import Inject Failed: Unresolved injector contract ID on inject: {}", injectId);
-            return;
-          }
+    if (injectorContractId == null) {
+      log.warn("Import Inject Failed: Unresolved injector contract ID on inject: {}", injectId);
+      return;
+    }
 
-          // If contract is not know, inject can't be imported
-          String content = handleInjectContent(baseIds, injectorContractId, injectNode);
-          Long dependsDuration = injectNode.get("inject_depends_duration").asLong();
-          boolean allTeams = injectNode.get("inject_all_teams").booleanValue();
-          if (exercise != null) {
-            injectRepository.importSaveForExercise(
-                injectId,
-                title,
-                description,
-                country,
-                city,
-                injectorContractId,
-                allTeams,
-                enabled,
-                exercise.getId(),
-                dependsDuration,
-                content);
-          } else if (scenario != null) {
-            injectRepository.importSaveForScenario(
-                injectId,
-                title,
-                description,
-                country,
-                city,
-                injectorContractId,
-                allTeams,
-                enabled,
-                scenario.getId(),
-                dependsDuration,
-                content);
+    // If contract is not know, inject can't be imported
+    String content = handleInjectContent(baseIds, injectorContractId, injectNode);
+    Long dependsDuration = injectNode.get("inject_depends_duration").asLong();
+    boolean allTeams = injectNode.get("inject_all_teams").booleanValue();
+    importedInjects.ids.add(injectId);
+    importedInjects.titles.add(title);
+    importedInjects.descriptions.add(description);
+    importedInjects.countries.add(country);
+    importedInjects.cities.add(city);
+    importedInjects.contracts.add(injectorContractId);
+    importedInjects.allTeams.add(String.valueOf(allTeams));
+    importedInjects.enabled.add(String.valueOf(enabled));
+    importedInjects.dependsDurations.add(String.valueOf(dependsDuration));
+    importedInjects.contents.add(content);
+    baseIds.put(id, new BaseHolder(injectId));
+
+    // Parents are imported first, dependencies where the inject is the children can be created
+    for (JsonNode dependsOnNode : injectNode.path("inject_depends_on")) {
+      if (id.equals(
+          dependsOnNode.get("dependency_relationship").get("inject_children_id").asText())) {
+        InjectDependencyInput dependency =
+            mapper.convertValue(dependsOnNode, InjectDependencyInput.class);
+        Base injectParent = baseIds.get(dependency.getRelationship().getInjectParentId());
+        if (injectParent instanceof BaseHolder) {
+          InjectDependency injectDependency = new InjectDependency();
+          injectDependency
+              .getCompositeId()
+              .setInjectParent(this.entityManager.getReference(Inject.class, injectParent.getId()));
+          injectDependency
+              .getCompositeId()
+              .setInjectChildren(this.entityManager.getReference(Inject.class, injectId));
+          injectDependency.setInjectDependencyCondition(dependency.getConditions());
+          dependencies.add(injectDependency);
+        }
+      }
+    }
+    // Tags
+    for (String tagId : resolveBaseIds(resolveJsonIds(injectNode, "inject_tags"), baseIds)) {
+      importedInjects.tagInjectIds.add(injectId);
+      importedInjects.tagIds.add(tagId);
+    }
+    // Teams
+    for (String teamId : resolveBaseIds(resolveJsonIds(injectNode, "inject_teams"), baseIds)) {
+      importedInjects.teamInjectIds.add(injectId);
+      importedInjects.teamIds.add(teamId);
+    }
+    // Documents
+    List<JsonNode> injectDocuments = resolveJsonElements(injectNode, "inject_documents").toList();
+    injectDocuments.forEach(
+        jsonNode -> {
+          String docId = jsonNode.get("document_id").textValue();
+          if (hasText(docId)) {
+            String documentId = baseIds.get(docId).getId();
+            boolean docAttached = jsonNode.get("document_attached").booleanValue();
+            importedInjects.documentInjectIds.add(injectId);
+            importedInjects.documentIds.add(documentId);
+            importedInjects.documentsAttached.add(String.valueOf(docAttached));
           } else {
-            injectRepository.importSaveStandAlone(
-                injectId,
-                title,
-                description,
-                country,
-                city,
-                injectorContractId,
-                allTeams,
-                enabled,
-                dependsDuration,
-                content);
-          }
-          baseIds.put(id, new BaseHolder(injectId));
-          originalIds.add(id);
-
-          // Once the inject has been saved, we deal with the dependencies
-          ArrayNode injectDependsOn = (ArrayNode) injectNode.get("inject_depends_on");
-          for (JsonNode dependsOnNode : injectDependsOn) {
-            // If there are dependencies where the added inject is the children, we add it to the
-            // database
-            if (id.equals(
-                dependsOnNode.get("dependency_relationship").get("inject_children_id").asText())) {
-              InjectDependencyInput dependency =
-                  mapper.convertValue(dependsOnNode, InjectDependencyInput.class);
-
-              Optional<Inject> injectParent =
-                  injectRepository.findById(
-                      baseIds.get(dependency.getRelationship().getInjectParentId()).getId());
-              Optional<Inject> injectChildren =
-                  injectRepository.findById(
-                      baseIds.get(dependency.getRelationship().getInjectChildrenId()).getId());
-
-              if (injectParent.isPresent() && injectChildren.isPresent()) {
-                InjectDependency injectDependency = new InjectDependency();
-                injectDependency.getCompositeId().setInjectParent(injectParent.get());
-                injectDependency.getCompositeId().setInjectChildren(injectChildren.get());
-                injectDependency.setInjectDependencyCondition(dependency.getConditions());
-                injectDependenciesRepository.save(injectDependency);
-              }
-            }
+            log.warn("Missing document in the exercise_documents property");
           }
-          // Tags
-          List<String> injectTagIds = resolveJsonIds(injectNode, "inject_tags");
-          injectTagIds.forEach(
-              tagId -> {
-                Base base = baseIds.get(tagId);
-                if (base == null || base.getId() == null) {
-                  return;
-                }
-                injectRepository.addTag(injectId, base.getId());
-              });
-          // Teams
-          List<String> injectTeamIds = resolveJsonIds(injectNode, "inject_teams");
-          injectTeamIds.forEach(
-              teamId -> {
-                Base base = baseIds.get(teamId);
-                if (base == null || base.getId() == null) {
-                  return;
-                }
-                injectRepository.addTeam(injectId, base.getId());
-              });
-          // Documents
-          List<JsonNode> injectDocuments =
-              resolveJsonElements(injectNode, "inject_documents").toList();
-          injectDocuments.forEach(
-              jsonNode -> {
-                String docId = jsonNode.get("document_id").textValue();
-                if (hasText(docId)) {
-                  String documentId = baseIds.get(docId).getId();
-                  boolean docAttached = jsonNode.get("document_attached").booleanValue();
-                  injectDocumentRepository.addInjectDoc(injectId, documentId, docAttached);
-                } else {
-                  log.warn("Missing document in the exercise_documents property");
-                }
-              });
         });
-    // Looking for children of created injects
-    List<JsonNode> childInjects =
-        allInjects.stream()
-            .filter(
-                jsonNode -> {
-                  ArrayNode injectDependsOn = (ArrayNode) jsonNode.get("inject_depends_on");
-
-                  // We're getting the parents of this inject
-                  List<String> parents =
-                      StreamSupport.stream(injectDependsOn.spliterator(), false)
-                          .map(
-                              dependency ->
-                                  dependency
-                                      .get("dependency_relationship")
-                                      .get("inject_parent_id")
-                                      .asText())
-                          .toList();
-
-                  // If the parents have been created in this pass, we need to take care of the
-                  // children now
-                  return originalIds.stream().anyMatch(parents::contains);
-                })
-            .toList();
-    if (!childInjects.isEmpty()) {
-      importInjects(baseIds, exercise, scenario, childInjects, allInjects);
-    }
+  }
+
+  private static String[] resolveBaseIds(List<String> importIds, Map<String, Base> baseIds) {
+    return importIds.stream()
+        .map(baseIds::get)
+        .filter(base -> base != null && base.getId() != null)
+        .map(Base::getId)
+        .distinct()
+        .toArray(String[]::new);
   }
 
   public static ContractOutputType formatStringToContractOutputType(String value) {
@@ -1392,10 +1372,134 @@ public class V1_DataImporter implements Importer {
                 }));
   }
 
+  /**
+   * Resolve the elements not imported yet to the existing entities sharing their natural key, with
+   * one lookup, and create the missing ones in one batch. Elements sharing a natural key resolve to
+   * the same entity, elements for which the creator returns null are skipped.
+   *
+   * @return the resolved entities by import id
+   */
+  private <T extends Base> Map<String, T> resolveByNaturalKey(
+      Stream<JsonNode> nodes,
+      String idField,
+      String keyField,
+      Map<String, Base> baseIds,
+      Function<List<String>, List<T>> findExisting,
+      Function<T, String> naturalKey,
+      Function<JsonNode, T> creator,
+      Function<List<T>, Iterable<T>> saveAll) {
+    return resolveByNaturalKey(
+        nodes, idField, keyField, baseIds, findExisting, naturalKey, creator, saveAll, e -> true);
+  }
+
+  /**
+   * Same as {@link #resolveByNaturalKey(Stream, String, String, Map, Function, Function, Function,
+   * Function)}, created entities being reused by the next elements sharing their natural key only
+   * when shared
+   */
+  private <T extends Base> Map<String, T> resolveByNaturalKey(
+      Stream<JsonNode> nodes,
+      String idField,
+      String keyField,
+      Map<String, Base> baseIds,
+      Function<List<String>, List<T>> findExisting,
+      Function<T, String> naturalKey,
+      Function<JsonNode, T> creator,
+      Function<List<T>, Iterable<T>> saveAll,
+      Predicate<T> shared) {
+    Map<String, JsonNode> nodesById = new LinkedHashMap<>();
+    nodes.forEach(
+        node -> {
+          String id = node.get(idField).textValue();
+          if (baseIds.get(id) == null) {
+            // Not imported yet
+            nodesById.putIfAbsent(id, node);
+          }
+        });
+    if (nodesById.isEmpty()) {
+      return Map.of();
+    }
+
+    List<String> keys =
+        nodesById.values().stream()
+            .map(node -> lowerKey(node.get(keyField)))
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+    Map<String, T> entitiesByKey = new HashMap<>();
+    if (!keys.isEmpty()) {
+      findExisting
+          .apply(keys)
+          .forEach(entity -> entitiesByKey.putIfAbsent(lower(naturalKey.apply(entity)), entity));
+    }
+
+    Map<String, T> resolved = new LinkedHashMap<>();
+    List<T> entitiesToCreate = new ArrayList<>();
+    nodesById.forEach(
+        (id, node) -> {
+          String key = lowerKey(node.get(keyField));
+          T entity = key != null ? entitiesByKey.get(key) : null;
+          if (entity == null) {
+            entity = creator.apply(node);
+            if (entity == null) {
+              return;
+            }
+            entitiesToCreate.add(entity);
+            if (key != null && shared.test(entity)) {
+              entitiesByKey.put(key, entity);
+            }
+          }
+          resolved.put(id, entity);
+        });
+    if (!entitiesToCreate.isEmpty()) {
+      // JDBC batching only for the inserts of the created entities
+      Session session = this.entityManager.unwrap(Session.class);
+      Integer jdbcBatchSize = session.getJdbcBatchSize();
+      session.setJdbcBatchSize(IMPORT_BATCH_SIZE);
+      try {
+        saveAll.apply(entitiesToCreate);
+        this.entityManager.flush();
+      } finally {
+        session.setJdbcBatchSize(jdbcBatchSize);
+      }
+    }
+    return resolved;
+  }
+
+  private static String lowerKey(JsonNode keyNode) {
+    return keyNode == null ? null : lower(keyNode.textValue());
+  }
+
+  private static String lower(String value) {
+    return value == null ? null : value.toLowerCase();
+  }
+
   private String getNodeValue(JsonNode importNode) {
     return ofNullable(importNode).map(JsonNode::textValue).orElse(null);
   }
 
+  /** Columns of the imported injects and of their links, one entry per row to insert */
+  private static class ImportedInjects {
+
+    private final List<String> ids = new ArrayList<>();
+    private final List<String> titles = new ArrayList<>();
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<String> countries = new ArrayList<>();
+    private final List<String> cities = new ArrayList<>();
+    private final List<String> contracts = new ArrayList<>();
+    private final List<String> allTeams = new ArrayList<>();
+    private final List<String> enabled = new ArrayList<>();
+    private final List<String> dependsDurations = new ArrayList<>();
+    private final List<String> contents = new ArrayList<>();
+    private final List<String> tagInjectIds = new ArrayList<>();
+    private final List<String> tagIds = new ArrayList<>();
+    private final List<String> teamInjectIds = new ArrayList<>();
+    private final List<String> teamIds = new ArrayList<>();
+    private final List<String> documentInjectIds = new ArrayList<>();
+    private final List<String> documentIds = new ArrayList<>();
+    private final List<String> documentsAttached = new ArrayList<>();
+  }
+
   private static class BaseHolder implements Base {
 
     private String id;
@@ -0,0 +1,30 @@
+package io.openbas.injectors.caldera;
+
+import io.openbas.injectors.caldera.config.CalderaInjectorConfig;
+import io.openbas.injectors.caldera.service.CalderaAgentSnapshotService;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+@ConditionalOnProperty(prefix = "injector.caldera", name = "enable")
+@RequiredArgsConstructor
+@Service
+public class CalderaAgentSnapshotRefresher {
+
+  private final CalderaInjectorConfig config;
+  private final ThreadPoolTaskScheduler taskScheduler;
+  private final CalderaAgentSnapshotService calderaAgentSnapshotService;
+
+  @PostConstruct
+  public void init() {
+    // If enabled, scheduled every X seconds
+    if (this.config.isEnable()) {
+      this.taskScheduler.scheduleAtFixedRate(
+          this.calderaAgentSnapshotService::refreshIfNeeded,
+          Duration.ofSeconds(this.config.getAgentSnapshotRefreshInterval()));
+    }
+  }
+}
@@ -20,7 +20,10 @@ import io.openbas.executors.Injector;
 import io.openbas.injectors.caldera.client.model.Ability;
 import io.openbas.injectors.caldera.client.model.Agent;
 import io.openbas.injectors.caldera.client.model.ExploitResult;
+import io.openbas.injectors.caldera.config.CalderaInjectorConfig;
+import io.openbas.injectors.caldera.model.CalderaAgentSnapshot;
 import io.openbas.injectors.caldera.model.CalderaInjectContent;
+import io.openbas.injectors.caldera.service.CalderaAgentSnapshotService;
 import io.openbas.injectors.caldera.service.CalderaInjectorService;
 import io.openbas.model.ExecutionProcess;
 import io.openbas.model.Expectation;
@@ -32,13 +35,15 @@ import io.openbas.rest.inject.service.InjectService;
 import io.openbas.service.AgentService;
 import io.openbas.service.AssetGroupService;
 import io.openbas.service.InjectExpectationService;
-import io.openbas.utils.Time;
 import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,9 +54,10 @@ public class CalderaExecutor extends Injector {
 
   private static final String CALDERA_FAILED_TO_EXECUTE_THE_ABILITY_ON_AGENT =
       "Caldera failed to execute the ability on agent ";
-  private static final int RETRY_NUMBER = 20;
 
   private final CalderaInjectorService calderaService;
+  private final CalderaInjectorConfig calderaConfig;
+  private final ObjectProvider<CalderaAgentSnapshotService> calderaAgentSnapshotServiceProvider;
   private final AgentService agentService;
   private final AssetGroupService assetGroupService;
   private final InjectExpectationService injectExpectationService;
@@ -266,8 +272,16 @@ public class CalderaExecutor extends Injector {
     }
 
     List<AssetGroup> assetGroups = injection.getAssetGroups();
+    Map<String, List<Asset>> assetsByAssetGroup =
+        this.assetGroupService.assetsFromAssetGroups(
+            assetGroups.stream().map(AssetGroup::getId).toList());
     assetGroups.forEach(
-        (assetGroup -> computeExpectationsForAssetGroup(expectations, content, assetGroup)));
+        (assetGroup ->
+            computeExpectationsForAssetGroup(
+                expectations,
+                content,
+                assetGroup,
+                assetsByAssetGroup.getOrDefault(assetGroup.getId(), List.of()))));
 
     injectExpectationService.buildAndSaveInjectExpectations(injection, expectations);
     return new ExecutionProcess(true);
@@ -319,59 +333,50 @@ public class CalderaExecutor extends Injector {
           assetEndpoint.getType());
       return null;
     }
+    CalderaAgentSnapshotService calderaAgentSnapshotService =
+        this.calderaAgentSnapshotServiceProvider.getIfAvailable();
+    if (calderaAgentSnapshotService == null) {
+      log.error("Caldera failed to find an executor because the Caldera injector is disabled");
+      return null;
+    }
     log.info("Trying to find an available executor for {}", assetEndpoint.getName());
-    for (int i = 0; i < RETRY_NUMBER; i++) {
+    Instant deadline = now().plusSeconds(this.calderaConfig.getAgentDiscoveryTimeout());
+    CalderaAgentSnapshot snapshot = calderaAgentSnapshotService.freshSnapshot();
+    while (agentForExecution == null) {
       // Find an executor agent matching the assetEndpoint
-      log.info("Listing agentsCaldera...");
       List<Agent> agentsCaldera =
-          this.calderaService.agents().stream()
-              .filter(
-                  agentCaldera ->
-                      agentCaldera.getExe_name().contains("implant")
-                          && (now().toEpochMilli()
-                                  - Time.toInstant(agentCaldera.getCreated()).toEpochMilli())
-                              < io.openbas.helper.AgentHelper.ACTIVE_THRESHOLD
-                          && (agentCaldera.getHost().equalsIgnoreCase(assetEndpoint.getHostname())
-                              || agentCaldera
-                                  .getHost()
-                                  .split("\\.")[0]
-                                  .equalsIgnoreCase(assetEndpoint.getHostname().split("\\.")[0]))
-                          && Arrays.stream(assetEndpoint.getIps())
-                              .anyMatch(
-                                  s ->
-                                      Arrays.stream(agentCaldera.getHost_ip_addrs())
-                                          .toList()
-                                          .contains(s)))
-              .toList();
-      log.info("List return with {} agents", agentsCaldera.size());
-
-      if (!agentsCaldera.isEmpty()) {
-        for (Agent agentCaldera : agentsCaldera) {
-          // Check in the database if not exist
-          List<io.openbas.database.model.Agent> resolvedExistingAgent =
-              this.agentService.findByExternalReference(agentCaldera.getPaw());
-
-          if (resolvedExistingAgent.isEmpty()) {
-            log.info("Agent found and not present in the database, creating it...");
-            io.openbas.database.model.Agent newAgent = new io.openbas.database.model.Agent();
-            newAgent.setInject(inject);
-            newAgent.setParent(agent);
-            newAgent.setProcessName(agentCaldera.getExe_name());
-            newAgent.setExecutor(agent.getExecutor());
-            newAgent.setExternalReference(agentCaldera.getPaw());
-            newAgent.setPrivilege(io.openbas.database.model.Agent.PRIVILEGE.admin);
-            newAgent.setDeploymentMode(io.openbas.database.model.Agent.DEPLOYMENT_MODE.session);
-            newAgent.setExecutedByUser(agent.getExecutedByUser());
-            newAgent.setAsset(assetEndpoint);
-            agentForExecution = this.agentService.createOrUpdateAgent(newAgent);
-            break;
-          }
+          calderaAgentSnapshotService.implantsForEndpoint(snapshot, assetEndpoint);
+      log.info("Snapshot return with {} agents", agentsCaldera.size());
+
+      for (Agent agentCaldera : agentsCaldera) {
+        // Check in the database if not exist
+        List<io.openbas.database.model.Agent> resolvedExistingAgent =
+            this.agentService.findByExternalReference(agentCaldera.getPaw());
+
+        if (resolvedExistingAgent.isEmpty()) {
+          log.info("Agent found and not present in the database, creating it...");
+          io.openbas.database.model.Agent newAgent = new io.openbas.database.model.Agent();
+          newAgent.setInject(inject);
+          newAgent.setParent(agent);
+          newAgent.setProcessName(agentCaldera.getExe_name());
+          newAgent.setExecutor(agent.getExecutor());
+          newAgent.setExternalReference(agentCaldera.getPaw());
+          newAgent.setPrivilege(io.openbas.database.model.Agent.PRIVILEGE.admin);
+          newAgent.setDeploymentMode(io.openbas.database.model.Agent.DEPLOYMENT_MODE.session);
+          newAgent.setExecutedByUser(agent.getExecutedByUser());
+          newAgent.setAsset(assetEndpoint);
+          agentForExecution = this.agentService.createOrUpdateAgent(newAgent);
+          break;
         }
       }
-      if (agentForExecution != null) {
-        break;
+      if (agentForExecution == null) {
+        Duration remaining = Duration.between(now(), deadline);
+        if (remaining.isNegative() || remaining.isZero()) {
+          break;
+        }
+        // Wait for the snapshot to publish new agents instead of listing them again
+        snapshot = calderaAgentSnapshotService.awaitNewAgents(snapshot.getGeneration(), remaining);
       }
-      Thread.sleep(5000);
     }
     return agentForExecution;
   }
@@ -411,7 +416,8 @@ public class CalderaExecutor extends Injector {
   private void computeExpectationsForAssetGroup(
       @NotNull final List<Expectation> expectations,
       @NotNull final CalderaInjectContent content,
-      @NotNull final AssetGroup assetGroup) {
+      @NotNull final AssetGroup assetGroup,
+      @NotNull final List<Asset> assets) {
     if (!content.getExpectations().isEmpty()) {
       expectations.addAll(
           content.getExpectations().stream()
@@ -420,8 +426,6 @@ public class CalderaExecutor extends Injector {
                       switch (expectation.getType()) {
                         case PREVENTION -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   (asset) ->
@@ -447,8 +451,6 @@ public class CalderaExecutor extends Injector {
                         }
                         case DETECTION -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   (asset) ->
@@ -474,8 +476,6 @@ public class CalderaExecutor extends Injector {
                         }
                         case MANUAL -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   (asset) ->
@@ -6,6 +6,7 @@ import io.openbas.injectors.caldera.service.CalderaInjectorService;
 import io.openbas.injectors.caldera.service.CalderaResultCollectorService;
 import io.openbas.rest.inject.service.InjectStatusService;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -23,14 +24,24 @@ public class CalderaResultCollector {
   private final CalderaInjectorService calderaService;
   private final InjectStatusService injectStatusService;
 
+  private CalderaResultCollectorService service;
+
   @PostConstruct
   public void init() {
     // If enabled, scheduled every X seconds
     if (this.config.isEnable()) {
-      CalderaResultCollectorService service =
+      this.service =
           new CalderaResultCollectorService(
-              this.injectRepository, this.calderaService, this.injectStatusService);
-      this.taskScheduler.scheduleAtFixedRate(service, Duration.ofSeconds(60));
+              this.injectRepository, this.calderaService, this.injectStatusService, this.config);
+      this.taskScheduler.scheduleAtFixedRate(
+          this.service, Duration.ofSeconds(this.config.getResultCollectorInterval()));
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (this.service != null) {
+      this.service.shutdown();
     }
   }
 }
@@ -1,6 +1,7 @@
 package io.openbas.injectors.caldera.config;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -27,6 +28,23 @@ public class CalderaInjectorConfig {
 
   @Getter @NotBlank private String apiKey;
 
+  // In seconds
+  @Getter @NotNull private Integer agentSnapshotRefreshInterval = 5;
+
+  // In seconds, refresh interval used when nobody is waiting for a new agent
+  @Getter @NotNull private Integer agentSnapshotIdleRefreshInterval = 60;
+
+  // In seconds
+  @Getter @NotNull private Integer agentDiscoveryTimeout = 100;
+
+  // In seconds
+  @Getter @NotNull private Integer resultCollectorInterval = 15;
+
+  @Getter @NotNull private Integer resultCollectorConcurrency = 8;
+
+  // In seconds
+  @Getter @NotNull private Integer resultCollectorMaxBackoff = 240;
+
   public String getRestApiV1Url() {
     return url + REST_V1_URI;
   }
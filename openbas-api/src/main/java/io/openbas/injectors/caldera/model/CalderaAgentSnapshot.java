@@ -0,0 +1,72 @@
+package io.openbas.injectors.caldera.model;
+
+import io.openbas.injectors.caldera.client.model.Agent;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.*;
+import lombok.Getter;
+
+/**
+ * Immutable view of the Caldera agents listed at a given instant, indexed by paw and by short
+ * hostname. The generation is only incremented when the listing contains at least one paw that was
+ * not part of the previous snapshot.
+ */
+@Getter
+public class CalderaAgentSnapshot {
+
+  public static final CalderaAgentSnapshot EMPTY =
+      new CalderaAgentSnapshot(List.of(), 0, Instant.EPOCH);
+
+  private final Map<String, Agent> agentsByPaw;
+  private final Map<String, List<Agent>> agentsByHost;
+  private final long generation;
+  private final Instant refreshedAt;
+
+  private CalderaAgentSnapshot(
+      @NotNull final List<Agent> agents,
+      final long generation,
+      @NotNull final Instant refreshedAt) {
+    Map<String, Agent> byPaw = new HashMap<>();
+    Map<String, List<Agent>> byHost = new HashMap<>();
+    for (Agent agent : agents) {
+      if (agent.getPaw() != null) {
+        byPaw.put(agent.getPaw(), agent);
+      }
+      if (agent.getHost() != null) {
+        byHost.computeIfAbsent(hostKey(agent.getHost()), k -> new ArrayList<>()).add(agent);
+      }
+    }
+    byHost.replaceAll((k, v) -> List.copyOf(v));
+    this.agentsByPaw = Collections.unmodifiableMap(byPaw);
+    this.agentsByHost = Collections.unmodifiableMap(byHost);
+    this.generation = generation;
+    this.refreshedAt = refreshedAt;
+  }
+
+  /** Key used to index agents: the first label of the hostname, lower-cased */
+  public static String hostKey(@NotNull final String host) {
+    return host.split("\\.")[0].toLowerCase(Locale.ROOT);
+  }
+
+  public Optional<Agent> findByPaw(@NotNull final String paw) {
+    return Optional.ofNullable(this.agentsByPaw.get(paw));
+  }
+
+  public List<Agent> findByHost(@NotNull final String hostname) {
+    return this.agentsByHost.getOrDefault(hostKey(hostname), List.of());
+  }
+
+  /** Build the snapshot following this one, bumping the generation if new paws appeared */
+  public CalderaAgentSnapshot next(@NotNull final List<Agent> agents, @NotNull final Instant at) {
+    boolean hasNewAgents =
+        agents.stream()
+            .map(Agent::getPaw)
+            .anyMatch(paw -> paw != null && !this.agentsByPaw.containsKey(paw));
+    return new CalderaAgentSnapshot(
+        agents, hasNewAgents ? this.generation + 1 : this.generation, at);
+  }
+
+  public boolean isOlderThan(final long maxAgeMillis) {
+    return Instant.now().toEpochMilli() - this.refreshedAt.toEpochMilli() > maxAgeMillis;
+  }
+}
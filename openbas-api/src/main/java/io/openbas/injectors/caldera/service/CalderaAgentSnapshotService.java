@@ -0,0 +1,146 @@
+package io.openbas.injectors.caldera.service;
+
+import static java.time.Instant.now;
+
+import io.openbas.database.model.Endpoint;
+import io.openbas.helper.AgentHelper;
+import io.openbas.injectors.caldera.client.CalderaInjectorClient;
+import io.openbas.injectors.caldera.client.model.Agent;
+import io.openbas.injectors.caldera.config.CalderaInjectorConfig;
+import io.openbas.injectors.caldera.model.CalderaAgentSnapshot;
+import io.openbas.utils.Time;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Shared snapshot of the Caldera agents. Instead of listing every agent from the Caldera API on
+ * each lookup, callers read the last published snapshot and, when the agent they expect is not
+ * there yet, wait until a refresh publishes new paws.
+ */
+@Slf4j
+@ConditionalOnProperty(prefix = "injector.caldera", name = "enable")
+@Service
+@RequiredArgsConstructor
+public class CalderaAgentSnapshotService {
+
+  private static final String IMPLANT = "implant";
+
+  private final CalderaInjectorClient client;
+  private final CalderaInjectorConfig config;
+
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private final ReentrantLock publishLock = new ReentrantLock();
+  private final Condition newAgentsPublished = publishLock.newCondition();
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  private volatile CalderaAgentSnapshot snapshot = CalderaAgentSnapshot.EMPTY;
+
+  public CalderaAgentSnapshot snapshot() {
+    return this.snapshot;
+  }
+
+  /** Return the current snapshot, refreshing it first if older than the refresh interval */
+  public CalderaAgentSnapshot freshSnapshot() {
+    if (this.snapshot.isOlderThan(refreshIntervalMillis())) {
+      refresh();
+    }
+    return this.snapshot;
+  }
+
+  /**
+   * Periodic entry point: refresh at the short interval while someone waits for an agent, at the
+   * idle interval otherwise.
+   */
+  public void refreshIfNeeded() {
+    long maxAge =
+        this.waiters.get() > 0
+            ? refreshIntervalMillis()
+            : Duration.ofSeconds(this.config.getAgentSnapshotIdleRefreshInterval()).toMillis();
+    if (this.snapshot.isOlderThan(maxAge)) {
+      refresh();
+    }
+  }
+
+  public void refresh() {
+    // Only one listing in flight, concurrent callers reuse its result
+    if (!this.refreshLock.tryLock()) {
+      return;
+    }
+    try {
+      List<Agent> agents;
+      try {
+        agents = this.client.agents();
+      } catch (RuntimeException e) {
+        log.error("Error refreshing the Caldera agent snapshot, keeping the previous one", e);
+        return;
+      }
+      this.publishLock.lock();
+      try {
+        CalderaAgentSnapshot previous = this.snapshot;
+        CalderaAgentSnapshot next = previous.next(agents, now());
+        this.snapshot = next;
+        if (next.getGeneration() != previous.getGeneration()) {
+          this.newAgentsPublished.signalAll();
+        }
+      } finally {
+        this.publishLock.unlock();
+      }
+    } finally {
+      this.refreshLock.unlock();
+    }
+  }
+
+  /**
+   * Block until a snapshot newer than the given generation is published (meaning new agents have
+   * appeared) or the timeout expires. Always returns the latest snapshot.
+   */
+  public CalderaAgentSnapshot awaitNewAgents(final long generation, @NotNull final Duration timeout)
+      throws InterruptedException {
+    long nanos = timeout.toNanos();
+    this.waiters.incrementAndGet();
+    this.publishLock.lock();
+    try {
+      while (this.snapshot.getGeneration() <= generation && nanos > 0) {
+        nanos = this.newAgentsPublished.awaitNanos(nanos);
+      }
+      return this.snapshot;
+    } finally {
+      this.publishLock.unlock();
+      this.waiters.decrementAndGet();
+    }
+  }
+
+  /** Active implants of the snapshot running on the given endpoint (same hostname and an IP) */
+  public List<Agent> implantsForEndpoint(
+      @NotNull final CalderaAgentSnapshot snapshot, @NotNull final Endpoint endpoint) {
+    Set<String> endpointIps = new HashSet<>(Arrays.asList(endpoint.getIps()));
+    return snapshot.findByHost(endpoint.getHostname()).stream()
+        .filter(
+            agent ->
+                agent.getExe_name() != null
+                    && agent.getExe_name().contains(IMPLANT)
+                    && agent.getCreated() != null
+                    && (now().toEpochMilli() - Time.toInstant(agent.getCreated()).toEpochMilli())
+                        < AgentHelper.ACTIVE_THRESHOLD
+                    && agent.getHost_ip_addrs() != null
+                    && Arrays.stream(agent.getHost_ip_addrs()).anyMatch(endpointIps::contains))
+        .toList();
+  }
+
+  // -- PRIVATE --
+
+  private long refreshIntervalMillis() {
+    return Duration.ofSeconds(this.config.getAgentSnapshotRefreshInterval()).toMillis();
+  }
+}
@@ -4,132 +4,224 @@ import io.openbas.database.model.*;
 import io.openbas.database.model.InjectStatus;
 import io.openbas.database.repository.InjectRepository;
 import io.openbas.injectors.caldera.CalderaContract;
+import io.openbas.injectors.caldera.config.CalderaInjectorConfig;
 import io.openbas.injectors.caldera.model.ResultStatus;
 import io.openbas.rest.inject.service.InjectStatusService;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
-@Service
 public class CalderaResultCollectorService implements Runnable {
   private final int EXPIRATION_TIME = 900;
+  private final int FETCH_TIMEOUT = 60;
 
   private final InjectRepository injectRepository;
   private final CalderaInjectorService calderaService;
   private final InjectStatusService injectStatusService;
+  private final CalderaInjectorConfig config;
+
+  // Bounded pool used to fetch link results concurrently
+  private final ExecutorService fetchExecutor;
+  // Per-link polling checkpoint, used to back off links that are not finished yet
+  private final Map<String, LinkCheckpoint> checkpoints = new ConcurrentHashMap<>();
 
-  @Autowired
   public CalderaResultCollectorService(
       InjectRepository injectRepository,
       CalderaInjectorService calderaService,
-      InjectStatusService injectStatusService) {
+      InjectStatusService injectStatusService,
+      CalderaInjectorConfig config) {
     this.injectRepository = injectRepository;
     this.calderaService = calderaService;
     this.injectStatusService = injectStatusService;
+    this.config = config;
+    this.fetchExecutor = Executors.newFixedThreadPool(config.getResultCollectorConcurrency());
+  }
+
+  /** Stop the fetch pool, interrupting the fetches in progress */
+  public void shutdown() {
+    this.fetchExecutor.shutdownNow();
   }
 
   @Override
-  @Transactional
   public void run() {
     // Retrieve Caldera inject not done
     List<InjectStatus> injectStatuses =
         this.injectStatusService.findPendingInjectStatusByType(CalderaContract.TYPE);
-    // For each one ask for traces and status
+    Instant now = Instant.now();
+
+    // Only links without a completion trace are still to collect, and among them only the ones
+    // whose backoff has elapsed are fetched during this run
+    Map<InjectStatus, Map<String, Agent>> linksByStatus = new LinkedHashMap<>();
+    Map<String, Future<ResultStatus>> fetches = new HashMap<>();
     injectStatuses.forEach(
-        (injectStatus -> {
+        injectStatus -> {
           log.info("Found inject status: {}", injectStatus.getId());
-          Map<String, Agent> linksMap = injectStatus.getStatusMapIdentifierAgent();
-
+          Map<String, Agent> linksMap = linksToCollect(injectStatus);
           log.info("Found links IDs: {}", linksMap.keySet());
-          ResultStatus resultStatus = new ResultStatus();
+          linksByStatus.put(injectStatus, linksMap);
+          linksMap.keySet().stream()
+              .filter(
+                  linkId -> this.checkpoints.getOrDefault(linkId, LinkCheckpoint.NEW).isDue(now))
+              .forEach(
+                  linkId ->
+                      fetches.put(
+                          linkId,
+                          this.fetchExecutor.submit(() -> this.calderaService.results(linkId))));
+        });
+    Set<String> pendingLinks =
+        linksByStatus.values().stream()
+            .flatMap(links -> links.keySet().stream())
+            .collect(Collectors.toSet());
+    this.checkpoints.keySet().retainAll(pendingLinks);
+
+    Map<String, ResultStatus> results = new HashMap<>();
+    fetches.forEach(
+        (linkId, fetch) -> {
+          try {
+            log.info("Trying to get result for {}", linkId);
+            results.put(linkId, fetch.get(FETCH_TIMEOUT, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } catch (ExecutionException | TimeoutException e) {
+            fetch.cancel(true);
+            log.info("Cannot get result for linkID {}, will retry later", linkId);
+          }
+        });
+
+    // Apply the results and save every updated inject at once
+    List<Inject> updatedInjects = new ArrayList<>();
+    linksByStatus.forEach(
+        (injectStatus, linksMap) -> {
+          boolean updated = false;
           for (Map.Entry<String, Agent> entry : linksMap.entrySet()) {
-            try {
-              log.info("Trying to get result for {}", entry.getKey());
-              resultStatus = this.calderaService.results(entry.getKey());
-            } catch (Exception e) {
-              injectStatus.addMayBePreventedTrace(
-                  "Cannot get result for linkID " + entry.getKey() + ", injection has failed",
-                  ExecutionTraceAction.COMPLETE,
-                  entry.getValue());
-              log.info("Cannot get result for linkID {}, injection has failed", entry.getKey());
+            String linkId = entry.getKey();
+            if (!fetches.containsKey(linkId)) {
+              continue;
             }
-
-            if (resultStatus.getPaw() == null
-                && injectStatus
-                    .getTrackingSentDate()
-                    .isBefore(Instant.now().minus(EXPIRATION_TIME / 60, ChronoUnit.MINUTES))) {
-              injectStatus.addMayBePreventedTrace(
-                  "Cannot get result for linkID " + entry.getKey() + ", injection has failed",
-                  ExecutionTraceAction.COMPLETE,
-                  entry.getValue());
-              log.info("Cannot get result for linkID {}, injection has failed", entry.getKey());
-
-            } else if (resultStatus.getPaw() != null
-                && resultStatus.isComplete()
-                && resultStatus.isFail()) {
-              injectStatus.addTrace(
-                  new ExecutionTrace(
-                      injectStatus,
-                      ExecutionTraceStatus.MAYBE_PREVENTED,
-                      List.of(),
-                      "Failed result for linkID "
-                          + entry.getKey()
-                          + " ("
-                          + resultStatus.getContent()
-                          + ")",
-                      ExecutionTraceAction.COMPLETE,
-                      entry.getValue(),
-                      resultStatus.getFinish()));
-
-            } else if (resultStatus.getPaw() != null
-                && resultStatus.isComplete()
-                && !resultStatus.isFail()) {
-              injectStatus.addTrace(
-                  new ExecutionTrace(
-                      injectStatus,
-                      ExecutionTraceStatus.SUCCESS,
-                      List.of(),
-                      "Success result for linkID "
-                          + entry.getKey()
-                          + " ("
-                          + resultStatus.getContent()
-                          + ")",
-                      ExecutionTraceAction.COMPLETE,
-                      entry.getValue(),
-                      resultStatus.getFinish()));
-
-            } else if (resultStatus.getPaw() != null
-                && !resultStatus.isComplete()
-                && injectStatus
-                    .getTrackingSentDate()
-                    .isBefore(Instant.now().minus(5L, ChronoUnit.MINUTES))) {
-
-              injectStatus.addTrace(
-                  new ExecutionTrace(
-                      injectStatus,
-                      ExecutionTraceStatus.MAYBE_PREVENTED,
-                      List.of(),
-                      "Timeout on linkID " + entry.getKey() + ", injection has failed",
-                      ExecutionTraceAction.COMPLETE,
-                      entry.getValue(),
-                      resultStatus.getFinish()));
-
-              log.info("Timeout on linkID {}, injection has failed", entry.getKey());
+            ResultStatus resultStatus = results.getOrDefault(linkId, new ResultStatus());
+            if (applyResult(injectStatus, linkId, entry.getValue(), resultStatus)) {
+              this.checkpoints.remove(linkId);
+              updated = true;
+            } else {
+              this.checkpoints.put(
+                  linkId,
+                  this.checkpoints
+                      .getOrDefault(linkId, LinkCheckpoint.NEW)
+                      .backoff(
+                          now,
+                          Duration.ofSeconds(this.config.getResultCollectorInterval()),
+                          Duration.ofSeconds(this.config.getResultCollectorMaxBackoff())));
             }
           }
 
-          Inject relatedInject = injectStatus.getInject();
-          if (injectStatusService.isAllInjectAgentsExecuted(relatedInject)) {
-            injectStatusService.updateFinalInjectStatus(injectStatus);
+          if (updated) {
+            Inject relatedInject = injectStatus.getInject();
+            if (injectStatusService.isAllInjectAgentsExecuted(relatedInject)) {
+              injectStatusService.updateFinalInjectStatus(injectStatus);
+            }
+            updatedInjects.add(relatedInject);
           }
+        });
+    if (!updatedInjects.isEmpty()) {
+      injectRepository.saveAll(updatedInjects);
+    }
+  }
+
+  // -- PRIVATE --
+
+  /** Links of the status whose agent has not received a completion trace yet */
+  private Map<String, Agent> linksToCollect(InjectStatus injectStatus) {
+    Set<String> completedAgentIds =
+        injectStatus.getTraces().stream()
+            .filter(t -> ExecutionTraceAction.COMPLETE.equals(t.getAction()))
+            .filter(t -> t.getAgent() != null)
+            .map(t -> t.getAgent().getId())
+            .collect(Collectors.toSet());
+    Map<String, Agent> linksMap = new HashMap<>(injectStatus.getStatusMapIdentifierAgent());
+    linksMap.values().removeIf(agent -> completedAgentIds.contains(agent.getId()));
+    return linksMap;
+  }
+
+  /** Add the completion trace matching the result, returns false if the link is still running */
+  private boolean applyResult(
+      InjectStatus injectStatus, String linkId, Agent agent, ResultStatus resultStatus) {
+    if (resultStatus.getPaw() == null
+        && injectStatus
+            .getTrackingSentDate()
+            .isBefore(Instant.now().minus(EXPIRATION_TIME / 60, ChronoUnit.MINUTES))) {
+      injectStatus.addMayBePreventedTrace(
+          "Cannot get result for linkID " + linkId + ", injection has failed",
+          ExecutionTraceAction.COMPLETE,
+          agent);
+      log.info("Cannot get result for linkID {}, injection has failed", linkId);
+      return true;
+
+    } else if (resultStatus.getPaw() != null
+        && resultStatus.isComplete()
+        && resultStatus.isFail()) {
+      injectStatus.addTrace(
+          new ExecutionTrace(
+              injectStatus,
+              ExecutionTraceStatus.MAYBE_PREVENTED,
+              List.of(),
+              "Failed result for linkID " + linkId + " (" + resultStatus.getContent() + ")",
+              ExecutionTraceAction.COMPLETE,
+              agent,
+              resultStatus.getFinish()));
+      return true;
+
+    } else if (resultStatus.getPaw() != null
+        && resultStatus.isComplete()
+        && !resultStatus.isFail()) {
+      injectStatus.addTrace(
+          new ExecutionTrace(
+              injectStatus,
+              ExecutionTraceStatus.SUCCESS,
+              List.of(),
+              "Success result for linkID " + linkId + " (" + resultStatus.getContent() + ")",
+              ExecutionTraceAction.COMPLETE,
+              agent,
+              resultStatus.getFinish()));
+      return true;
+
+    } else if (resultStatus.getPaw() != null
+        && !resultStatus.isComplete()
+        && injectStatus
+            .getTrackingSentDate()
+            .isBefore(Instant.now().minus(5L, ChronoUnit.MINUTES))) {
+      injectStatus.addTrace(
+          new ExecutionTrace(
+              injectStatus,
+              ExecutionTraceStatus.MAYBE_PREVENTED,
+              List.of(),
+              "Timeout on linkID " + linkId + ", injection has failed",
+              ExecutionTraceAction.COMPLETE,
+              agent,
+              resultStatus.getFinish()));
+      log.info("Timeout on linkID {}, injection has failed", linkId);
+      return true;
+    }
+    return false;
+  }
+
+  private record LinkCheckpoint(int attempts, Instant nextAttemptAt) {
+
+    private static final LinkCheckpoint NEW = new LinkCheckpoint(0, Instant.EPOCH);
+
+    boolean isDue(Instant now) {
+      return !this.nextAttemptAt.isAfter(now);
+    }
 
-          injectRepository.save(relatedInject);
-        }));
+    /** Exponential backoff with jitter, capped to the given maximum */
+    LinkCheckpoint backoff(Instant now, Duration base, Duration max) {
+      long delay = Math.min(base.toMillis() << Math.min(this.attempts, 16), max.toMillis());
+      long jitter = ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+      return new LinkCheckpoint(this.attempts + 1, now.plusMillis(delay - jitter));
+    }
   }
 }
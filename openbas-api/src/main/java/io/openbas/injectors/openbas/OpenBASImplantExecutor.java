@@ -64,8 +64,16 @@ public class OpenBASImplantExecutor extends Injector {
         });
 
     List<AssetGroup> assetGroups = injection.getAssetGroups();
+    Map<String, List<Asset>> assetsByAssetGroup =
+        this.assetGroupService.assetsFromAssetGroups(
+            assetGroups.stream().map(AssetGroup::getId).toList());
     assetGroups.forEach(
-        (assetGroup -> computeExpectationsForAssetGroup(expectations, content, assetGroup)));
+        (assetGroup ->
+            computeExpectationsForAssetGroup(
+                expectations,
+                content,
+                assetGroup,
+                assetsByAssetGroup.getOrDefault(assetGroup.getId(), List.of()))));
 
     injectExpectationService.buildAndSaveInjectExpectations(injection, expectations);
 
@@ -108,7 +116,8 @@ public class OpenBASImplantExecutor extends Injector {
   private void computeExpectationsForAssetGroup(
       @NotNull final List<Expectation> expectations,
       @NotNull final OpenBASImplantInjectContent content,
-      @NotNull final AssetGroup assetGroup) {
+      @NotNull final AssetGroup assetGroup,
+      @NotNull final List<Asset> assets) {
     if (!content.getExpectations().isEmpty()) {
       expectations.addAll(
           content.getExpectations().stream()
@@ -117,8 +126,6 @@ public class OpenBASImplantExecutor extends Injector {
                       switch (expectation.getType()) {
                         case PREVENTION -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   asset ->
@@ -149,8 +156,6 @@ public class OpenBASImplantExecutor extends Injector {
                         }
                         case DETECTION -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   asset ->
@@ -180,8 +185,6 @@ public class OpenBASImplantExecutor extends Injector {
                         }
                         case VULNERABILITY -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   asset ->
@@ -212,8 +215,6 @@ public class OpenBASImplantExecutor extends Injector {
                         }
                         case MANUAL -> {
                           // Verify that at least one asset in the group has been executed
-                          List<Asset> assets =
-                              this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
                           if (assets.stream()
                               .anyMatch(
                                   asset ->
@@ -0,0 +1,29 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_12__Asset_groups_dynamic_assets extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Materialized membership of the endpoints matching the dynamic filter of an asset group,
+      // filled at startup and then maintained on endpoint and asset group changes
+      statement.execute(
+          """
+              CREATE TABLE IF NOT EXISTS asset_groups_dynamic_assets (
+                  asset_group_id varchar(255) not null constraint asset_group_id_fk references asset_groups on delete cascade,
+                  asset_id varchar(255) not null constraint asset_id_fk references assets on delete cascade,
+                  constraint asset_groups_dynamic_assets_pkey primary key (asset_group_id, asset_id)
+              );
+              CREATE INDEX IF NOT EXISTS idx_asset_groups_dynamic_assets_asset on asset_groups_dynamic_assets (asset_id);
+              """);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_13__Statistic_inject_expectations extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Expectation results rolled up by inject and type for the home statistics, maintained on
+      // expectation changes and reconciled periodically
+      statement.execute(
+          """
+              CREATE TABLE IF NOT EXISTS statistic_inject_expectations (
+                  inject_id varchar(255) not null constraint inject_id_fk references injects on delete cascade,
+                  expectation_type varchar(255) not null,
+                  success_count bigint not null default 0,
+                  partial_count bigint not null default 0,
+                  failed_count bigint not null default 0,
+                  pending_count bigint not null default 0,
+                  constraint statistic_inject_expectations_pkey primary key (inject_id, expectation_type)
+              );
+              INSERT INTO statistic_inject_expectations
+              SELECT ie.inject_id, ie.inject_expectation_type,
+                  count(*) filter (where ie.inject_expectation_score >= ie.inject_expectation_expected_score),
+                  count(*) filter (where ie.inject_expectation_score <> 0 and ie.inject_expectation_score < ie.inject_expectation_expected_score),
+                  count(*) filter (where ie.inject_expectation_score = 0 and ie.inject_expectation_score < ie.inject_expectation_expected_score),
+                  count(*) filter (where ie.inject_expectation_score is null)
+              FROM injects_expectations ie
+              WHERE ie.inject_id is not null and ie.inject_expectation_type is not null
+              GROUP BY ie.inject_id, ie.inject_expectation_type
+              ON CONFLICT DO NOTHING;
+              """);
+    }
+  }
+}
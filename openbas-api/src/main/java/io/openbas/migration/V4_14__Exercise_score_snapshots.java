@@ -0,0 +1,43 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_14__Exercise_score_snapshots extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Global scores of each simulation by expectation type, maintained on expectation changes,
+      // written when the simulation finishes and reconciled periodically
+      statement.execute(
+          """
+              CREATE TABLE IF NOT EXISTS exercise_score_snapshots (
+                  exercise_id varchar(255) not null constraint exercise_id_fk references exercises on delete cascade,
+                  expectation_type varchar(255) not null,
+                  success_count bigint not null default 0,
+                  partial_count bigint not null default 0,
+                  failed_count bigint not null default 0,
+                  pending_count bigint not null default 0,
+                  constraint exercise_score_snapshots_pkey primary key (exercise_id, expectation_type)
+              );
+              INSERT INTO exercise_score_snapshots
+              SELECT ie.exercise_id, ie.inject_expectation_type,
+                  count(*) filter (where ie.inject_expectation_score >= ie.inject_expectation_expected_score),
+                  count(*) filter (where ie.team_id is null and ie.inject_expectation_score <> 0 and ie.inject_expectation_score < ie.inject_expectation_expected_score),
+                  count(*) filter (where ie.inject_expectation_score < ie.inject_expectation_expected_score and (ie.team_id is not null or ie.inject_expectation_score = 0)),
+                  count(*) filter (where ie.inject_expectation_score is null)
+              FROM injects_expectations ie
+              WHERE ie.exercise_id is not null and ie.inject_id is not null and ie.inject_expectation_type is not null
+                  and ie.user_id is null and ie.agent_id is null
+              GROUP BY ie.exercise_id, ie.inject_expectation_type
+              ON CONFLICT DO NOTHING;
+              """);
+    }
+  }
+}
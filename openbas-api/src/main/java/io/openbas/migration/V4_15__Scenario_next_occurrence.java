@@ -0,0 +1,25 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_15__Scenario_next_occurrence extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Computed by the scenario execution job for the existing recurring scenarios
+      statement.execute(
+          """
+              ALTER TABLE scenarios ADD COLUMN IF NOT EXISTS scenario_next_occurrence timestamp with time zone;
+              CREATE INDEX IF NOT EXISTS idx_scenarios_next_occurrence ON scenarios(scenario_next_occurrence)
+                  WHERE scenario_recurrence IS NOT NULL;
+              """);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_16__Notification_outbox extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // One pending event per resource and type, later events being merged into it
+      statement.execute(
+          """
+              CREATE TABLE IF NOT EXISTS notification_outbox (
+                  outbox_event_id varchar(255) NOT NULL PRIMARY KEY,
+                  outbox_event_resource_type varchar(255) NOT NULL,
+                  outbox_event_resource_id varchar(255) NOT NULL,
+                  outbox_event_type varchar(255) NOT NULL,
+                  outbox_event_timestamp timestamp with time zone NOT NULL,
+                  outbox_event_available_at timestamp with time zone NOT NULL,
+                  outbox_event_attempts integer NOT NULL DEFAULT 0,
+                  outbox_event_created_at timestamp with time zone NOT NULL DEFAULT now(),
+                  CONSTRAINT notification_outbox_event_unique
+                      UNIQUE (outbox_event_resource_type, outbox_event_resource_id, outbox_event_type)
+              );
+              CREATE INDEX IF NOT EXISTS idx_notification_outbox_available_at
+                  ON notification_outbox(outbox_event_available_at);
+              """);
+    }
+  }
+}
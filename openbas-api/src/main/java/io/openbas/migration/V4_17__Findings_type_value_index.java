@@ -0,0 +1,24 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_17__Findings_type_value_index extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Grouping of the distinct findings and lookup of the findings of a (type, value) page
+      statement.execute(
+          """
+              CREATE INDEX IF NOT EXISTS idx_findings_type_value
+                  ON findings(finding_type, finding_value) INCLUDE (finding_inject_id);
+              """);
+    }
+  }
+}
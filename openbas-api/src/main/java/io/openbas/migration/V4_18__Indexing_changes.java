@@ -0,0 +1,187 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_18__Indexing_changes extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Change capture: last change date of each indexed entity, read by range on indexing
+      statement.execute(
+          """
+              CREATE TABLE indexing_changes (
+                  change_type VARCHAR(255) NOT NULL,
+                  change_entity_id VARCHAR(255) NOT NULL,
+                  change_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT clock_timestamp(),
+                  PRIMARY KEY (change_type, change_entity_id)
+              );
+              CREATE INDEX idx_indexing_changes_type_date ON indexing_changes(change_type, change_date);
+
+              CREATE OR REPLACE FUNCTION record_indexing_changes(type TEXT, entity_ids TEXT[])
+                  RETURNS VOID AS $$
+              BEGIN
+                  INSERT INTO indexing_changes (change_type, change_entity_id, change_date)
+                  SELECT type, entity_id, clock_timestamp() FROM unnest(entity_ids) AS entity_id
+                  WHERE entity_id IS NOT NULL
+                  ON CONFLICT (change_type, change_entity_id)
+                      DO UPDATE SET change_date = EXCLUDED.change_date;
+              END;
+              $$ LANGUAGE plpgsql;
+              """);
+
+      // Injects: the inject itself, its dependencies and the contracts of the inject and of its
+      // children
+      statement.execute(
+          """
+              CREATE OR REPLACE FUNCTION record_inject_change()
+                  RETURNS TRIGGER AS $$
+              BEGIN
+                  IF TG_OP = 'DELETE' THEN
+                      DELETE FROM indexing_changes
+                      WHERE change_type = 'inject' AND change_entity_id = OLD.inject_id;
+                      RETURN OLD;
+                  END IF;
+                  PERFORM record_indexing_changes('inject', ARRAY[NEW.inject_id]);
+                  RETURN NEW;
+              END;
+              $$ LANGUAGE plpgsql;
+
+              CREATE TRIGGER after_insert_record_inject_change
+                  AFTER INSERT ON injects
+                  FOR EACH ROW EXECUTE FUNCTION record_inject_change();
+              CREATE TRIGGER after_update_record_inject_change
+                  AFTER UPDATE ON injects
+                  FOR EACH ROW
+                  WHEN (OLD.inject_updated_at IS DISTINCT FROM NEW.inject_updated_at)
+                  EXECUTE FUNCTION record_inject_change();
+              CREATE TRIGGER after_delete_record_inject_change
+                  AFTER DELETE ON injects
+                  FOR EACH ROW EXECUTE FUNCTION record_inject_change();
+
+              CREATE OR REPLACE FUNCTION record_inject_dependency_change()
+                  RETURNS TRIGGER AS $$
+              BEGIN
+                  PERFORM record_indexing_changes('inject', ARRAY[NEW.inject_parent_id]);
+                  RETURN NEW;
+              END;
+              $$ LANGUAGE plpgsql;
+
+              CREATE TRIGGER after_upsert_record_inject_dependency_change
+                  AFTER INSERT OR UPDATE ON injects_dependencies
+                  FOR EACH ROW EXECUTE FUNCTION record_inject_dependency_change();
+
+              CREATE OR REPLACE FUNCTION record_injector_contract_change()
+                  RETURNS TRIGGER AS $$
+              BEGIN
+                  PERFORM record_indexing_changes('inject', ARRAY(
+                      SELECT i.inject_id FROM injects i
+                      WHERE i.inject_injector_contract = NEW.injector_contract_id
+                      UNION
+                      SELECT d.inject_parent_id FROM injects_dependencies d
+                      JOIN injects c ON c.inject_id = d.inject_children_id
+                      WHERE c.inject_injector_contract = NEW.injector_contract_id
+                  ));
+                  RETURN NEW;
+              END;
+              $$ LANGUAGE plpgsql;
+
+              CREATE TRIGGER after_update_record_injector_contract_change
+                  AFTER UPDATE ON injectors_contracts
+                  FOR EACH ROW
+                  WHEN (OLD.injector_contract_updated_at IS DISTINCT FROM NEW.injector_contract_updated_at)
+                  EXECUTE FUNCTION record_injector_contract_change();
+              """);
+
+      // Vulnerable endpoints: the endpoint, its findings and the simulations it was found in
+      statement.execute(
+          """
+              CREATE OR REPLACE FUNCTION record_vulnerable_endpoint_asset_change()
+                  RETURNS TRIGGER AS $$
+              BEGIN
+                  IF TG_OP = 'DELETE' THEN
+                      DELETE FROM indexing_changes
+                      WHERE change_type = 'vulnerable-endpoint' AND change_entity_id = OLD.asset_id;
+                      RETURN OLD;
+                  END IF;
+                  IF NEW.asset_type = 'Endpoint' THEN
+                      PERFORM record_indexing_changes('vulnerable-endpoint', ARRAY[NEW.asset_id]);
+                  END IF;
+                  RETURN NEW;
+              END;
+              $$ LANGUAGE plpgsql;
+
+              CREATE TRIGGER after_update_record_vulnerable_endpoint_asset_change
+                  AFTER UPDATE ON assets
+                  FOR EACH ROW
+                  WHEN (OLD.asset_updated_at IS DISTINCT FROM NEW.asset_updated_at)
+                  EXECUTE FUNCTION record_vulnerable_endpoint_asset_change();
+              CREATE TRIGGER after_delete_record_vulnerable_endpoint_asset_change
+                  AFTER DELETE ON assets
+                  FOR EACH ROW EXECUTE FUNCTION record_vulnerable_endpoint_asset_change();
+
+              CREATE OR REPLACE FUNCTION record_vulnerable_endpoint_finding_change()
+                  RETURNS TRIGGER AS $$
+              BEGIN
+                  PERFORM record_indexing_changes('vulnerable-endpoint', ARRAY(
+                      SELECT NEW.asset_id FROM findings f
+                      WHERE f.finding_id = NEW.finding_id AND f.finding_type = 'CVE'
+                  ));
+                  RETURN NEW;
+              END;
+              $$ LANGUAGE plpgsql;
+
+              CREATE TRIGGER after_insert_record_vulnerable_endpoint_finding_change
+                  AFTER INSERT ON findings_assets
+                  FOR EACH ROW EXECUTE FUNCTION record_vulnerable_endpoint_finding_change();
+
+              CREATE OR REPLACE FUNCTION record_vulnerable_endpoint_exercise_change()
+                  RETURNS TRIGGER AS $$
+              BEGIN
+                  PERFORM record_indexing_changes('vulnerable-endpoint', ARRAY(
+                      SELECT DISTINCT fa.asset_id FROM findings f
+                      JOIN findings_assets fa ON fa.finding_id = f.finding_id
+                      JOIN injects i ON i.inject_id = f.finding_inject_id
+                      WHERE i.inject_exercise = NEW.exercise_id AND f.finding_type = 'CVE'
+                  ));
+                  RETURN NEW;
+              END;
+              $$ LANGUAGE plpgsql;
+
+              CREATE TRIGGER after_update_record_vulnerable_endpoint_exercise_change
+                  AFTER UPDATE ON exercises
+                  FOR EACH ROW
+                  WHEN (OLD.exercise_updated_at IS DISTINCT FROM NEW.exercise_updated_at)
+                  EXECUTE FUNCTION record_vulnerable_endpoint_exercise_change();
+              """);
+
+      // Seed the existing entities and re-index them, documents now being dated by their changes
+      statement.execute(
+          """
+              INSERT INTO indexing_changes (change_type, change_entity_id, change_date)
+              SELECT 'inject', i.inject_id, GREATEST(i.inject_updated_at, ic.injector_contract_updated_at)
+              FROM injects i
+              LEFT JOIN injectors_contracts ic ON ic.injector_contract_id = i.inject_injector_contract;
+
+              INSERT INTO indexing_changes (change_type, change_entity_id, change_date)
+              SELECT 'vulnerable-endpoint', a.asset_id, GREATEST(max(e.exercise_updated_at), a.asset_updated_at)
+              FROM findings f
+              JOIN findings_assets fa ON fa.finding_id = f.finding_id
+              JOIN assets a ON a.asset_id = fa.asset_id
+              JOIN injects i ON i.inject_id = f.finding_inject_id
+              JOIN exercises e ON e.exercise_id = i.inject_exercise
+              WHERE f.finding_type = 'CVE' AND a.asset_type = 'Endpoint'
+              GROUP BY a.asset_id, a.asset_updated_at;
+
+              DELETE FROM indexing_status
+              WHERE indexing_status_type IN ('inject', 'vulnerable-endpoint');
+              """);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package io.openbas.migration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+@Component
+public class V4_19__Settings_version extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    try (Statement statement = connection.createStatement()) {
+      // Version of the settings, bumped by any change so that every node refreshes its snapshot
+      statement.execute(
+          """
+              CREATE TABLE IF NOT EXISTS parameters_version (
+                  version_id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (version_id),
+                  version_value BIGINT NOT NULL
+              );
+              INSERT INTO parameters_version (version_id, version_value) VALUES (TRUE, 0)
+                  ON CONFLICT DO NOTHING;
+              """);
+      statement.execute(
+          """
+              CREATE OR REPLACE FUNCTION bump_parameters_version() RETURNS TRIGGER AS $$
+              BEGIN
+                  UPDATE parameters_version SET version_value = version_value + 1;
+                  RETURN NULL;
+              END;
+              $$ LANGUAGE plpgsql;
+              """);
+      statement.execute(
+          """
+              CREATE TRIGGER parameters_version_trigger
+                  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON parameters
+                  FOR EACH STATEMENT EXECUTE FUNCTION bump_parameters_version();
+              """);
+    }
+  }
+}
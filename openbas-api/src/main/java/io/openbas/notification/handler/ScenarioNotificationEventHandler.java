@@ -44,12 +44,14 @@ public class ScenarioNotificationEventHandler implements NotificationEventHandle
       }
 
       // create map with the results to facilitate the computing of the score difference
-      // TODO update exerciseService to return a map with result
+      Map<String, List<ExpectationResultsByType>> resultsBySimulation =
+          exerciseService.getGlobalResults(
+              List.of(lastSimulation.getId(), secondLastSimulation.getId()));
       Map<ExpectationType, ExpectationResultsByType> lastSimulationResultsMap =
-          exerciseService.getGlobalResults(lastSimulation.getId()).stream()
+          resultsBySimulation.get(lastSimulation.getId()).stream()
               .collect(Collectors.toMap(ExpectationResultsByType::type, Function.identity()));
       Map<ExpectationType, ExpectationResultsByType> secondLastSimulationResultsMap =
-          exerciseService.getGlobalResults(secondLastSimulation.getId()).stream()
+          resultsBySimulation.get(secondLastSimulation.getId()).stream()
               .collect(Collectors.toMap(ExpectationResultsByType::type, Function.identity()));
 
       if (exerciseService.isThereAScoreDegradation(
@@ -9,7 +9,9 @@ import io.openbas.engine.model.EsBase;
 import io.openbas.engine.model.EsSearch;
 import io.openbas.engine.query.EsAttackPath;
 import io.openbas.engine.query.EsSeries;
+import io.openbas.rest.custom_dashboard.CustomDashboardService;
 import io.openbas.rest.custom_dashboard.WidgetService;
+import io.openbas.rest.dashboard.form.WidgetDataOutput;
 import io.openbas.rest.helper.RestBehavior;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +27,7 @@ public class DashboardApi extends RestBehavior {
 
   public static final String DASHBOARD_URI = "/api/dashboards";
 
+  private final CustomDashboardService customDashboardService;
   private final WidgetService widgetService;
   private final DashboardService dashboardService;
 
@@ -68,6 +71,20 @@ public class DashboardApi extends RestBehavior {
     return this.dashboardService.attackPaths(widget, parameters, definitionParameters);
   }
 
+  @PostMapping(DASHBOARD_URI + "/widgets/{customDashboardId}")
+  public List<WidgetDataOutput> widgets(
+      @PathVariable final String customDashboardId,
+      @RequestBody(required = false) Map<String, String> parameters)
+      throws ExecutionException, InterruptedException {
+    if (parameters == null) {
+      parameters = Map.of();
+    }
+    CustomDashboard customDashboard =
+        this.customDashboardService.customDashboard(customDashboardId);
+    List<Widget> widgets = this.widgetService.widgets(customDashboardId);
+    return this.dashboardService.widgets(customDashboard, widgets, parameters);
+  }
+
   @GetMapping(DASHBOARD_URI + "/search/{search}")
   public List<EsSearch> search(@PathVariable final String search) {
     return this.dashboardService.search(search);
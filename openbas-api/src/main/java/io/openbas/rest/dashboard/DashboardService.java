@@ -2,22 +2,39 @@ package io.openbas.rest.dashboard;
 
 import static io.openbas.config.SessionHelper.currentUser;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.openbas.database.model.CustomDashboard;
 import io.openbas.database.model.CustomDashboardParameters;
 import io.openbas.database.model.Widget;
 import io.openbas.database.raw.RawUserAuth;
+import io.openbas.database.repository.IndexingStatusRepository;
 import io.openbas.database.repository.UserRepository;
 import io.openbas.engine.EngineService;
 import io.openbas.engine.api.*;
+import io.openbas.engine.api.Runtime;
 import io.openbas.engine.model.EsBase;
 import io.openbas.engine.model.EsSearch;
 import io.openbas.engine.query.EsAttackPath;
+import io.openbas.engine.query.EsHistogramResult;
 import io.openbas.engine.query.EsSeries;
+import io.openbas.rest.dashboard.form.WidgetDataOutput;
 import io.openbas.service.EsAttackPathService;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
@@ -27,6 +44,19 @@ public class DashboardService {
   private final EsAttackPathService esAttackPathService;
   private final EngineService engineService;
   private final UserRepository userRepository;
+  private final IndexingStatusRepository indexingStatusRepository;
+
+  @Value("${openbas.dashboard.cache-ttl:5m}")
+  private Duration cacheTtl;
+
+  // Widget data by widget, parameters, visibility and indexing watermark
+  private Cache<String, WidgetDataOutput> widgetDataCache;
+
+  @PostConstruct
+  void init() {
+    this.widgetDataCache =
+        Caffeine.newBuilder().expireAfterWrite(this.cacheTtl).maximumSize(10_000).build();
+  }
 
   /**
    * Retrieves time series or structural histogram data from Elasticsearch for a specific widget
@@ -94,6 +124,115 @@ public class DashboardService {
     return esAttackPathService.attackPaths(userWithAuth, runtime, parameters, definitionParameters);
   }
 
+  /**
+   * Retrieves the data of all the widgets of a dashboard, resolving the user grants once and
+   * computing all the histograms with one multi search.
+   *
+   * <p>The data of a widget is cached until the widget or the dashboard changes, or new documents
+   * are indexed. The key also holds the parameters and the grants of the user, so users with the
+   * same grants share the entries.
+   *
+   * @param customDashboard the {@link CustomDashboard} of the widgets
+   * @param widgets the widgets to compute
+   * @param parameters parameters passed at runtime (e.g. filters, date ranges)
+   * @return the data of each widget, in the order of the widgets
+   */
+  public List<WidgetDataOutput> widgets(
+      @NotNull final CustomDashboard customDashboard,
+      @NotNull final List<Widget> widgets,
+      @NotNull final Map<String, String> parameters)
+      throws ExecutionException, InterruptedException {
+    RawUserAuth userWithAuth = userRepository.getUserWithAuth(currentUser().getId());
+    Map<String, CustomDashboardParameters> definitionParameters = customDashboard.toParametersMap();
+    String scope = cacheScope(customDashboard, parameters, userWithAuth);
+
+    WidgetDataOutput[] outputs = new WidgetDataOutput[widgets.size()];
+    // Widgets already cached, or with a failed search to be searched again, are not cached
+    Set<Integer> uncachedIndexes = new HashSet<>();
+    List<Integer> histogramIndexes = new ArrayList<>();
+    List<Runtime> histogramRuntimes = new ArrayList<>();
+    for (int i = 0; i < widgets.size(); i++) {
+      Widget widget = widgets.get(i);
+      WidgetDataOutput cached = widgetDataCache.getIfPresent(cacheKey(scope, widget));
+      if (cached != null) {
+        outputs[i] = cached;
+        uncachedIndexes.add(i);
+        continue;
+      }
+      WidgetDataOutput output = new WidgetDataOutput();
+      output.setWidgetId(widget.getId());
+      WidgetConfiguration configuration = widget.getWidgetConfiguration();
+      if (WidgetType.ATTACK_PATH.equals(widget.getType())) {
+        StructuralHistogramRuntime runtime =
+            new StructuralHistogramRuntime(
+                (StructuralHistogramWidget) configuration, parameters, definitionParameters);
+        output.setAttackPaths(
+            esAttackPathService.attackPaths(
+                userWithAuth, runtime, parameters, definitionParameters));
+      } else if (WidgetConfigurationType.LIST.equals(configuration.getConfigurationType())) {
+        ListRuntime runtime =
+            new ListRuntime((ListConfiguration) configuration, parameters, definitionParameters);
+        output.setEntities(engineService.entities(userWithAuth, runtime));
+      } else if (WidgetConfigurationType.TEMPORAL_HISTOGRAM.equals(
+          configuration.getConfigurationType())) {
+        histogramIndexes.add(i);
+        histogramRuntimes.add(
+            new DateHistogramRuntime(
+                (DateHistogramWidget) configuration, parameters, definitionParameters));
+      } else if (WidgetConfigurationType.STRUCTURAL_HISTOGRAM.equals(
+          configuration.getConfigurationType())) {
+        histogramIndexes.add(i);
+        histogramRuntimes.add(
+            new StructuralHistogramRuntime(
+                (StructuralHistogramWidget) configuration, parameters, definitionParameters));
+      } else {
+        throw new UnsupportedOperationException("Unsupported widget: " + widget);
+      }
+      outputs[i] = output;
+    }
+
+    if (!histogramRuntimes.isEmpty()) {
+      List<EsHistogramResult> histograms =
+          engineService.multiHistogram(userWithAuth, histogramRuntimes);
+      for (int i = 0; i < histogramIndexes.size(); i++) {
+        EsHistogramResult histogram = histograms.get(i);
+        outputs[histogramIndexes.get(i)].setSeries(histogram.series());
+        if (!histogram.complete()) {
+          uncachedIndexes.add(histogramIndexes.get(i));
+        }
+      }
+    }
+    for (int i = 0; i < widgets.size(); i++) {
+      if (!uncachedIndexes.contains(i)) {
+        widgetDataCache.put(cacheKey(scope, widgets.get(i)), outputs[i]);
+      }
+    }
+    return List.of(outputs);
+  }
+
+  private String cacheScope(
+      CustomDashboard customDashboard, Map<String, String> parameters, RawUserAuth userWithAuth) {
+    Instant watermark = indexingStatusRepository.findLastIndexing().orElse(Instant.EPOCH);
+    String grants =
+        userWithAuth.getUser_admin()
+            ? "admin"
+            : new TreeSet<>(userWithAuth.getUser_grant_exercises())
+                + "|"
+                + new TreeSet<>(userWithAuth.getUser_grant_scenarios());
+    return DigestUtils.sha256Hex(
+        String.join(
+            "\u0000",
+            customDashboard.getId(),
+            String.valueOf(customDashboard.getUpdateDate()),
+            new TreeMap<>(parameters).toString(),
+            grants,
+            watermark.toString()));
+  }
+
+  private static String cacheKey(String scope, Widget widget) {
+    return scope + ":" + widget.getId() + ":" + widget.getUpdateDate();
+  }
+
   /**
    * Executes a global search query in Elasticsearch for the current user.
    *
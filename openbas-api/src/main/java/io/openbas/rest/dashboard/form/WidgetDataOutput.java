@@ -0,0 +1,29 @@
+package io.openbas.rest.dashboard.form;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.openbas.engine.model.EsBase;
+import io.openbas.engine.query.EsAttackPath;
+import io.openbas.engine.query.EsSeries;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import lombok.Data;
+
+/** Data of a widget, only the field matching the widget type being set */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WidgetDataOutput {
+
+  @JsonProperty("widget_id")
+  @NotBlank
+  private String widgetId;
+
+  @JsonProperty("widget_series")
+  private List<EsSeries> series;
+
+  @JsonProperty("widget_entities")
+  private List<EsBase> entities;
+
+  @JsonProperty("widget_attack_paths")
+  private List<EsAttackPath> attackPaths;
+}
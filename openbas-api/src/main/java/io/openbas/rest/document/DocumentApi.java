@@ -36,8 +36,6 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -82,8 +80,7 @@ public class DocumentApi extends RestBehavior {
       @Valid @RequestPart("input") DocumentCreateInput input,
       @RequestPart("file") MultipartFile file)
       throws Exception {
-    String extension = FilenameUtils.getExtension(file.getOriginalFilename());
-    String fileTarget = DigestUtils.md5Hex(file.getInputStream()) + "." + extension;
+    String fileTarget = documentService.storeFile(file);
     Optional<Document> targetDocument = documentRepository.findByTarget(fileTarget);
     if (targetDocument.isPresent()) {
       Document document = targetDocument.get();
@@ -110,7 +107,6 @@ public class DocumentApi extends RestBehavior {
       document.setTags(tags);
       return documentRepository.save(document);
     } else {
-      fileService.uploadFile(fileTarget, file);
       Document document = new Document();
       document.setTarget(fileTarget);
       document.setName(file.getOriginalFilename());
@@ -135,8 +131,7 @@ public class DocumentApi extends RestBehavior {
       @Valid @RequestPart("input") DocumentCreateInput input,
       @RequestPart("file") MultipartFile file)
       throws Exception {
-    String extension = FilenameUtils.getExtension(file.getOriginalFilename());
-    String fileTarget = DigestUtils.md5Hex(file.getInputStream()) + "." + extension;
+    String fileTarget = documentService.storeFile(file);
     Optional<Document> targetDocument = documentRepository.findByTarget(fileTarget);
     // Document already exists by hash
     if (targetDocument.isPresent()) {
@@ -169,7 +164,6 @@ public class DocumentApi extends RestBehavior {
       if (existingDocument.isPresent()) {
         Document document = existingDocument.get();
         // Update doc
-        fileService.uploadFile(fileTarget, file);
         document.setDescription(input.getDescription());
 
         // Compute exercises
@@ -195,7 +189,6 @@ public class DocumentApi extends RestBehavior {
         document.setTags(tags);
         return documentRepository.save(document);
       } else {
-        fileService.uploadFile(fileTarget, file);
         Document document = new Document();
         document.setTarget(fileTarget);
         document.setName(file.getOriginalFilename());
@@ -13,26 +13,43 @@ import io.openbas.database.repository.DocumentRepository;
 import io.openbas.injectors.challenge.model.ChallengeContent;
 import io.openbas.rest.exception.BadRequestException;
 import io.openbas.rest.exception.ElementNotFoundException;
+import io.openbas.rest.exception.FileTooBigException;
 import io.openbas.service.FileService;
 import jakarta.annotation.Resource;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
 public class DocumentService {
 
+  private static final int UPLOAD_PROGRESS_STEPS = 10;
+
   @Resource private ObjectMapper mapper;
 
   private final DocumentRepository documentRepository;
   private final ChallengeRepository challengeRepository;
   private final FileService fileService;
 
+  @Value("${openbas.document.upload.max-size:5GB}")
+  private DataSize uploadMaxSize;
+
+  @Value("${openbas.document.upload.rate-limit:0}")
+  private DataSize uploadRateLimit;
+
   // -- CRUD --
 
   public Document document(@NotBlank final String documentId) {
@@ -102,4 +119,66 @@ public class DocumentService {
           }
         });
   }
+
+  // -- UPLOAD --
+
+  /**
+   * Store an uploaded file under the md5 of its content. The content is read once, hashed while
+   * being streamed to a staging object, which is only copied to its final name if no document
+   * already targets the same content.
+   *
+   * @param file the uploaded file
+   * @return the target of the file
+   */
+  public String storeFile(@NotNull final MultipartFile file) throws Exception {
+    long maxSize = uploadMaxSize.toBytes();
+    if (file.getSize() > maxSize) {
+      throw new FileTooBigException("File size cannot be greater than " + uploadMaxSize);
+    }
+    String stagingName = FileService.STAGING_BASE_PATH + UUID.randomUUID();
+    String hash;
+    try (UploadInputStream data =
+        new UploadInputStream(
+            file.getInputStream(),
+            maxSize,
+            uploadRateLimit.toBytes(),
+            uploadProgressLogger(file.getOriginalFilename(), file.getSize()))) {
+      hash = fileService.stageFile(stagingName, data, file.getSize(), file.getContentType());
+    } catch (Exception e) {
+      deleteStagedFile(stagingName);
+      throw e;
+    }
+
+    String extension = FilenameUtils.getExtension(file.getOriginalFilename());
+    String fileTarget = hash + "." + extension;
+    if (documentRepository.findByTarget(fileTarget).isPresent()) {
+      // Same content already stored, nothing to commit
+      deleteStagedFile(stagingName);
+    } else {
+      fileService.commitStagedFile(stagingName, fileTarget);
+    }
+    return fileTarget;
+  }
+
+  private void deleteStagedFile(String stagingName) {
+    try {
+      fileService.deleteFile(stagingName);
+    } catch (Exception e) {
+      log.warn("Staging file already removed or not found in minio: {}", stagingName, e);
+    }
+  }
+
+  private static LongConsumer uploadProgressLogger(String fileName, long size) {
+    AtomicInteger lastLoggedStep = new AtomicInteger();
+    return readBytes -> {
+      if (size <= 0) {
+        return;
+      }
+      int step = (int) (readBytes * UPLOAD_PROGRESS_STEPS / size);
+      if (step > lastLoggedStep.get()) {
+        lastLoggedStep.set(step);
+        log.debug("Upload of {}: {}/{} bytes", fileName, readBytes, size);
+      }
+    };
+  }
 }
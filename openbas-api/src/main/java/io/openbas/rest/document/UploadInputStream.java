@@ -0,0 +1,78 @@
+package io.openbas.rest.document;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.openbas.rest.exception.FileTooBigException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/** Input stream of an upload, enforcing a maximum size and throughput while reporting progress */
+class UploadInputStream extends FilterInputStream {
+
+  private final long maxSize;
+  private final RateLimiter rateLimiter;
+  private final LongConsumer progressListener;
+  private long readBytes = 0;
+
+  /**
+   * @param in the uploaded content
+   * @param maxSize the maximum number of bytes allowed
+   * @param bytesPerSecond the maximum throughput, 0 or less for no limit
+   * @param progressListener called with the total number of bytes read so far
+   */
+  UploadInputStream(
+      InputStream in, long maxSize, long bytesPerSecond, LongConsumer progressListener) {
+    super(in);
+    this.maxSize = maxSize;
+    this.rateLimiter = bytesPerSecond > 0 ? RateLimiter.create(bytesPerSecond) : null;
+    this.progressListener = progressListener;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int value = super.read();
+    if (value != -1) {
+      consumed(1);
+    }
+    return value;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int count = super.read(b, off, len);
+    if (count > 0) {
+      consumed(count);
+    }
+    return count;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    if (skipped > 0) {
+      consumed(skipped);
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  public long getReadBytes() {
+    return readBytes;
+  }
+
+  private void consumed(long count) {
+    readBytes += count;
+    if (readBytes > maxSize) {
+      throw new FileTooBigException("File size cannot be greater than " + maxSize + " bytes");
+    }
+    if (rateLimiter != null) {
+      rateLimiter.acquire((int) Math.min(count, Integer.MAX_VALUE));
+    }
+    progressListener.accept(readBytes);
+  }
+}
@@ -1,7 +1,6 @@
 package io.openbas.rest.executor;
 
 import static io.openbas.database.model.User.ROLE_ADMIN;
-import static io.openbas.service.EndpointService.JFROG_BASE;
 import static io.openbas.service.EndpointService.SERVICE;
 import static io.openbas.utils.AgentUtils.AVAILABLE_ARCHITECTURES;
 import static io.openbas.utils.AgentUtils.AVAILABLE_PLATFORMS;
@@ -15,6 +14,8 @@ import io.openbas.rest.exception.ElementNotFoundException;
 import io.openbas.rest.executor.form.ExecutorCreateInput;
 import io.openbas.rest.executor.form.ExecutorUpdateInput;
 import io.openbas.rest.helper.RestBehavior;
+import io.openbas.service.AgentArtifactService;
+import io.openbas.service.AgentArtifactService.AgentArtifact;
 import io.openbas.service.EndpointService;
 import io.openbas.service.FileService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -24,15 +25,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.annotation.Resource;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.time.Instant;
 import java.util.Optional;
-import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -43,12 +42,6 @@ import org.springframework.web.multipart.MultipartFile;
 @RestController
 public class ExecutorApi extends RestBehavior {
 
-  @Value("${info.app.version:unknown}")
-  String version;
-
-  @Value("${executor.openbas.binaries.origin:local}")
-  private String executorOpenbasBinariesOrigin;
-
   @Value("${executor.openbas.binaries.version:${info.app.version:unknown}}")
   private String executorOpenbasBinariesVersion;
 
@@ -56,6 +49,7 @@ public class ExecutorApi extends RestBehavior {
   private EndpointService endpointService;
   private FileService fileService;
   private TokenRepository tokenRepository;
+  private AgentArtifactService agentArtifactService;
 
   @Resource protected ObjectMapper mapper;
 
@@ -64,6 +58,11 @@ public class ExecutorApi extends RestBehavior {
     this.tokenRepository = tokenRepository;
   }
 
+  @Autowired
+  public void setAgentArtifactService(AgentArtifactService agentArtifactService) {
+    this.agentArtifactService = agentArtifactService;
+  }
+
   @Autowired
   public void setEndpointService(EndpointService endpointService) {
     this.endpointService = endpointService;
@@ -166,7 +165,7 @@ public class ExecutorApi extends RestBehavior {
   @GetMapping(
       value = "/api/agent/executable/openbas/{platform}/{architecture}",
       produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-  public @ResponseBody ResponseEntity<byte[]> getOpenBasAgentExecutable(
+  public @ResponseBody ResponseEntity<FileSystemResource> getOpenBasAgentExecutable(
       @Parameter(
               description =
                   "Target platform for the agent installation (e.g., windows, linux, mac). Case insensitive.",
@@ -190,28 +189,14 @@ public class ExecutorApi extends RestBehavior {
       throw new IllegalArgumentException("Architecture invalid : " + architecture);
     }
 
-    InputStream in = null;
     String resourcePath = "/openbas-agent/" + platform + "/" + architecture + "/";
-    String filename = "";
-
-    if (executorOpenbasBinariesOrigin.equals("local")) { // if we want the local binaries
-      filename = "openbas-agent-" + version + (platform.equals("windows") ? ".exe" : "");
-      in = getClass().getResourceAsStream("/agents" + resourcePath + filename);
-    } else if (executorOpenbasBinariesOrigin.equals(
-        "repository")) { // if we want a specific version from artifactory
-      filename =
-          "openbas-agent-"
-              + executorOpenbasBinariesVersion
-              + (platform.equals("windows") ? ".exe" : "");
-      in = new BufferedInputStream(new URL(JFROG_BASE + resourcePath + filename).openStream());
-    }
-    if (in != null) {
-      HttpHeaders headers = new HttpHeaders();
-      headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
-      return ResponseEntity.ok()
-          .headers(headers)
-          .contentType(MediaType.APPLICATION_OCTET_STREAM)
-          .body(IOUtils.toByteArray(in));
+    String filename =
+        "openbas-agent-"
+            + agentArtifactService.version()
+            + (platform.equals("windows") ? ".exe" : "");
+    Optional<AgentArtifact> artifact = agentArtifactService.artifact(resourcePath, filename);
+    if (artifact.isPresent()) {
+      return artifactResponse(artifact.get());
     }
     throw new UnsupportedOperationException("Agent " + platform + " executable not supported");
   }
@@ -233,7 +218,7 @@ public class ExecutorApi extends RestBehavior {
   @GetMapping(
       value = "/api/agent/package/openbas/{platform}/{architecture}/{installationMode}",
       produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-  public @ResponseBody ResponseEntity<byte[]> getOpenBasAgentPackage(
+  public @ResponseBody ResponseEntity<FileSystemResource> getOpenBasAgentPackage(
       @Parameter(
               description =
                   "Target platform for the agent package (e.g., windows, linux, mac). Case insensitive.",
@@ -262,44 +247,39 @@ public class ExecutorApi extends RestBehavior {
       throw new IllegalArgumentException("Architecture invalid : " + architecture);
     }
 
-    byte[] file = null;
-    String filename = null;
+    Optional<AgentArtifact> artifact = Optional.empty();
 
     if (platform.equals("windows")) {
-      InputStream in = null;
       String resourcePath = "/openbas-agent/windows/" + architecture + "/";
 
-      filename = "openbas-agent-installer-";
+      String filename = "openbas-agent-installer-";
       if (installationMode != null && !installationMode.equals(SERVICE)) {
         filename = filename.concat(installationMode).concat("-");
       }
-
-      if (executorOpenbasBinariesOrigin.equals("local")) { // if we want the local binaries
-        filename = filename.concat(version).concat(".exe");
-        in = getClass().getResourceAsStream("/agents" + resourcePath + filename);
-      } else if (executorOpenbasBinariesOrigin.equals(
-          "repository")) { // if we want a specific version from artifactory
-        filename = filename.concat(executorOpenbasBinariesVersion).concat(".exe");
-        in = new BufferedInputStream(new URL(JFROG_BASE + resourcePath + filename).openStream());
-      }
-      if (in == null) {
+      filename = filename.concat(agentArtifactService.version()).concat(".exe");
+      artifact = agentArtifactService.artifact(resourcePath, filename);
+      if (artifact.isEmpty()) {
         throw new UnsupportedOperationException(
             "Agent version " + executorOpenbasBinariesVersion + " not found");
       }
-      file = IOUtils.toByteArray(in);
     }
     // linux & macos - No package needed
-    if (file != null) {
-      HttpHeaders headers = new HttpHeaders();
-      headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
-      return ResponseEntity.ok()
-          .headers(headers)
-          .contentType(MediaType.APPLICATION_OCTET_STREAM)
-          .body(file);
+    if (artifact.isPresent()) {
+      return artifactResponse(artifact.get());
     }
     throw new UnsupportedOperationException("Agent " + platform + " package not supported");
   }
 
+  // Served from the local cache, Spring handling the conditional and range requests
+  private ResponseEntity<FileSystemResource> artifactResponse(AgentArtifact artifact) {
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + artifact.filename())
+        .eTag(artifact.checksum())
+        .cacheControl(CacheControl.noCache())
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .body(new FileSystemResource(artifact.path()));
+  }
+
   // Public API
   @Operation(
       summary = "Retrieve OpenBAS Agent Installer Command",
@@ -0,0 +1,88 @@
+package io.openbas.rest.exercise.service;
+
+import io.openbas.database.audit.BaseEvent;
+import io.openbas.database.model.Exercise;
+import io.openbas.database.model.ExerciseStatus;
+import io.openbas.database.model.InjectExpectation;
+import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects the simulations whose expectations are saved or deleted, or which are saved as finished,
+ * during a transaction and refreshes their score snapshots once, after commit.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ExerciseScoreSnapshotListener {
+
+  private final ExerciseScoreSnapshotService exerciseScoreSnapshotService;
+
+  @EventListener
+  public void listenScoreChange(@NotNull final BaseEvent event) {
+    String exerciseId = changedExerciseId(Hibernate.unproxy(event.getInstance()));
+    if (exerciseId == null) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      refresh(Set.of(exerciseId));
+      return;
+    }
+    Object key = this;
+    @SuppressWarnings("unchecked")
+    Set<String> exerciseIds = (Set<String>) TransactionSynchronizationManager.getResource(key);
+    if (exerciseIds == null) {
+      Set<String> collected = new LinkedHashSet<>();
+      TransactionSynchronizationManager.bindResource(key, collected);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(key);
+              if (status == STATUS_COMMITTED) {
+                refresh(collected);
+              }
+            }
+          });
+      exerciseIds = collected;
+    }
+    exerciseIds.add(exerciseId);
+  }
+
+  // -- PRIVATE --
+
+  private static String changedExerciseId(Object instance) {
+    if (instance instanceof InjectExpectation expectation) {
+      // Players and agents expectations are not part of the global score
+      if (expectation.getExercise() == null
+          || expectation.getInject() == null
+          || expectation.getUser() != null
+          || expectation.getAgent() != null) {
+        return null;
+      }
+      return expectation.getExercise().getId();
+    }
+    if (instance instanceof Exercise exercise
+        && ExerciseStatus.FINISHED.equals(exercise.getStatus())) {
+      return exercise.getId();
+    }
+    return null;
+  }
+
+  private void refresh(@NotNull final Set<String> exerciseIds) {
+    try {
+      this.exerciseScoreSnapshotService.refreshExercises(exerciseIds);
+    } catch (RuntimeException e) {
+      // The periodic reconciliation will catch up
+      log.warn("Cannot refresh the score snapshots of {} simulations", exerciseIds.size(), e);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package io.openbas.rest.exercise.service;
+
+import static io.openbas.utils.InjectExpectationResultUtils.getExpectationResultByTypesFromCounts;
+import static java.util.stream.Collectors.groupingBy;
+
+import io.openbas.database.raw.RawExerciseExpectationCount;
+import io.openbas.database.repository.ExerciseRepository;
+import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
+import io.openbas.utils.ResultUtils;
+import jakarta.validation.constraints.NotNull;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the global scores of each simulation by type of expectation, so that lists and charts
+ * spanning many simulations do not score every expectation of each of them again.
+ */
+@RequiredArgsConstructor
+@Service
+@Slf4j
+public class ExerciseScoreSnapshotService {
+
+  private final ExerciseRepository exerciseRepository;
+  private final ResultUtils resultUtils;
+
+  // -- READ --
+
+  /**
+   * Returns the global results of the simulations having a score snapshot, in one query
+   *
+   * @param exerciseIds the ids of the simulations
+   * @return the results by type of expectation, by simulation id
+   */
+  public Map<String, List<ExpectationResultsByType>> findSnapshotResults(
+      @NotNull final Collection<String> exerciseIds) {
+    if (exerciseIds.isEmpty()) {
+      return new HashMap<>();
+    }
+    Map<String, List<RawExerciseExpectationCount>> countsByExercise =
+        this.exerciseRepository
+            .rawScoreSnapshotsByExerciseIds(exerciseIds.toArray(String[]::new))
+            .stream()
+            .collect(groupingBy(RawExerciseExpectationCount::getExercise_id));
+    Map<String, List<ExpectationResultsByType>> results = new HashMap<>();
+    countsByExercise.forEach(
+        (exerciseId, counts) ->
+            results.put(exerciseId, getExpectationResultByTypesFromCounts(counts)));
+    return results;
+  }
+
+  /**
+   * Returns the global results of simulations, from their score snapshots. Simulations without
+   * snapshot have no scored expectation yet and get their results from the content of their
+   * injects.
+   *
+   * @param exerciseIds the ids of the simulations
+   * @return the results by type of expectation, by simulation id
+   */
+  public Map<String, List<ExpectationResultsByType>> getGlobalResults(
+      @NotNull final Collection<String> exerciseIds) {
+    Map<String, List<ExpectationResultsByType>> results = findSnapshotResults(exerciseIds);
+    for (String exerciseId : exerciseIds) {
+      results.computeIfAbsent(
+          exerciseId,
+          id ->
+              this.resultUtils.getResultsByTypes(
+                  this.exerciseRepository.findInjectsByExercise(id)));
+    }
+    return results;
+  }
+
+  // -- MAINTENANCE --
+
+  /**
+   * Recompute the score snapshots of simulations whose expectations changed or which just finished
+   *
+   * @param exerciseIds the ids of the simulations
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void refreshExercises(@NotNull final Collection<String> exerciseIds) {
+    if (exerciseIds.isEmpty()) {
+      return;
+    }
+    String[] ids = exerciseIds.toArray(String[]::new);
+    this.exerciseRepository.upsertScoreSnapshots(ids);
+    this.exerciseRepository.deleteStaleScoreSnapshots(ids);
+  }
+
+  /**
+   * Recompute every score snapshot, catching up with the expectations changed by bulk statements
+   * that do not go through the entity listeners
+   */
+  @Transactional
+  public void reconcile() {
+    int updated = this.exerciseRepository.upsertAllScoreSnapshots();
+    int removed = this.exerciseRepository.deleteAllStaleScoreSnapshots();
+    if (updated > 0 || removed > 0) {
+      log.info("Simulation score snapshots reconciled: {} updated, {} removed", updated, removed);
+    }
+  }
+}
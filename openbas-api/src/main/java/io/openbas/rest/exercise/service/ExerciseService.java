@@ -21,7 +21,6 @@ import io.openbas.config.OpenBASConfig;
 import io.openbas.config.cache.LicenseCacheManager;
 import io.openbas.database.model.*;
 import io.openbas.database.raw.RawExerciseSimple;
-import io.openbas.database.raw.RawInjectExpectation;
 import io.openbas.database.repository.*;
 import io.openbas.ee.Ee;
 import io.openbas.expectation.ExpectationType;
@@ -88,6 +87,7 @@ public class ExerciseService {
   private final TagRuleService tagRuleService;
   private final DocumentService documentService;
   private final InjectService injectService;
+  private final ExerciseScoreSnapshotService exerciseScoreSnapshotService;
 
   private final ExerciseMapper exerciseMapper;
   private final InjectMapper injectMapper;
@@ -547,11 +547,11 @@ public class ExerciseService {
     Set<String> exerciseIds = getExerciseIds(exercises);
     MappingsByExerciseIds mappingsByExerciseIds = getResultsByExerciseIds(exerciseIds);
 
-    Map<String, List<RawInjectExpectation>> expectationsByExerciseIds =
-        getExpectationsByExerciseId(exerciseIds);
+    Map<String, List<ExpectationResultsByType>> snapshotResultsByExerciseIds =
+        exerciseScoreSnapshotService.findSnapshotResults(exerciseIds);
 
     for (ExerciseSimple exercise : exercises) {
-      setGlobalScore(exercise, expectationsByExerciseIds);
+      setGlobalScore(exercise, snapshotResultsByExerciseIds);
 
       setTargets(exercise, mappingsByExerciseIds);
     }
@@ -613,23 +613,17 @@ public class ExerciseService {
       Map<String, List<Object[]>> assetsByExerciseIds,
       Map<String, List<Object[]>> assetGroupsByExerciseIds) {}
 
-  private Map<String, List<RawInjectExpectation>> getExpectationsByExerciseId(
-      Set<String> exerciseIds) {
-    return ofNullable(injectExpectationRepository.rawForComputeGlobalByExerciseIds(exerciseIds))
-        .orElse(emptyList())
-        .stream()
-        .filter(Objects::nonNull)
-        .collect(Collectors.groupingBy(RawInjectExpectation::getExercise_id));
-  }
-
   private void setGlobalScore(
-      ExerciseSimple exercise, Map<String, List<RawInjectExpectation>> expectationsByExerciseIds) {
-    List<RawInjectExpectation> expectations =
-        expectationsByExerciseIds.getOrDefault(exercise.getId(), emptyList());
-    HashSet<String> injectIds = new HashSet<>(Arrays.asList(exercise.getInjectIds()));
-
-    exercise.setExpectationResultByTypes(
-        injectExpectationMapper.extractExpectationResultByTypesFromRaw(injectIds, expectations));
+      ExerciseSimple exercise,
+      Map<String, List<ExpectationResultsByType>> snapshotResultsByExerciseIds) {
+    List<ExpectationResultsByType> results = snapshotResultsByExerciseIds.get(exercise.getId());
+    if (results == null) {
+      // No scored expectation yet, the results come from the content of the injects
+      HashSet<String> injectIds = new HashSet<>(Arrays.asList(exercise.getInjectIds()));
+      results =
+          injectExpectationMapper.extractExpectationResultByTypesFromRaw(injectIds, emptyList());
+    }
+    exercise.setExpectationResultByTypes(results);
   }
 
   private void setTargets(ExerciseSimple exercise, MappingsByExerciseIds mappingsByExerciseIds) {
@@ -665,14 +659,16 @@ public class ExerciseService {
 
   // -- GLOBAL RESULTS --
   public List<ExpectationResultsByType> getGlobalResults(@NotBlank String exerciseId) {
-    return resultUtils.getResultsByTypes(exerciseRepository.findInjectsByExercise(exerciseId));
+    return getGlobalResults(List.of(exerciseId)).get(exerciseId);
+  }
+
+  public Map<String, List<ExpectationResultsByType>> getGlobalResults(
+      @NotNull Collection<String> exerciseIds) {
+    return exerciseScoreSnapshotService.getGlobalResults(new LinkedHashSet<>(exerciseIds));
   }
 
   public ExercisesGlobalScoresOutput getExercisesGlobalScores(ExercisesGlobalScoresInput input) {
-    Map<String, List<ExpectationResultsByType>> globalScoresByExerciseIds =
-        input.exerciseIds().stream()
-            .collect(Collectors.toMap(Function.identity(), this::getGlobalResults));
-    return new ExercisesGlobalScoresOutput(globalScoresByExerciseIds);
+    return new ExercisesGlobalScoresOutput(getGlobalResults(input.exerciseIds()));
   }
 
   // -- TEAMS --
@@ -2,10 +2,10 @@ package io.openbas.rest.finding;
 
 import static io.openbas.utils.pagination.PaginationUtils.buildPaginationJPA;
 
-import io.openbas.database.model.Asset;
 import io.openbas.database.model.ContractOutputType;
 import io.openbas.database.model.Finding;
 import io.openbas.database.model.TypeValueKey;
+import io.openbas.database.raw.RawFindingAssets;
 import io.openbas.database.repository.FindingRepository;
 import io.openbas.database.specification.FindingSpecification;
 import io.openbas.rest.finding.form.AggregatedFindingOutput;
@@ -13,6 +13,7 @@ import io.openbas.utils.mapper.FindingMapper;
 import io.openbas.utils.pagination.SearchPaginationInput;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,9 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class FindingDistinctSearchService {
 
+  // Endpoints listed per distinct finding, the total being counted
+  private static final int MAX_ENDPOINTS_PER_FINDING = 100;
+
   private final FindingRepository findingRepository;
   private final FindingMapper findingMapper;
 
@@ -43,7 +47,7 @@ public class FindingDistinctSearchService {
             searchPaginationInput,
             Finding.class);
 
-    return searchDistinctBySpecification(FindingSpecification.forLatestSimulations(), page);
+    return searchDistinctByScope(new DistinctFindingScope(null, null, null, null, true), page);
   }
 
   public Page<AggregatedFindingOutput> searchDistinctFindingsByInject(
@@ -58,8 +62,7 @@ public class FindingDistinctSearchService {
             searchPaginationInput,
             Finding.class);
 
-    return searchDistinctBySpecification(
-        FindingSpecification.findFindingsForInject(injectId), page);
+    return searchDistinctByScope(new DistinctFindingScope(injectId, null, null, null, false), page);
   }
 
   public Page<AggregatedFindingOutput> searchDistinctFindingsBySimulation(
@@ -75,8 +78,8 @@ public class FindingDistinctSearchService {
             searchPaginationInput,
             Finding.class);
 
-    return searchDistinctBySpecification(
-        FindingSpecification.findFindingsForSimulation(simulationId), page);
+    return searchDistinctByScope(
+        new DistinctFindingScope(null, simulationId, null, null, false), page);
   }
 
   public Page<AggregatedFindingOutput> searchDistinctFindingsByScenario(
@@ -93,10 +96,8 @@ public class FindingDistinctSearchService {
             searchPaginationInput,
             Finding.class);
 
-    return searchDistinctBySpecification(
-        FindingSpecification.findFindingsForScenario(scenarioId)
-            .and(FindingSpecification.forLatestSimulations()),
-        page);
+    return searchDistinctByScope(
+        new DistinctFindingScope(null, null, scenarioId, null, true), page);
   }
 
   public Page<AggregatedFindingOutput> searchDistinctFindingsByEndpoint(
@@ -113,16 +114,25 @@ public class FindingDistinctSearchService {
             searchPaginationInput,
             Finding.class);
 
-    return searchDistinctBySpecification(
-        FindingSpecification.findFindingsForEndpoint(endpointId)
-            .and(FindingSpecification.forLatestSimulations()),
-        page);
+    return searchDistinctByScope(
+        new DistinctFindingScope(null, null, null, endpointId, true), page);
   }
 
-  public Page<AggregatedFindingOutput> searchDistinctBySpecification(
-      Specification<Finding> baseFilterSpec, Page<Finding> page) {
-
-    // Step 1: Extract distinct (type, value) keys
+  /**
+   * Scope of the distinct findings, matching the base specification of the page query. Null ids do
+   * not restrict the scope.
+   */
+  public record DistinctFindingScope(
+      String injectId,
+      String simulationId,
+      String scenarioId,
+      String endpointId,
+      boolean latestSimulationsOnly) {}
+
+  public Page<AggregatedFindingOutput> searchDistinctByScope(
+      DistinctFindingScope scope, Page<Finding> page) {
+
+    // Step 1: Extract distinct (type, value) keys of the page
     List<TypeValueKey> typeValueKeys =
         page.getContent().stream()
             .map(f -> new TypeValueKey(f.getType(), f.getValue()))
@@ -133,37 +143,32 @@ public class FindingDistinctSearchService {
       return Page.empty(page.getPageable());
     }
 
-    // Step 2: Fetch all findings with assets for those values/types
-    List<ContractOutputType> types = typeValueKeys.stream().map(TypeValueKey::getType).toList();
-    List<String> values = typeValueKeys.stream().map(TypeValueKey::getValue).toList();
-
-    List<Finding> findingsWithAssets =
-        findingRepository.findAll(
-            FindingSpecification.findAllWithAssetsByTypeValueIn(types, values, baseFilterSpec));
-
-    // Step 3: Group assets by (type, value)
-    Map<TypeValueKey, List<Asset>> groupedAssets =
-        findingsWithAssets.stream()
-            .filter(f -> typeValueKeys.contains(new TypeValueKey(f.getType(), f.getValue())))
-            .flatMap(
-                finding ->
-                    finding.getAssets().stream()
-                        .map(
-                            asset ->
-                                Map.entry(
-                                    new TypeValueKey(finding.getType(), finding.getValue()),
-                                    asset)))
+    // Step 2: Aggregate the endpoints of each (type, value) in the scope, in one query
+    Map<TypeValueKey, RawFindingAssets> endpointsByKey =
+        findingRepository
+            .aggregateEndpointsByTypeValue(
+                typeValueKeys.stream().map(k -> k.getType().name()).toArray(String[]::new),
+                typeValueKeys.stream().map(TypeValueKey::getValue).toArray(String[]::new),
+                scope.injectId(),
+                scope.simulationId(),
+                scope.scenarioId(),
+                scope.endpointId(),
+                scope.latestSimulationsOnly(),
+                MAX_ENDPOINTS_PER_FINDING)
+            .stream()
             .collect(
-                Collectors.groupingBy(
-                    Map.Entry::getKey,
-                    Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
-
-    // Step 4: Map page findings + grouped assets to AggregatedFindingOutput
+                Collectors.toMap(
+                    raw ->
+                        new TypeValueKey(
+                            ContractOutputType.valueOf(raw.getFinding_type()),
+                            raw.getFinding_value()),
+                    Function.identity()));
+
+    // Step 3: Map page findings + aggregated endpoints to AggregatedFindingOutput
     return page.map(
-        finding -> {
-          TypeValueKey key = new TypeValueKey(finding.getType(), finding.getValue());
-          List<Asset> relatedAssets = groupedAssets.getOrDefault(key, List.of());
-          return findingMapper.toAggregatedFindingOutput(finding, relatedAssets);
-        });
+        finding ->
+            findingMapper.toAggregatedFindingOutput(
+                finding,
+                endpointsByKey.get(new TypeValueKey(finding.getType(), finding.getValue()))));
   }
 }
@@ -46,6 +46,10 @@ public class AggregatedFindingOutput {
   @NotNull
   private Set<EndpointSimple> endpoints;
 
+  @Schema(description = "Number of endpoints linked to finding, the endpoints list being capped")
+  @JsonProperty("finding_assets_count")
+  private Long endpointCount;
+
   @Schema(description = "Asset groups linked to endpoints")
   @JsonProperty("finding_asset_groups")
   private Set<AssetGroupSimple> assetGroups;
@@ -14,6 +14,7 @@ import io.openbas.database.repository.*;
 import io.openbas.execution.ExecutableInject;
 import io.openbas.execution.ExecutionContext;
 import io.openbas.execution.ExecutionContextService;
+import io.openbas.execution.ExecutionContextTemplate;
 import io.openbas.executors.Executor;
 import io.openbas.rest.atomic_testing.form.InjectResultOutput;
 import io.openbas.rest.exception.ElementNotFoundException;
@@ -207,12 +208,11 @@ public class ExerciseInjectApi extends RestBehavior {
     inject.setDependsDuration(0L);
     Inject savedInject = this.injectRepository.save(inject);
     Iterable<User> users = this.userRepository.findAllById(input.getUserIds());
+    ExecutionContextTemplate template =
+        this.executionContextService.executionContextTemplate(savedInject);
     List<ExecutionContext> userInjectContexts =
         fromIterable(users).stream()
-            .map(
-                user ->
-                    this.executionContextService.executionContext(
-                        user, savedInject, "Direct execution"))
+            .map(user -> template.executionContext(user, "Direct execution"))
             .collect(Collectors.toList());
     ExecutableInject injection =
         new ExecutableInject(
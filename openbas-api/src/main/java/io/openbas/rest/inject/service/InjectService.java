@@ -206,36 +206,30 @@ public class InjectService {
   }
 
   public List<AssetToExecute> resolveAllAssetsToExecute(@NotNull final Inject inject) {
-    List<AssetToExecute> assetToExecutes = new ArrayList<>();
+    // Indexed by asset id to merge the groups of an asset reached several times
+    Map<String, AssetToExecute> assetToExecutesById = new LinkedHashMap<>();
 
-    inject.getAssets().forEach(asset -> assetToExecutes.add(new AssetToExecute(asset)));
+    inject
+        .getAssets()
+        .forEach(asset -> assetToExecutesById.put(asset.getId(), new AssetToExecute(asset)));
 
+    Map<String, List<Asset>> assetsByAssetGroup = assetsByAssetGroup(inject);
     inject
         .getAssetGroups()
         .forEach(
-            assetGroup -> {
-              List<Asset> assetsFromGroup =
-                  this.assetGroupService.assetsFromAssetGroup(assetGroup.getId());
-
-              assetsFromGroup.forEach(
-                  asset -> {
-                    AssetToExecute existingAssetToExecute =
-                        assetToExecutes.stream()
-                            .filter(as -> as.asset().getId().equals(asset.getId()))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (existingAssetToExecute != null) {
-                      existingAssetToExecute.assetGroups().add(assetGroup);
-                    } else {
-                      AssetToExecute newAssetToExecute =
-                          new AssetToExecute(asset, false, new ArrayList<>());
-                      newAssetToExecute.assetGroups().add(assetGroup);
-                      assetToExecutes.add(newAssetToExecute);
-                    }
-                  });
-            });
-
+            assetGroup ->
+                assetsByAssetGroup
+                    .getOrDefault(assetGroup.getId(), List.of())
+                    .forEach(
+                        asset ->
+                            assetToExecutesById
+                                .computeIfAbsent(
+                                    asset.getId(),
+                                    id -> new AssetToExecute(asset, false, new ArrayList<>()))
+                                .assetGroups()
+                                .add(assetGroup)));
+
+    List<AssetToExecute> assetToExecutes = new ArrayList<>(assetToExecutesById.values());
     return assetToExecutes;
   }
 
@@ -786,8 +780,9 @@ public class InjectService {
       extractAgentsAndAssetsAgentless(agents, assetsAgentless, asset);
     }
 
+    Map<String, List<Asset>> assetsByAssetGroup = assetsByAssetGroup(inject);
     for (AssetGroup assetGroup : inject.getAssetGroups()) {
-      for (Asset asset : assetGroupService.assetsFromAssetGroup(assetGroup.getId())) {
+      for (Asset asset : assetsByAssetGroup.getOrDefault(assetGroup.getId(), List.of())) {
         extractAgentsAndAssetsAgentless(agents, assetsAgentless, asset);
       }
     }
@@ -795,6 +790,11 @@ public class InjectService {
     return new AgentsAndAssetsAgentless(agents, assetsAgentless);
   }
 
+  private Map<String, List<Asset>> assetsByAssetGroup(@NotNull final Inject inject) {
+    return this.assetGroupService.assetsFromAssetGroups(
+        inject.getAssetGroups().stream().map(AssetGroup::getId).toList());
+  }
+
   private void extractAgentsAndAssetsAgentless(
       Set<Agent> agents, Set<Asset> assetsAgentless, Asset asset) {
     List<Agent> collectedAgents =
@@ -829,8 +829,10 @@ public class InjectService {
         };
 
     new ArrayList<>(inject.getAssets()).forEach(extractAgents);
+    Map<String, List<Asset>> assetsByAssetGroup = assetsByAssetGroup(inject);
     inject.getAssetGroups().stream()
-        .flatMap(assetGroup -> assetGroupService.assetsFromAssetGroup(assetGroup.getId()).stream())
+        .flatMap(
+            assetGroup -> assetsByAssetGroup.getOrDefault(assetGroup.getId(), List.of()).stream())
         .forEach(extractAgents);
 
     return agents;
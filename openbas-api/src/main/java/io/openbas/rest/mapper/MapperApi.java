@@ -17,6 +17,7 @@ import io.openbas.rest.helper.RestBehavior;
 import io.openbas.rest.mapper.form.ExportMapperInput;
 import io.openbas.rest.mapper.form.ImportMapperAddInput;
 import io.openbas.rest.mapper.form.ImportMapperUpdateInput;
+import io.openbas.rest.mapper.response.CsvImportResult;
 import io.openbas.rest.scenario.form.InjectsImportTestInput;
 import io.openbas.rest.scenario.response.ImportPostSummary;
 import io.openbas.rest.scenario.response.ImportTestSummary;
@@ -198,10 +199,10 @@ public class MapperApi extends RestBehavior {
   @PostMapping("/api/mappers/import/csv")
   @LogExecutionTime
   @Transactional(rollbackOn = Exception.class)
-  public void importEndpoints(
+  public CsvImportResult importEndpoints(
       @RequestParam TargetType targetType, @RequestPart("file") @NotNull MultipartFile file)
       throws Exception {
-    mapperService.importMappersCsv(file, targetType);
+    return mapperService.importMappersCsv(file, targetType);
   }
 
   private void validateUploadedFile(MultipartFile file) {
@@ -0,0 +1,39 @@
+package io.openbas.rest.mapper.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CsvImportResult {
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RowError {
+
+    @JsonProperty("row_line")
+    private long line;
+
+    @JsonProperty("row_message")
+    private String message;
+  }
+
+  @JsonProperty("import_imported_count")
+  private long importedCount = 0;
+
+  @JsonProperty("import_errors")
+  private List<RowError> errors = new ArrayList<>();
+
+  public void addImported(long count) {
+    this.importedCount += count;
+  }
+
+  public void addError(long line, String message) {
+    this.errors.add(new RowError(line, message));
+  }
+}
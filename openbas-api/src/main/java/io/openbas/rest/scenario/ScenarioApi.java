@@ -22,6 +22,7 @@ import io.openbas.rest.helper.RestBehavior;
 import io.openbas.rest.scenario.form.*;
 import io.openbas.rest.team.output.TeamOutput;
 import io.openbas.service.ImportService;
+import io.openbas.service.ScenarioRecurrenceService;
 import io.openbas.service.ScenarioService;
 import io.openbas.service.ScenarioToExerciseService;
 import io.openbas.service.TeamService;
@@ -64,6 +65,7 @@ public class ScenarioApi extends RestBehavior {
   private final ScenarioToExerciseService scenarioToExerciseService;
   private final ImportService importService;
   private final ScenarioService scenarioService;
+  private final ScenarioRecurrenceService scenarioRecurrenceService;
   private final TeamService teamService;
 
   @PostMapping(SCENARIO_URI)
@@ -249,6 +251,7 @@ public class ScenarioApi extends RestBehavior {
       this.scenarioService.throwIfScenarioNotLaunchable(scenario);
     }
     scenario.setUpdateAttributes(input);
+    this.scenarioRecurrenceService.scheduleNextOccurrence(scenario);
     return this.scenarioService.updateScenario(scenario);
   }
 
@@ -3,6 +3,7 @@ package io.openbas.rest.scenario.service;
 import io.openbas.database.raw.RawFinishedExerciseWithInjects;
 import io.openbas.database.repository.ExerciseRepository;
 import io.openbas.expectation.ExpectationType;
+import io.openbas.rest.exercise.service.ExerciseScoreSnapshotService;
 import io.openbas.rest.scenario.response.GlobalScoreBySimulationEndDate;
 import io.openbas.rest.scenario.response.ScenarioStatistic;
 import io.openbas.rest.scenario.response.SimulationsResultsLatest;
@@ -23,6 +24,7 @@ public class ScenarioStatisticService {
 
   private final ExerciseRepository exerciseRepository;
 
+  private final ExerciseScoreSnapshotService exerciseScoreSnapshotService;
   private final ResultUtils resultUtils;
 
   private static final int GLOBAL_SCORE_PERCENTAGE_NUMBER_OF_DECIMALS = 1;
@@ -62,12 +64,24 @@ public class ScenarioStatisticService {
 
   private List<ExpectationTypeAndGlobalScore> getAllGlobalScores(
       List<FinishedExerciseWithInjects> finishedExercises) {
-    return finishedExercises.stream().flatMap(this::getExpectationTypeAndGlobalScores).toList();
+    // Finished simulations are read from their score snapshots, in one query
+    Map<String, List<ExpectationResultsByType>> snapshotResults =
+        exerciseScoreSnapshotService.findSnapshotResults(
+            finishedExercises.stream().map(FinishedExerciseWithInjects::id).toList());
+    return finishedExercises.stream()
+        .flatMap(
+            finishedExercise ->
+                getExpectationTypeAndGlobalScores(
+                    finishedExercise,
+                    snapshotResults.computeIfAbsent(
+                        finishedExercise.id(),
+                        id -> resultUtils.getResultsByTypes(finishedExercise.injectIds()))))
+        .toList();
   }
 
-  private Stream<ExpectationTypeAndGlobalScore> getExpectationTypeAndGlobalScores(
-      FinishedExerciseWithInjects finishedExercise) {
-    return resultUtils.getResultsByTypes(finishedExercise.injectIds()).stream()
+  private static Stream<ExpectationTypeAndGlobalScore> getExpectationTypeAndGlobalScores(
+      FinishedExerciseWithInjects finishedExercise, List<ExpectationResultsByType> results) {
+    return results.stream()
         .map(
             expectationResultByType ->
                 getExpectationTypeAndGlobalScore(finishedExercise, expectationResultByType));
@@ -97,7 +111,9 @@ public class ScenarioStatisticService {
         .map(
             exercise ->
                 new FinishedExerciseWithInjects(
-                    exercise.getExercise_end_date(), exercise.getInject_ids()))
+                    exercise.getExercise_id(),
+                    exercise.getExercise_end_date(),
+                    exercise.getInject_ids()))
         .sorted(Collections.reverseOrder())
         .toList();
   }
@@ -138,7 +154,7 @@ public class ScenarioStatisticService {
         .reduce(0, Integer::sum);
   }
 
-  private record FinishedExerciseWithInjects(Instant endDate, Set<String> injectIds)
+  private record FinishedExerciseWithInjects(String id, Instant endDate, Set<String> injectIds)
       implements Comparable<FinishedExerciseWithInjects> {
     @Override
     public int compareTo(FinishedExerciseWithInjects exercise) {
@@ -0,0 +1,250 @@
+package io.openbas.rest.statistic;
+
+import static io.openbas.config.SessionHelper.currentUser;
+import static io.openbas.utils.InjectExpectationResultUtils.getExpectationResultByTypesFromCounts;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.openbas.config.OpenBASPrincipal;
+import io.openbas.database.model.AttackPattern;
+import io.openbas.database.raw.RawInjectExpectationCount;
+import io.openbas.database.repository.*;
+import io.openbas.rest.inject.form.InjectExpectationResultsByAttackPattern;
+import io.openbas.rest.statistic.response.PlatformStatistic;
+import io.openbas.rest.statistic.response.StatisticElement;
+import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+enum Type {
+  GLOBAL,
+  USER,
+}
+
+@RequiredArgsConstructor
+@Service
+@Slf4j
+public class StatisticService {
+
+  private static final String GLOBAL_CACHE_KEY = "global";
+
+  private final ScenarioRepository scenarioRepository;
+  private final ExerciseRepository exerciseRepository;
+  private final UserRepository userRepository;
+  private final TeamRepository teamRepository;
+  private final EndpointRepository endpointRepository;
+  private final AssetGroupRepository assetGroupRepository;
+  private final InjectRepository injectRepository;
+
+  @Value("${openbas.statistics.cache-ttl:30s}")
+  private Duration cacheTtl;
+
+  // Statistics by visibility: one entry shared by admins, one per user otherwise
+  private Cache<String, PlatformStatistic> statisticCache;
+
+  @PostConstruct
+  void init() {
+    this.statisticCache =
+        Caffeine.newBuilder().expireAfterWrite(this.cacheTtl).maximumSize(1000).build();
+  }
+
+  @Transactional(readOnly = true)
+  public PlatformStatistic platformStatistic() {
+    OpenBASPrincipal user = currentUser();
+    if (user.isAdmin()) {
+      return this.statisticCache.get(GLOBAL_CACHE_KEY, key -> computeGlobalStatistic());
+    }
+    return this.statisticCache.get(user.getId(), key -> computeUserStatistic());
+  }
+
+  private PlatformStatistic computeGlobalStatistic() {
+    Instant now = Instant.now();
+    PlatformStatistic statistic = new PlatformStatistic();
+    statistic.setScenariosCount(computeGlobalStat(now, scenarioRepository));
+    statistic.setExercisesCount(computeGlobalStat(now, exerciseRepository));
+    statistic.setUsersCount(computeGlobalStat(now, userRepository));
+    statistic.setTeamsCount(computeGlobalStat(now, teamRepository));
+    statistic.setAssetsCount(computeGlobalStat(now, endpointRepository));
+    statistic.setAssetGroupsCount(computeGlobalStat(now, assetGroupRepository));
+    statistic.setInjectsCount(computeGlobalStat(now, injectRepository));
+    statistic.setResults(computeExpectationResults(Type.GLOBAL, now));
+    statistic.setInjectResults(computeInjectExpectationResults(Type.GLOBAL, now));
+    statistic.setExerciseCountByCategory(computeExerciseCountGroupByCategory(Type.GLOBAL, now));
+    statistic.setExercisesCountByWeek(computeExerciseCountGroupByWeek(Type.GLOBAL, now));
+    statistic.setInjectsCountByAttackPattern(
+        computeInjectCountGroupByAttackPattern(Type.GLOBAL, now));
+    return statistic;
+  }
+
+  private PlatformStatistic computeUserStatistic() {
+    Instant now = Instant.now();
+    PlatformStatistic statistic = new PlatformStatistic();
+    statistic.setScenariosCount(computeUserStat(now, scenarioRepository));
+    statistic.setExercisesCount(computeUserStat(now, exerciseRepository));
+    statistic.setUsersCount(computeUserStat(now, userRepository));
+    statistic.setTeamsCount(computeUserStat(now, teamRepository));
+    statistic.setAssetsCount(computeUserStat(now, endpointRepository));
+    statistic.setAssetGroupsCount(computeUserStat(now, assetGroupRepository));
+    statistic.setInjectsCount(computeUserStat(now, injectRepository));
+    statistic.setResults(computeExpectationResults(Type.USER, now));
+    statistic.setInjectResults(computeInjectExpectationResults(Type.USER, now));
+    statistic.setExerciseCountByCategory(computeExerciseCountGroupByCategory(Type.USER, now));
+    statistic.setExercisesCountByWeek(computeExerciseCountGroupByWeek(Type.USER, now));
+    statistic.setInjectsCountByAttackPattern(
+        computeInjectCountGroupByAttackPattern(Type.USER, now));
+    return statistic;
+  }
+
+  // -- COUNTS --
+
+  private StatisticElement computeGlobalStat(Instant from, StatisticRepository repository) {
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    long global = repository.globalCount(minus6Months);
+    Instant minusMonth = from.minus(30, ChronoUnit.DAYS);
+    long progression = repository.globalCount(minusMonth);
+    return new StatisticElement(global, progression);
+  }
+
+  private StatisticElement computeUserStat(Instant from, StatisticRepository repository) {
+    OpenBASPrincipal user = currentUser();
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    long global = repository.userCount(user.getId(), minus6Months);
+    Instant minusMonth = from.minus(30, ChronoUnit.DAYS);
+    long progression = repository.userCount(user.getId(), minusMonth);
+    return new StatisticElement(global, progression);
+  }
+
+  // -- EXPECTATION RESULTS --
+
+  private List<ExpectationResultsByType> computeExpectationResults(
+      final Type type, @NotNull final Instant from) {
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    List<RawInjectExpectationCount> counts =
+        type == Type.GLOBAL
+            ? this.exerciseRepository.globalExpectationCountsFromDate(minus6Months)
+            : this.exerciseRepository.grantedExpectationCountsFromDate(
+                minus6Months, currentUser().getId());
+    return getExpectationResultByTypesFromCounts(counts);
+  }
+
+  private List<InjectExpectationResultsByAttackPattern> computeInjectExpectationResults(
+      final Type type, @NotNull final Instant from) {
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    List<RawInjectExpectationCount> counts =
+        type == Type.GLOBAL
+            ? this.exerciseRepository.globalAttackPatternExpectationCountsFromDate(minus6Months)
+            : this.exerciseRepository.grantedAttackPatternExpectationCountsFromDate(
+                minus6Months, currentUser().getId());
+    return injectExpectationResultsByAttackPattern(counts);
+  }
+
+  static List<InjectExpectationResultsByAttackPattern> injectExpectationResultsByAttackPattern(
+      @NotNull final List<RawInjectExpectationCount> counts) {
+    Map<String, Map<String, List<RawInjectExpectationCount>>> countsByAttackPatternAndInject =
+        counts.stream()
+            .collect(
+                groupingBy(
+                    RawInjectExpectationCount::getAttack_pattern_id,
+                    LinkedHashMap::new,
+                    groupingBy(
+                        RawInjectExpectationCount::getInject_id, LinkedHashMap::new, toList())));
+    return countsByAttackPatternAndInject.entrySet().stream()
+        .map(
+            attackPatternCounts -> {
+              InjectExpectationResultsByAttackPattern resultExpectation =
+                  new InjectExpectationResultsByAttackPattern();
+              resultExpectation.setAttackPattern(new AttackPattern());
+              resultExpectation.getAttackPattern().setId(attackPatternCounts.getKey());
+              resultExpectation.setResults(
+                  attackPatternCounts.getValue().values().stream()
+                      .map(
+                          injectCounts -> {
+                            InjectExpectationResultsByAttackPattern.InjectExpectationResultsByType
+                                injectResults =
+                                    new InjectExpectationResultsByAttackPattern
+                                        .InjectExpectationResultsByType();
+                            injectResults.setInjectTitle(injectCounts.getFirst().getInject_title());
+                            injectResults.setResults(
+                                getExpectationResultByTypesFromCounts(injectCounts));
+                            return injectResults;
+                          })
+                      .collect(toList()));
+              return resultExpectation;
+            })
+        .collect(toList());
+  }
+
+  // -- BREAKDOWNS --
+
+  private Map<String, Long> computeExerciseCountGroupByCategory(
+      final Type type, @NotNull final Instant from) {
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    List<Object[]> result = new ArrayList<>();
+    if (type == Type.GLOBAL) {
+      result = exerciseRepository.globalCountGroupByCategory(minus6Months);
+    } else if (type == Type.USER) {
+      OpenBASPrincipal user = currentUser();
+      result = exerciseRepository.userCountGroupByCategory(user.getId(), minus6Months);
+    }
+    Map<String, Long> categoryCountMap = new HashMap<>();
+    for (Object[] row : result) {
+      String category = (String) row[0];
+      Long count = (Long) row[1];
+      categoryCountMap.put(category, count);
+    }
+    return categoryCountMap;
+  }
+
+  private Map<Instant, Long> computeExerciseCountGroupByWeek(
+      final Type type, @NotNull final Instant from) {
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    List<Object[]> result = new ArrayList<>();
+    if (type == Type.GLOBAL) {
+      result = exerciseRepository.globalCountGroupByWeek(minus6Months);
+    } else if (type == Type.USER) {
+      OpenBASPrincipal user = currentUser();
+      result = exerciseRepository.userCountGroupByWeek(user.getId(), minus6Months);
+    }
+    Map<Instant, Long> weekCountMap = new HashMap<>();
+    for (Object[] row : result) {
+      Instant week = (Instant) row[0];
+      Long count = (Long) row[1];
+      weekCountMap.put(week, count);
+    }
+    return weekCountMap;
+  }
+
+  private Map<String, Long> computeInjectCountGroupByAttackPattern(
+      final Type type, @NotNull final Instant from) {
+    Instant minus6Months = from.minus(180, ChronoUnit.DAYS);
+    List<Object[]> result = new ArrayList<>();
+    if (type == Type.GLOBAL) {
+      result = injectRepository.globalCountGroupByAttackPatternInExercise(minus6Months);
+    } else if (type == Type.USER) {
+      OpenBASPrincipal user = currentUser();
+      result = injectRepository.userCountGroupByAttackPatternInExercise(user.getId(), minus6Months);
+    }
+    Map<String, Long> attackPatternMap = new HashMap<>();
+    for (Object[] row : result) {
+      String attackPattern = (String) row[0];
+      Long count = (Long) row[1];
+      attackPatternMap.put(attackPattern, count);
+    }
+    return attackPatternMap;
+  }
+}
@@ -1,19 +1,8 @@
 package io.openbas.rest.stream.ai;
 
-import static io.openbas.rest.stream.ai.AiPrompt.generatePrompt;
-
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import io.openbas.config.OpenBASPrincipal;
 import io.openbas.rest.helper.RestBehavior;
 import jakarta.validation.Valid;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -22,81 +11,31 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
-import reactor.util.function.Tuple2;
 
 @RestController
 public class AiApi extends RestBehavior {
   public static final String X_ACCEL_BUFFERING = "X-Accel-Buffering";
-  private final Map<String, Tuple2<OpenBASPrincipal, FluxSink<Object>>> consumers = new HashMap<>();
   private AiConfig aiConfig;
+  private AiGatewayService aiGatewayService;
 
   @Autowired
   public void setAiConfig(AiConfig aiConfig) {
     this.aiConfig = aiConfig;
   }
 
-  public ResponseEntity<Flux<AiResult>> queryAi(String body) {
+  @Autowired
+  public void setAiGatewayService(AiGatewayService aiGatewayService) {
+    this.aiGatewayService = aiGatewayService;
+  }
+
+  public ResponseEntity<Flux<AiResult>> queryAi(String prompt) throws JsonProcessingException {
     if (!aiConfig.isEnabled()) {
       throw new UnsupportedOperationException("AI mode is disabled");
     }
-    @SuppressWarnings("resource")
-    HttpClient client = HttpClient.newHttpClient();
-    String uri =
-        switch (aiConfig.getType()) {
-          case "mistralai", "openai" -> aiConfig.getEndpoint() + "/v1/chat/completions";
-          default -> throw new UnsupportedOperationException("Invalid ai type");
-        };
-    var request =
-        HttpRequest.newBuilder(URI.create(uri))
-            .POST(HttpRequest.BodyPublishers.ofString(body))
-            .header("Authorization", "Bearer " + aiConfig.getToken())
-            .header("Accept", "text/event-stream")
-            .header("Content-Type", "application/json")
-            .build();
-    Flux<AiResult> dataFlux =
-        Flux.create(
-            objectFluxSink -> {
-              try {
-                CompletableFuture<HttpResponse<Void>> completableFuture =
-                    client.sendAsync(
-                        request,
-                        responseInfo -> {
-                          if (responseInfo.statusCode() == 200) {
-                            return new AiSubscriber(
-                                s -> {
-                                  try {
-                                    ObjectNode resultNode = mapper.readValue(s, ObjectNode.class);
-                                    String id = resultNode.get("id").textValue();
-                                    String content =
-                                        resultNode
-                                            .get("choices")
-                                            .get(0)
-                                            .get("delta")
-                                            .get("content")
-                                            .textValue();
-                                    objectFluxSink.next(new AiResult(id, content));
-                                  } catch (Exception e) {
-                                    // Nothing to do
-                                  }
-                                });
-                          } else {
-                            throw new RuntimeException("Request failed");
-                          }
-                        });
-                completableFuture.thenApply(
-                    voidHttpResponse -> {
-                      objectFluxSink.complete();
-                      return "done";
-                    });
-              } catch (Exception e) {
-                objectFluxSink.complete();
-              }
-            });
     return ResponseEntity.ok()
         .header(HttpHeaders.CACHE_CONTROL, "no-cache")
         .header(X_ACCEL_BUFFERING, "no")
-        .body(dataFlux);
+        .body(aiGatewayService.generate(prompt));
   }
 
   @PostMapping(path = "/api/ai/fix_spelling", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -120,8 +59,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + " # Content\n"
             + aiGenericTextInput.getContent();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/make_shorter", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -145,8 +83,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + "# Content"
             + aiGenericTextInput.getContent();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/make_longer", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -171,8 +108,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + "# Content"
             + aiGenericTextInput.getContent();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/change_tone", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -198,8 +134,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + "# Content"
             + aiGenericTextInput.getContent();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/summarize", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -222,8 +157,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + " # Content"
             + aiGenericTextInput.getContent();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/explain", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -244,8 +178,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + " # Content"
             + aiGenericTextInput.getContent();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/generate_message", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -282,8 +215,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + " # Input"
             + aiMessageInput.getInput();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/generate_subject", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -317,8 +249,7 @@ public class AiApi extends RestBehavior {
             + "\n"
             + " # Input"
             + aiMessageInput.getInput();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 
   @PostMapping(path = "/api/ai/generate_media", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -349,7 +280,6 @@ public class AiApi extends RestBehavior {
             + "\n"
             + " # Input"
             + aiMediaInput.getInput();
-    AiQueryModel body = generatePrompt(prompt, aiConfig);
-    return queryAi(mapper.writeValueAsString(body));
+    return queryAi(prompt);
   }
 }
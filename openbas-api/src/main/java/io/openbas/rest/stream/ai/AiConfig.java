@@ -1,6 +1,7 @@
 package io.openbas.rest.stream.ai;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -26,6 +27,18 @@ public class AiConfig {
   @JsonProperty("model_images")
   private String modelImages;
 
+  @JsonProperty("max_concurrent_generations")
+  private int maxConcurrentGenerations = 4;
+
+  @JsonProperty("queue_timeout")
+  private Duration queueTimeout = Duration.ofSeconds(30);
+
+  @JsonProperty("cache_ttl")
+  private Duration cacheTtl = Duration.ofHours(1);
+
+  @JsonProperty("cache_size")
+  private long cacheSize = 1000;
+
   public boolean isEnabled() {
     return enabled;
   }
@@ -73,4 +86,36 @@ public class AiConfig {
   public void setModelImages(String modelImages) {
     this.modelImages = modelImages;
   }
+
+  public int getMaxConcurrentGenerations() {
+    return maxConcurrentGenerations;
+  }
+
+  public void setMaxConcurrentGenerations(int maxConcurrentGenerations) {
+    this.maxConcurrentGenerations = maxConcurrentGenerations;
+  }
+
+  public Duration getQueueTimeout() {
+    return queueTimeout;
+  }
+
+  public void setQueueTimeout(Duration queueTimeout) {
+    this.queueTimeout = queueTimeout;
+  }
+
+  public Duration getCacheTtl() {
+    return cacheTtl;
+  }
+
+  public void setCacheTtl(Duration cacheTtl) {
+    this.cacheTtl = cacheTtl;
+  }
+
+  public long getCacheSize() {
+    return cacheSize;
+  }
+
+  public void setCacheSize(long cacheSize) {
+    this.cacheSize = cacheSize;
+  }
 }
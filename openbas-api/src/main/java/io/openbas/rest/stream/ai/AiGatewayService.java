@@ -0,0 +1,158 @@
+package io.openbas.rest.stream.ai;
+
+import static io.openbas.rest.stream.ai.AiPrompt.generatePrompt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.openbas.authorisation.HttpClientFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.NotBlank;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Streams the generations of the AI provider. At most {@code ai.max_concurrent_generations}
+ * generations run upstream at once, the others waiting for their turn up to the queue timeout. A
+ * generation is cancelled upstream when its client disconnects, and completed generations are
+ * reused for identical prompts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AiGatewayService {
+
+  private final AiConfig aiConfig;
+  private final HttpClientFactory httpClientFactory;
+  private final ObjectMapper mapper;
+
+  private Semaphore generations;
+  private Cache<String, String> completedGenerations;
+
+  @PostConstruct
+  void init() {
+    this.generations = new Semaphore(this.aiConfig.getMaxConcurrentGenerations(), true);
+    this.completedGenerations =
+        Caffeine.newBuilder()
+            .expireAfterWrite(this.aiConfig.getCacheTtl())
+            .maximumSize(this.aiConfig.getCacheSize())
+            .build();
+  }
+
+  /**
+   * Generates the answer of a prompt
+   *
+   * @param prompt the prompt, its template filled with the input
+   * @return the chunks of the answer, a single chunk when already generated for the same prompt
+   */
+  public Flux<AiResult> generate(@NotBlank final String prompt) throws JsonProcessingException {
+    String uri =
+        switch (this.aiConfig.getType()) {
+          case "mistralai", "openai" -> this.aiConfig.getEndpoint() + "/v1/chat/completions";
+          default -> throw new UnsupportedOperationException("Invalid ai type");
+        };
+    String key = DigestUtils.sha256Hex(this.aiConfig.getModel() + "\u0000" + prompt);
+    String completed = this.completedGenerations.getIfPresent(key);
+    if (completed != null) {
+      return Flux.just(new AiResult(key, completed));
+    }
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create(uri))
+            .POST(
+                HttpRequest.BodyPublishers.ofString(
+                    this.mapper.writeValueAsString(generatePrompt(prompt, this.aiConfig))))
+            .header("Authorization", "Bearer " + this.aiConfig.getToken())
+            .header("Accept", "text/event-stream")
+            .header("Content-Type", "application/json")
+            .build();
+    return Flux.<AiResult>create(sink -> stream(key, request, sink))
+        // Waiting for a permit blocks, out of the request threads
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  // -- PRIVATE --
+
+  private void stream(String key, HttpRequest request, FluxSink<AiResult> sink) {
+    try {
+      if (!this.generations.tryAcquire(
+          this.aiConfig.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        sink.error(
+            new IllegalStateException("Too many AI generations in progress, please retry later"));
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      sink.error(e);
+      return;
+    }
+    AtomicBoolean released = new AtomicBoolean(false);
+    Runnable release =
+        () -> {
+          if (released.compareAndSet(false, true)) {
+            this.generations.release();
+          }
+        };
+    AtomicBoolean cancelled = new AtomicBoolean(false);
+    StringBuilder content = new StringBuilder();
+    CompletableFuture<HttpResponse<Void>> response =
+        this.httpClientFactory
+            .streamingHttpClient()
+            .sendAsync(
+                request,
+                responseInfo ->
+                    responseInfo.statusCode() == 200
+                        ? new AiSubscriber(data -> onChunk(data, content, sink))
+                        : HttpResponse.BodySubscribers.discarding());
+    // Client disconnected: cancel the upstream generation
+    sink.onDispose(
+        () -> {
+          if (!response.isDone()) {
+            cancelled.set(true);
+            response.cancel(true);
+          }
+          release.run();
+        });
+    response.whenComplete(
+        (result, error) -> {
+          release.run();
+          if (cancelled.get()) {
+            log.debug("AI generation cancelled by the client");
+          } else if (error != null) {
+            log.error("AI generation failed", error);
+          } else if (result.statusCode() != 200) {
+            log.error("AI generation failed with status {}", result.statusCode());
+          } else if (!content.isEmpty()) {
+            this.completedGenerations.put(key, content.toString());
+          }
+          sink.complete();
+        });
+  }
+
+  private void onChunk(String data, StringBuilder content, FluxSink<AiResult> sink) {
+    try {
+      JsonNode resultNode = this.mapper.readTree(data);
+      String id = resultNode.get("id").textValue();
+      String chunk = resultNode.get("choices").get(0).get("delta").get("content").textValue();
+      if (chunk != null) {
+        content.append(chunk);
+        sink.next(new AiResult(id, chunk));
+      }
+    } catch (Exception e) {
+      // Not a chunk, like the end of the stream
+    }
+  }
+}
@@ -8,8 +8,7 @@ import io.openbas.database.repository.TagRepository;
 import io.openbas.rest.exception.ElementNotFoundException;
 import io.openbas.rest.tag.form.TagCreateInput;
 import io.openbas.rest.tag.form.TagUpdateInput;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
@@ -37,6 +36,35 @@ public class TagService {
     }
   }
 
+  /**
+   * Upsert several tags with one lookup, tags being matched on their lower-cased name
+   *
+   * @param inputs tags to upsert, duplicated names being created once
+   * @return the existing or created tags by lower-cased name
+   */
+  public Map<String, Tag> upsertTags(@NotNull final Collection<TagCreateInput> inputs) {
+    Map<String, TagCreateInput> inputsByName = new LinkedHashMap<>();
+    inputs.forEach(input -> inputsByName.putIfAbsent(input.getName().toLowerCase(), input));
+    if (inputsByName.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, Tag> tagsByName = new HashMap<>();
+    this.tagRepository
+        .findAllByNameIn(inputsByName.keySet())
+        .forEach(tag -> tagsByName.put(tag.getName(), tag));
+    List<Tag> tagsToCreate = new ArrayList<>();
+    inputsByName.forEach(
+        (name, input) -> {
+          if (!tagsByName.containsKey(name)) {
+            Tag newTag = new Tag();
+            newTag.setUpdateAttributes(input);
+            tagsToCreate.add(newTag);
+          }
+        });
+    this.tagRepository.saveAll(tagsToCreate).forEach(tag -> tagsByName.put(tag.getName(), tag));
+    return tagsByName;
+  }
+
   public Tag updateTag(String tagId, TagUpdateInput input) {
     Tag tag = tagRepository.findById(tagId).orElseThrow(ElementNotFoundException::new);
     tag.setUpdateAttributes(input);
@@ -2,10 +2,13 @@ package io.openbas.scheduler;
 
 import static org.quartz.JobKey.jobKey;
 
+import io.openbas.scheduler.jobs.AgentHeartbeatFlushJob;
 import io.openbas.scheduler.jobs.ComchecksExecutionJob;
 import io.openbas.scheduler.jobs.EngineSyncExecutionJob;
 import io.openbas.scheduler.jobs.InjectsExecutionJob;
+import io.openbas.scheduler.jobs.NotificationOutboxJob;
 import io.openbas.scheduler.jobs.ScenarioExecutionJob;
+import io.openbas.scheduler.jobs.StatisticRollupReconciliationJob;
 import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.springframework.context.annotation.Bean;
@@ -45,4 +48,28 @@ public class PlatformJobDefinitions {
         .withIdentity(jobKey("ElasticSyncExecutionJob"))
         .build();
   }
+
+  @Bean
+  public JobDetail getStatisticRollupReconciliation() {
+    return JobBuilder.newJob(StatisticRollupReconciliationJob.class)
+        .storeDurably()
+        .withIdentity(jobKey("StatisticRollupReconciliationJob"))
+        .build();
+  }
+
+  @Bean
+  public JobDetail getNotificationOutbox() {
+    return JobBuilder.newJob(NotificationOutboxJob.class)
+        .storeDurably()
+        .withIdentity(jobKey("NotificationOutboxJob"))
+        .build();
+  }
+
+  @Bean
+  public JobDetail getAgentHeartbeatFlush() {
+    return JobBuilder.newJob(AgentHeartbeatFlushJob.class)
+        .storeDurably()
+        .withIdentity(jobKey("AgentHeartbeatFlushJob"))
+        .build();
+  }
 }
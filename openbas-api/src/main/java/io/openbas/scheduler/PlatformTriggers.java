@@ -57,4 +57,31 @@ public class PlatformTriggers {
         .withSchedule(_15_seconds)
         .build();
   }
+
+  @Bean
+  public Trigger statisticRollupReconciliationTrigger() {
+    return newTrigger()
+        .forJob(this.platformJobs.getStatisticRollupReconciliation())
+        .withIdentity("StatisticRollupReconciliationTrigger")
+        .withSchedule(simpleSchedule().withIntervalInHours(1).repeatForever())
+        .build();
+  }
+
+  @Bean
+  public Trigger notificationOutboxTrigger() {
+    return newTrigger()
+        .forJob(this.platformJobs.getNotificationOutbox())
+        .withIdentity("NotificationOutboxTrigger")
+        .withSchedule(simpleSchedule().withIntervalInSeconds(30).repeatForever())
+        .build();
+  }
+
+  @Bean
+  public Trigger agentHeartbeatFlushTrigger() {
+    return newTrigger()
+        .forJob(this.platformJobs.getAgentHeartbeatFlush())
+        .withIdentity("AgentHeartbeatFlushTrigger")
+        .withSchedule(simpleSchedule().withIntervalInSeconds(15).repeatForever())
+        .build();
+  }
 }
@@ -0,0 +1,23 @@
+package io.openbas.scheduler.jobs;
+
+import io.openbas.service.AgentHeartbeatService;
+import lombok.RequiredArgsConstructor;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+/** Writes the last seen dates of the agents recorded by this node since the previous run. */
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class AgentHeartbeatFlushJob implements Job {
+
+  private final AgentHeartbeatService agentHeartbeatService;
+
+  @Override
+  public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+    agentHeartbeatService.flush();
+  }
+}
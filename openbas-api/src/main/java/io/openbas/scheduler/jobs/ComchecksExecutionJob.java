@@ -2,6 +2,7 @@ package io.openbas.scheduler.jobs;
 
 import static io.openbas.database.model.Comcheck.COMCHECK_STATUS.EXPIRED;
 import static io.openbas.database.specification.ComcheckStatusSpecification.thatNeedExecution;
+import static io.openbas.helper.StreamHelper.fromIterable;
 import static io.openbas.injector_contract.variables.VariableHelper.COMCHECK;
 import static java.time.Instant.now;
 import static java.util.stream.Collectors.groupingBy;
@@ -14,9 +15,11 @@ import io.openbas.database.model.*;
 import io.openbas.database.repository.ComcheckRepository;
 import io.openbas.database.repository.ComcheckStatusRepository;
 import io.openbas.database.repository.InjectorContractRepository;
+import io.openbas.database.repository.UserRepository;
 import io.openbas.execution.ExecutableInject;
 import io.openbas.execution.ExecutionContext;
 import io.openbas.execution.ExecutionContextService;
+import io.openbas.execution.ExecutionContextTemplate;
 import io.openbas.injectors.email.EmailContract;
 import io.openbas.injectors.email.EmailExecutor;
 import jakarta.annotation.Resource;
@@ -25,6 +28,9 @@ import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
@@ -45,6 +51,7 @@ public class ComchecksExecutionJob implements Job {
 
   private InjectorContractRepository injectorContractRepository;
   private ExecutionContextService executionContextService;
+  private UserRepository userRepository;
 
   @Resource private ObjectMapper mapper;
 
@@ -68,6 +75,11 @@ public class ComchecksExecutionJob implements Job {
     this.comcheckStatusRepository = comcheckStatusRepository;
   }
 
+  @Autowired
+  public void setUserRepository(UserRepository userRepository) {
+    this.userRepository = userRepository;
+  }
+
   @Autowired
   public void setInjectorContractRepository(InjectorContractRepository injectorContractRepository) {
     this.injectorContractRepository = injectorContractRepository;
@@ -110,23 +122,44 @@ public class ComchecksExecutionJob implements Job {
           toExpired.stream().peek(comcheck -> comcheck.setState(EXPIRED)).toList());
       // 02. Send all required statuses
       List<ComcheckStatus> allStatuses = comcheckStatusRepository.findAll(thatNeedExecution());
+      if (allStatuses.isEmpty()) {
+        return;
+      }
+      // Load the users of all the statuses at once
+      Map<String, User> usersById =
+          fromIterable(
+                  userRepository.findAllById(
+                      allStatuses.stream()
+                          .map(comcheckStatus -> comcheckStatus.getUser().getId())
+                          .collect(Collectors.toSet())))
+              .stream()
+              .collect(Collectors.toMap(User::getId, Function.identity()));
       Map<Comcheck, List<ComcheckStatus>> byComchecks =
           allStatuses.stream().collect(groupingBy(ComcheckStatus::getComcheck));
+      // Variables of each simulation, read once per comcheck
+      Map<Comcheck, ExecutionContextTemplate> templates =
+          byComchecks.keySet().stream()
+              .collect(
+                  Collectors.toMap(
+                      Function.identity(),
+                      comCheck ->
+                          this.executionContextService.executionContextTemplate(
+                              comCheck.getExercise())));
       byComchecks.entrySet().stream()
           .parallel()
           .forEach(
               entry -> {
                 Comcheck comCheck = entry.getKey();
                 // Send the email to users
-                Exercise exercise = comCheck.getExercise();
+                ExecutionContextTemplate template = templates.get(comCheck);
                 List<ComcheckStatus> comcheckStatuses = entry.getValue();
                 List<ExecutionContext> userInjectContexts =
                     comcheckStatuses.stream()
                         .map(
                             comcheckStatus -> {
                               ExecutionContext injectContext =
-                                  this.executionContextService.executionContext(
-                                      comcheckStatus.getUser(), exercise, "Comcheck");
+                                  template.executionContext(
+                                      usersById.get(comcheckStatus.getUser().getId()), "Comcheck");
                               injectContext.put(
                                   COMCHECK,
                                   buildComcheckLink(
@@ -141,25 +174,23 @@ public class ComchecksExecutionJob implements Job {
                 EmailExecutor emailExecutor = context.getBean(EmailExecutor.class);
                 Execution execution = emailExecutor.executeInjection(injection);
                 // Save the status sent date
-                List<String> usersSuccessfullyNotified =
+                Set<String> usersSuccessfullyNotified =
                     execution.getTraces().stream()
                         .filter(
                             executionTrace ->
                                 ExecutionTraceStatus.SUCCESS.equals(executionTrace.getStatus()))
                         .flatMap(t -> t.getIdentifiers().stream())
-                        .toList();
-                List<ComcheckStatus> statusToUpdate =
+                        .collect(Collectors.toSet());
+                String[] statusIdsToUpdate =
                     comcheckStatuses.stream()
                         .filter(
                             comcheckStatus ->
                                 usersSuccessfullyNotified.contains(
                                     comcheckStatus.getUser().getId()))
-                        .toList();
-                if (!statusToUpdate.isEmpty()) {
-                  comcheckStatusRepository.saveAll(
-                      statusToUpdate.stream()
-                          .peek(comcheckStatus -> comcheckStatus.setLastSent(now))
-                          .toList());
+                        .map(ComcheckStatus::getId)
+                        .toArray(String[]::new);
+                if (statusIdsToUpdate.length > 0) {
+                  comcheckStatusRepository.updateSentDate(statusIdsToUpdate, now);
                 }
               });
     } catch (Exception e) {
@@ -0,0 +1,31 @@
+package io.openbas.scheduler.jobs;
+
+import io.openbas.service.NotificationEventService;
+import lombok.RequiredArgsConstructor;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handles the stored notification events once they are available. Every node runs this job, each
+ * event being handled by the first node locking it.
+ */
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class NotificationOutboxJob implements Job {
+
+  private static final int BATCH_SIZE = 100;
+
+  private final NotificationEventService notificationEventService;
+
+  @Override
+  public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+    int handled = 0;
+    while (handled < BATCH_SIZE && notificationEventService.handleNextOutboxEvent()) {
+      handled++;
+    }
+  }
+}
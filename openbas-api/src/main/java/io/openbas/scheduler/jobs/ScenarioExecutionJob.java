@@ -2,128 +2,141 @@ package io.openbas.scheduler.jobs;
 
 import static io.openbas.database.specification.ExerciseSpecification.recurringInstanceNotStarted;
 
-import com.cronutils.model.Cron;
-import com.cronutils.model.CronType;
-import com.cronutils.model.definition.CronDefinition;
-import com.cronutils.model.definition.CronDefinitionBuilder;
-import com.cronutils.model.time.ExecutionTime;
-import com.cronutils.parser.CronParser;
 import io.openbas.database.model.Exercise;
 import io.openbas.database.model.Scenario;
 import io.openbas.database.repository.ExerciseRepository;
+import io.openbas.database.repository.ScenarioRepository;
+import io.openbas.service.ScenarioRecurrenceService;
 import io.openbas.service.ScenarioService;
 import io.openbas.service.ScenarioToExerciseService;
-import jakarta.validation.constraints.NotBlank;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Instantiates the occurrences of recurring scenarios, one minute before they are due.
+ *
+ * <p>Each recurring scenario carries its next occurrence. Due scenarios are locked for the duration
+ * of the transaction, skipping the ones locked by another node, and their next occurrence is
+ * advanced in the same transaction as the simulation creation: an occurrence is instantiated at
+ * most once, even with several nodes. Missed occurrences (platform down, late ticks) are collapsed
+ * into a single simulation starting now when the last one is within the catch-up window, and
+ * skipped otherwise.
+ */
 @Component
 @RequiredArgsConstructor
+@DisallowConcurrentExecution
+@Slf4j
 public class ScenarioExecutionJob implements Job {
 
+  private static final Duration LEAD_TIME = Duration.of(1, ChronoUnit.MINUTES);
+
   private final ScenarioService scenarioService;
+  private final ScenarioRecurrenceService scenarioRecurrenceService;
+  private final ScenarioRepository scenarioRepository;
   private final ExerciseRepository exerciseRepository;
   private final ScenarioToExerciseService scenarioToExerciseService;
 
+  @Value("${openbas.scenario.recurrence.catch-up-window:5m}")
+  private Duration catchUpWindow;
+
   @Override
   @Transactional(rollbackFor = Exception.class)
   public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
-    createExercisesFromScenarios();
-    cleanOutdatedRecurringScenario();
+    Instant now = Instant.now();
+    Map<String, Scenario> changedScenarios = new LinkedHashMap<>();
+    scheduleNewRecurrences(now, changedScenarios);
+    createExercisesFromScenarios(now, changedScenarios);
+    this.scenarioService.updateScenarios(new ArrayList<>(changedScenarios.values()));
   }
 
-  private void createExercisesFromScenarios() {
-    // Find each scenario with cron where now is between start and end date
-    List<Scenario> scenarios = this.scenarioService.recurringScenarios(Instant.now());
-    // Filter on valid cron scenario -> Start date on cron is in 1 minute
-    List<Scenario> validScenarios =
-        scenarios.stream()
-            .filter(
-                scenario -> {
-                  Instant startDate =
-                      cronToDate(scenario.getRecurrence()).minus(1, ChronoUnit.MINUTES);
-                  Instant now = Instant.now();
+  // Scenarios saved without going through the recurrence API
+  private void scheduleNewRecurrences(
+      @NotNull final Instant now, @NotNull final Map<String, Scenario> changedScenarios) {
+    for (Scenario scenario : this.scenarioRepository.findUnscheduledRecurringScenarios()) {
+      try {
+        advance(scenario, now);
+        changedScenarios.put(scenario.getId(), scenario);
+      } catch (IllegalArgumentException e) {
+        log.warn(
+            "Invalid recurrence '{}' for scenario {}",
+            scenario.getRecurrence(),
+            scenario.getId(),
+            e);
+      }
+    }
+  }
+
+  private void createExercisesFromScenarios(
+      @NotNull final Instant now, @NotNull final Map<String, Scenario> changedScenarios) {
+    Instant horizon = now.plus(LEAD_TIME);
+    Map<String, Scenario> dueScenarios = new LinkedHashMap<>();
+    this.scenarioRepository
+        .findDueRecurringScenarios(horizon)
+        .forEach(scenario -> dueScenarios.put(scenario.getId(), scenario));
+    // Scenarios just scheduled may not be flushed yet
+    changedScenarios.values().stream()
+        .filter(
+            scenario ->
+                scenario.getNextOccurrence() != null
+                    && !scenario.getNextOccurrence().isAfter(horizon))
+        .forEach(scenario -> dueScenarios.putIfAbsent(scenario.getId(), scenario));
+    if (dueScenarios.isEmpty()) {
+      return;
+    }
 
-                  ZonedDateTime startDateMinute =
-                      startDate.atZone(ZoneId.of("UTC")).truncatedTo(ChronoUnit.MINUTES);
-                  ZonedDateTime nowMinute =
-                      now.atZone(ZoneId.of("UTC")).truncatedTo(ChronoUnit.MINUTES);
-                  return startDateMinute.equals(nowMinute);
-                })
-            .toList();
-    // Check if a simulation link to this scenario already exists
     // Retrieve simulations not started, link to a scenario
-    List<String> alreadyExistIds =
+    Set<String> alreadyExistIds =
         this.exerciseRepository.findAll(recurringInstanceNotStarted()).stream()
             .map(Exercise::getScenario)
             .map(Scenario::getId)
-            .toList();
-    // Filter scenarios with this results
-    validScenarios.stream()
-        .filter(scenario -> !alreadyExistIds.contains(scenario.getId()))
-        // Create simulation with start date provided by cron
-        .forEach(
-            scenario ->
-                this.scenarioToExerciseService.toExercise(
-                    scenario, cronToDate(scenario.getRecurrence()), false));
-  }
+            .collect(Collectors.toSet());
 
-  private void cleanOutdatedRecurringScenario() {
-    // Find each scenario with cron is outdated:
-    List<Scenario> scenarios =
-        this.scenarioService.potentialOutdatedRecurringScenario(Instant.now());
-    List<Scenario> validScenarios = scenarios.stream().filter(this::isScenarioOutdated).toList();
-
-    // Remove recurring setup
-    validScenarios.forEach(
-        s -> {
-          s.setRecurrenceStart(null);
-          s.setRecurrenceEnd(null);
-          s.setRecurrence(null);
-        });
-    // Save it
-    this.scenarioService.updateScenarios(scenarios);
-  }
-
-  private boolean isScenarioOutdated(@NotNull final Scenario scenario) {
-    if (scenario.getRecurrenceEnd() == null) {
-      return false;
+    for (Scenario scenario : dueScenarios.values()) {
+      Instant occurrence = scenario.getNextOccurrence();
+      if (occurrence.isBefore(now.minus(this.catchUpWindow))) {
+        log.warn(
+            "Occurrence {} of scenario {} missed for more than {}, skipping it",
+            occurrence,
+            scenario.getId(),
+            this.catchUpWindow);
+      } else if (!alreadyExistIds.contains(scenario.getId())) {
+        // Create simulation with start date provided by cron, or now if it is late
+        this.scenarioToExerciseService.toExercise(
+            scenario, occurrence.isBefore(now) ? now : occurrence, false);
+      }
+      // Move past this occurrence and the missed ones
+      advance(scenario, occurrence.isAfter(now) ? occurrence : now);
+      changedScenarios.put(scenario.getId(), scenario);
     }
-    // End date is passed
-    if (scenario.getRecurrenceEnd().isBefore(Instant.now())) {
-      return true;
-    }
-
-    // There are no next execution -> example: end date is tomorrow at 1AM and execution cron is at
-    // 6AM and it's 6PM
-    Instant nextExecution = cronToDate(scenario.getRecurrence());
-    return nextExecution.isAfter(scenario.getRecurrenceEnd());
   }
 
-  // -- UTILS --
-
-  private Instant cronToDate(@NotBlank final String cronExpression) {
-    CronDefinition cronDefinition = CronDefinitionBuilder.instanceDefinitionFor(CronType.SPRING53);
-    CronParser parser = new CronParser(cronDefinition);
-    Cron cron = parser.parse(cronExpression);
-    ExecutionTime executionTime = ExecutionTime.forCron(cron);
-
-    Duration timeToNextExecution =
-        executionTime
-            .timeToNextExecution(ZonedDateTime.now(ZoneId.of("UTC")))
-            .orElse(Duration.ZERO);
-
-    return Instant.now().plus(timeToNextExecution);
+  private void advance(@NotNull final Scenario scenario, @NotNull final Instant after) {
+    Optional<Instant> nextOccurrence =
+        this.scenarioRecurrenceService.nextOccurrence(scenario, after);
+    if (nextOccurrence.isPresent()) {
+      scenario.setNextOccurrence(nextOccurrence.get());
+    } else {
+      // The recurrence is over, remove recurring setup
+      scenario.setRecurrenceStart(null);
+      scenario.setRecurrenceEnd(null);
+      scenario.setRecurrence(null);
+    }
   }
 }
@@ -0,0 +1,25 @@
+package io.openbas.scheduler.jobs;
+
+import io.openbas.rest.exercise.service.ExerciseScoreSnapshotService;
+import io.openbas.service.StatisticRollupService;
+import lombok.RequiredArgsConstructor;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@DisallowConcurrentExecution
+public class StatisticRollupReconciliationJob implements Job {
+
+  private final StatisticRollupService statisticRollupService;
+  private final ExerciseScoreSnapshotService exerciseScoreSnapshotService;
+
+  @Override
+  public void execute(JobExecutionContext jobExecutionContext) throws JobExecutionException {
+    statisticRollupService.reconcile();
+    exerciseScoreSnapshotService.reconcile();
+  }
+}
@@ -3,6 +3,8 @@ package io.openbas.schema;
 import static io.openbas.schema.SchemaUtils.isValidClassName;
 
 import io.openbas.engine.EngineContext;
+import io.openbas.engine.EngineModelRegistry;
+import io.openbas.engine.EsModel;
 import io.openbas.rest.helper.RestBehavior;
 import io.openbas.schema.model.PropertySchemaDTO;
 import jakarta.validation.Valid;
@@ -46,19 +48,11 @@ public class SchemaApi extends RestBehavior {
   @GetMapping("/api/engine/schemas")
   public Set<PropertySchemaDTO> engineSchemas(
       @RequestParam(name = "classNames", required = false) List<String> classNames) {
-    return engineContext.getModels().stream()
-        .filter(
-            model ->
-                classNames == null || classNames.isEmpty() || classNames.contains(model.getName()))
-        .flatMap(
-            model -> {
-              try {
-                return SchemaUtils.schemaWithSubtypes(model.getModel()).stream();
-              } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-              }
-            })
-        .filter(PropertySchema::isFilterable)
+    EngineModelRegistry registry = engineContext.getRegistry();
+    return registry.models().stream()
+        .map(EsModel::getName)
+        .filter(name -> classNames == null || classNames.isEmpty() || classNames.contains(name))
+        .flatMap(name -> registry.filterableProperties(name).stream())
         .map(PropertySchemaDTO::new)
         .collect(Collectors.toSet());
   }
@@ -0,0 +1,223 @@
+package io.openbas.service;
+
+import static io.openbas.service.EndpointService.JFROG_BASE;
+
+import jakarta.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Local cache of the agent artifacts (executables, packages and installer scripts).
+ *
+ * <p>Artifacts are read from the classpath or downloaded from the repository once per version, into
+ * a local directory, then served from the file. Concurrent first requests for an artifact share the
+ * same fetch. Downloaded artifacts are verified against the checksum advertised by the repository,
+ * and the files found in the directory at startup against the checksum recorded when they were
+ * fetched.
+ */
+@Service
+@Slf4j
+public class AgentArtifactService {
+
+  public static final String LOCAL_ORIGIN = "local";
+  public static final String REPOSITORY_ORIGIN = "repository";
+
+  private static final String CHECKSUM_HEADER = "X-Checksum-Sha256";
+  private static final String CHECKSUM_EXTENSION = ".sha256";
+
+  /** An artifact available in the local cache */
+  public record AgentArtifact(Path path, String filename, String checksum) {}
+
+  private final String binariesOrigin;
+  private final String version;
+  private final Path cacheDirectory;
+
+  private final Map<String, CompletableFuture<Optional<AgentArtifact>>> artifacts =
+      new ConcurrentHashMap<>();
+  private final Map<String, AgentInstallerTemplate> installerTemplates = new ConcurrentHashMap<>();
+
+  public AgentArtifactService(
+      @Value("${executor.openbas.binaries.origin:local}") String binariesOrigin,
+      @Value("${info.app.version:unknown}") String appVersion,
+      @Value("${executor.openbas.binaries.version:${info.app.version:unknown}}")
+          String binariesVersion,
+      @Value("${openbas.agent.artifacts.cache-dir:}") String cacheDirectory) {
+    this.binariesOrigin = binariesOrigin;
+    this.version = REPOSITORY_ORIGIN.equals(binariesOrigin) ? binariesVersion : appVersion;
+    this.cacheDirectory =
+        cacheDirectory == null || cacheDirectory.isBlank()
+            ? Path.of(System.getProperty("java.io.tmpdir"), "openbas-agent-artifacts")
+            : Path.of(cacheDirectory);
+  }
+
+  /**
+   * @return the version of the agent artifacts served
+   */
+  public String version() {
+    return this.version;
+  }
+
+  /**
+   * Returns an artifact, fetching it in the local cache the first time
+   *
+   * @param resourcePath the path of the artifact directory, like {@code /openbas-agent/linux/}
+   * @param filename the name of the artifact
+   * @return the artifact, empty if it does not exist for the configured origin
+   * @throws IOException if the artifact cannot be fetched
+   */
+  public Optional<AgentArtifact> artifact(
+      @NotBlank final String resourcePath, @NotBlank final String filename) throws IOException {
+    String key = resourcePath + filename;
+    CompletableFuture<Optional<AgentArtifact>> fetch = new CompletableFuture<>();
+    CompletableFuture<Optional<AgentArtifact>> existing = this.artifacts.putIfAbsent(key, fetch);
+    if (existing == null) {
+      try {
+        fetch.complete(fetch(resourcePath, filename));
+      } catch (IOException | RuntimeException e) {
+        this.artifacts.remove(key, fetch);
+        fetch.completeExceptionally(e);
+      }
+      existing = fetch;
+    }
+    Optional<AgentArtifact> artifact = join(existing);
+    if (artifact.isPresent() && !Files.isRegularFile(artifact.get().path())) {
+      // Removed from the cache directory meanwhile
+      this.artifacts.remove(key, existing);
+      return artifact(resourcePath, filename);
+    }
+    return artifact;
+  }
+
+  /**
+   * Returns an installer script parsed once
+   *
+   * @param resourcePath the path of the script directory, like {@code /openbas-agent/linux/}
+   * @param filename the name of the script
+   * @param placeholderNames the names of the placeholders to substitute
+   * @return the template, empty if the script does not exist for the configured origin
+   * @throws IOException if the script cannot be fetched
+   */
+  public Optional<AgentInstallerTemplate> installerTemplate(
+      @NotBlank final String resourcePath,
+      @NotBlank final String filename,
+      final Collection<String> placeholderNames)
+      throws IOException {
+    Optional<AgentArtifact> artifact = artifact(resourcePath, filename);
+    if (artifact.isEmpty()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(
+          this.installerTemplates.computeIfAbsent(
+              artifact.get().checksum(),
+              checksum -> {
+                try {
+                  return AgentInstallerTemplate.parse(
+                      Files.readString(artifact.get().path(), StandardCharsets.UTF_8),
+                      placeholderNames);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              }));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw e;
+    }
+  }
+
+  private Optional<AgentArtifact> fetch(String resourcePath, String filename) throws IOException {
+    Path target =
+        this.cacheDirectory.resolve(resourcePath.replaceFirst("^/+", "")).resolve(filename);
+    Path checksumFile = target.resolveSibling(filename + CHECKSUM_EXTENSION);
+    Optional<AgentArtifact> cached = cached(target, checksumFile, filename);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    Files.createDirectories(target.getParent());
+    InputStream in = null;
+    String expectedChecksum = null;
+    if (LOCAL_ORIGIN.equals(this.binariesOrigin)) { // if we want the local binaries
+      in = getClass().getResourceAsStream("/agents" + resourcePath + filename);
+    } else if (REPOSITORY_ORIGIN.equals(
+        this.binariesOrigin)) { // if we want a specific version from artifactory
+      URLConnection connection = new URL(JFROG_BASE + resourcePath + filename).openConnection();
+      in = connection.getInputStream();
+      expectedChecksum = connection.getHeaderField(CHECKSUM_HEADER);
+    }
+    if (in == null) {
+      return Optional.empty();
+    }
+
+    MessageDigest digest = DigestUtils.getSha256Digest();
+    Path partFile = null;
+    try (InputStream digestIn = new DigestInputStream(in, digest)) {
+      partFile = Files.createTempFile(target.getParent(), filename, ".part");
+      Files.copy(digestIn, partFile, StandardCopyOption.REPLACE_EXISTING);
+      String checksum = Hex.encodeHexString(digest.digest());
+      if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+        throw new IOException(
+            "Checksum mismatch for agent artifact " + filename + ": got " + checksum);
+      }
+      Files.move(
+          partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      Files.writeString(checksumFile, checksum, StandardCharsets.UTF_8);
+      log.info("Agent artifact {} cached in {}", filename, target);
+      return Optional.of(new AgentArtifact(target, filename, checksum));
+    } finally {
+      if (partFile != null) {
+        Files.deleteIfExists(partFile);
+      }
+    }
+  }
+
+  private Optional<AgentArtifact> cached(Path target, Path checksumFile, String filename)
+      throws IOException {
+    if (!Files.isRegularFile(target) || !Files.isRegularFile(checksumFile)) {
+      return Optional.empty();
+    }
+    String checksum = Files.readString(checksumFile, StandardCharsets.UTF_8).trim();
+    String actualChecksum;
+    try (InputStream in = Files.newInputStream(target)) {
+      actualChecksum = DigestUtils.sha256Hex(in);
+    }
+    if (!checksum.equalsIgnoreCase(actualChecksum)) {
+      log.warn("Cached agent artifact {} is corrupted, fetching it again", target);
+      return Optional.empty();
+    }
+    return Optional.of(new AgentArtifact(target, filename, checksum));
+  }
+}
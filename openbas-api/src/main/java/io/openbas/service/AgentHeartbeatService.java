@@ -0,0 +1,158 @@
+package io.openbas.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.openbas.database.model.Agent;
+import io.openbas.database.model.Endpoint;
+import io.openbas.database.repository.AgentRepository;
+import io.openbas.rest.asset.endpoint.form.EndpointRegisterInput;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Coalesces the liveness updates of the agents.
+ *
+ * <p>Agents register periodically with the same payload. Once a payload went through the full
+ * registration, the following identical registrations only record the last seen date of the agent
+ * in memory; the pending dates are written periodically with one statement, without updating the
+ * endpoint nor the agent entity. A payload is remembered for a limited time, so the full
+ * registration still runs regularly for each agent.
+ */
+@Service
+@Slf4j
+public class AgentHeartbeatService {
+
+  private static final String FIELD_SEPARATOR = "\u0000";
+
+  private final AgentRepository agentRepository;
+
+  // Payload hash -> id of the agent registered with this payload
+  private final Cache<String, String> registeredPayloads;
+
+  // Agent id -> last seen date not written yet
+  private final Map<String, Instant> pendingLastSeens = new ConcurrentHashMap<>();
+
+  public AgentHeartbeatService(
+      AgentRepository agentRepository,
+      @Value("${openbas.agent.heartbeat.full-registration-interval:10m}")
+          Duration fullRegistrationInterval) {
+    this.agentRepository = agentRepository;
+    this.registeredPayloads =
+        Caffeine.newBuilder()
+            .expireAfterWrite(fullRegistrationInterval)
+            .maximumSize(100_000)
+            .build();
+  }
+
+  /**
+   * Computes the hash of the content of a registration payload
+   *
+   * @param input the registration payload
+   * @return the hash, identical for two payloads with the same content
+   */
+  public String payloadHash(@NotNull final EndpointRegisterInput input) {
+    return DigestUtils.sha256Hex(
+        String.join(
+            FIELD_SEPARATOR,
+            Objects.toString(input.getExternalReference()),
+            Objects.toString(input.getName()),
+            Objects.toString(input.getHostname()),
+            Objects.toString(input.getPlatform()),
+            Objects.toString(input.getArch()),
+            Objects.toString(input.getAgentVersion()),
+            Arrays.toString(input.getIps()),
+            Arrays.toString(input.getMacAddresses()),
+            Objects.toString(input.getSeenIp()),
+            String.valueOf(input.isService()),
+            String.valueOf(input.isElevated()),
+            Objects.toString(input.getExecutedByUser()),
+            Objects.toString(input.getInstallationMode()),
+            Objects.toString(input.getInstallationDirectory()),
+            Objects.toString(input.getServiceName())));
+  }
+
+  /**
+   * Records the heartbeat of an agent whose payload did not change since its last full registration
+   *
+   * @param payloadHash the hash of the registration payload
+   * @param seenAt the date of the heartbeat
+   * @return the endpoint of the agent, empty if the payload requires a full registration
+   */
+  public Optional<Endpoint> heartbeat(
+      @NotNull final String payloadHash, @NotNull final Instant seenAt) {
+    String agentId = this.registeredPayloads.getIfPresent(payloadHash);
+    if (agentId == null) {
+      return Optional.empty();
+    }
+    Optional<Endpoint> endpoint =
+        this.agentRepository
+            .findById(agentId)
+            .map(Agent::getAsset)
+            .map(Hibernate::unproxy)
+            .filter(Endpoint.class::isInstance)
+            .map(Endpoint.class::cast);
+    if (endpoint.isEmpty()) {
+      // Agent or endpoint deleted since the registration
+      this.registeredPayloads.invalidate(payloadHash);
+      return Optional.empty();
+    }
+    this.pendingLastSeens.merge(agentId, seenAt, (a, b) -> a.isAfter(b) ? a : b);
+    return endpoint;
+  }
+
+  /**
+   * Remembers a payload which went through the full registration
+   *
+   * @param payloadHash the hash of the registration payload
+   * @param agent the registered agent
+   */
+  public void registered(@NotNull final String payloadHash, @NotNull final Agent agent) {
+    this.registeredPayloads.put(payloadHash, agent.getId());
+  }
+
+  /** Writes the pending last seen dates in one statement */
+  @PreDestroy
+  public void flush() {
+    if (this.pendingLastSeens.isEmpty()) {
+      return;
+    }
+    List<String> agentIds = new ArrayList<>();
+    List<Instant> lastSeens = new ArrayList<>();
+    for (String agentId : List.copyOf(this.pendingLastSeens.keySet())) {
+      Instant lastSeen = this.pendingLastSeens.remove(agentId);
+      if (lastSeen != null) {
+        agentIds.add(agentId);
+        lastSeens.add(lastSeen);
+      }
+    }
+    if (agentIds.isEmpty()) {
+      return;
+    }
+    try {
+      this.agentRepository.updateLastSeen(
+          agentIds.toArray(String[]::new),
+          lastSeens.stream().map(Instant::toString).toArray(String[]::new));
+    } catch (RuntimeException e) {
+      log.warn("Failed to write the last seen date of {} agents", agentIds.size(), e);
+      // Keep them for the next flush, unless a newer heartbeat arrived meanwhile
+      for (int i = 0; i < agentIds.size(); i++) {
+        this.pendingLastSeens.merge(
+            agentIds.get(i), lastSeens.get(i), (a, b) -> a.isAfter(b) ? a : b);
+      }
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package io.openbas.service;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agent installer script parsed once: the script is split on its placeholders, so rendering it only
+ * appends the literal parts and the substituted values. Placeholders are written {@code ${NAME}};
+ * the ones not declared are left untouched, as scripts also use shell variables.
+ */
+public final class AgentInstallerTemplate {
+
+  // Literal parts, and placeholder names between them
+  private final List<String> literals;
+  private final List<String> placeholders;
+  private final int literalsLength;
+
+  private AgentInstallerTemplate(List<String> literals, List<String> placeholders) {
+    this.literals = literals;
+    this.placeholders = placeholders;
+    this.literalsLength = literals.stream().mapToInt(String::length).sum();
+  }
+
+  /**
+   * Parses an installer script
+   *
+   * @param script the script content
+   * @param placeholderNames the names of the placeholders to substitute
+   * @return the template
+   */
+  public static AgentInstallerTemplate parse(
+      @NotNull final String script, @NotNull final Collection<String> placeholderNames) {
+    List<String> literals = new ArrayList<>();
+    List<String> placeholders = new ArrayList<>();
+    int literalStart = 0;
+    int index = script.indexOf("${");
+    while (index >= 0) {
+      int end = script.indexOf('}', index + 2);
+      if (end < 0) {
+        break;
+      }
+      String name = script.substring(index + 2, end);
+      if (placeholderNames.contains(name)) {
+        literals.add(script.substring(literalStart, index));
+        placeholders.add(name);
+        literalStart = end + 1;
+        index = script.indexOf("${", literalStart);
+      } else {
+        index = script.indexOf("${", index + 2);
+      }
+    }
+    literals.add(script.substring(literalStart));
+    return new AgentInstallerTemplate(List.copyOf(literals), List.copyOf(placeholders));
+  }
+
+  /**
+   * Renders the script
+   *
+   * @param values the value of each placeholder, an absent value being rendered as empty
+   * @return the script
+   */
+  public String render(@NotNull final Map<String, String> values) {
+    StringBuilder script = new StringBuilder(this.literalsLength + 64 * this.placeholders.size());
+    for (int i = 0; i < this.placeholders.size(); i++) {
+      script.append(this.literals.get(i));
+      String value = values.get(this.placeholders.get(i));
+      if (value != null) {
+        script.append(value);
+      }
+    }
+    return script.append(this.literals.getLast()).toString();
+  }
+}
@@ -0,0 +1,71 @@
+package io.openbas.service;
+
+import static io.openbas.database.audit.ModelBaseListener.DATA_DELETE;
+
+import io.openbas.database.audit.BaseEvent;
+import io.openbas.database.model.Endpoint;
+import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects the endpoints saved during a transaction and refreshes their dynamic asset group
+ * membership once, after commit, whatever the code path that saved them. A bulk import then costs a
+ * few set-based statements instead of a refresh per endpoint.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class AssetGroupDynamicAssetListener {
+
+  private final AssetGroupDynamicAssetService assetGroupDynamicAssetService;
+
+  @EventListener
+  public void listenEndpointChange(@NotNull final BaseEvent event) {
+    if (DATA_DELETE.equals(event.getType())
+        || !(Hibernate.unproxy(event.getInstance()) instanceof Endpoint endpoint)
+        || endpoint.getId() == null) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      refresh(Set.of(endpoint.getId()));
+      return;
+    }
+    Object key = this;
+    @SuppressWarnings("unchecked")
+    Set<String> endpointIds = (Set<String>) TransactionSynchronizationManager.getResource(key);
+    if (endpointIds == null) {
+      Set<String> collected = new LinkedHashSet<>();
+      TransactionSynchronizationManager.bindResource(key, collected);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(key);
+              if (status == STATUS_COMMITTED) {
+                refresh(collected);
+              }
+            }
+          });
+      endpointIds = collected;
+    }
+    endpointIds.add(endpoint.getId());
+  }
+
+  // -- PRIVATE --
+
+  private void refresh(@NotNull final Set<String> endpointIds) {
+    try {
+      this.assetGroupDynamicAssetService.refreshEndpoints(endpointIds);
+    } catch (RuntimeException e) {
+      log.warn("Cannot refresh the dynamic asset groups of {} endpoints", endpointIds.size(), e);
+    }
+  }
+}
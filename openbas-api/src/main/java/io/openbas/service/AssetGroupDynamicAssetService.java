@@ -0,0 +1,201 @@
+package io.openbas.service;
+
+import static io.openbas.database.model.Filters.isEmptyFilterGroup;
+import static io.openbas.utils.FilterUtilsJpa.computeFilterGroupJpa;
+
+import io.openbas.database.model.Endpoint;
+import io.openbas.database.model.Filters.FilterGroup;
+import io.openbas.database.raw.RawAssetGroupDynamicFilter;
+import io.openbas.database.repository.AssetGroupRepository;
+import io.openbas.database.repository.EndpointRepository;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the materialized membership of the endpoints matching the dynamic filter of the asset
+ * groups. A group is fully recomputed when it is saved, endpoints are tested against the filter of
+ * every group once the transaction saving them commits, and readers only join the membership table.
+ * Both refreshes evaluate the filters with the same database query, so they always agree.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class AssetGroupDynamicAssetService {
+
+  private static final int CHUNK_SIZE = 500;
+
+  private final AssetGroupRepository assetGroupRepository;
+  private final EndpointRepository endpointRepository;
+
+  // -- READ --
+
+  public List<Endpoint> dynamicAssets(@NotBlank final String assetGroupId) {
+    return this.endpointRepository.findDynamicAssetsByAssetGroupId(assetGroupId);
+  }
+
+  public Map<String, List<Endpoint>> dynamicAssets(
+      @NotNull final Collection<String> assetGroupIds) {
+    if (assetGroupIds.isEmpty()) {
+      return Map.of();
+    }
+    List<Object[]> memberships =
+        this.endpointRepository.rawDynamicAssetIdsByAssetGroupIds(assetGroupIds);
+    Set<String> endpointIds =
+        memberships.stream().map(row -> (String) row[1]).collect(Collectors.toSet());
+    Map<String, Endpoint> endpointsById = new HashMap<>();
+    this.endpointRepository
+        .findAllById(endpointIds)
+        .forEach(endpoint -> endpointsById.put(endpoint.getId(), endpoint));
+
+    Map<String, List<Endpoint>> dynamicAssets = new HashMap<>();
+    memberships.forEach(
+        row -> {
+          Endpoint endpoint = endpointsById.get((String) row[1]);
+          if (endpoint != null) {
+            dynamicAssets.computeIfAbsent((String) row[0], k -> new ArrayList<>()).add(endpoint);
+          }
+        });
+    return dynamicAssets;
+  }
+
+  // -- MAINTENANCE --
+
+  /** Recompute the members of an asset group, to be called when its dynamic filter changes */
+  public void refreshAssetGroup(
+      @NotBlank final String assetGroupId, @Nullable final FilterGroup dynamicFilter) {
+    Set<String> expected =
+        isEmptyFilterGroup(dynamicFilter) ? Set.of() : matchingEndpointIds(dynamicFilter, null);
+    Set<String> current = this.assetGroupRepository.dynamicAssetIdsByAssetGroupId(assetGroupId);
+
+    List<String> added = difference(expected, current);
+    List<String> removed = difference(current, expected);
+    if (!removed.isEmpty()) {
+      this.assetGroupRepository.removeDynamicAssets(assetGroupId, removed.toArray(String[]::new));
+    }
+    if (!added.isEmpty()) {
+      this.assetGroupRepository.addDynamicAssets(assetGroupId, added.toArray(String[]::new));
+    }
+  }
+
+  /** Test created or updated endpoints against the dynamic filter of every asset group */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void refreshEndpoints(@NotNull final Collection<String> endpointIds) {
+    if (endpointIds.isEmpty()) {
+      return;
+    }
+    Map<String, FilterGroup> dynamicFilters = new LinkedHashMap<>();
+    for (RawAssetGroupDynamicFilter raw : this.assetGroupRepository.rawDynamicFilters()) {
+      FilterGroup dynamicFilter = raw.getAssetGroupDynamicFilter();
+      if (!isEmptyFilterGroup(dynamicFilter)) {
+        dynamicFilters.put(raw.getAsset_group_id(), dynamicFilter);
+      }
+    }
+
+    for (List<String> chunk : ListUtils.partition(new ArrayList<>(endpointIds), CHUNK_SIZE)) {
+      Map<String, Set<String>> currentByEndpoint = new HashMap<>();
+      this.assetGroupRepository
+          .rawDynamicAssetGroupIdsByAssetIds(chunk)
+          .forEach(
+              row ->
+                  currentByEndpoint
+                      .computeIfAbsent((String) row[0], k -> new HashSet<>())
+                      .add((String) row[1]));
+
+      Map<String, Set<String>> expectedByEndpoint = new HashMap<>();
+      dynamicFilters.forEach(
+          (assetGroupId, dynamicFilter) -> {
+            Set<String> matching;
+            try {
+              matching = matchingEndpointIds(dynamicFilter, chunk);
+            } catch (RuntimeException e) {
+              // Keep the current membership, the next refresh of the group will settle it
+              log.warn("Cannot evaluate the dynamic filter of asset group {}", assetGroupId, e);
+              matching = new HashSet<>();
+              for (String endpointId : chunk) {
+                if (currentByEndpoint.getOrDefault(endpointId, Set.of()).contains(assetGroupId)) {
+                  matching.add(endpointId);
+                }
+              }
+            }
+            matching.forEach(
+                endpointId ->
+                    expectedByEndpoint
+                        .computeIfAbsent(endpointId, k -> new HashSet<>())
+                        .add(assetGroupId));
+          });
+
+      Map<String, List<String>> addedByGroup = new HashMap<>();
+      Map<String, List<String>> removedByGroup = new HashMap<>();
+      for (String endpointId : chunk) {
+        Set<String> current = currentByEndpoint.getOrDefault(endpointId, Set.of());
+        Set<String> expected = expectedByEndpoint.getOrDefault(endpointId, Set.of());
+        difference(expected, current)
+            .forEach(
+                group ->
+                    addedByGroup.computeIfAbsent(group, k -> new ArrayList<>()).add(endpointId));
+        difference(current, expected)
+            .forEach(
+                group ->
+                    removedByGroup.computeIfAbsent(group, k -> new ArrayList<>()).add(endpointId));
+      }
+
+      removedByGroup.forEach(
+          (group, ids) ->
+              this.assetGroupRepository.removeDynamicAssets(group, ids.toArray(String[]::new)));
+      addedByGroup.forEach(
+          (group, ids) ->
+              this.assetGroupRepository.addDynamicAssets(group, ids.toArray(String[]::new)));
+    }
+  }
+
+  /** Recompute the members of every asset group, each group being updated on its own */
+  public void refreshAll() {
+    for (RawAssetGroupDynamicFilter raw : this.assetGroupRepository.rawDynamicFilters()) {
+      try {
+        refreshAssetGroup(raw.getAsset_group_id(), raw.getAssetGroupDynamicFilter());
+      } catch (RuntimeException e) {
+        log.warn("Cannot compute the dynamic assets of asset group {}", raw.getAsset_group_id(), e);
+      }
+    }
+  }
+
+  // -- LISTENERS --
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void initDynamicAssetsOnStartup() {
+    refreshAll();
+  }
+
+  // -- PRIVATE --
+
+  /** Ids of the endpoints matching a dynamic filter, among the given ones when not null */
+  private Set<String> matchingEndpointIds(
+      @NotNull final FilterGroup dynamicFilter, @Nullable final Collection<String> endpointIds) {
+    Specification<Endpoint> specification = computeFilterGroupJpa(dynamicFilter);
+    if (endpointIds != null) {
+      specification = specification.and((root, query, cb) -> root.get("id").in(endpointIds));
+    }
+    Set<String> matching = new HashSet<>();
+    this.endpointRepository
+        .findAll(specification)
+        .forEach(endpoint -> matching.add(endpoint.getId()));
+    return matching;
+  }
+
+  private static List<String> difference(
+      @NotNull final Set<String> source, @NotNull final Set<String> excluded) {
+    return source.stream().filter(id -> !excluded.contains(id)).toList();
+  }
+}
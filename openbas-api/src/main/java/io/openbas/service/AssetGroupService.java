@@ -2,8 +2,6 @@ package io.openbas.service;
 
 import static io.openbas.database.model.Filters.isEmptyFilterGroup;
 import static io.openbas.helper.StreamHelper.fromIterable;
-import static io.openbas.utils.FilterUtilsJpa.computeFilterGroupJpa;
-import static io.openbas.utils.FilterUtilsRuntime.computeFilterGroupRuntime;
 import static java.time.Instant.now;
 
 import io.openbas.database.model.Asset;
@@ -11,18 +9,15 @@ import io.openbas.database.model.AssetGroup;
 import io.openbas.database.model.Endpoint;
 import io.openbas.database.raw.RawAssetGroup;
 import io.openbas.database.repository.AssetGroupRepository;
-import io.openbas.database.specification.EndpointSpecification;
 import io.openbas.utils.FilterUtilsJpa;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.util.*;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,12 +27,13 @@ public class AssetGroupService {
 
   private final AssetGroupRepository assetGroupRepository;
   private final AssetService assetService;
-  private final EndpointService endpointService;
+  private final AssetGroupDynamicAssetService assetGroupDynamicAssetService;
 
   // -- ASSET GROUP --
 
   public AssetGroup createAssetGroup(@NotNull final AssetGroup assetGroup) {
     AssetGroup assetGroupCreated = this.assetGroupRepository.save(assetGroup);
+    refreshDynamicAssets(assetGroupCreated);
     return computeDynamicAssets(assetGroupCreated);
   }
 
@@ -67,6 +63,7 @@ public class AssetGroupService {
   public AssetGroup updateAssetGroup(@NotNull final AssetGroup assetGroup) {
     assetGroup.setUpdatedAt(now());
     AssetGroup assetGroupUpdated = this.assetGroupRepository.save(assetGroup);
+    refreshDynamicAssets(assetGroupUpdated);
     return computeDynamicAssets(assetGroupUpdated);
   }
 
@@ -84,7 +81,9 @@ public class AssetGroupService {
   }
 
   public AssetGroup createOrUpdateAssetGroupWithoutDynamicAssets(AssetGroup assetGroup) {
-    return this.assetGroupRepository.save(assetGroup);
+    AssetGroup assetGroupSaved = this.assetGroupRepository.save(assetGroup);
+    refreshDynamicAssets(assetGroupSaved);
+    return assetGroupSaved;
   }
 
   // -- ASSET --
@@ -92,45 +91,70 @@ public class AssetGroupService {
   @Transactional(readOnly = true)
   public List<Asset> assetsFromAssetGroup(@NotBlank final String assetGroupId) {
     AssetGroup assetGroup = this.assetGroup(assetGroupId);
-    List<Asset> assets = new ArrayList<>();
-    List<String> assetIds = new ArrayList<>();
+    // We have to call getId() because some assets are returned null because of Hibernate unproxy
+    Map<String, Asset> assets = new LinkedHashMap<>();
     Stream.concat(assetGroup.getAssets().stream(), assetGroup.getDynamicAssets().stream())
-        .forEach(
-            asset -> {
-              // We have to call getId() because some assets are returned null because of Hibernate
-              // unproxy
-              if (!assetIds.contains(asset.getId())) {
-                assets.add(asset);
-                assetIds.add(asset.getId());
-              }
-            });
-    return assets;
+        .forEach(asset -> assets.putIfAbsent(asset.getId(), asset));
+    return new ArrayList<>(assets.values());
+  }
+
+  /**
+   * Static and dynamic assets of several asset groups, the membership of all of them being loaded
+   * with one query
+   */
+  @Transactional(readOnly = true)
+  public Map<String, List<Asset>> assetsFromAssetGroups(
+      @NotNull final Collection<String> assetGroupIds) {
+    if (assetGroupIds.isEmpty()) {
+      return Map.of();
+    }
+    List<Object[]> memberships =
+        this.assetGroupRepository.rawAssetIdsByAssetGroupIds(assetGroupIds);
+    Map<String, Asset> assetsById = new HashMap<>();
+    this.assetService
+        .assetFromIds(memberships.stream().map(row -> (String) row[1]).distinct().toList())
+        .forEach(asset -> assetsById.put(asset.getId(), asset));
+
+    Map<String, Map<String, Asset>> assets = new HashMap<>();
+    memberships.forEach(
+        row -> {
+          Asset asset = assetsById.get((String) row[1]);
+          if (asset != null) {
+            assets
+                .computeIfAbsent((String) row[0], k -> new LinkedHashMap<>())
+                .putIfAbsent(asset.getId(), asset);
+          }
+        });
+    return assets.entrySet().stream()
+        .collect(
+            Collectors.toMap(
+                Map.Entry::getKey, entry -> new ArrayList<>(entry.getValue().values())));
+  }
+
+  // -- DYNAMIC ASSETS --
+
+  private void refreshDynamicAssets(@NotNull final AssetGroup assetGroup) {
+    this.assetGroupDynamicAssetService.refreshAssetGroup(
+        assetGroup.getId(), assetGroup.getDynamicFilter());
   }
 
   private List<AssetGroup> computeDynamicAssets(@NotNull final List<AssetGroup> assetGroups) {
-    if (assetGroups.stream()
-        .noneMatch(assetGroup -> isEmptyFilterGroup(assetGroup.getDynamicFilter()))) {
+    List<String> dynamicAssetGroupIds =
+        assetGroups.stream()
+            .filter(assetGroup -> !isEmptyFilterGroup(assetGroup.getDynamicFilter()))
+            .map(AssetGroup::getId)
+            .toList();
+    if (dynamicAssetGroupIds.isEmpty()) {
       return assetGroups;
     }
 
-    List<Asset> assets = this.assetService.assets();
+    Map<String, List<Endpoint>> dynamicAssets =
+        this.assetGroupDynamicAssetService.dynamicAssets(dynamicAssetGroupIds);
     assetGroups.forEach(
         assetGroup -> {
           if (!isEmptyFilterGroup(assetGroup.getDynamicFilter())) {
-            Predicate<Object> filters = computeFilterGroupRuntime(assetGroup.getDynamicFilter());
-
-            List<Asset> filteredAssets =
-                assets.stream()
-                    .filter(
-                        asset ->
-                            "Endpoint"
-                                .equals(
-                                    asset.getType())) // Filters for dynamic assets are applicable
-                    // only to endpoints
-                    .filter(filters)
-                    .toList();
-
-            assetGroup.setDynamicAssets(filteredAssets);
+            assetGroup.setDynamicAssets(
+                new ArrayList<>(dynamicAssets.getOrDefault(assetGroup.getId(), List.of())));
           }
         });
     return assetGroups;
@@ -140,15 +164,11 @@ public class AssetGroupService {
     if (isEmptyFilterGroup(assetGroup.getDynamicFilter())) {
       return assetGroup;
     }
-    Specification<Endpoint> specification = computeFilterGroupJpa(assetGroup.getDynamicFilter());
-    Specification<Endpoint> specification2 =
-        EndpointSpecification.findEndpointsForInjectionOrAgentlessEndpoints();
     List<Asset> assets =
-        this.endpointService.endpoints(specification.and(specification2)).stream()
+        this.assetGroupDynamicAssetService.dynamicAssets(assetGroup.getId()).stream()
             .map(Asset.class::cast)
-            .distinct()
             .toList();
-    assetGroup.setDynamicAssets(assets);
+    assetGroup.setDynamicAssets(new ArrayList<>(assets));
     return assetGroup;
   }
 
@@ -158,26 +178,21 @@ public class AssetGroupService {
       return Map.of();
     }
 
+    List<String> dynamicAssetGroupIds =
+        assetGroups.stream()
+            .filter(assetGroup -> !isEmptyFilterGroup(assetGroup.getAssetGroupDynamicFilter()))
+            .map(RawAssetGroup::getAsset_group_id)
+            .toList();
+    Map<String, List<Endpoint>> dynamicAssets =
+        this.assetGroupDynamicAssetService.dynamicAssets(dynamicAssetGroupIds);
     return assetGroups.stream()
         .collect(
             Collectors.toMap(
                 RawAssetGroup::getAsset_group_id,
                 assetGroup ->
-                    Optional.of(assetGroup.getAssetGroupDynamicFilter())
-                        .filter(filterGroup -> !isEmptyFilterGroup(filterGroup))
-                        .map(
-                            filter -> {
-                              Specification<Endpoint> specification = computeFilterGroupJpa(filter);
-                              Specification<Endpoint> specification2 =
-                                  EndpointSpecification
-                                      .findEndpointsForInjectionOrAgentlessEndpoints();
-                              return this.endpointService
-                                  .endpoints(specification.and(specification2))
-                                  .stream()
-                                  .distinct()
-                                  .toList();
-                            })
-                        .orElse(Collections.emptyList())));
+                    dynamicAssets.getOrDefault(
+                        assetGroup.getAsset_group_id(), Collections.emptyList()),
+                (first, second) -> first));
   }
 
   public List<FilterUtilsJpa.Option> getOptionsByNameLinkedToFindings(
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,9 @@ public class EmailNotificationService {
   private final MailingService mailingService;
   private final ResourceLoader resourceLoader;
 
+  // Templates are packaged with the platform, read once
+  private final Map<String, String> templates = new ConcurrentHashMap<>();
+
   public void sendNotification(
       @NotNull final NotificationRule rule, @NotNull final Map<String, String> data) {
 
@@ -60,6 +64,10 @@ public class EmailNotificationService {
             rule.getTrigger().name().toLowerCase(),
             "en");
 
+    return templates.computeIfAbsent(templatePath, this::readTemplate);
+  }
+
+  private String readTemplate(@NotNull final String templatePath) {
     try (InputStream inputStream = resourceLoader.getResource(templatePath).getInputStream()) {
       return new String(inputStream.readAllBytes());
     } catch (IOException e) {
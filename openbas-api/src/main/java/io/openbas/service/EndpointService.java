@@ -26,18 +26,13 @@ import jakarta.annotation.Resource;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -58,6 +53,15 @@ public class EndpointService {
   public static final String SERVICE_USER = "service-user";
   public static final String SESSION_USER = "session-user";
 
+  private static final List<String> INSTALLER_PLACEHOLDERS =
+      List.of(
+          "OPENBAS_URL",
+          "OPENBAS_TOKEN",
+          "OPENBAS_UNSECURED_CERTIFICATE",
+          "OPENBAS_WITH_PROXY",
+          "OPENBAS_SERVICE_NAME",
+          "OPENBAS_INSTALL_DIR");
+
   public static String JFROG_BASE = "https://filigran.jfrog.io/artifactory";
 
   public static final String OPENBAS_INSTALL_DIR_WINDOWS_SERVICE =
@@ -96,6 +100,8 @@ public class EndpointService {
   private final TagRepository tagRepository;
   private final AgentService agentService;
   private final AssetService assetService;
+  private final AgentHeartbeatService agentHeartbeatService;
+  private final AgentArtifactService agentArtifactService;
 
   // -- CRUD --
   public Endpoint createEndpoint(@NotNull final Endpoint endpoint) {
@@ -348,6 +354,12 @@ public class EndpointService {
 
   @Transactional
   public Endpoint register(final EndpointRegisterInput input) throws IOException {
+    // Same payload as the last registration => only the liveness of the agent is recorded
+    String payloadHash = agentHeartbeatService.payloadHash(input);
+    Optional<Endpoint> knownEndpoint = agentHeartbeatService.heartbeat(payloadHash, now());
+    if (knownEndpoint.isPresent()) {
+      return knownEndpoint.get();
+    }
     AgentRegisterInput agentInput = toAgentEndpoint(input);
     Agent agent;
     // Check if agents exist (because we can find X openbas agent on an endpoint)
@@ -397,6 +409,8 @@ public class EndpointService {
               input.getServiceName()));
       assetAgentJob.setAgent(agent);
       assetAgentJobRepository.save(assetAgentJob);
+    } else {
+      agentHeartbeatService.registered(payloadHash, agent);
     }
     return endpoint;
   }
@@ -549,36 +563,32 @@ public class EndpointService {
           case "linux", "macos" -> "sh";
           default -> throw new UnsupportedOperationException("");
         };
-    InputStream in = null;
-    String filename;
     String resourcePath = "/openbas-agent/" + platform.toLowerCase() + "/";
-
-    if (executorOpenbasBinariesOrigin.equals("local")) { // if we want the local binaries
-      filename = file + "-" + version + "." + extension;
-      in = getClass().getResourceAsStream("/agents" + resourcePath + filename);
-    } else if (executorOpenbasBinariesOrigin.equals(
-        "repository")) { // if we want a specific version from artifactory
-      filename = file + "-" + executorOpenbasBinariesVersion + "." + extension;
-      in = new BufferedInputStream(new URL(JFROG_BASE + resourcePath + filename).openStream());
-    }
-    if (in == null) {
-      throw new UnsupportedOperationException(
-          "Agent installer version " + executorOpenbasBinariesVersion + " not found");
-    }
-
-    if (installationDir == null) {
-      installationDir = "";
-    }
-
-    return IOUtils.toString(in, StandardCharsets.UTF_8)
-        .replace("${OPENBAS_URL}", openBASConfig.getBaseUrlForAgent())
-        .replace("${OPENBAS_TOKEN}", adminToken)
-        .replace(
-            "${OPENBAS_UNSECURED_CERTIFICATE}",
-            String.valueOf(openBASConfig.isUnsecuredCertificate()))
-        .replace("${OPENBAS_WITH_PROXY}", String.valueOf(openBASConfig.isWithProxy()))
-        .replace("${OPENBAS_SERVICE_NAME}", serviceNameOrPrefix)
-        .replace("${OPENBAS_INSTALL_DIR}", installationDir);
+    String filename = file + "-" + agentArtifactService.version() + "." + extension;
+    AgentInstallerTemplate template =
+        agentArtifactService
+            .installerTemplate(resourcePath, filename, INSTALLER_PLACEHOLDERS)
+            .orElseThrow(
+                () ->
+                    new UnsupportedOperationException(
+                        "Agent installer version "
+                            + executorOpenbasBinariesVersion
+                            + " not found"));
+
+    return template.render(
+        Map.of(
+            "OPENBAS_URL",
+            openBASConfig.getBaseUrlForAgent(),
+            "OPENBAS_TOKEN",
+            adminToken,
+            "OPENBAS_UNSECURED_CERTIFICATE",
+            String.valueOf(openBASConfig.isUnsecuredCertificate()),
+            "OPENBAS_WITH_PROXY",
+            String.valueOf(openBASConfig.isWithProxy()),
+            "OPENBAS_SERVICE_NAME",
+            serviceNameOrPrefix,
+            "OPENBAS_INSTALL_DIR",
+            installationDir == null ? "" : installationDir));
   }
 
   public String generateServiceNameOrPrefix(
@@ -1,19 +1,30 @@
 package io.openbas.service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.ZipEntry;
 
 public class ImportEntry {
 
+  /** Opens the content of an entry, each call returning a new stream to be closed by the caller */
+  @FunctionalInterface
+  public interface DataSupplier {
+    InputStream open() throws IOException;
+  }
+
   private ZipEntry entry;
 
-  private InputStream data;
+  private DataSupplier dataSupplier;
 
   private long contentLength;
 
   public ImportEntry(ZipEntry entry, InputStream data, long contentLength) {
+    this(entry, () -> data, contentLength);
+  }
+
+  public ImportEntry(ZipEntry entry, DataSupplier dataSupplier, long contentLength) {
     this.entry = entry;
-    this.data = data;
+    this.dataSupplier = dataSupplier;
     this.contentLength = contentLength;
   }
 
@@ -25,12 +36,12 @@ public class ImportEntry {
     this.entry = entry;
   }
 
-  public InputStream getData() {
-    return data;
+  public InputStream getData() throws IOException {
+    return dataSupplier.open();
   }
 
-  public void setData(InputStream data) {
-    this.data = data;
+  public void setDataSupplier(DataSupplier dataSupplier) {
+    this.dataSupplier = dataSupplier;
   }
 
   public long getContentLength() {
@@ -12,15 +12,14 @@ import io.openbas.importer.ImportException;
 import io.openbas.importer.Importer;
 import io.openbas.importer.V1_DataImporter;
 import jakarta.annotation.Resource;
-import jakarta.transaction.Transactional;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipInputStream;
+import net.lingala.zip4j.model.FileHeader;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,11 +49,11 @@ public class ImportService {
   }
 
   private void handleDataImport(
-      InputStream inputStream,
+      ImportEntry.DataSupplier dataSupplier,
       Map<String, ImportEntry> docReferences,
       Exercise exercise,
       Scenario scenario) {
-    try {
+    try (InputStream inputStream = dataSupplier.open()) {
       JsonNode importNode = mapper.readTree(inputStream);
       int importVersion = importNode.get("export_version").asInt();
       Importer importer = dataImporters.get(importVersion);
@@ -68,46 +67,53 @@ public class ImportService {
     }
   }
 
-  @Transactional(rollbackOn = Exception.class)
+  /**
+   * Import an export archive. Entries are only indexed, attachments being streamed from the archive
+   * when the importer stores them, and each data file is imported in its own transaction.
+   */
   public void handleFileImport(MultipartFile file, Exercise exercise, Scenario scenario)
       throws Exception {
     File tempFile = createTempFile("openbas-import-" + now().getEpochSecond(), ".zip");
     FileUtils.copyInputStreamToFile(file.getInputStream(), tempFile);
 
-    try (ZipFile parentZip = new ZipFile(tempFile)) { // java.util.zip.ZipFile!
-      List<InputStream> dataImports = new ArrayList<>();
-      Map<String, ImportEntry> docReferences = new HashMap<>();
+    try (ImportArchive archive = new ImportArchive()) {
+      archive.indexArchive(tempFile);
+
+      // Process all loaded data
+      for (ImportEntry.DataSupplier dataImport : archive.dataImports) {
+        handleDataImport(dataImport, archive.docReferences, exercise, scenario);
+      }
+    } finally {
+      tempFile.delete();
+    }
+  }
+
+  /** Index of the entries of an archive, keeping its nested archives open until closed */
+  private static class ImportArchive implements AutoCloseable {
+
+    private final List<ImportEntry.DataSupplier> dataImports = new ArrayList<>();
+    private final Map<String, ImportEntry> docReferences = new HashMap<>();
+    private final Deque<Closeable> openedArchives = new ArrayDeque<>();
+    private final List<File> tempFiles = new ArrayList<>();
+
+    private void indexArchive(File file) throws IOException {
+      ZipFile parentZip = open(new ZipFile(file)); // java.util.zip.ZipFile!
       Enumeration<? extends ZipEntry> entries = parentZip.entries();
 
       while (entries.hasMoreElements()) {
         ZipEntry entry = entries.nextElement();
         String entryType = entry.getComment();
         String entryName = entry.getName();
-        ByteArrayOutputStream encryptedAttachmentsBuffer = null;
-        ByteArrayOutputStream encryptedArgumentsAttachmentsBuffer = null;
         if (entry.isDirectory()) {
           continue;
         }
         // Handle direct import of payloads
         if (entryName.contains("payload.json")) {
-          try (InputStream dataStream = parentZip.getInputStream(entry)) {
-            ByteArrayOutputStream jsonBuffer = new ByteArrayOutputStream();
-            IOUtils.copy(dataStream, jsonBuffer);
-            dataImports.add(new ByteArrayInputStream(jsonBuffer.toByteArray()));
-            entryType = "DIRECT_IMPORT";
-          }
+          dataImports.add(() -> parentZip.getInputStream(entry));
+          entryType = "DIRECT_IMPORT";
         } else if (entryName.contains("attachments.zip")) {
-          try (InputStream dataStream = parentZip.getInputStream(entry)) {
-            encryptedAttachmentsBuffer = new ByteArrayOutputStream();
-            IOUtils.copy(dataStream, encryptedAttachmentsBuffer);
-            entryType = "DIRECT_IMPORT";
-          }
-        } else if (entryName.contains("arguments_attachments.zip")) {
-          try (InputStream dataStream = parentZip.getInputStream(entry)) {
-            encryptedArgumentsAttachmentsBuffer = new ByteArrayOutputStream();
-            IOUtils.copy(dataStream, encryptedArgumentsAttachmentsBuffer);
-            entryType = "DIRECT_IMPORT";
-          }
+          indexEncryptedArchive(extract(parentZip, entry));
+          entryType = "DIRECT_IMPORT";
         }
 
         if (entryType == null) {
@@ -116,108 +122,70 @@ public class ImportService {
         }
 
         if (EXPORT_ENTRY_PAYLOAD_ARCHIVE.equals(entryType)) {
-          try (InputStream payloadZipStream = parentZip.getInputStream(entry)) {
-            byte[] payloadZipBytes = IOUtils.toByteArray(payloadZipStream);
-            try (ZipInputStream payloadZipInputStream =
-                new ZipInputStream(new ByteArrayInputStream(payloadZipBytes))) {
-              ZipEntry payloadEntry;
-              while ((payloadEntry = payloadZipInputStream.getNextEntry()) != null) {
-                String payloadEntryName = payloadEntry.getName();
-                if ("payload.json".equals(payloadEntryName)) {
-                  ByteArrayOutputStream jsonBuffer = new ByteArrayOutputStream();
-                  IOUtils.copy(payloadZipInputStream, jsonBuffer);
-                  dataImports.add(new ByteArrayInputStream(jsonBuffer.toByteArray()));
-                } else if ("attachments.zip".equals(payloadEntryName)) {
-                  encryptedAttachmentsBuffer = new ByteArrayOutputStream();
-                  IOUtils.copy(payloadZipInputStream, encryptedAttachmentsBuffer);
-                } else if ("arguments_attachments.zip".equals(payloadEntryName)) {
-                  encryptedArgumentsAttachmentsBuffer = new ByteArrayOutputStream();
-                  IOUtils.copy(payloadZipInputStream, encryptedArgumentsAttachmentsBuffer);
-                }
-                payloadZipInputStream.closeEntry();
-              }
-            }
-          }
+          indexPayloadArchive(extract(parentZip, entry));
         } else if (EXPORT_ENTRY_ATTACHMENT.equals(entryType)) {
-          try (InputStream attStream = parentZip.getInputStream(entry)) {
-            ByteArrayOutputStream attachmentBuffer = new ByteArrayOutputStream();
-            IOUtils.copy(attStream, attachmentBuffer);
-            docReferences.put(
-                entryName,
-                new ImportEntry(
-                    entry,
-                    new ByteArrayInputStream(attachmentBuffer.toByteArray()),
-                    attachmentBuffer.toByteArray().length));
-          }
+          docReferences.put(
+              entryName,
+              new ImportEntry(entry, () -> parentZip.getInputStream(entry), entry.getSize()));
         } else if (EXPORT_ENTRY_EXERCISE.equals(entryType)
             || EXPORT_ENTRY_SCENARIO.equals(entryType)) {
-          try (InputStream dataStream = parentZip.getInputStream(entry)) {
-            ByteArrayOutputStream dataBuffer = new ByteArrayOutputStream();
-            IOUtils.copy(dataStream, dataBuffer);
-            dataImports.add(new ByteArrayInputStream(dataBuffer.toByteArray()));
-          }
+          dataImports.add(() -> parentZip.getInputStream(entry));
         }
+      }
+    }
 
-        // If encrypted attachments exist, extract with zip4j
-        if (encryptedAttachmentsBuffer != null) {
-          File tempEncryptedAttachmentFile = createTempFile("encrypted-attachment", ".zip");
-          try {
-            FileUtils.writeByteArrayToFile(
-                tempEncryptedAttachmentFile, encryptedAttachmentsBuffer.toByteArray());
-            try (net.lingala.zip4j.ZipFile encryptedZip =
-                new net.lingala.zip4j.ZipFile(
-                    tempEncryptedAttachmentFile, ZIP_PASSWORD.toCharArray())) {
-              encryptedZip.setRunInThread(false);
-              for (net.lingala.zip4j.model.FileHeader encHeader : encryptedZip.getFileHeaders()) {
-                try (InputStream fileInZip = encryptedZip.getInputStream(encHeader)) {
-                  String filename = encHeader.getFileName();
-                  byte[] fileBytes = IOUtils.toByteArray(fileInZip);
-                  ZipEntry fakeEntry = new ZipEntry(filename);
-                  docReferences.put(
-                      filename,
-                      new ImportEntry(
-                          fakeEntry, new ByteArrayInputStream(fileBytes), fileBytes.length));
-                }
-              }
-            }
-          } finally {
-            tempEncryptedAttachmentFile.delete();
-          }
-        }
-        // If encrypted arguments attachments exist, extract with zip4j
-        if (encryptedArgumentsAttachmentsBuffer != null) {
-          File tempEncryptedAttachmentFile = createTempFile("encrypted-attachment", ".zip");
-          try {
-            FileUtils.writeByteArrayToFile(
-                tempEncryptedAttachmentFile, encryptedArgumentsAttachmentsBuffer.toByteArray());
-            try (net.lingala.zip4j.ZipFile encryptedZip =
-                new net.lingala.zip4j.ZipFile(
-                    tempEncryptedAttachmentFile, ZIP_PASSWORD.toCharArray())) {
-              encryptedZip.setRunInThread(false);
-              for (net.lingala.zip4j.model.FileHeader encHeader : encryptedZip.getFileHeaders()) {
-                try (InputStream fileInZip = encryptedZip.getInputStream(encHeader)) {
-                  String filename = encHeader.getFileName();
-                  byte[] fileBytes = IOUtils.toByteArray(fileInZip);
-                  ZipEntry fakeEntry = new ZipEntry(filename);
-                  docReferences.put(
-                      filename,
-                      new ImportEntry(
-                          fakeEntry, new ByteArrayInputStream(fileBytes), fileBytes.length));
-                }
-              }
-            }
-          } finally {
-            tempEncryptedAttachmentFile.delete();
-          }
+    private void indexPayloadArchive(File file) throws IOException {
+      ZipFile payloadZip = open(new ZipFile(file));
+      Enumeration<? extends ZipEntry> entries = payloadZip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry payloadEntry = entries.nextElement();
+        String payloadEntryName = payloadEntry.getName();
+        if ("payload.json".equals(payloadEntryName)) {
+          dataImports.add(() -> payloadZip.getInputStream(payloadEntry));
+        } else if ("attachments.zip".equals(payloadEntryName)
+            || "arguments_attachments.zip".equals(payloadEntryName)) {
+          indexEncryptedArchive(extract(payloadZip, payloadEntry));
         }
       }
+    }
 
-      // Process all loaded data
-      for (InputStream dataStream : dataImports) {
-        handleDataImport(dataStream, docReferences, exercise, scenario);
+    // If encrypted attachments exist, index them with zip4j
+    private void indexEncryptedArchive(File file) throws IOException {
+      net.lingala.zip4j.ZipFile encryptedZip =
+          open(new net.lingala.zip4j.ZipFile(file, ZIP_PASSWORD.toCharArray()));
+      encryptedZip.setRunInThread(false);
+      for (FileHeader encHeader : encryptedZip.getFileHeaders()) {
+        String filename = encHeader.getFileName();
+        docReferences.put(
+            filename,
+            new ImportEntry(
+                new ZipEntry(filename),
+                () -> encryptedZip.getInputStream(encHeader),
+                encHeader.getUncompressedSize()));
       }
-    } finally {
-      tempFile.delete();
+    }
+
+    /** Nested archives are read from temp files, random access being needed to index them */
+    private File extract(ZipFile zip, ZipEntry entry) throws IOException {
+      File tempFile = createTempFile("openbas-import-entry", ".zip");
+      tempFiles.add(tempFile);
+      try (InputStream dataStream = zip.getInputStream(entry)) {
+        FileUtils.copyInputStreamToFile(dataStream, tempFile);
+      }
+      return tempFile;
+    }
+
+    private <T extends Closeable> T open(T archive) {
+      openedArchives.push(archive);
+      return archive;
+    }
+
+    @Override
+    public void close() {
+      while (!openedArchives.isEmpty()) {
+        IOUtils.closeQuietly(openedArchives.pop());
+      }
+      tempFiles.forEach(File::delete);
     }
   }
 }
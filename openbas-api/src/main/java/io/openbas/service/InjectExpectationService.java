@@ -29,6 +29,7 @@ import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
@@ -852,6 +853,71 @@ public class InjectExpectationService {
     }
   }
 
+  /**
+   * Merged expectations of an inject for a page of targets of the same type, fetched with a single
+   * query and grouped by target
+   *
+   * @param injectId the inject
+   * @param targetIds the ids of the targets
+   * @param targetType the type shared by the targets
+   * @return the merged expectations by target id
+   */
+  public Map<String, List<InjectExpectation>> findMergedExpectationsByInjectAndTargetsAndTargetType(
+      @NotBlank final String injectId,
+      @NotNull final Collection<String> targetIds,
+      @NotBlank final String targetType) {
+    if (targetIds.isEmpty()) {
+      return Map.of();
+    }
+    TargetType targetTypeEnum;
+    try {
+      targetTypeEnum = TargetType.valueOf(targetType);
+    } catch (IllegalArgumentException e) {
+      return Map.of();
+    }
+    Function<InjectExpectation, Base> targetOf;
+    List<InjectExpectation> expectations;
+    switch (targetTypeEnum) {
+      case TEAMS -> {
+        expectations = injectExpectationRepository.findAllByInjectAndTeams(injectId, targetIds);
+        targetOf = InjectExpectation::getTeam;
+      }
+      case PLAYERS -> {
+        expectations = injectExpectationRepository.findAllByInjectAndPlayers(injectId, targetIds);
+        targetOf = InjectExpectation::getUser;
+      }
+      case AGENT -> {
+        expectations = injectExpectationRepository.findAllByInjectAndAgents(injectId, targetIds);
+        targetOf = InjectExpectation::getAgent;
+      }
+      case ASSETS -> {
+        expectations = injectExpectationRepository.findAllByInjectAndAssets(injectId, targetIds);
+        targetOf = InjectExpectation::getAsset;
+      }
+      case ASSETS_GROUPS -> {
+        expectations =
+            injectExpectationRepository.findAllByInjectAndAssetGroups(injectId, targetIds);
+        targetOf = InjectExpectation::getAssetGroup;
+      }
+      default ->
+          throw new RuntimeException(
+              "Target type "
+                  + targetType
+                  + " not implemented for this method findMergedExpectationsByInjectAndTargetsAndTargetType");
+    }
+
+    Map<String, List<InjectExpectation>> expectationsByTarget = new HashMap<>();
+    for (InjectExpectation expectation : expectations) {
+      expectationsByTarget
+          .computeIfAbsent(targetOf.apply(expectation).getId(), k -> new ArrayList<>())
+          .add(expectation);
+    }
+    expectationsByTarget.replaceAll(
+        (targetId, targetExpectations) ->
+            mergeExpectationResultsByExpectationType(targetExpectations));
+    return expectationsByTarget;
+  }
+
   private List<InjectExpectation> mergeExpectationResultsByExpectationType(
       List<InjectExpectation> expectations) {
     List<String> notCopiedSourceTypes = List.of("collector");
@@ -15,12 +15,14 @@ import io.openbas.rest.scenario.response.ImportMessage;
 import io.openbas.rest.scenario.response.ImportPostSummary;
 import io.openbas.rest.scenario.response.ImportTestSummary;
 import io.openbas.service.utils.InjectImportUtils;
+import io.openbas.service.utils.XlsSheetReader;
 import io.openbas.utils.InjectUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -30,6 +32,7 @@ import java.time.temporal.Temporal;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -44,6 +47,7 @@ import org.apache.logging.log4j.util.Strings;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellReference;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -67,6 +71,11 @@ public class InjectImportService {
 
   final int FILE_STORAGE_DURATION = 60;
 
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  @Value("${openbas.xls.import.preview-rows:1000}")
+  private int previewRowLimit;
+
   /**
    * Store an xls file for ulterior import. The file will be deleted on exit.
    *
@@ -80,17 +89,16 @@ public class InjectImportService {
     String fileID = UUID.randomUUID().toString();
     result.setImportId(fileID);
     try {
-      // We're opening the file and listing the names of the sheets
-      Workbook workbook = WorkbookFactory.create(file.getInputStream());
-      for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-        result.getAvailableSheets().add(workbook.getSheetName(i));
-      }
       // Writing the file in a temp dir
       Path tempDir = Files.createDirectory(Path.of(System.getProperty("java.io.tmpdir"), fileID));
       Path tempFile =
           Files.createTempFile(
               tempDir, null, "." + FilenameUtils.getExtension(file.getOriginalFilename()));
-      Files.write(tempFile, file.getBytes());
+      try (InputStream inputStream = file.getInputStream()) {
+        Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+      // We're opening the file and listing the names of the sheets
+      result.getAvailableSheets().addAll(XlsSheetReader.sheetNames(tempFile));
 
       CompletableFuture.delayedExecutor(FILE_STORAGE_DURATION, TimeUnit.MINUTES)
           .execute(
@@ -142,8 +150,10 @@ public class InjectImportService {
       boolean saveAll) {
     // We call the inject service to get the injects to create as well as messages on how things
     // went
+    // The preview only needs the first rows of the sheet
+    int rowLimit = saveAll || previewRowLimit <= 0 ? Integer.MAX_VALUE : previewRowLimit;
     ImportTestSummary importTestSummary =
-        importXls(importId, scenario, exercise, importMapper, sheetName, timezoneOffset);
+        importXls(importId, scenario, exercise, importMapper, sheetName, timezoneOffset, rowLimit);
     Optional<ImportMessage> hasCritical =
         importTestSummary.getImportMessage().stream()
             .filter(
@@ -270,7 +280,8 @@ public class InjectImportService {
       Exercise exercise,
       ImportMapper importMapper,
       String sheetName,
-      int timezoneOffset) {
+      int timezoneOffset,
+      int rowLimit) {
     ImportTestSummary importTestSummary = new ImportTestSummary();
 
     try {
@@ -281,11 +292,6 @@ public class InjectImportService {
               .findFirst()
               .orElseThrow();
 
-      // We open the file and convert it to an apache POI object
-      InputStream xlsFile = Files.newInputStream(file);
-      Workbook workbook = WorkbookFactory.create(xlsFile);
-      Sheet selectedSheet = workbook.getSheet(sheetName);
-
       Map<Integer, InjectTime> mapInstantByRowIndex = new HashMap<>();
 
       // For performance reasons, we compile the pattern of the Inject Importers only once
@@ -315,8 +321,7 @@ public class InjectImportService {
       // We also get the list of teams into a map to be able to get them easily later on
       // First, all the teams that are non-contextual
       Map<String, Team> mapTeamByName =
-          StreamSupport.stream(teamRepository.findAll().spliterator(), false)
-              .filter(team -> !team.getContextual())
+          teamRepository.findAllByContextualFalse().stream()
               .collect(
                   Collectors.toMap(Team::getName, Function.identity(), (first, second) -> first));
 
@@ -336,48 +341,65 @@ public class InjectImportService {
               .collect(
                   Collectors.toMap(Team::getName, Function.identity(), (first, second) -> first)));
 
+      // The fields of each injector contract, organized by key
+      Map<String, Map<String, JsonNode>> mapFieldsByContract =
+          importMapper.getInjectImporters().stream()
+              .map(InjectImporter::getInjectorContract)
+              .collect(
+                  Collectors.toMap(
+                      InjectorContract::getId,
+                      InjectImportService::fieldsByKey,
+                      (first, second) -> first));
+
+      // The user doing the import is the author of every inject
+      User importUser =
+          userRepository
+              .findById(currentUser().getId())
+              .orElseThrow(() -> new ElementNotFoundException("Current user not found"));
+
       ZoneOffset zoneOffset = ZoneOffset.ofTotalSeconds(timezoneOffset * 60);
+      Instant start;
+      if (scenario != null) {
+        start = scenario.getRecurrenceStart();
+      } else {
+        start = exercise.getStart().orElse(null);
+      }
 
-      // For each rows of the selected sheet
-      selectedSheet
-          .rowIterator()
-          .forEachRemaining(
-              row -> {
-                Instant start;
-                if (scenario != null) {
-                  start = scenario.getRecurrenceStart();
-                } else if (exercise != null) {
-                  start = exercise.getStart().orElse(null);
-                } else {
-                  throw new IllegalArgumentException(
-                      "At least one of exercise or scenario should be present");
-                }
-                ImportRow rowSummary =
-                    importRow(
-                        row,
-                        importMapper,
-                        start,
-                        mapPatternByInjectImport,
-                        mapTeamByName,
-                        mapPatternByAllTeams,
-                        zoneOffset);
-                // We set the exercise or scenario
-                Inject inject = rowSummary.getInject();
-                if (scenario != null && inject != null) {
-                  inject.setScenario(scenario);
-                } else if (exercise != null && inject != null) {
-                  inject.setExercise(exercise);
-                }
-                rowSummary.setInject(inject);
+      // For each rows of the selected sheet, read one by one without loading the whole workbook
+      AtomicInteger rowCount = new AtomicInteger();
+      XlsSheetReader.readRows(
+          file,
+          sheetName,
+          row -> {
+            ImportRow rowSummary =
+                importRow(
+                    row,
+                    importMapper,
+                    start,
+                    mapPatternByInjectImport,
+                    mapTeamByName,
+                    mapPatternByAllTeams,
+                    mapFieldsByContract,
+                    importUser,
+                    zoneOffset);
+            // We set the exercise or scenario
+            Inject inject = rowSummary.getInject();
+            if (scenario != null && inject != null) {
+              inject.setScenario(scenario);
+            } else if (exercise != null && inject != null) {
+              inject.setExercise(exercise);
+            }
+            rowSummary.setInject(inject);
 
-                importTestSummary.getImportMessage().addAll(rowSummary.getImportMessages());
-                if (rowSummary.getInject() != null) {
-                  importTestSummary.getInjects().add(rowSummary.getInject());
-                }
-                if (rowSummary.getInjectTime() != null) {
-                  mapInstantByRowIndex.put(row.getRowNum(), rowSummary.getInjectTime());
-                }
-              });
+            importTestSummary.getImportMessage().addAll(rowSummary.getImportMessages());
+            if (rowSummary.getInject() != null) {
+              importTestSummary.getInjects().add(rowSummary.getInject());
+            }
+            if (rowSummary.getInjectTime() != null) {
+              mapInstantByRowIndex.put(row.getRowNum(), rowSummary.getInjectTime());
+            }
+            return rowCount.incrementAndGet() < rowLimit;
+          });
 
       // Now that we did our first pass, we do another one real quick to find out
       // the date relative to each others
@@ -440,6 +462,8 @@ public class InjectImportService {
       Map<String, Pattern> mapPatternByInjectImport,
       Map<String, Team> mapTeamByName,
       Map<String, Pattern> mapPatternByAllTeams,
+      Map<String, Map<String, JsonNode>> mapFieldsByContract,
+      User importUser,
       ZoneOffset timezoneOffset) {
     ImportRow importTestSummary = new ImportRow();
     // The column that differenciate the importer is the same for all so we get it right now
@@ -698,7 +722,6 @@ public class InjectImportService {
     }
 
     // Initializing the content with a root node
-    ObjectMapper mapper = new ObjectMapper();
     inject.setContent(mapper.createObjectNode());
 
     // Once it's done, we set the injectorContract
@@ -719,16 +742,14 @@ public class InjectImportService {
                           inject,
                           ruleAttribute,
                           row,
+                          mapFieldsByContract.get(injectorContract.getId()),
                           mapTeamByName,
                           expectation,
                           importMapper,
                           mapPatternByAllTeams));
             });
     // The user is the one doing the import
-    inject.setUser(
-        userRepository
-            .findById(currentUser().getId())
-            .orElseThrow(() -> new ElementNotFoundException("Current user not found")));
+    inject.setUser(importUser);
     // No exercise yet
     inject.setExercise(null);
     // No dependencies
@@ -779,10 +800,27 @@ public class InjectImportService {
     }
   }
 
+  /**
+   * For ease of use, we create a map of the available keys for the injector
+   *
+   * @param injectorContract the injector contract
+   * @return the fields of the contract organized by key
+   */
+  private static Map<String, JsonNode> fieldsByKey(InjectorContract injectorContract) {
+    return StreamSupport.stream(
+            injectorContract.getConvertedContent().get("fields").spliterator(), false)
+        .collect(
+            Collectors.toMap(
+                jsonNode -> jsonNode.get("key").asText(),
+                Function.identity(),
+                (first, second) -> first));
+  }
+
   private List<ImportMessage> addFields(
       Inject inject,
       RuleAttribute ruleAttribute,
       Row row,
+      Map<String, JsonNode> mapFieldByKey,
       Map<String, Team> mapTeamByName,
       AtomicReference<InjectExpectation> expectation,
       ImportMapper importMapper,
@@ -792,20 +830,6 @@ public class InjectImportService {
       return emptyList();
     }
 
-    // For ease of use, we create a map of the available keys for the injector
-    Map<String, JsonNode> mapFieldByKey =
-        StreamSupport.stream(
-                (Objects.requireNonNull(
-                    inject
-                        .getInjectorContract()
-                        .map(
-                            injectorContract ->
-                                injectorContract.getConvertedContent().get("fields").spliterator())
-                        .orElse(null))),
-                false)
-            .collect(
-                Collectors.toMap(jsonNode -> jsonNode.get("key").asText(), Function.identity()));
-
     // Otherwise, the default type is text, but it can be overriden
     String type = "text";
     if (mapFieldByKey.get(ruleAttribute.getName()) != null) {
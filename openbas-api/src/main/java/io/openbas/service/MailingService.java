@@ -12,6 +12,7 @@ import io.openbas.database.repository.UserRepository;
 import io.openbas.execution.ExecutableInject;
 import io.openbas.execution.ExecutionContext;
 import io.openbas.execution.ExecutionContextService;
+import io.openbas.execution.ExecutionContextTemplate;
 import io.openbas.executors.Injector;
 import io.openbas.injectors.email.EmailContract;
 import io.openbas.injectors.email.model.EmailContent;
@@ -87,13 +88,12 @@ public class MailingService {
 
               exercise.ifPresent(inject::setExercise);
 
+              ExecutionContextTemplate template =
+                  this.executionContextService.executionContextTemplate(inject);
               List<ExecutionContext> userInjectContexts =
                   users.stream()
                       .distinct()
-                      .map(
-                          user ->
-                              this.executionContextService.executionContext(
-                                  user, inject, "Direct execution"))
+                      .map(user -> template.executionContext(user, "Direct execution"))
                       .toList();
               ExecutableInject injection =
                   new ExecutableInject(false, true, inject, userInjectContexts);
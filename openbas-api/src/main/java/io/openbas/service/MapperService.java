@@ -1,7 +1,6 @@
 package io.openbas.service;
 
 import static com.opencsv.ICSVWriter.*;
-import static io.openbas.helper.StreamHelper.iterableToSet;
 import static io.openbas.utils.FilterUtilsJpa.computeFilterGroupJpa;
 import static io.openbas.utils.StringUtils.duplicateString;
 import static io.openbas.utils.pagination.SearchUtilsJpa.computeSearchJpa;
@@ -17,11 +16,12 @@ import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.bean.ColumnPositionMappingStrategy;
-import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.StatefulBeanToCsv;
 import com.opencsv.bean.StatefulBeanToCsvBuilder;
 import com.opencsv.exceptions.CsvDataTypeMismatchException;
+import com.opencsv.exceptions.CsvException;
 import com.opencsv.exceptions.CsvRequiredFieldEmptyException;
+import com.opencsv.exceptions.CsvValidationException;
 import io.openbas.database.model.*;
 import io.openbas.database.repository.EndpointRepository;
 import io.openbas.database.repository.ImportMapperRepository;
@@ -32,6 +32,7 @@ import io.openbas.rest.exception.BadRequestException;
 import io.openbas.rest.exception.ElementNotFoundException;
 import io.openbas.rest.mapper.export.MapperExportMixins;
 import io.openbas.rest.mapper.form.*;
+import io.openbas.rest.mapper.response.CsvImportResult;
 import io.openbas.rest.tag.TagService;
 import io.openbas.rest.tag.form.TagCreateInput;
 import io.openbas.rest.tag.form.TagExportImport;
@@ -41,6 +42,12 @@ import io.openbas.utils.CopyObjectListUtils;
 import io.openbas.utils.TargetType;
 import io.openbas.utils.mapper.EndpointMapper;
 import io.openbas.utils.pagination.SearchPaginationInput;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotBlank;
 import java.io.File;
@@ -52,10 +59,13 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -69,11 +79,14 @@ public class MapperService {
   private final ImportMapperRepository importMapperRepository;
   private final InjectorContractRepository injectorContractRepository;
   private final EndpointRepository endpointRepository;
-  private final EndpointService endpointService;
 
   private final TagService tagService;
   private final ObjectMapper objectMapper;
 
+  @PersistenceContext private EntityManager entityManager;
+
+  private static final int CSV_CHUNK_SIZE = 500;
+
   /**
    * Create and save an ImportMapper object from a MapperAddInput one
    *
@@ -325,18 +338,14 @@ public class MapperService {
    * @param input used to know which filter we want to apply to get the entity list to export
    * @param response used to return the file
    */
+  @Transactional(readOnly = true)
   public void exportMappersCsv(
       TargetType targetType, SearchPaginationInput input, HttpServletResponse response) {
     switch (targetType) {
       case ENDPOINTS:
         try {
-          List<EndpointExportImport> endpointsToExport = getEndpointsToExport(input);
           String dateNow = DateTimeFormatter.ofPattern("yyyyMMddHHmm").format(LocalDateTime.now());
-          exportCsv(
-              response,
-              "Endpoints" + dateNow + ".csv",
-              endpointsToExport,
-              EndpointExportImport.class);
+          exportEndpointsCsv(input, response, "Endpoints" + dateNow + ".csv");
         } catch (Exception e) {
           throw new RuntimeException("Error during export csv ", e);
         }
@@ -347,14 +356,66 @@ public class MapperService {
     }
   }
 
-  private List<EndpointExportImport> getEndpointsToExport(SearchPaginationInput input)
-      throws JsonProcessingException {
+  /**
+   * Stream the endpoints matching the input into the response: rows are scrolled with a bounded
+   * fetch size and written by chunk, the tags of a chunk being read with a single query.
+   */
+  private void exportEndpointsCsv(
+      SearchPaginationInput input, HttpServletResponse response, String filename)
+      throws IOException, CsvDataTypeMismatchException, CsvRequiredFieldEmptyException {
     Specification<Endpoint> filterSpecifications = computeFilterGroupJpa(input.getFilterGroup());
     filterSpecifications = filterSpecifications.and(computeSearchJpa(input.getTextSearch()));
-    List<Endpoint> endpointsToProcess = endpointRepository.findAll(filterSpecifications);
+
+    CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+    CriteriaQuery<Endpoint> cq = cb.createQuery(Endpoint.class);
+    Root<Endpoint> endpointRoot = cq.from(Endpoint.class);
+    Predicate predicate = filterSpecifications.toPredicate(endpointRoot, cq, cb);
+    if (predicate != null) {
+      cq.where(predicate);
+    }
+
+    StatefulBeanToCsv<EndpointExportImport> writer =
+        csvWriter(response, filename, EndpointExportImport.class);
+    try (Stream<Endpoint> endpoints =
+        this.entityManager
+            .createQuery(cq)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, CSV_CHUNK_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream()) {
+      List<Endpoint> chunk = new ArrayList<>(CSV_CHUNK_SIZE);
+      boolean written = false;
+      for (Iterator<Endpoint> iterator = endpoints.iterator(); iterator.hasNext(); ) {
+        chunk.add(iterator.next());
+        if (chunk.size() == CSV_CHUNK_SIZE) {
+          writer.write(toEndpointExports(chunk));
+          written = true;
+          chunk.clear();
+          this.entityManager.clear();
+        }
+      }
+      if (!chunk.isEmpty() || !written) {
+        writer.write(toEndpointExports(chunk));
+      }
+    }
+  }
+
+  private List<EndpointExportImport> toEndpointExports(List<Endpoint> endpoints)
+      throws JsonProcessingException {
+    if (endpoints.isEmpty()) {
+      return List.of();
+    }
+    Map<String, Set<TagExportImport>> tagsByEndpoint = new HashMap<>();
+    this.endpointRepository
+        .rawTagsByEndpointIds(endpoints.stream().map(Endpoint::getId).toList())
+        .forEach(
+            row ->
+                tagsByEndpoint
+                    .computeIfAbsent((String) row[0], k -> new HashSet<>())
+                    .add(new TagExportImport((String) row[1], (String) row[2])));
+
     List<EndpointExportImport> exports = new ArrayList<>();
     EndpointExportImport endpointExport;
-    for (Endpoint endpoint : endpointsToProcess) {
+    for (Endpoint endpoint : endpoints) {
       endpointExport = new EndpointExportImport();
       endpointExport.setName(endpoint.getName());
       endpointExport.setDescription(endpoint.getDescription());
@@ -364,31 +425,25 @@ public class MapperService {
       endpointExport.setPlatform(endpoint.getPlatform());
       endpointExport.setArch(endpoint.getArch());
       endpointExport.setTags(
-          objectMapper.writeValueAsString(
-              endpoint.getTags().stream()
-                  .map(tag -> new TagExportImport(tag.getName(), tag.getColor()))
-                  .collect(Collectors.toSet())));
+          objectMapper.writeValueAsString(tagsByEndpoint.getOrDefault(endpoint.getId(), Set.of())));
       endpointExport.setEol(endpoint.isEoL());
       exports.add(endpointExport);
     }
     return exports;
   }
 
-  private static <T> void exportCsv(
-      HttpServletResponse response, String filename, List<T> exports, Class<T> exportClass)
-      throws IOException, CsvDataTypeMismatchException, CsvRequiredFieldEmptyException {
+  private static <T> StatefulBeanToCsv<T> csvWriter(
+      HttpServletResponse response, String filename, Class<T> exportClass) throws IOException {
     response.setContentType("text/csv");
     response.setHeader("Content-Disposition", "attachment; filename=" + filename);
     response.setStatus(HttpServletResponse.SC_OK);
     CustomColumnPositionStrategy<T> columns = new CustomColumnPositionStrategy();
     columns.setType(exportClass);
-    StatefulBeanToCsv<T> writer =
-        new StatefulBeanToCsvBuilder<T>(response.getWriter())
-            .withQuotechar(DEFAULT_QUOTE_CHARACTER)
-            .withSeparator(DEFAULT_SEPARATOR)
-            .withMappingStrategy(columns)
-            .build();
-    writer.write(exports);
+    return new StatefulBeanToCsvBuilder<T>(response.getWriter())
+        .withQuotechar(DEFAULT_QUOTE_CHARACTER)
+        .withSeparator(DEFAULT_SEPARATOR)
+        .withMappingStrategy(columns)
+        .build();
   }
 
   /**
@@ -396,9 +451,11 @@ public class MapperService {
    *
    * @param file file to import
    * @param targetType entity to know which columns format we use for the import
+   * @return the number of imported rows and the errors of the rejected ones
    * @throws Exception exception if problem during the import
    */
-  public void importMappersCsv(MultipartFile file, TargetType targetType) throws Exception {
+  public CsvImportResult importMappersCsv(MultipartFile file, TargetType targetType)
+      throws Exception {
     File tempFile = createTempFile("openbas-import-" + now().getEpochSecond(), ".csv");
     FileUtils.copyInputStreamToFile(file.getInputStream(), tempFile);
 
@@ -409,69 +466,122 @@ public class MapperService {
               .withIgnoreQuotations(false)
               .build();
 
-      CSVReader csvReader =
+      try (CSVReader csvReader =
           new CSVReaderBuilder(new FileReader(tempFile))
               .withSkipLines(1)
               .withCSVParser(csvParser)
-              .build();
-
-      switch (targetType) {
-        case ENDPOINTS:
-          try {
-            importEndpointsCsv(setEndpointsColumnMapping(), csvReader);
-          } catch (Exception e) {
-            throw new RuntimeException("Error during export csv ", e);
-          }
-          break;
-        default:
-          throw new BadRequestException(
-              "Target type " + targetType + " for CSV export is not supported");
+              .build()) {
+        switch (targetType) {
+          case ENDPOINTS:
+            try {
+              return importEndpointsCsv(setEndpointsColumnMapping(), csvReader);
+            } catch (Exception e) {
+              throw new RuntimeException("Error during export csv ", e);
+            }
+          default:
+            throw new BadRequestException(
+                "Target type " + targetType + " for CSV export is not supported");
+        }
       }
     } finally {
       tempFile.delete();
     }
   }
 
-  private void importEndpointsCsv(
-      ColumnPositionMappingStrategy columnPositionMappingStrategy, CSVReader csvReader)
-      throws JsonProcessingException {
+  private record EndpointRow(Endpoint endpoint, Set<TagExportImport> tags) {}
 
-    CsvToBean csv = new CsvToBean();
-    csv.setCsvReader(csvReader);
-    csv.setMappingStrategy(columnPositionMappingStrategy);
-
-    List list = csv.parse();
-
-    for (Object object : list) {
-      EndpointExportImport endpointExportImport = (EndpointExportImport) object;
-
-      Endpoint endpoint = new Endpoint();
-      endpoint.setName(endpointExportImport.getName());
-      endpoint.setDescription(endpointExportImport.getDescription());
-      endpoint.setHostname(endpointExportImport.getHostname());
-      endpoint.setPlatform(endpointExportImport.getPlatform());
-      endpoint.setArch(endpointExportImport.getArch());
-      endpoint.setIps(
-          EndpointMapper.setIps(
-              objectMapper.readValue(endpointExportImport.getIps(), new TypeReference<>() {})));
-      endpoint.setMacAddresses(
-          EndpointMapper.setMacAddresses(
-              objectMapper.readValue(
-                  endpointExportImport.getMacAddresses(), new TypeReference<>() {})));
-
-      List<Tag> tagsForCreation = new ArrayList<>();
-      Set<TagExportImport> endpointExportImportTags =
-          objectMapper.readValue(endpointExportImport.getTags(), new TypeReference<>() {});
-      for (TagExportImport tag : endpointExportImportTags) {
-        TagCreateInput tagCreateInput = new TagCreateInput();
-        tagCreateInput.setName(tag.getName());
-        tagCreateInput.setColor(tag.getColor());
-        tagsForCreation.add(this.tagService.upsertTag(tagCreateInput));
+  /**
+   * Read the rows one by one and save them by chunk: the tags referenced by a chunk are upserted
+   * once and its endpoints are batch inserted. Rows that cannot be read are reported, not imported.
+   */
+  private CsvImportResult importEndpointsCsv(
+      ColumnPositionMappingStrategy<EndpointExportImport> columnPositionMappingStrategy,
+      CSVReader csvReader)
+      throws IOException, CsvValidationException {
+    CsvImportResult result = new CsvImportResult();
+    List<EndpointRow> chunk = new ArrayList<>(CSV_CHUNK_SIZE);
+    String[] line;
+    while ((line = csvReader.readNext()) != null) {
+      try {
+        chunk.add(toEndpointRow(columnPositionMappingStrategy.populateNewBean(line)));
+      } catch (CsvException | JsonProcessingException | IllegalArgumentException e) {
+        result.addError(csvReader.getLinesRead(), e.getMessage());
+      }
+      if (chunk.size() == CSV_CHUNK_SIZE) {
+        saveEndpointRows(chunk);
+        result.addImported(chunk.size());
+        chunk.clear();
       }
-      endpoint.setTags(iterableToSet(tagsForCreation));
-      endpoint.setEoL(endpointExportImport.isEol());
-      endpointService.createEndpoint(endpoint);
     }
+    if (!chunk.isEmpty()) {
+      saveEndpointRows(chunk);
+      result.addImported(chunk.size());
+    }
+    return result;
+  }
+
+  private EndpointRow toEndpointRow(EndpointExportImport endpointExportImport)
+      throws JsonProcessingException {
+    Endpoint endpoint = new Endpoint();
+    endpoint.setName(endpointExportImport.getName());
+    endpoint.setDescription(endpointExportImport.getDescription());
+    endpoint.setHostname(endpointExportImport.getHostname());
+    endpoint.setPlatform(endpointExportImport.getPlatform());
+    endpoint.setArch(endpointExportImport.getArch());
+    endpoint.setIps(
+        EndpointMapper.setIps(
+            objectMapper.readValue(endpointExportImport.getIps(), new TypeReference<>() {})));
+    endpoint.setMacAddresses(
+        EndpointMapper.setMacAddresses(
+            objectMapper.readValue(
+                endpointExportImport.getMacAddresses(), new TypeReference<>() {})));
+    endpoint.setEoL(endpointExportImport.isEol());
+
+    Set<TagExportImport> tags =
+        Optional.ofNullable(
+                objectMapper.<Set<TagExportImport>>readValue(
+                    endpointExportImport.getTags(), new TypeReference<>() {}))
+            .orElse(Set.of());
+    if (tags.stream().anyMatch(tag -> StringUtils.isBlank(tag.getName()))) {
+      throw new IllegalArgumentException("Tag name cannot be empty");
+    }
+    return new EndpointRow(endpoint, tags);
+  }
+
+  private void saveEndpointRows(List<EndpointRow> rows) {
+    List<TagCreateInput> tagInputs = new ArrayList<>();
+    rows.forEach(
+        row ->
+            row.tags()
+                .forEach(
+                    tag -> {
+                      TagCreateInput tagCreateInput = new TagCreateInput();
+                      tagCreateInput.setName(tag.getName());
+                      tagCreateInput.setColor(tag.getColor());
+                      tagInputs.add(tagCreateInput);
+                    }));
+    Map<String, Tag> tagsByName = this.tagService.upsertTags(tagInputs);
+
+    List<Endpoint> endpoints = new ArrayList<>();
+    for (EndpointRow row : rows) {
+      row.endpoint()
+          .setTags(
+              row.tags().stream()
+                  .map(tag -> tagsByName.get(tag.getName().toLowerCase()))
+                  .collect(Collectors.toSet()));
+      endpoints.add(row.endpoint());
+    }
+    // JDBC batching only for the bulk insert of the chunk, the other writes keep their defaults
+    Session session = this.entityManager.unwrap(Session.class);
+    Integer jdbcBatchSize = session.getJdbcBatchSize();
+    session.setJdbcBatchSize(CSV_CHUNK_SIZE);
+    try {
+      this.endpointRepository.saveAll(endpoints);
+      this.entityManager.flush();
+    } finally {
+      session.setJdbcBatchSize(jdbcBatchSize);
+    }
+    this.entityManager.clear();
   }
 
   private static ColumnPositionMappingStrategy<EndpointExportImport> setEndpointsColumnMapping() {
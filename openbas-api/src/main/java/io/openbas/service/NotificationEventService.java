@@ -1,39 +1,50 @@
 package io.openbas.service;
 
+import io.openbas.database.model.NotificationOutboxEvent;
 import io.openbas.database.model.NotificationRuleResourceType;
+import io.openbas.database.repository.NotificationOutboxEventRepository;
 import io.openbas.notification.handler.NotificationEventHandler;
 import io.openbas.notification.handler.ScenarioNotificationEventHandler;
 import io.openbas.notification.model.NotificationEvent;
+import io.openbas.notification.model.NotificationEventType;
 import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class NotificationEventService {
 
+  public static final int MAX_ATTEMPTS = 5;
+  private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
   private final ApplicationEventPublisher appPublisher;
-  private final ScenarioNotificationEventHandler scenarioNotificationEventHandler;
-  private final ThreadPoolTaskScheduler taskScheduler;
+  private final NotificationOutboxEventRepository notificationOutboxEventRepository;
+  private final TransactionTemplate transactionTemplate;
   private final Map<NotificationRuleResourceType, NotificationEventHandler> handlers;
 
   @Autowired
   public NotificationEventService(
       ApplicationEventPublisher appPublisher,
       ScenarioNotificationEventHandler scenarioNotificationEventHandler,
-      ThreadPoolTaskScheduler taskScheduler) {
+      NotificationOutboxEventRepository notificationOutboxEventRepository,
+      TransactionTemplate transactionTemplate) {
 
     this.appPublisher = appPublisher;
-    this.scenarioNotificationEventHandler = scenarioNotificationEventHandler;
-    this.taskScheduler = taskScheduler;
+    this.notificationOutboxEventRepository = notificationOutboxEventRepository;
+    this.transactionTemplate = transactionTemplate;
     this.handlers = Map.of(NotificationRuleResourceType.SCENARIO, scenarioNotificationEventHandler);
   }
 
@@ -42,15 +53,22 @@ public class NotificationEventService {
   }
 
   /**
-   * Send a notification with a delay (in seconds)
+   * Send a notification with a delay (in seconds). The event is stored until it is handled by the
+   * notification outbox job, and merged with the events of the same resource and type sent in the
+   * meantime.
    *
    * @param notificationEvent notification to send
    * @param delay delay in seconds
    */
+  @Transactional
   public void sendNotificationEventWithDelay(
       @NotNull final NotificationEvent notificationEvent, long delay) {
-    taskScheduler.schedule(
-        () -> sendNotificationEvent(notificationEvent),
+    notificationOutboxEventRepository.enqueue(
+        UUID.randomUUID().toString(),
+        notificationEvent.getResourceType().name(),
+        notificationEvent.getResourceId(),
+        notificationEvent.getEventType().name(),
+        notificationEvent.getTimestamp(),
         Instant.now().plus(delay, ChronoUnit.SECONDS));
   }
 
@@ -64,4 +82,71 @@ public class NotificationEventService {
                         "No handler registered for resource type " + event.getResourceType()));
     handler.handle(event);
   }
+
+  // -- OUTBOX --
+
+  /**
+   * Handle the next available event of the outbox, in its own transaction: the event stays locked
+   * for the other nodes until it is handled and removed. A failed event is retried later, with an
+   * increasing delay, and dropped after {@link #MAX_ATTEMPTS} attempts.
+   *
+   * @return false if no event is available
+   */
+  public boolean handleNextOutboxEvent() {
+    AtomicReference<NotificationOutboxEvent> claimed = new AtomicReference<>();
+    try {
+      return Boolean.TRUE.equals(
+          transactionTemplate.execute(
+              status -> {
+                Optional<NotificationOutboxEvent> outboxEvent =
+                    notificationOutboxEventRepository.claimNextAvailable(Instant.now());
+                if (outboxEvent.isEmpty()) {
+                  return false;
+                }
+                claimed.set(outboxEvent.get());
+                handleNotificationEvent(toNotificationEvent(outboxEvent.get()));
+                notificationOutboxEventRepository.delete(outboxEvent.get());
+                return true;
+              }));
+    } catch (RuntimeException e) {
+      NotificationOutboxEvent outboxEvent = claimed.get();
+      if (outboxEvent == null) {
+        throw e;
+      }
+      int attempts = outboxEvent.getAttempts() + 1;
+      log.error(
+          "Notification event {} of {} {} failed (attempt {}/{})",
+          outboxEvent.getEventType(),
+          outboxEvent.getResourceType(),
+          outboxEvent.getResourceId(),
+          attempts,
+          MAX_ATTEMPTS,
+          e);
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            if (attempts >= MAX_ATTEMPTS) {
+              notificationOutboxEventRepository.deleteById(outboxEvent.getId());
+            } else {
+              notificationOutboxEventRepository.postpone(
+                  outboxEvent.getId(), Instant.now().plus(retryDelay(attempts)));
+            }
+          });
+      return true;
+    }
+  }
+
+  static Duration retryDelay(int attempts) {
+    Duration delay = Duration.ofMinutes(1L << Math.min(attempts - 1, 10));
+    return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+  }
+
+  private static NotificationEvent toNotificationEvent(
+      @NotNull final NotificationOutboxEvent outboxEvent) {
+    return NotificationEvent.builder()
+        .resourceType(outboxEvent.getResourceType())
+        .resourceId(outboxEvent.getResourceId())
+        .eventType(NotificationEventType.valueOf(outboxEvent.getEventType()))
+        .timestamp(outboxEvent.getTimestamp())
+        .build();
+  }
 }
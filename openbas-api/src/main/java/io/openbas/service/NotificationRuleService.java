@@ -2,6 +2,8 @@ package io.openbas.service;
 
 import static io.openbas.utils.pagination.PaginationUtils.buildPaginationJPA;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.openbas.database.model.*;
 import io.openbas.database.repository.NotificationRuleRepository;
 import io.openbas.rest.exception.ElementNotFoundException;
@@ -10,6 +12,7 @@ import io.openbas.utils.pagination.SearchPaginationInput;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,6 +32,12 @@ public class NotificationRuleService {
   private final EmailNotificationService emailNotificationService;
   private final PlatformSettingsService platformSettingsService;
 
+  private static final String BRANDING_KEY = "branding";
+
+  // The custom logo is downloaded once for the notifications sent together
+  private final Cache<String, Map<String, String>> brandingData =
+      Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(1)).build();
+
   public Optional<NotificationRule> findById(final String id) {
     return notificationRuleRepository.findById(id);
   }
@@ -102,24 +111,8 @@ public class NotificationRuleService {
       @NotNull final Map<String, String> data) {
     List<NotificationRule> rules =
         notificationRuleRepository.findNotificationRuleByResourceAndTrigger(resourceId, trigger);
-    // TODO extract this logic from this method
-    // TODO fix: custom logo only working with png because of the html template
-    // add data about custom logo and whitemarked platform
     if (!rules.isEmpty()) {
-      // check if there is a custom logo
-      String theme =
-          platformSettingsService
-              .setting(SettingKeys.DEFAULT_THEME.name())
-              .map(Setting::getValue)
-              .orElseGet(SettingKeys.DEFAULT_THEME::defaultValue);
-      String b64CustomLogo =
-          platformSettingsService
-              .setting(theme + "." + Theme.THEME_KEYS.LOGO_URL.name().toLowerCase())
-              .map(setting -> ImageUtils.downloadImageAndEncodeBase64(setting.getValue()))
-              .orElse("");
-      data.put("custom_logo_b64", b64CustomLogo);
-      data.put(
-          "hide_filigran_logo", Boolean.toString(platformSettingsService.isPlatformWhiteMarked()));
+      data.putAll(brandingData.get(BRANDING_KEY, key -> computeBrandingData()));
     }
 
     for (NotificationRule rule : rules) {
@@ -128,4 +121,25 @@ public class NotificationRuleService {
       }
     }
   }
+
+  // TODO fix: custom logo only working with png because of the html template
+  // Data about custom logo and whitemarked platform
+  private Map<String, String> computeBrandingData() {
+    // check if there is a custom logo
+    String theme =
+        platformSettingsService
+            .setting(SettingKeys.DEFAULT_THEME.name())
+            .map(Setting::getValue)
+            .orElseGet(SettingKeys.DEFAULT_THEME::defaultValue);
+    String b64CustomLogo =
+        platformSettingsService
+            .setting(theme + "." + Theme.THEME_KEYS.LOGO_URL.name().toLowerCase())
+            .map(setting -> ImageUtils.downloadImageAndEncodeBase64(setting.getValue()))
+            .orElse("");
+    return Map.of(
+        "custom_logo_b64",
+        b64CustomLogo,
+        "hide_filigran_logo",
+        Boolean.toString(platformSettingsService.isPlatformWhiteMarked()));
+  }
 }
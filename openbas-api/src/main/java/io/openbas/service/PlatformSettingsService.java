@@ -9,6 +9,7 @@ import io.openbas.config.OpenBASConfig;
 import io.openbas.config.OpenBASPrincipal;
 import io.openbas.config.RabbitmqConfig;
 import io.openbas.config.cache.LicenseCacheManager;
+import io.openbas.config.cache.SettingsCacheManager;
 import io.openbas.database.model.BannerMessage;
 import io.openbas.database.model.Setting;
 import io.openbas.database.model.SettingKeys;
@@ -68,6 +69,12 @@ public class PlatformSettingsService {
   @Resource private ExpectationPropertiesConfig expectationPropertiesConfig;
   @Resource private RabbitmqConfig rabbitmqConfig;
   @Autowired private LicenseCacheManager licenseCacheManager;
+  @Autowired private SettingsCacheManager settingsCacheManager;
+
+  // Computed once, the configuration and the database server not changing at runtime
+  private volatile List<OAuthProvider> openIdProviders;
+  private volatile List<OAuthProvider> saml2Providers;
+  private volatile String postgreVersion;
 
   @Autowired
   public void setOpenCTIConfig(OpenCTIConfig openCTIConfig) {
@@ -110,9 +117,30 @@ public class PlatformSettingsService {
   }
 
   // -- PROVIDERS --
+  private List<OAuthProvider> openIdProviders() {
+    if (this.openIdProviders == null) {
+      this.openIdProviders = buildOpenIdProviders();
+    }
+    return this.openIdProviders;
+  }
+
+  private List<OAuthProvider> saml2Providers() {
+    if (this.saml2Providers == null) {
+      this.saml2Providers = buildSaml2Providers();
+    }
+    return this.saml2Providers;
+  }
+
+  private String postgreVersion() {
+    if (this.postgreVersion == null) {
+      this.postgreVersion = this.settingRepository.getServerVersion();
+    }
+    return this.postgreVersion;
+  }
+
   private List<OAuthProvider> buildOpenIdProviders() {
     if (!this.openBASConfig.isAuthOpenidEnable()) {
-      return new ArrayList<>();
+      return List.of();
     }
     try {
       OAuth2ClientProperties properties = this.context.getBean(OAuth2ClientProperties.class);
@@ -132,13 +160,13 @@ public class PlatformSettingsService {
           .toList();
     } catch (Exception e) {
       // No provider defined in the configuration
-      return new ArrayList<>();
+      return List.of();
     }
   }
 
   private List<OAuthProvider> buildSaml2Providers() {
     if (!this.openBASConfig.isAuthSaml2Enable()) {
-      return new ArrayList<>();
+      return List.of();
     }
     try {
       Saml2RelyingPartyProperties properties =
@@ -160,7 +188,7 @@ public class PlatformSettingsService {
           .toList();
     } catch (Exception e) {
       // No provider defined in the configuration
-      return new ArrayList<>();
+      return List.of();
     }
   }
 
@@ -190,11 +218,11 @@ public class PlatformSettingsService {
 
   // -- FIND SETTINGS --
   public PlatformSettings findSettings() {
-    Map<String, Setting> dbSettings = mapOfSettings(fromIterable(this.settingRepository.findAll()));
+    Map<String, Setting> dbSettings = this.settingsCacheManager.settings();
     PlatformSettings platformSettings = new PlatformSettings();
     // Build anonymous settings
-    platformSettings.setPlatformOpenIdProviders(buildOpenIdProviders());
-    platformSettings.setPlatformSaml2Providers(buildSaml2Providers());
+    platformSettings.setPlatformOpenIdProviders(openIdProviders());
+    platformSettings.setPlatformSaml2Providers(saml2Providers());
     platformSettings.setAuthOpenidEnable(openBASConfig.isAuthOpenidEnable());
     platformSettings.setAuthSaml2Enable(openBASConfig.isAuthSaml2Enable());
     platformSettings.setAuthLocalEnable(openBASConfig.isAuthLocalEnable());
@@ -249,7 +277,7 @@ public class PlatformSettingsService {
       // Build admin settings
       if (user.isAdmin()) {
         platformSettings.setPlatformVersion(openBASConfig.getVersion());
-        platformSettings.setPostgreVersion(settingRepository.getServerVersion());
+        platformSettings.setPostgreVersion(postgreVersion());
         platformSettings.setJavaVersion(Runtime.version().toString());
         platformSettings.setRabbitMQVersion(RabbitMQHelper.getRabbitMQVersion(rabbitmqConfig));
       }
@@ -359,7 +387,7 @@ public class PlatformSettingsService {
 
   // -- UPDATE SETTINGS --
   public Optional<Setting> setting(String key) {
-    return this.settingRepository.findByKey(key);
+    return this.settingsCacheManager.setting(key);
   }
 
   public PlatformSettings updateBasicConfigurationSettings(SettingsUpdateInput input) {
@@ -369,6 +397,7 @@ public class PlatformSettingsService {
     settingsToSave.add(resolveFromMap(dbSettings, DEFAULT_THEME.key(), input.getTheme()));
     settingsToSave.add(resolveFromMap(dbSettings, DEFAULT_LANG.key(), input.getLang()));
     settingRepository.saveAll(settingsToSave);
+    settingsCacheManager.invalidate();
     return findSettings();
   }
 
@@ -385,6 +414,7 @@ public class PlatformSettingsService {
     }
     settingsToSave.add(resolveFromMap(dbSettings, PLATFORM_ENTERPRISE_LICENSE.key(), certPem));
     settingRepository.saveAll(settingsToSave);
+    settingsCacheManager.invalidate();
     licenseCacheManager.refreshLicense();
     return findSettings();
   }
@@ -396,6 +426,7 @@ public class PlatformSettingsService {
     settingsToSave.add(
         resolveFromMap(dbSettings, PLATFORM_WHITEMARK.key(), input.getPlatformWhitemark()));
     settingRepository.saveAll(settingsToSave);
+    settingsCacheManager.invalidate();
     return findSettings();
   }
 
@@ -410,6 +441,7 @@ public class PlatformSettingsService {
         resolveFromMap(
             dbSettings, PLATFORM_CONSENT_CONFIRM_TEXT.key(), input.getConsentConfirmText()));
     settingRepository.saveAll(settingsToSave);
+    settingsCacheManager.invalidate();
     return findSettings();
   }
 
@@ -483,6 +515,7 @@ public class PlatformSettingsService {
     settingRepository.deleteAllById(
         delete.stream().map(Setting::getId).collect(Collectors.toList()));
     settingRepository.saveAll(update);
+    settingsCacheManager.invalidate();
     return findSettings();
   }
 
@@ -490,6 +523,7 @@ public class PlatformSettingsService {
 
   public void cleanMessage(@NotBlank final BannerMessage.BANNER_KEYS banner) {
     settingRepository.deleteByKeyIn(List.of(PLATFORM_BANNER + "." + banner.key()));
+    settingsCacheManager.invalidate();
   }
 
   public void errorMessage(@NotBlank final BannerMessage.BANNER_KEYS banner) {
@@ -499,6 +533,7 @@ public class PlatformSettingsService {
       Setting bannerLevel =
           resolve(bannerLevelOpt, PLATFORM_BANNER + "." + banner.key(), banner.level().name());
       settingRepository.save(bannerLevel);
+      settingsCacheManager.invalidate();
     }
   }
 
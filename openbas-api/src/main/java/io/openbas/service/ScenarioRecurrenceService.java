@@ -0,0 +1,78 @@
+package io.openbas.service;
+
+import com.cronutils.model.CronType;
+import com.cronutils.model.definition.CronDefinitionBuilder;
+import com.cronutils.model.time.ExecutionTime;
+import com.cronutils.parser.CronParser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.openbas.database.model.Scenario;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import org.springframework.stereotype.Service;
+
+/** Computes the occurrences of recurring scenarios from their cron expression. */
+@Service
+public class ScenarioRecurrenceService {
+
+  private static final CronParser CRON_PARSER =
+      new CronParser(CronDefinitionBuilder.instanceDefinitionFor(CronType.SPRING53));
+
+  // Parsed cron expressions, shared by the scenarios having the same recurrence
+  private final Cache<String, ExecutionTime> executionTimes =
+      Caffeine.newBuilder().maximumSize(10_000).build();
+
+  /**
+   * Returns the execution time of a cron expression, parsed once
+   *
+   * @param cronExpression the cron expression
+   * @return the execution time
+   * @throws IllegalArgumentException if the expression is not valid
+   */
+  public ExecutionTime executionTime(@NotBlank final String cronExpression) {
+    return this.executionTimes.get(
+        cronExpression, expression -> ExecutionTime.forCron(CRON_PARSER.parse(expression)));
+  }
+
+  /**
+   * Returns the first occurrence of a scenario after a date, within the start and end of its
+   * recurrence
+   *
+   * @param scenario the recurring scenario
+   * @param after the date, excluded
+   * @return the occurrence, empty if the recurrence is over
+   */
+  public Optional<Instant> nextOccurrence(
+      @NotNull final Scenario scenario, @NotNull final Instant after) {
+    if (scenario.getRecurrence() == null) {
+      return Optional.empty();
+    }
+    Instant from = after;
+    if (scenario.getRecurrenceStart() != null && scenario.getRecurrenceStart().isAfter(from)) {
+      from = scenario.getRecurrenceStart();
+    }
+    return executionTime(scenario.getRecurrence())
+        .nextExecution(ZonedDateTime.ofInstant(from, ZoneOffset.UTC))
+        .map(ZonedDateTime::toInstant)
+        .filter(
+            occurrence ->
+                scenario.getRecurrenceEnd() == null
+                    || !occurrence.isAfter(scenario.getRecurrenceEnd()));
+  }
+
+  /**
+   * Compute the next occurrence of a scenario whose recurrence was saved
+   *
+   * @param scenario the scenario
+   */
+  public void scheduleNextOccurrence(@NotNull final Scenario scenario) {
+    if (scenario.getRecurrence() == null || scenario.getNextOccurrence() != null) {
+      return;
+    }
+    scenario.setNextOccurrence(nextOccurrence(scenario, Instant.now()).orElse(null));
+  }
+}
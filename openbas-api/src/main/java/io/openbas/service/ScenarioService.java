@@ -26,7 +26,6 @@ import io.openbas.database.raw.RawExerciseSimple;
 import io.openbas.database.raw.RawPaginationScenario;
 import io.openbas.database.raw.RawScenario;
 import io.openbas.database.repository.*;
-import io.openbas.database.specification.ScenarioSpecification;
 import io.openbas.ee.Ee;
 import io.openbas.export.Mixins;
 import io.openbas.helper.ObjectMapperHelper;
@@ -273,23 +272,6 @@ public class ScenarioService {
     scenario.getInjects().forEach(injectService::throwIfInjectNotLaunchable);
   }
 
-  /** Scenario is recurring AND start date is before now AND end date is after now */
-  public List<Scenario> recurringScenarios(@NotNull final Instant instant) {
-    return this.scenarioRepository.findAll(
-        ScenarioSpecification.isRecurring()
-            .and(ScenarioSpecification.recurrenceStartDateBefore(instant))
-            .and(ScenarioSpecification.recurrenceStopDateAfter(instant)));
-  }
-
-  /** Scenario is recurring AND start date is before now OR stop date is before now */
-  public List<Scenario> potentialOutdatedRecurringScenario(@NotNull final Instant instant) {
-    return this.scenarioRepository.findAll(
-        ScenarioSpecification.isRecurring()
-            .and(
-                ScenarioSpecification.recurrenceStartDateBefore(instant)
-                    .or(ScenarioSpecification.recurrenceStopDateBefore(instant))));
-  }
-
   public Scenario scenario(@NotBlank final String scenarioId) {
     return this.scenarioRepository
         .findById(scenarioId)
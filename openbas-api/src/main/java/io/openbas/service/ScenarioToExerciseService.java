@@ -2,6 +2,8 @@ package io.openbas.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openbas.database.audit.BaseEvent;
+import io.openbas.database.audit.ModelBaseListener;
 import io.openbas.database.model.*;
 import io.openbas.database.repository.*;
 import io.openbas.injectors.channel.ChannelContract;
@@ -9,13 +11,15 @@ import io.openbas.injectors.channel.model.ChannelContent;
 import io.openbas.utils.CopyObjectListUtils;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import java.lang.reflect.InvocationTargetException;
 import java.time.Instant;
 import java.util.*;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.beanutils.BeanUtils;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,24 +27,39 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ScenarioToExerciseService {
 
+  private static final int COPY_BATCH_SIZE = 250;
+
   private final ExerciseRepository exerciseRepository;
   private final GrantRepository grantRepository;
   private final TeamRepository teamRepository;
   private final ExerciseTeamUserRepository exerciseTeamUserRepository;
   private final ObjectiveRepository objectiveRepository;
-  private final DocumentRepository documentRepository;
   private final ArticleRepository articleRepository;
   private final LessonsCategoryRepository lessonsCategoryRepository;
   private final LessonsQuestionRepository lessonsQuestionRepository;
   private final InjectRepository injectRepository;
-  private final InjectDocumentRepository injectDocumentRepository;
   private final VariableService variableService;
   private final TeamService teamService;
+  private final ApplicationEventPublisher appPublisher;
   @Resource protected ObjectMapper mapper;
+  @PersistenceContext private EntityManager entityManager;
 
   @Transactional(rollbackFor = Exception.class)
   public Exercise toExercise(
       @NotBlank final Scenario scenario, @Nullable final Instant start, final boolean isRunning) {
+    // JDBC batching only for the copy, the rows of a kind being saved together
+    Session session = this.entityManager.unwrap(Session.class);
+    Integer jdbcBatchSize = session.getJdbcBatchSize();
+    session.setJdbcBatchSize(COPY_BATCH_SIZE);
+    try {
+      return copyScenario(scenario, start, isRunning);
+    } finally {
+      session.setJdbcBatchSize(jdbcBatchSize);
+    }
+  }
+
+  private Exercise copyScenario(
+      @NotNull final Scenario scenario, @Nullable final Instant start, final boolean isRunning) {
     Exercise exercise = new Exercise();
     exercise.setScenario(scenario);
     exercise.setName(scenario.getName());
@@ -75,49 +94,39 @@ public class ScenarioToExerciseService {
                   grant.setName(scenarioGrant.getName());
                   grant.setGroup(scenarioGrant.getGroup());
                   grant.setExercise(exerciseSaved);
-                  return this.grantRepository.save(grant);
+                  return grant;
                 })
             .toList();
+    this.grantRepository.saveAll(exerciseGrants);
     exerciseSaved.setGrants(exerciseGrants);
 
     // Teams
     Map<String, Team> contextualTeams = new HashMap<>();
-    scenario
-        .getTeams()
+    scenario.getTeams().stream()
+        .filter(Team::getContextual)
         .forEach(
-            scenarioTeam -> {
-              if (scenarioTeam.getContextual()) {
-                Team team = teamService.copyContextualTeam(scenarioTeam);
-                team.setExercises(
-                    new ArrayList<>() {
-                      {
-                        add(exerciseSaved);
-                      }
-                    });
-                Team teamSaved = this.teamRepository.save(team);
-                contextualTeams.put(scenarioTeam.getId(), teamSaved);
-              } else {
-                List<Exercise> exercises = scenarioTeam.getExercises();
-                exercises.add(exercise);
-                scenarioTeam.setExercises(exercises);
-                this.teamRepository.save(scenarioTeam);
-              }
-            });
+            scenarioTeam ->
+                contextualTeams.put(
+                    scenarioTeam.getId(), teamService.copyContextualTeam(scenarioTeam)));
+    this.teamRepository.saveAll(contextualTeams.values());
+    this.exerciseRepository.addTeams(
+        exerciseSaved.getId(),
+        scenario.getTeams().stream()
+            .map(scenarioTeam -> computeTeam(scenarioTeam, contextualTeams).getId())
+            .toArray(String[]::new));
 
     // TeamUsers
-    List<ExerciseTeamUser> exerciseTeamUsers =
-        scenario.getTeamUsers().stream()
+    List<ScenarioTeamUser> scenarioTeamUsers = scenario.getTeamUsers();
+    this.exerciseTeamUserRepository.addExerciseTeamUsers(
+        exerciseSaved.getId(),
+        scenarioTeamUsers.stream()
             .map(
-                scenarioTeamUser -> {
-                  ExerciseTeamUser exerciseTeamUser = new ExerciseTeamUser();
-                  exerciseTeamUser.setExercise(exerciseSaved);
-                  exerciseTeamUser.setUser(scenarioTeamUser.getUser());
-                  exerciseTeamUser.setTeam(
-                      computeTeam(scenarioTeamUser.getTeam(), contextualTeams));
-                  return exerciseTeamUser;
-                })
-            .toList();
-    this.exerciseTeamUserRepository.saveAll(exerciseTeamUsers);
+                scenarioTeamUser ->
+                    computeTeam(scenarioTeamUser.getTeam(), contextualTeams).getId())
+            .toArray(String[]::new),
+        scenarioTeamUsers.stream()
+            .map(scenarioTeamUser -> scenarioTeamUser.getUser().getId())
+            .toArray(String[]::new));
 
     // Objectives
     List<Objective> scenarioObjectives = scenario.getObjectives();
@@ -135,11 +144,6 @@ public class ScenarioToExerciseService {
             .toList();
     this.objectiveRepository.saveAll(exerciseObjectives);
 
-    // Documents
-    List<Document> scenarioDocuments =
-        addExerciseToDocuments(scenario.getDocuments(), exerciseSaved);
-    this.documentRepository.saveAll(scenarioDocuments);
-
     // Articles
     Map<String, Article> articles = new HashMap<>();
     List<Article> scenarioArticles = scenario.getArticles();
@@ -157,20 +161,28 @@ public class ScenarioToExerciseService {
                   exerciseArticle.setExercise(exerciseSaved);
                   exerciseArticle.setChannel(scenarioArticle.getChannel());
 
-                  List<Document> articleDocuments =
-                      addExerciseToDocuments(scenarioArticle.getDocuments(), exerciseSaved);
-                  exerciseArticle.setDocuments(articleDocuments);
+                  exerciseArticle.setDocuments(new ArrayList<>(scenarioArticle.getDocuments()));
                   articles.put(scenarioArticle.getId(), exerciseArticle);
                   return exerciseArticle;
                 })
             .toList();
     this.articleRepository.saveAll(exerciseArticles);
 
+    // Documents, of the scenario and of its articles
+    Set<String> documentIds = new LinkedHashSet<>();
+    scenario.getDocuments().forEach(document -> documentIds.add(document.getId()));
+    scenarioArticles.forEach(
+        scenarioArticle ->
+            scenarioArticle.getDocuments().forEach(document -> documentIds.add(document.getId())));
+    this.exerciseRepository.addDocuments(exerciseSaved.getId(), documentIds.toArray(String[]::new));
+
     // Lessons
     exercise.setLessonsAnonymized(scenario.isLessonsAnonymized());
 
     // Lessons categories
     List<LessonsCategory> scenarioLessonCategories = scenario.getLessonsCategories();
+    List<LessonsCategory> exerciseLessonCategories = new ArrayList<>();
+    List<LessonsQuestion> exerciseLessonsQuestions = new ArrayList<>();
     scenarioLessonCategories.forEach(
         scenarioLessonCategory -> {
           LessonsCategory exerciseLessonCategory = new LessonsCategory();
@@ -185,124 +197,28 @@ public class ScenarioToExerciseService {
               .getTeams()
               .forEach(team -> teams.add(computeTeam(team, contextualTeams)));
           exerciseLessonCategory.setTeams(teams);
-
-          LessonsCategory exerciseLessonCategorySaved =
-              this.lessonsCategoryRepository.save(exerciseLessonCategory);
+          exerciseLessonCategories.add(exerciseLessonCategory);
 
           // Lessons questions
-          List<LessonsQuestion> exerciseLessonsQuestions =
-              scenarioLessonCategory.getQuestions().stream()
-                  .map(
-                      scenarioLessonsQuestion -> {
-                        LessonsQuestion exerciseLessonsQuestion = new LessonsQuestion();
-                        exerciseLessonsQuestion.setContent(scenarioLessonsQuestion.getContent());
-                        exerciseLessonsQuestion.setExplanation(
-                            scenarioLessonsQuestion.getExplanation());
-                        exerciseLessonsQuestion.setOrder(scenarioLessonsQuestion.getOrder());
-                        exerciseLessonsQuestion.setCategory(exerciseLessonCategorySaved);
-                        return exerciseLessonsQuestion;
-                      })
-                  .toList();
-          this.lessonsQuestionRepository.saveAll(exerciseLessonsQuestions);
-        });
-
-    // Injects
-    List<Inject> scenarioInjects = scenario.getInjects();
-    Map<String, Inject> mapExerciseInjectsByScenarioInject = new HashMap<>();
-    scenarioInjects.forEach(
-        scenarioInject -> {
-          Inject exerciseInject = new Inject();
-          exerciseInject.setTitle(scenarioInject.getTitle());
-          exerciseInject.setDescription(scenarioInject.getDescription());
-          exerciseInject.setInjectorContract(scenarioInject.getInjectorContract().orElse(null));
-          exerciseInject.setCountry(scenarioInject.getCountry());
-          exerciseInject.setCity(scenarioInject.getCity());
-          exerciseInject.setEnabled(scenarioInject.isEnabled());
-          exerciseInject.setAllTeams(scenarioInject.isAllTeams());
-          exerciseInject.setExercise(exerciseSaved);
-          exerciseInject.setDependsDuration(scenarioInject.getDependsDuration());
-          exerciseInject.setUser(scenarioInject.getUser());
-          exerciseInject.setStatus(scenarioInject.getStatus().orElse(null));
-          exerciseInject.setTags(CopyObjectListUtils.copy(scenarioInject.getTags(), Tag.class));
-          exerciseInject.setContent(scenarioInject.getContent());
-
-          // Content
-          scenarioInject
-              .getInjectorContract()
-              .ifPresentOrElse(
-                  injectorContract -> {
-                    if (ChannelContract.TYPE.equals(injectorContract.getInjector().getType())) {
-                      try {
-                        ChannelContent content =
-                            mapper.treeToValue(scenarioInject.getContent(), ChannelContent.class);
-                        content.setArticles(
-                            content.getArticles().stream()
-                                .map(articleId -> articles.get(articleId).getId())
-                                .toList());
-                        exerciseInject.setContent(mapper.valueToTree(content));
-                      } catch (JsonProcessingException e) {
-                        throw new RuntimeException(e);
-                      }
-                    }
-                  },
-                  () -> exerciseInject.setContent(scenarioInject.getContent()));
-
-          // Teams
-          List<Team> teams = new ArrayList<>();
-          scenarioInject.getTeams().forEach(team -> teams.add(computeTeam(team, contextualTeams)));
-          exerciseInject.setTeams(teams);
-
-          // Assets & Asset Groups
-          exerciseInject.setAssets(
-              CopyObjectListUtils.copy(scenarioInject.getAssets(), Asset.class));
-          exerciseInject.setAssetGroups(
-              CopyObjectListUtils.copy(scenarioInject.getAssetGroups(), AssetGroup.class));
-          Inject injectSaved = this.injectRepository.save(exerciseInject);
-
-          mapExerciseInjectsByScenarioInject.put(scenarioInject.getId(), injectSaved);
-
-          // Documents
-          List<InjectDocument> exerciseInjectDocuments = new ArrayList<>();
-          scenarioInject
-              .getDocuments()
+          scenarioLessonCategory
+              .getQuestions()
               .forEach(
-                  injectDocument -> {
-                    InjectDocument exerciseInjectDocument = new InjectDocument();
-                    exerciseInjectDocument.setInject(injectSaved);
-                    exerciseInjectDocument.setDocument(injectDocument.getDocument());
-                    exerciseInjectDocument.setAttached(injectDocument.isAttached());
-                    exerciseInjectDocuments.add(exerciseInjectDocument);
+                  scenarioLessonsQuestion -> {
+                    LessonsQuestion exerciseLessonsQuestion = new LessonsQuestion();
+                    exerciseLessonsQuestion.setContent(scenarioLessonsQuestion.getContent());
+                    exerciseLessonsQuestion.setExplanation(
+                        scenarioLessonsQuestion.getExplanation());
+                    exerciseLessonsQuestion.setOrder(scenarioLessonsQuestion.getOrder());
+                    exerciseLessonsQuestion.setCategory(exerciseLessonCategory);
+                    exerciseLessonsQuestions.add(exerciseLessonsQuestion);
                   });
-          this.injectDocumentRepository.saveAll(exerciseInjectDocuments);
         });
+    this.lessonsCategoryRepository.saveAll(exerciseLessonCategories);
+    this.lessonsQuestionRepository.saveAll(exerciseLessonsQuestions);
 
-    // Second pass to add the correct links
-    scenarioInjects.forEach(
-        scenarioInject -> {
-          if (scenarioInject.getDependsOn() != null) {
-            Inject injectToUpdate = mapExerciseInjectsByScenarioInject.get(scenarioInject.getId());
-            injectToUpdate.getDependsOn().clear();
-            injectToUpdate
-                .getDependsOn()
-                .addAll(
-                    scenarioInject.getDependsOn().stream()
-                        .map(
-                            (injectDependency -> {
-                              InjectDependency dep = new InjectDependency();
-                              dep.setCompositeId(injectDependency.getCompositeId());
-                              dep.setInjectDependencyCondition(
-                                  injectDependency.getInjectDependencyCondition());
-                              dep.getCompositeId()
-                                  .setInjectParent(
-                                      mapExerciseInjectsByScenarioInject.get(
-                                          dep.getCompositeId().getInjectParent().getId()));
-                              dep.getCompositeId().setInjectChildren(injectToUpdate);
-                              return dep;
-                            }))
-                        .toList());
-            this.injectRepository.save(injectToUpdate);
-          }
-        });
+    // Injects
+    List<String> exerciseInjectIds =
+        copyInjects(scenario.getInjects(), exerciseSaved, contextualTeams, articles);
 
     // Variables
     List<Variable> scenarioVariables = this.variableService.variablesFromScenario(scenario.getId());
@@ -321,26 +237,84 @@ public class ScenarioToExerciseService {
             .toList();
     this.variableService.createVariables(exerciseVariables);
 
+    // Load the links inserted in bulk
+    this.entityManager.flush();
+    this.entityManager.refresh(exerciseSaved);
+
+    // Injects inserted in bulk bypass the entity listener, their creation is published here
+    this.injectRepository
+        .findAllById(exerciseInjectIds)
+        .forEach(
+            inject ->
+                this.appPublisher.publishEvent(
+                    new BaseEvent(ModelBaseListener.DATA_PERSIST, inject, mapper)));
     return exerciseSaved;
   }
 
-  private List<Document> addExerciseToDocuments(
-      @NotNull final List<Document> origDocuments, @NotNull final Exercise exercise) {
-    List<Document> destDocuments = new ArrayList<>();
-    origDocuments.forEach(
-        origDocument -> {
-          try {
-            Document destDocument = new Document();
-            BeanUtils.copyProperties(destDocument, origDocument);
-            Set<Exercise> exercises = destDocument.getExercises();
-            exercises.add(exercise);
-            destDocument.setExercises(exercises);
-            destDocuments.add(destDocument);
-          } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-          }
+  /**
+   * Copy the injects of a scenario and their links with set-based statements, whatever the number
+   * of injects. Ids of the copies are generated upfront to remap the dependencies and the
+   * contextual teams. Their status is not copied, a simulation starting without any.
+   */
+  private List<String> copyInjects(
+      @NotNull final List<Inject> scenarioInjects,
+      @NotNull final Exercise exercise,
+      @NotNull final Map<String, Team> contextualTeams,
+      @NotNull final Map<String, Article> articles) {
+    if (scenarioInjects.isEmpty()) {
+      return List.of();
+    }
+    List<String> sourceIds = new ArrayList<>();
+    List<String> targetIds = new ArrayList<>();
+    List<String> channelInjectIds = new ArrayList<>();
+    List<String> channelContents = new ArrayList<>();
+    scenarioInjects.forEach(
+        scenarioInject -> {
+          String exerciseInjectId = UUID.randomUUID().toString();
+          sourceIds.add(scenarioInject.getId());
+          targetIds.add(exerciseInjectId);
+
+          // Content, articles of the channel injects being replaced by their copy
+          scenarioInject
+              .getInjectorContract()
+              .filter(
+                  injectorContract ->
+                      ChannelContract.TYPE.equals(injectorContract.getInjector().getType()))
+              .ifPresent(
+                  injectorContract -> {
+                    try {
+                      ChannelContent content =
+                          mapper.treeToValue(scenarioInject.getContent(), ChannelContent.class);
+                      content.setArticles(
+                          content.getArticles().stream()
+                              .map(articleId -> articles.get(articleId).getId())
+                              .toList());
+                      channelInjectIds.add(exerciseInjectId);
+                      channelContents.add(mapper.writeValueAsString(content));
+                    } catch (JsonProcessingException e) {
+                      throw new RuntimeException(e);
+                    }
+                  });
         });
-    return destDocuments;
+
+    String[] sources = sourceIds.toArray(String[]::new);
+    String[] targets = targetIds.toArray(String[]::new);
+    this.injectRepository.copyInjectsToExercise(sources, targets, exercise.getId());
+    if (!channelInjectIds.isEmpty()) {
+      this.injectRepository.updateContents(
+          channelInjectIds.toArray(String[]::new), channelContents.toArray(String[]::new));
+    }
+    this.injectRepository.copyTags(sources, targets);
+    this.injectRepository.copyTeams(
+        sources,
+        targets,
+        contextualTeams.keySet().toArray(String[]::new),
+        contextualTeams.values().stream().map(Team::getId).toArray(String[]::new));
+    this.injectRepository.copyAssets(sources, targets);
+    this.injectRepository.copyAssetGroups(sources, targets);
+    this.injectRepository.copyDocuments(sources, targets);
+    this.injectRepository.copyDependencies(sources, targets);
+    return targetIds;
   }
 
   private Team computeTeam(
@@ -0,0 +1,70 @@
+package io.openbas.service;
+
+import io.openbas.database.audit.BaseEvent;
+import io.openbas.database.model.InjectExpectation;
+import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects the injects whose expectations are saved or deleted during a transaction and refreshes
+ * their statistic rollups once, after commit.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class StatisticRollupListener {
+
+  private final StatisticRollupService statisticRollupService;
+
+  @EventListener
+  public void listenExpectationChange(@NotNull final BaseEvent event) {
+    if (!(Hibernate.unproxy(event.getInstance()) instanceof InjectExpectation expectation)
+        || expectation.getInject() == null
+        || expectation.getInject().getId() == null) {
+      return;
+    }
+    String injectId = expectation.getInject().getId();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      refresh(Set.of(injectId));
+      return;
+    }
+    Object key = this;
+    @SuppressWarnings("unchecked")
+    Set<String> injectIds = (Set<String>) TransactionSynchronizationManager.getResource(key);
+    if (injectIds == null) {
+      Set<String> collected = new LinkedHashSet<>();
+      TransactionSynchronizationManager.bindResource(key, collected);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(key);
+              if (status == STATUS_COMMITTED) {
+                refresh(collected);
+              }
+            }
+          });
+      injectIds = collected;
+    }
+    injectIds.add(injectId);
+  }
+
+  // -- PRIVATE --
+
+  private void refresh(@NotNull final Set<String> injectIds) {
+    try {
+      this.statisticRollupService.refreshInjects(injectIds);
+    } catch (RuntimeException e) {
+      // The periodic reconciliation will catch up
+      log.warn("Cannot refresh the statistic rollups of {} injects", injectIds.size(), e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package io.openbas.service;
+
+import io.openbas.database.repository.InjectExpectationRepository;
+import jakarta.validation.constraints.NotNull;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the expectation results rolled up by inject and type, read by the home statistics
+ * instead of the whole expectation table.
+ */
+@RequiredArgsConstructor
+@Service
+@Slf4j
+public class StatisticRollupService {
+
+  private final InjectExpectationRepository injectExpectationRepository;
+
+  /**
+   * Recompute the rollups of injects whose expectations changed
+   *
+   * @param injectIds the ids of the injects
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void refreshInjects(@NotNull final Collection<String> injectIds) {
+    if (injectIds.isEmpty()) {
+      return;
+    }
+    String[] ids = injectIds.toArray(String[]::new);
+    this.injectExpectationRepository.upsertStatisticRollups(ids);
+    this.injectExpectationRepository.deleteStaleStatisticRollups(ids);
+  }
+
+  /**
+   * Recompute every rollup, catching up with the expectations changed by bulk statements that do
+   * not go through the entity listeners
+   */
+  @Transactional
+  public void reconcile() {
+    int updated = this.injectExpectationRepository.upsertAllStatisticRollups();
+    int removed = this.injectExpectationRepository.deleteAllStaleStatisticRollups();
+    if (updated > 0 || removed > 0) {
+      log.info("Statistic rollups reconciled: {} updated, {} removed", updated, removed);
+    }
+  }
+}
@@ -77,9 +77,8 @@ public class AgentTargetSearchAdaptor extends SearchAdaptorBase {
             Agent.class);
 
     return new PageImpl<>(
-        eps.getContent().stream()
-            .map(endpoint -> convertFromAgent(endpoint, scopedInject))
-            .toList(),
+        helperTargetSearchAdaptor.buildTargetsWithExpectations(
+            scopedInject, eps.getContent().stream().map(this::convertFromAgent).toList(), true),
         eps.getPageable(),
         eps.getTotalElements());
   }
@@ -98,16 +97,12 @@ public class AgentTargetSearchAdaptor extends SearchAdaptorBase {
     return List.of();
   }
 
-  private InjectTarget convertFromAgent(Agent agent, Inject inject) {
-    return helperTargetSearchAdaptor.buildTargetWithExpectations(
-        inject,
-        () ->
-            new AgentTarget(
-                agent.getId(),
-                agent.getTargetDisplayName(),
-                Set.of(),
-                agent.getAsset().getId(),
-                agent.getExecutor().getType()),
-        true);
+  private InjectTarget convertFromAgent(Agent agent) {
+    return new AgentTarget(
+        agent.getId(),
+        agent.getTargetDisplayName(),
+        Set.of(),
+        agent.getAsset().getId(),
+        agent.getExecutor().getType());
   }
 }
@@ -39,9 +39,12 @@ public class AssetGroupTargetSearchAdaptor extends SearchAdaptorBase {
     Page<AssetGroupOutput> filteredAssetGroups =
         assetGroupCriteriaBuilderService.assetGroupPagination(this.translate(input, scopedInject));
     return new PageImpl<>(
-        filteredAssetGroups.getContent().stream()
-            .map(assetGroupOutput -> convertFromAssetGroupOutput(assetGroupOutput, scopedInject))
-            .toList(),
+        helperTargetSearchAdaptor.buildTargetsWithExpectations(
+            scopedInject,
+            filteredAssetGroups.getContent().stream()
+                .map(this::convertFromAssetGroupOutput)
+                .toList(),
+            true),
         filteredAssetGroups.getPageable(),
         filteredAssetGroups.getTotalElements());
   }
@@ -50,6 +53,7 @@ public class AssetGroupTargetSearchAdaptor extends SearchAdaptorBase {
   public List<FilterUtilsJpa.Option> getOptionsForInject(Inject scopedInject, String textSearch) {
     return scopedInject.getAssetGroups().stream()
         .filter(ag -> ag.getName().toLowerCase().contains(textSearch.toLowerCase()))
+        .limit(OPTIONS_LIMIT)
         .map(ag -> new FilterUtilsJpa.Option(ag.getId(), ag.getName()))
         .toList();
   }
@@ -61,13 +65,8 @@ public class AssetGroupTargetSearchAdaptor extends SearchAdaptorBase {
         .toList();
   }
 
-  private InjectTarget convertFromAssetGroupOutput(
-      AssetGroupOutput assetGroupOutput, Inject inject) {
-    return helperTargetSearchAdaptor.buildTargetWithExpectations(
-        inject,
-        () ->
-            new AssetGroupTarget(
-                assetGroupOutput.getId(), assetGroupOutput.getName(), assetGroupOutput.getTags()),
-        true);
+  private InjectTarget convertFromAssetGroupOutput(AssetGroupOutput assetGroupOutput) {
+    return new AssetGroupTarget(
+        assetGroupOutput.getId(), assetGroupOutput.getName(), assetGroupOutput.getTags());
   }
 }
@@ -15,7 +15,9 @@ import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
@@ -75,9 +77,8 @@ public class EndpointTargetSearchAdaptor extends SearchAdaptorBase {
             Endpoint.class);
 
     return new PageImpl<>(
-        eps.getContent().stream()
-            .map(endpoint -> convertFromEndpoint(endpoint, scopedInject))
-            .toList(),
+        helperTargetSearchAdaptor.buildTargetsWithExpectations(
+            scopedInject, eps.getContent().stream().map(this::convertFromEndpoint).toList(), true),
         eps.getPageable(),
         eps.getTotalElements());
   }
@@ -96,7 +97,9 @@ public class EndpointTargetSearchAdaptor extends SearchAdaptorBase {
         (root, query, criteriaBuilder) ->
             criteriaBuilder.like(root.get("name"), "%" + textSearch + "%");
 
-    return this.endpointRepository.findAll(spec.and(nameSpec)).stream()
+    return this.endpointRepository
+        .findAll(spec.and(nameSpec), PageRequest.of(0, OPTIONS_LIMIT, Sort.by("name")))
+        .stream()
         .map(ep -> new FilterUtilsJpa.Option(ep.getId(), ep.getName()))
         .toList();
   }
@@ -108,15 +111,11 @@ public class EndpointTargetSearchAdaptor extends SearchAdaptorBase {
         .toList();
   }
 
-  private InjectTarget convertFromEndpoint(Endpoint endpoint, Inject inject) {
-    return helperTargetSearchAdaptor.buildTargetWithExpectations(
-        inject,
-        () ->
-            new EndpointTarget(
-                endpoint.getId(),
-                endpoint.getName(),
-                endpoint.getTags().stream().map(Tag::getId).collect(Collectors.toSet()),
-                endpoint.getPlatform().name()),
-        true);
+  private InjectTarget convertFromEndpoint(Endpoint endpoint) {
+    return new EndpointTarget(
+        endpoint.getId(),
+        endpoint.getName(),
+        endpoint.getTags().stream().map(Tag::getId).collect(Collectors.toSet()),
+        endpoint.getPlatform().name());
   }
 }
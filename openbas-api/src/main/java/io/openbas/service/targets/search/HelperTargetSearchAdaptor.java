@@ -8,7 +8,8 @@ import io.openbas.utils.InjectExpectationResultUtils;
 import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
 import io.openbas.utils.mapper.InjectExpectationMapper;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -19,33 +20,43 @@ public class HelperTargetSearchAdaptor {
   private final InjectExpectationService injectExpectationService;
   private final InjectExpectationMapper injectExpectationMapper;
 
-  public InjectTarget buildTargetWithExpectations(
-      Inject inject, Supplier<InjectTarget> targetSupplier, boolean allowVulnerability) {
-    InjectTarget target = targetSupplier.get();
-
-    List<InjectExpectation> mergedExpectationsByInjectAndTargetAndTargetType =
-        injectExpectationService.findMergedExpectationsByInjectAndTargetAndTargetType(
-            inject.getId(), target.getId(), target.getTargetType());
-
-    List<ExpectationResultsByType> results =
-        injectExpectationMapper.extractExpectationResults(
-            inject.getContent(),
-            mergedExpectationsByInjectAndTargetAndTargetType,
-            InjectExpectationResultUtils::getScores);
-
-    for (ExpectationResultsByType result : results) {
-      switch (result.type()) {
-        case DETECTION -> target.setTargetDetectionStatus(result.avgResult());
-        case PREVENTION -> target.setTargetPreventionStatus(result.avgResult());
-        case VULNERABILITY -> {
-          if (allowVulnerability) {
-            target.setTargetVulnerabilityStatus(result.avgResult());
+  /**
+   * Set the expectation results of a page of targets of the same type, the expectations of all the
+   * targets being fetched at once
+   */
+  public List<InjectTarget> buildTargetsWithExpectations(
+      Inject inject, List<InjectTarget> targets, boolean allowVulnerability) {
+    if (targets.isEmpty()) {
+      return targets;
+    }
+
+    Map<String, List<InjectExpectation>> mergedExpectationsByTarget =
+        injectExpectationService.findMergedExpectationsByInjectAndTargetsAndTargetType(
+            inject.getId(),
+            targets.stream().map(InjectTarget::getId).collect(Collectors.toSet()),
+            targets.getFirst().getTargetType());
+
+    for (InjectTarget target : targets) {
+      List<ExpectationResultsByType> results =
+          injectExpectationMapper.extractExpectationResults(
+              inject.getContent(),
+              mergedExpectationsByTarget.getOrDefault(target.getId(), List.of()),
+              InjectExpectationResultUtils::getScores);
+
+      for (ExpectationResultsByType result : results) {
+        switch (result.type()) {
+          case DETECTION -> target.setTargetDetectionStatus(result.avgResult());
+          case PREVENTION -> target.setTargetPreventionStatus(result.avgResult());
+          case VULNERABILITY -> {
+            if (allowVulnerability) {
+              target.setTargetVulnerabilityStatus(result.avgResult());
+            }
           }
+          case HUMAN_RESPONSE -> target.setTargetHumanResponseStatus(result.avgResult());
         }
-        case HUMAN_RESPONSE -> target.setTargetHumanResponseStatus(result.avgResult());
       }
     }
 
-    return target;
+    return targets;
   }
 }
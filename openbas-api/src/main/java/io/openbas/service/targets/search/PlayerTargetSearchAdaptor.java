@@ -75,9 +75,10 @@ public class PlayerTargetSearchAdaptor extends SearchAdaptorBase {
             User.class);
 
     return new PageImpl<>(
-        filteredPlayers.getContent().stream()
-            .map(player -> convertFromPlayerOutput(player, scopedInject))
-            .toList(),
+        helperTargetSearchAdaptor.buildTargetsWithExpectations(
+            scopedInject,
+            filteredPlayers.getContent().stream().map(this::convertFromPlayerOutput).toList(),
+            false),
         filteredPlayers.getPageable(),
         filteredPlayers.getTotalElements());
   }
@@ -92,15 +93,11 @@ public class PlayerTargetSearchAdaptor extends SearchAdaptorBase {
     throw new NotImplementedException("Implement when needed");
   }
 
-  private InjectTarget convertFromPlayerOutput(User player, Inject inject) {
-    return helperTargetSearchAdaptor.buildTargetWithExpectations(
-        inject,
-        () ->
-            new PlayerTarget(
-                player.getId(),
-                player.getNameOrEmail(),
-                player.getTags().stream().map(Tag::getId).collect(Collectors.toSet()),
-                player.getTeams().stream().map(Team::getId).collect(Collectors.toSet())),
-        false);
+  private InjectTarget convertFromPlayerOutput(User player) {
+    return new PlayerTarget(
+        player.getId(),
+        player.getNameOrEmail(),
+        player.getTags().stream().map(Tag::getId).collect(Collectors.toSet()),
+        player.getTeams().stream().map(Team::getId).collect(Collectors.toSet()));
   }
 }
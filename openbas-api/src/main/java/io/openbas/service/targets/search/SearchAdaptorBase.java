@@ -15,6 +15,9 @@ import org.springframework.stereotype.Component;
 
 @Component
 public abstract class SearchAdaptorBase {
+  // Maximum number of options returned by an option lookup
+  protected static final int OPTIONS_LIMIT = 50;
+
   protected final Map<String, String> fieldTranslations = new HashMap<>();
 
   public abstract Page<InjectTarget> search(SearchPaginationInput input, Inject scopedInject);
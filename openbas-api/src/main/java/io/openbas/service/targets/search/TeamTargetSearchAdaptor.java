@@ -74,9 +74,10 @@ public class TeamTargetSearchAdaptor extends SearchAdaptorBase {
             Team.class);
 
     return new PageImpl<>(
-        filteredTeams.getContent().stream()
-            .map(team -> convertFromTeamOutput(team, scopedInject))
-            .toList(),
+        helperTargetSearchAdaptor.buildTargetsWithExpectations(
+            scopedInject,
+            filteredTeams.getContent().stream().map(this::convertFromTeamOutput).toList(),
+            false),
         filteredTeams.getPageable(),
         filteredTeams.getTotalElements());
   }
@@ -86,11 +87,13 @@ public class TeamTargetSearchAdaptor extends SearchAdaptorBase {
     if (scopedInject.isAllTeams()) {
       return scopedInject.getExercise().getTeams().stream()
           .filter(team -> team.getName().toLowerCase().contains(textSearch.toLowerCase()))
+          .limit(OPTIONS_LIMIT)
           .map(team -> new FilterUtilsJpa.Option(team.getId(), team.getName()))
           .toList();
     } else {
       return scopedInject.getTeams().stream()
           .filter(team -> team.getName().toLowerCase().contains(textSearch.toLowerCase()))
+          .limit(OPTIONS_LIMIT)
           .map(team -> new FilterUtilsJpa.Option(team.getId(), team.getName()))
           .toList();
     }
@@ -103,14 +106,10 @@ public class TeamTargetSearchAdaptor extends SearchAdaptorBase {
         .toList();
   }
 
-  private InjectTarget convertFromTeamOutput(Team team, Inject inject) {
-    return helperTargetSearchAdaptor.buildTargetWithExpectations(
-        inject,
-        () ->
-            new TeamTarget(
-                team.getId(),
-                team.getName(),
-                team.getTags().stream().map(Tag::getId).collect(Collectors.toSet())),
-        false);
+  private InjectTarget convertFromTeamOutput(Team team) {
+    return new TeamTarget(
+        team.getId(),
+        team.getName(),
+        team.getTags().stream().map(Tag::getId).collect(Collectors.toSet()));
   }
 }
@@ -0,0 +1,215 @@
+package io.openbas.service.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads spreadsheets row by row. Excel 2007+ files are parsed with the POI event model so only the
+ * current row is held in memory, older formats fall back to the POI user model.
+ */
+public class XlsSheetReader {
+
+  private XlsSheetReader() {}
+
+  /**
+   * List the names of the sheets of a spreadsheet
+   *
+   * @param file the spreadsheet
+   * @return the names of the sheets, in the workbook order
+   */
+  public static List<String> sheetNames(Path file) throws IOException {
+    List<String> names = new ArrayList<>();
+    if (isOoxml(file)) {
+      try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+        XSSFReader.SheetIterator sheets =
+            (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+        while (sheets.hasNext()) {
+          sheets.next().close();
+          names.add(sheets.getSheetName());
+        }
+      } catch (OpenXML4JException e) {
+        throw new IOException(e);
+      }
+    } else {
+      try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+          names.add(workbook.getSheetName(i));
+        }
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Hand the rows of a sheet one by one to a consumer. The rows are detached from the file and must
+   * not be kept once the consumer returns.
+   *
+   * @param file the spreadsheet
+   * @param sheetName the name of the sheet to read
+   * @param rowConsumer called for each row, returns false to stop reading
+   */
+  public static void readRows(Path file, String sheetName, Predicate<Row> rowConsumer)
+      throws IOException {
+    if (isOoxml(file)) {
+      streamRows(file, sheetName, rowConsumer);
+      return;
+    }
+    try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+      Sheet sheet = workbook.getSheet(sheetName);
+      if (sheet == null) {
+        throw new IOException("Sheet " + sheetName + " not found");
+      }
+      for (Row row : sheet) {
+        if (!rowConsumer.test(row)) {
+          return;
+        }
+      }
+    }
+  }
+
+  private static boolean isOoxml(Path file) throws IOException {
+    try (InputStream inputStream = FileMagic.prepareToCheckMagic(Files.newInputStream(file))) {
+      return FileMagic.valueOf(inputStream) == FileMagic.OOXML;
+    }
+  }
+
+  private static void streamRows(Path file, String sheetName, Predicate<Row> rowConsumer)
+      throws IOException {
+    try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        XSSFWorkbook scratch = new XSSFWorkbook()) {
+      XSSFReader reader = new XSSFReader(pkg);
+      ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while (sheets.hasNext()) {
+        try (InputStream sheetData = sheets.next()) {
+          if (!sheets.getSheetName().equals(sheetName)) {
+            continue;
+          }
+          XMLReader xmlReader = XMLHelper.newXMLReader();
+          xmlReader.setContentHandler(
+              new SheetHandler(sharedStrings, scratch.createSheet(), rowConsumer));
+          try {
+            xmlReader.parse(new InputSource(sheetData));
+          } catch (StopReading stop) {
+            // The consumer has seen enough rows
+          }
+          return;
+        }
+      }
+      throw new IOException("Sheet " + sheetName + " not found");
+    } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static class StopReading extends SAXException {}
+
+  /**
+   * Rebuilds each {@code <row>} of the sheet XML into a row of a scratch sheet, hands it to the
+   * consumer and drops it right after.
+   */
+  private static class SheetHandler extends DefaultHandler {
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final Sheet scratchSheet;
+    private final Predicate<Row> rowConsumer;
+    private final StringBuilder value = new StringBuilder();
+
+    private Row currentRow;
+    private int lastRowNum = -1;
+    private int lastColumn = -1;
+    private String cellType;
+    private boolean inValue;
+
+    SheetHandler(
+        ReadOnlySharedStringsTable sharedStrings, Sheet scratchSheet, Predicate<Row> rowConsumer) {
+      this.sharedStrings = sharedStrings;
+      this.scratchSheet = scratchSheet;
+      this.rowConsumer = rowConsumer;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String name, Attributes attributes) {
+      switch (localName) {
+        case "row" -> {
+          String reference = attributes.getValue("r");
+          lastRowNum = reference != null ? Integer.parseInt(reference) - 1 : lastRowNum + 1;
+          lastColumn = -1;
+          currentRow = scratchSheet.createRow(lastRowNum);
+        }
+        case "c" -> {
+          String reference = attributes.getValue("r");
+          lastColumn = reference != null ? new CellReference(reference).getCol() : lastColumn + 1;
+          cellType = attributes.getValue("t");
+          value.setLength(0);
+        }
+        case "v", "t" -> inValue = true;
+        default -> {}
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String name) throws SAXException {
+      switch (localName) {
+        case "v", "t" -> inValue = false;
+        case "c" -> setCellValue();
+        case "row" -> {
+          boolean keepReading = rowConsumer.test(currentRow);
+          scratchSheet.removeRow(currentRow);
+          currentRow = null;
+          if (!keepReading) {
+            throw new StopReading();
+          }
+        }
+        default -> {}
+      }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      if (inValue) {
+        value.append(ch, start, length);
+      }
+    }
+
+    private void setCellValue() {
+      if (value.isEmpty()) {
+        return;
+      }
+      String raw = value.toString();
+      Cell cell = currentRow.createCell(lastColumn);
+      switch (cellType == null ? "n" : cellType) {
+        case "s" -> cell.setCellValue(sharedStrings.getItemAt(Integer.parseInt(raw)).getString());
+        case "inlineStr", "str" -> cell.setCellValue(raw);
+        case "b" -> cell.setCellValue("1".equals(raw));
+        case "e" -> currentRow.removeCell(cell);
+        default -> cell.setCellValue(Double.parseDouble(raw));
+      }
+    }
+  }
+}
@@ -2,6 +2,7 @@ package io.openbas.utils;
 
 import io.openbas.database.model.InjectExpectation;
 import io.openbas.database.model.InjectExpectation.EXPECTATION_TYPE;
+import io.openbas.database.raw.RawExpectationCount;
 import io.openbas.database.raw.RawInjectExpectation;
 import io.openbas.expectation.ExpectationType;
 import jakarta.validation.constraints.NotNull;
@@ -139,6 +140,69 @@ public class InjectExpectationResultUtils {
             type, InjectExpectation.EXPECTATION_STATUS.PENDING, getResultDetail(type, scores)));
   }
 
+  // -- COUNTED SCORES --
+
+  /**
+   * Same results as {@link #getExpectationResultByTypes} with {@link #getScoresFromRaw}, from
+   * expectations already counted by normalized score, as stored in the statistic rollups and the
+   * simulation score snapshots
+   *
+   * @param counts the expectation counts by type
+   * @return the results by type of expectation
+   */
+  public static List<ExpectationResultsByType> getExpectationResultByTypesFromCounts(
+      final List<? extends RawExpectationCount> counts) {
+    List<ExpectationResultsByType> result = new ArrayList<>();
+    addIfCountsPresent(
+        result, List.of(EXPECTATION_TYPE.PREVENTION), ExpectationType.PREVENTION, counts);
+    addIfCountsPresent(
+        result, List.of(EXPECTATION_TYPE.DETECTION), ExpectationType.DETECTION, counts);
+    addIfCountsPresent(
+        result, List.of(EXPECTATION_TYPE.VULNERABILITY), ExpectationType.VULNERABILITY, counts);
+    addIfCountsPresent(
+        result,
+        List.of(EXPECTATION_TYPE.ARTICLE, EXPECTATION_TYPE.CHALLENGE, EXPECTATION_TYPE.MANUAL),
+        ExpectationType.HUMAN_RESPONSE,
+        counts);
+    return result;
+  }
+
+  private static void addIfCountsPresent(
+      List<ExpectationResultsByType> resultList,
+      List<EXPECTATION_TYPE> types,
+      ExpectationType resultType,
+      List<? extends RawExpectationCount> counts) {
+    long success = 0;
+    long partial = 0;
+    long failed = 0;
+    long pending = 0;
+    for (RawExpectationCount count : counts) {
+      if (types.contains(EXPECTATION_TYPE.valueOf(count.getInject_expectation_type()))) {
+        success += count.getSuccess_count();
+        partial += count.getPartial_count();
+        failed += count.getFailed_count();
+        pending += count.getPending_count();
+      }
+    }
+    if (success + partial + failed + pending == 0) {
+      return;
+    }
+    // The average of the scores is 1 only if all are successes and 0 only if all are failures
+    InjectExpectation.EXPECTATION_STATUS status;
+    if (success + partial + failed == 0) {
+      status = InjectExpectation.EXPECTATION_STATUS.PENDING;
+    } else if (success == 0 && partial == 0) {
+      status = InjectExpectation.EXPECTATION_STATUS.FAILED;
+    } else if (partial == 0 && failed == 0) {
+      status = InjectExpectation.EXPECTATION_STATUS.SUCCESS;
+    } else {
+      status = InjectExpectation.EXPECTATION_STATUS.PARTIAL;
+    }
+    resultList.add(
+        new ExpectationResultsByType(
+            resultType, status, getResultDetail(resultType, success, pending, partial, failed)));
+  }
+
   public static InjectExpectation.EXPECTATION_STATUS getResult(final OptionalDouble avg) {
     Double avgAsDouble = avg.getAsDouble();
     return avgAsDouble == 0.0
@@ -161,7 +225,15 @@ public class InjectExpectationResultUtils {
     long partialCount = normalizedScores.stream().filter(s -> s != null && s.equals(0.5)).count();
     long pendingCount = normalizedScores.stream().filter(Objects::isNull).count();
     long failureCount = normalizedScores.stream().filter(s -> s != null && s.equals(0.0)).count();
+    return getResultDetail(type, successCount, pendingCount, partialCount, failureCount);
+  }
 
+  private static List<ResultDistribution> getResultDetail(
+      final ExpectationType type,
+      final long successCount,
+      final long pendingCount,
+      final long partialCount,
+      final long failureCount) {
     return List.of(
         new ResultDistribution(ExpectationType.SUCCESS_ID, type.successLabel, (int) successCount),
         new ResultDistribution(ExpectationType.PENDING_ID, type.pendingLabel, (int) pendingCount),
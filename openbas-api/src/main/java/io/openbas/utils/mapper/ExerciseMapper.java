@@ -7,15 +7,14 @@ import io.openbas.database.model.Exercise;
 import io.openbas.database.model.ExerciseStatus;
 import io.openbas.database.model.Inject;
 import io.openbas.database.raw.RawExerciseSimple;
-import io.openbas.database.raw.RawInjectExpectation;
 import io.openbas.database.repository.AssetGroupRepository;
 import io.openbas.database.repository.AssetRepository;
-import io.openbas.database.repository.InjectExpectationRepository;
 import io.openbas.database.repository.TeamRepository;
 import io.openbas.rest.atomic_testing.form.TargetSimple;
 import io.openbas.rest.document.form.RelatedEntityOutput;
 import io.openbas.rest.exercise.form.ExerciseSimple;
-import io.openbas.utils.ResultUtils;
+import io.openbas.rest.exercise.service.ExerciseScoreSnapshotService;
+import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
 import io.openbas.utils.TargetType;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,9 +32,8 @@ public class ExerciseMapper {
   private final AssetRepository assetRepository;
   private final AssetGroupRepository assetGroupRepository;
   private final TeamRepository teamRepository;
-  private final InjectExpectationRepository injectExpectationRepository;
 
-  private final ResultUtils resultUtils;
+  private final ExerciseScoreSnapshotService exerciseScoreSnapshotService;
   private final InjectMapper injectMapper;
   private final InjectExpectationMapper injectExpectationMapper;
 
@@ -47,7 +45,9 @@ public class ExerciseMapper {
     if (rawExercise.getInject_ids() != null) {
       // -- GLOBAL SCORE ---
       simple.setExpectationResultByTypes(
-          resultUtils.getResultsByTypes(rawExercise.getInject_ids()));
+          exerciseScoreSnapshotService
+              .getGlobalResults(Set.of(rawExercise.getExercise_id()))
+              .get(rawExercise.getExercise_id()));
 
       // -- TARGETS --
       List<Object[]> teams =
@@ -88,9 +88,8 @@ public class ExerciseMapper {
         assetGroupRepository.assetGroupsByExerciseIds(exerciseIds).stream()
             .collect(Collectors.groupingBy(row -> (String) row[0]));
 
-    Map<String, List<RawInjectExpectation>> expectationMap =
-        injectExpectationRepository.rawForComputeGlobalByExerciseIds(exerciseIds).stream()
-            .collect(Collectors.groupingBy(RawInjectExpectation::getExercise_id));
+    Map<String, List<ExpectationResultsByType>> snapshotResultMap =
+        exerciseScoreSnapshotService.findSnapshotResults(exerciseIds);
 
     List<ExerciseSimple> exerciseSimples = new ArrayList<>();
 
@@ -101,7 +100,7 @@ public class ExerciseMapper {
               teamMap.getOrDefault(exercise.getExercise_id(), emptyList()),
               assetMap.getOrDefault(exercise.getExercise_id(), emptyList()),
               assetGroupMap.getOrDefault(exercise.getExercise_id(), emptyList()),
-              expectationMap.getOrDefault(exercise.getExercise_id(), emptyList()));
+              snapshotResultMap.get(exercise.getExercise_id()));
       exerciseSimples.add(simple);
     }
 
@@ -113,15 +112,18 @@ public class ExerciseMapper {
       List<Object[]> teams,
       List<Object[]> assets,
       List<Object[]> assetGroups,
-      List<RawInjectExpectation> expectations) {
+      List<ExpectationResultsByType> snapshotResults) {
 
     ExerciseSimple simple = fromRawExerciseSimple(rawExercise);
 
     if (rawExercise.getInject_ids() != null) {
       // -- GLOBAL SCORE ---
+      // Without snapshot, no expectation is scored yet and the results come from the injects
       simple.setExpectationResultByTypes(
-          injectExpectationMapper.extractExpectationResultByTypesFromRaw(
-              rawExercise.getInject_ids(), expectations));
+          snapshotResults != null
+              ? snapshotResults
+              : injectExpectationMapper.extractExpectationResultByTypesFromRaw(
+                  rawExercise.getInject_ids(), emptyList()));
       // -- TARGETS --
       List<TargetSimple> allTargets =
           Stream.concat(
@@ -1,11 +1,15 @@
 package io.openbas.utils.mapper;
 
 import io.openbas.database.model.*;
+import io.openbas.database.raw.RawFindingAssets;
 import io.openbas.database.repository.FindingRepository;
+import io.openbas.rest.asset.endpoint.form.EndpointSimple;
 import io.openbas.rest.finding.form.AggregatedFindingOutput;
 import io.openbas.rest.finding.form.RelatedFindingOutput;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,17 +28,27 @@ public class FindingMapper {
   private final InjectMapper injectMapper;
 
   public AggregatedFindingOutput toAggregatedFindingOutput(
-      Finding finding, List<Asset> relatedAssets) {
+      Finding finding, RawFindingAssets relatedEndpoints) {
+    Set<EndpointSimple> endpoints = new LinkedHashSet<>();
+    long endpointCount = 0;
+    if (relatedEndpoints != null) {
+      List<String> names = relatedEndpoints.getAsset_names();
+      for (int i = 0; i < relatedEndpoints.getAsset_ids().size(); i++) {
+        endpoints.add(
+            EndpointSimple.builder()
+                .id(relatedEndpoints.getAsset_ids().get(i))
+                .name(names.get(i))
+                .build());
+      }
+      endpointCount = relatedEndpoints.getAsset_count();
+    }
     return AggregatedFindingOutput.builder()
         .id(finding.getId())
         .value(finding.getValue())
         .type(finding.getType())
         .creationDate(finding.getCreationDate())
-        .endpoints(
-            relatedAssets.stream()
-                .filter(asset -> asset instanceof Endpoint)
-                .map(endpointMapper::toEndpointSimple)
-                .collect(Collectors.toSet()))
+        .endpoints(endpoints)
+        .endpointCount(endpointCount)
         .build();
   }
 
@@ -0,0 +1,87 @@
+package io.openbas.authorisation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import java.io.IOException;
+import java.time.Duration;
+import javax.net.ssl.X509TrustManager;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.*;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.matchers.Times;
+import org.mockserver.socket.PortFactory;
+import org.mockserver.verify.VerificationTimes;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Outbound HTTP clients tests against a stub server")
+class HttpClientFactoryTest {
+
+  private static final String PATH = "/api/resource";
+
+  private ClientAndServer stub;
+  private HttpClientFactory httpClientFactory;
+
+  @BeforeAll
+  void beforeAll() {
+    stub = ClientAndServer.startClientAndServer(PortFactory.findFreePort());
+  }
+
+  @AfterAll
+  void afterAll() {
+    stub.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    stub.reset();
+    httpClientFactory = new HttpClientFactory(mock(X509TrustManager.class));
+    ReflectionTestUtils.setField(httpClientFactory, "retryInterval", Duration.ofMillis(10));
+    ReflectionTestUtils.setField(httpClientFactory, "failureThreshold", 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    httpClientFactory.close();
+  }
+
+  private String get(CloseableHttpClient client) throws IOException {
+    return client.execute(
+        new HttpGet("http://localhost:" + stub.getLocalPort() + PATH),
+        response -> response.getCode() + ":" + EntityUtils.toString(response.getEntity()));
+  }
+
+  @Test
+  @DisplayName("The client of an integration is shared and retries unavailable responses")
+  void given_unavailable_response_should_retry_on_shared_client() throws IOException {
+    stub.when(request().withPath(PATH), Times.once()).respond(response().withStatusCode(503));
+    stub.when(request().withPath(PATH)).respond(response().withStatusCode(200).withBody("ok"));
+
+    CloseableHttpClient client = httpClientFactory.httpClient("stub");
+
+    assertSame(client, httpClientFactory.httpClient("stub"));
+    assertEquals("200:ok", get(client));
+    assertEquals("200:ok", get(client));
+    stub.verify(request().withPath(PATH), VerificationTimes.exactly(3));
+  }
+
+  @Test
+  @DisplayName("Consecutive server errors open the circuit of the integration only")
+  void given_consecutive_server_errors_should_open_circuit() throws IOException {
+    stub.when(request().withPath(PATH)).respond(response().withStatusCode(500));
+    CloseableHttpClient client = httpClientFactory.httpClient("stub");
+
+    assertEquals("500:", get(client));
+    assertEquals("500:", get(client));
+    IOException exception = assertThrows(IOException.class, () -> get(client));
+
+    assertTrue(exception.getMessage().contains("Circuit open"));
+    stub.verify(request().withPath(PATH), VerificationTimes.exactly(2));
+    assertEquals("500:", get(httpClientFactory.httpClient("other")));
+  }
+}
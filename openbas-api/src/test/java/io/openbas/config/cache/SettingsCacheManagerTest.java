@@ -0,0 +1,88 @@
+package io.openbas.config.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.openbas.database.model.Setting;
+import io.openbas.database.repository.SettingRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Settings snapshot tests")
+class SettingsCacheManagerTest {
+
+  @Mock private SettingRepository settingRepository;
+
+  private SettingsCacheManager settingsCacheManager;
+
+  @BeforeEach
+  void setUp() {
+    settingsCacheManager =
+        new SettingsCacheManager(
+            settingRepository, Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC));
+  }
+
+  private static Setting setting(String key, String value) {
+    Setting setting = new Setting(key, value);
+    setting.setId(key + "-id");
+    return setting;
+  }
+
+  @Test
+  @DisplayName("Reads within the interval are served from memory until a local write")
+  void given_reads_within_interval_should_serve_snapshot_until_invalidated() {
+    Setting lang = setting("platform_lang", "en");
+    Setting updatedLang = setting("platform_lang", "fr");
+    when(settingRepository.getSettingsVersion()).thenReturn(1L, 2L);
+    when(settingRepository.findAll()).thenReturn(List.of(lang), List.of(updatedLang));
+
+    assertEquals("en", settingsCacheManager.settings().get("platform_lang").getValue());
+    assertEquals("en", settingsCacheManager.setting("platform_lang").orElseThrow().getValue());
+    settingsCacheManager.invalidate();
+    assertEquals("fr", settingsCacheManager.setting("platform_lang").orElseThrow().getValue());
+
+    verify(settingRepository, times(2)).getSettingsVersion();
+    verify(settingRepository, times(2)).findAll();
+  }
+
+  @Test
+  @DisplayName("Once the interval elapsed, settings are reloaded only when their version moved")
+  void given_elapsed_interval_should_reload_on_version_change() {
+    ReflectionTestUtils.setField(settingsCacheManager, "revalidateInterval", Duration.ZERO);
+    Setting lang = setting("platform_lang", "en");
+    Setting updatedLang = setting("platform_lang", "fr");
+    when(settingRepository.getSettingsVersion()).thenReturn(1L, 1L, 2L);
+    when(settingRepository.findAll()).thenReturn(List.of(lang), List.of(updatedLang));
+
+    assertEquals("en", settingsCacheManager.setting("platform_lang").orElseThrow().getValue());
+    assertEquals("en", settingsCacheManager.setting("platform_lang").orElseThrow().getValue());
+    assertEquals("fr", settingsCacheManager.setting("platform_lang").orElseThrow().getValue());
+    assertTrue(settingsCacheManager.setting("platform_name").isEmpty());
+
+    verify(settingRepository, times(2)).findAll();
+  }
+
+  @Test
+  @DisplayName("Settings read from the snapshot are copies")
+  void given_modified_setting_should_keep_snapshot_unchanged() {
+    when(settingRepository.getSettingsVersion()).thenReturn(1L);
+    when(settingRepository.findAll()).thenReturn(List.of(setting("platform_lang", "en")));
+
+    settingsCacheManager.setting("platform_lang").orElseThrow().setValue("fr");
+
+    Setting lang = settingsCacheManager.setting("platform_lang").orElseThrow();
+    assertEquals("en", lang.getValue());
+    assertEquals("platform_lang-id", lang.getId());
+  }
+}
@@ -0,0 +1,45 @@
+package io.openbas.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openbas.engine.model.EsBase;
+import io.openbas.engine.model.inject.EsInject;
+import io.openbas.schema.PropertySchema;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Engine model registry")
+class EngineModelRegistryTest {
+
+  private static EngineModelRegistry registry() {
+    Handler<EsInject> handler = from -> List.of();
+    List<EsModel<? extends EsBase>> models = List.of(new EsModel<>(EsInject.class, handler));
+    return EngineModelRegistry.of(models);
+  }
+
+  @Test
+  @DisplayName("Models are looked up by name")
+  void given_model_name_should_return_model() {
+    EngineModelRegistry registry = registry();
+
+    assertEquals(EsInject.class, registry.model("inject").orElseThrow().getModel());
+    assertTrue(registry.model("unknown").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Filterable properties are translated to their engine field")
+  void given_property_should_translate_to_engine_field() {
+    EngineModelRegistry registry = registry();
+    List<PropertySchema> properties = registry.filterableProperties("inject");
+
+    assertFalse(properties.isEmpty());
+    for (PropertySchema property : properties) {
+      assertSame(property, registry.indexingSchema().get(property.getName()));
+      assertEquals(
+          property.isKeyword() ? property.getName() + ".keyword" : property.getName(),
+          registry.engineField(property.getName()));
+    }
+    assertThrows(IllegalArgumentException.class, () -> registry.engineField("unknown"));
+  }
+}
@@ -0,0 +1,217 @@
+package io.openbas.engine;
+
+import static io.openbas.injectors.email.EmailContract.EMAIL_DEFAULT;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openbas.IntegrationTest;
+import io.openbas.database.model.*;
+import io.openbas.database.raw.RawIndexingChange;
+import io.openbas.database.repository.*;
+import io.openbas.utils.fixtures.EndpointFixture;
+import io.openbas.utils.fixtures.ExerciseFixture;
+import io.openbas.utils.fixtures.FindingFixture;
+import io.openbas.utils.fixtures.InjectFixture;
+import jakarta.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@DisplayName("Indexing changes captured by the database triggers")
+class IndexingChangesIntegrationTest extends IntegrationTest {
+
+  private static final String INJECT = "inject";
+  private static final String VULNERABLE_ENDPOINT = "vulnerable-endpoint";
+  // Constants.INDEXING_RECORD_SET_SIZE of the model, shadowed by the one of the api
+  private static final int INDEXING_RECORD_SET_SIZE = 500;
+
+  @Autowired private IndexingStatusRepository indexingStatusRepository;
+  @Autowired private ExerciseRepository exerciseRepository;
+  @Autowired private InjectRepository injectRepository;
+  @Autowired private InjectorContractRepository injectorContractRepository;
+  @Autowired private InjectDependenciesRepository injectDependenciesRepository;
+  @Autowired private EndpointRepository endpointRepository;
+  @Autowired private FindingRepository findingRepository;
+  @Autowired private EntityManager entityManager;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private Exercise exercise;
+  private Inject parent;
+  private Inject child;
+  private Endpoint endpoint;
+
+  @BeforeEach
+  void beforeEach() {
+    exercise = exerciseRepository.save(ExerciseFixture.createDefaultIncidentResponseExercise());
+    parent = saveInject(null);
+    child = saveInject(injectorContractRepository.findById(EMAIL_DEFAULT).orElseThrow());
+    endpoint = endpointRepository.save(EndpointFixture.createEndpoint());
+    entityManager.flush();
+  }
+
+  private Inject saveInject(InjectorContract injectorContract) {
+    Inject inject = InjectFixture.getDefaultInject();
+    inject.setExercise(exercise);
+    inject.setInjectorContract(injectorContract);
+    return injectRepository.save(inject);
+  }
+
+  private void saveDependency(Inject injectParent, Inject injectChildren) {
+    InjectDependency dependency = new InjectDependency();
+    dependency.getCompositeId().setInjectParent(injectParent);
+    dependency.getCompositeId().setInjectChildren(injectChildren);
+    injectDependenciesRepository.save(dependency);
+  }
+
+  /** Date of the last captured change of a type, changes made after it being later */
+  private Instant lastChange(String type) {
+    entityManager.flush();
+    Timestamp last =
+        jdbcTemplate.queryForObject(
+            "SELECT max(change_date) FROM indexing_changes WHERE change_type = ?",
+            Timestamp.class,
+            type);
+    return last == null ? Instant.EPOCH : last.toInstant();
+  }
+
+  private Set<String> changedIds(String type, Instant from) {
+    entityManager.flush();
+    return indexingStatusRepository.findChanges(type, from, Integer.MAX_VALUE).stream()
+        .map(RawIndexingChange::getChange_entity_id)
+        .collect(Collectors.toSet());
+  }
+
+  @Test
+  @DisplayName("Updating an inject records it")
+  void given_updated_inject_should_record_it() {
+    Instant from = lastChange(INJECT);
+
+    parent.setTitle("Updated title");
+    parent.setUpdatedAt(Instant.now());
+    injectRepository.save(parent);
+
+    Set<String> changed = changedIds(INJECT, from);
+    assertTrue(changed.contains(parent.getId()));
+    assertFalse(changed.contains(child.getId()));
+  }
+
+  @Test
+  @DisplayName("Adding a dependency records the parent inject")
+  void given_new_dependency_should_record_parent_inject() {
+    Instant from = lastChange(INJECT);
+
+    saveDependency(parent, child);
+
+    Set<String> changed = changedIds(INJECT, from);
+    assertTrue(changed.contains(parent.getId()));
+    assertFalse(changed.contains(child.getId()));
+  }
+
+  @Test
+  @DisplayName("Updating the contract of a child inject records the child and its parent")
+  void given_updated_child_contract_should_record_child_and_parent_injects() {
+    saveDependency(parent, child);
+    Inject unrelated = saveInject(null);
+    Instant from = lastChange(INJECT);
+
+    jdbcTemplate.update(
+        "UPDATE injectors_contracts SET injector_contract_updated_at = clock_timestamp() "
+            + "WHERE injector_contract_id = ?",
+        EMAIL_DEFAULT);
+
+    Set<String> changed = changedIds(INJECT, from);
+    assertTrue(changed.contains(child.getId()));
+    assertTrue(changed.contains(parent.getId()));
+    assertFalse(changed.contains(unrelated.getId()));
+  }
+
+  @Test
+  @DisplayName("Linking a CVE finding to an endpoint records the vulnerable endpoint")
+  void given_cve_finding_link_should_record_vulnerable_endpoint() {
+    Finding text = FindingFixture.createDefaultTextFindingWithRandomValue();
+    text.setInject(child);
+    text.setAssets(List.of(endpoint));
+    findingRepository.save(text);
+    Instant from = lastChange(VULNERABLE_ENDPOINT);
+    assertFalse(changedIds(VULNERABLE_ENDPOINT, from).contains(endpoint.getId()));
+
+    Finding cve = FindingFixture.createDefaultCveFindingWithRandomTitle();
+    cve.setInject(child);
+    cve.setAssets(List.of(endpoint));
+    findingRepository.save(cve);
+
+    assertTrue(changedIds(VULNERABLE_ENDPOINT, from).contains(endpoint.getId()));
+  }
+
+  @Test
+  @DisplayName("Updating an endpoint or a simulation records the vulnerable endpoints")
+  void given_updated_endpoint_or_simulation_should_record_vulnerable_endpoint() {
+    Finding cve = FindingFixture.createDefaultCveFindingWithRandomTitle();
+    cve.setInject(child);
+    cve.setAssets(List.of(endpoint));
+    findingRepository.save(cve);
+
+    Instant from = lastChange(VULNERABLE_ENDPOINT);
+    endpoint.setUpdatedAt(Instant.now());
+    endpointRepository.save(endpoint);
+    assertTrue(changedIds(VULNERABLE_ENDPOINT, from).contains(endpoint.getId()));
+
+    from = lastChange(VULNERABLE_ENDPOINT);
+    exercise.setUpdatedAt(Instant.now());
+    exerciseRepository.save(exercise);
+    assertTrue(changedIds(VULNERABLE_ENDPOINT, from).contains(endpoint.getId()));
+  }
+
+  @Test
+  @DisplayName("Deleting an inject removes its change")
+  void given_deleted_inject_should_remove_its_change() {
+    assertTrue(changedIds(INJECT, Instant.EPOCH).contains(parent.getId()));
+
+    injectRepository.delete(parent);
+
+    assertFalse(changedIds(INJECT, Instant.EPOCH).contains(parent.getId()));
+  }
+
+  @Test
+  @DisplayName("Changes sharing the date of the last one returned are all returned")
+  void given_more_changes_than_the_limit_at_same_date_should_return_them_all() {
+    Instant tied = Instant.parse("2100-01-01T00:00:00Z");
+    Instant later = tied.plusSeconds(1);
+    int tiedCount = INDEXING_RECORD_SET_SIZE + 10;
+    jdbcTemplate.update(
+        "INSERT INTO indexing_changes (change_type, change_entity_id, change_date) "
+            + "SELECT ?, 'tied-' || g, ? FROM generate_series(1, ?) g",
+        INJECT,
+        tied.atOffset(ZoneOffset.UTC),
+        tiedCount);
+    jdbcTemplate.update(
+        "INSERT INTO indexing_changes (change_type, change_entity_id, change_date) "
+            + "VALUES (?, 'later', ?)",
+        INJECT,
+        later.atOffset(ZoneOffset.UTC));
+
+    List<RawIndexingChange> changes =
+        indexingStatusRepository.findChanges(
+            INJECT, tied.minusSeconds(1), INDEXING_RECORD_SET_SIZE);
+    assertEquals(tiedCount, changes.size());
+    assertTrue(changes.stream().allMatch(c -> tied.equals(c.getChange_date())));
+
+    List<RawIndexingChange> next =
+        indexingStatusRepository.findChanges(INJECT, tied, INDEXING_RECORD_SET_SIZE);
+    assertEquals(
+        List.of("later"), next.stream().map(RawIndexingChange::getChange_entity_id).toList());
+
+    List<RawIndexingChange> all =
+        indexingStatusRepository.findChanges(INJECT, tied.minusSeconds(1), tiedCount + 5);
+    assertEquals(tiedCount + 1, all.size());
+  }
+}
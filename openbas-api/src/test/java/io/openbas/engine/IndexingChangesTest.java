@@ -0,0 +1,93 @@
+package io.openbas.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.database.raw.RawIndexingChange;
+import io.openbas.database.repository.IndexingStatusRepository;
+import io.openbas.engine.model.inject.EsInject;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Indexing changes")
+class IndexingChangesTest {
+
+  @Mock private IndexingStatusRepository indexingStatusRepository;
+
+  @InjectMocks private IndexingChanges indexingChanges;
+
+  private static RawIndexingChange change(String id, Instant date) {
+    RawIndexingChange change = mock(RawIndexingChange.class);
+    when(change.getChange_entity_id()).thenReturn(id);
+    when(change.getChange_date()).thenReturn(date);
+    return change;
+  }
+
+  private static EsInject inject(String id, Instant date) {
+    EsInject inject = new EsInject();
+    inject.setBase_id(id);
+    inject.setBase_updated_at(date);
+    return inject;
+  }
+
+  @Test
+  @DisplayName("Only the changed entities are built, ordered by change date")
+  void given_changes_should_build_changed_documents_in_order() {
+    Instant first = Instant.parse("2026-01-01T00:00:00Z");
+    Instant second = first.plusSeconds(1);
+    List<RawIndexingChange> changes =
+        List.of(change("inject-1", first), change("inject-2", second));
+    when(indexingStatusRepository.findChanges(eq("inject"), eq(Instant.EPOCH), anyInt()))
+        .thenReturn(changes);
+
+    List<EsInject> documents =
+        indexingChanges.fetch(
+            "inject",
+            null,
+            changeDates -> {
+              assertEquals(List.of("inject-1", "inject-2"), List.copyOf(changeDates.keySet()));
+              return List.of(inject("inject-2", second), inject("inject-1", first));
+            });
+
+    assertEquals(
+        List.of("inject-1", "inject-2"), documents.stream().map(EsInject::getBase_id).toList());
+  }
+
+  @Test
+  @DisplayName("A page of removed entities does not block the next changes")
+  void given_page_without_documents_should_fetch_next_page() {
+    Instant from = Instant.parse("2026-01-01T00:00:00Z");
+    Instant removed = from.plusSeconds(1);
+    Instant changed = from.plusSeconds(2);
+    List<RawIndexingChange> removedChanges = List.of(change("removed", removed));
+    List<RawIndexingChange> changedChanges = List.of(change("changed", changed));
+    when(indexingStatusRepository.findChanges(eq("inject"), eq(from), anyInt()))
+        .thenReturn(removedChanges);
+    when(indexingStatusRepository.findChanges(eq("inject"), eq(removed), anyInt()))
+        .thenReturn(changedChanges);
+
+    List<EsInject> documents =
+        indexingChanges.fetch(
+            "inject",
+            from,
+            changeDates ->
+                changeDates.containsKey("changed")
+                    ? List.of(inject("changed", changeDates.get("changed")))
+                    : List.of());
+
+    assertEquals(1, documents.size());
+    assertEquals(changed, documents.getFirst().getBase_updated_at());
+    verify(indexingStatusRepository).findChanges(eq("inject"), eq(removed), anyInt());
+  }
+}
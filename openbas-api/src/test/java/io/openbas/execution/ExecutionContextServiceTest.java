@@ -0,0 +1,104 @@
+package io.openbas.execution;
+
+import static io.openbas.injector_contract.variables.VariableHelper.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.config.OpenBASConfig;
+import io.openbas.database.model.Exercise;
+import io.openbas.database.model.Inject;
+import io.openbas.database.model.Scenario;
+import io.openbas.database.model.User;
+import io.openbas.database.model.Variable;
+import io.openbas.service.VariableService;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Execution context")
+class ExecutionContextServiceTest {
+
+  private static final String BASE_URL = "https://openbas.local";
+
+  @Mock private OpenBASConfig openBASConfig;
+  @Mock private VariableService variableService;
+
+  private ExecutionContextService executionContextService;
+
+  @BeforeEach
+  void setUp() {
+    executionContextService = new ExecutionContextService(openBASConfig, variableService);
+  }
+
+  private static Variable variable(String key, String value) {
+    Variable variable = new Variable();
+    variable.setKey(key);
+    variable.setValue(value);
+    return variable;
+  }
+
+  private static User user(String id) {
+    User user = new User();
+    user.setId(id);
+    user.setEmail(id + "@openbas.local");
+    return user;
+  }
+
+  @Test
+  @DisplayName("Simulation variables are read once for all the users of an injection")
+  void given_simulation_inject_should_build_user_contexts_from_one_template() {
+    Exercise exercise = new Exercise();
+    exercise.setId("exercise-id");
+    Inject inject = new Inject();
+    inject.setId("inject-id");
+    inject.setExercise(exercise);
+    when(openBASConfig.getBaseUrl()).thenReturn(BASE_URL);
+    when(variableService.variablesFromExercise("exercise-id"))
+        .thenReturn(List.of(variable("company", "Filigran"), variable("empty", null)));
+
+    ExecutionContextTemplate template = executionContextService.executionContextTemplate(inject);
+    ExecutionContext first = template.executionContext(user("user-1"), List.of("Team A"));
+    ExecutionContext second = template.executionContext(user("user-2"), "Team B");
+
+    verify(variableService, times(1)).variablesFromExercise("exercise-id");
+    assertEquals("Filigran", first.get("company"));
+    assertTrue(first.containsKey("empty"));
+    assertSame(exercise, first.get(EXERCISE));
+    assertEquals(List.of("Team A"), first.getTeams());
+    assertEquals(
+        BASE_URL + "/private/exercise-id?user=user-1&inject=inject-id", first.get(PLAYER_URI));
+    assertEquals(
+        BASE_URL + "/lessons/simulation/exercise-id?user=user-2&inject=inject-id",
+        second.get(LESSONS_URI));
+    assertEquals("user-2", second.getUser().getId());
+    assertEquals(List.of("Team B"), second.getTeams());
+    // Values of a user do not leak into the template
+    first.put("extra", "value");
+    assertFalse(template.executionContext(user("user-3"), "Team C").containsKey("extra"));
+  }
+
+  @Test
+  @DisplayName("Scenario injects only get the scenario variables")
+  void given_scenario_inject_should_only_add_scenario_variables() {
+    Scenario scenario = new Scenario();
+    scenario.setId("scenario-id");
+    Inject inject = new Inject();
+    inject.setScenario(scenario);
+    when(variableService.variablesFromScenario("scenario-id"))
+        .thenReturn(List.of(variable("company", "Filigran")));
+
+    ExecutionContext executionContext =
+        executionContextService.executionContext(user("user-1"), inject, "Team A");
+
+    assertEquals("Filigran", executionContext.get("company"));
+    assertFalse(executionContext.containsKey(PLAYER_URI));
+    assertFalse(executionContext.containsKey(EXERCISE));
+  }
+}
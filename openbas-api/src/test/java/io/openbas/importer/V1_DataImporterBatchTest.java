@@ -0,0 +1,330 @@
+package io.openbas.importer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openbas.database.model.*;
+import io.openbas.database.repository.*;
+import io.openbas.service.ScenarioService;
+import jakarta.persistence.EntityManager;
+import java.util.*;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Set-based import of a large scenario")
+class V1_DataImporterBatchTest {
+
+  private static final int INJECT_COUNT = 2000;
+  private static final int USER_COUNT = 500;
+  private static final int TAG_COUNT = 20;
+  private static final int TEAM_COUNT = 10;
+  private static final String CONTRACT_ID = "contract-id";
+
+  @Mock private TagRepository tagRepository;
+  @Mock private OrganizationRepository organizationRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private TeamRepository teamRepository;
+  @Mock private ChallengeRepository challengeRepository;
+  @Mock private ChannelRepository channelRepository;
+  @Mock private InjectRepository injectRepository;
+  @Mock private InjectorContractRepository injectorContractRepository;
+  @Mock private ScenarioService scenarioService;
+  @Mock private EntityManager entityManager;
+  @Mock private Session session;
+
+  @InjectMocks private V1_DataImporter importer;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @BeforeEach
+  void before() {
+    ReflectionTestUtils.setField(importer, "mapper", mapper);
+    ReflectionTestUtils.setField(importer, "entityManager", entityManager);
+    lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+    // No session specific batch size, the configured default applies
+    lenient().when(session.getJdbcBatchSize()).thenReturn(null);
+  }
+
+  // -- FIXTURE --
+
+  record Fixture(ObjectNode importNode, List<Map.Entry<String, String>> dependencies) {}
+
+  /** Scenario export with a random dependency forest, generated from a fixed seed */
+  static Fixture scenarioFixture(ObjectMapper mapper, String contractId) {
+    Random random = new Random(42);
+    ObjectNode importNode = mapper.createObjectNode();
+    importNode.put("export_version", 1);
+
+    ObjectNode scenarioNode = importNode.putObject("scenario_information");
+    for (String field :
+        List.of(
+            "scenario_name",
+            "scenario_description",
+            "scenario_subtitle",
+            "scenario_category",
+            "scenario_main_focus",
+            "scenario_message_header",
+            "scenario_message_footer",
+            "scenario_mail_from")) {
+      scenarioNode.put(field, "fixture");
+    }
+    scenarioNode.putArray("scenario_tags").add("tag-0");
+
+    ArrayNode tags = importNode.putArray("scenario_tags");
+    for (int i = 0; i < TAG_COUNT; i++) {
+      tags.addObject()
+          .put("tag_id", "tag-" + i)
+          .put("tag_name", "Tag " + i)
+          .put("tag_color", "#000000");
+    }
+    ObjectNode organization = importNode.putArray("scenario_organizations").addObject();
+    organization.put("organization_id", "organization-0").put("organization_name", "Filigran");
+    organization.putArray("organization_tags");
+
+    ArrayNode users = importNode.putArray("scenario_users");
+    for (int i = 0; i < USER_COUNT; i++) {
+      ObjectNode user =
+          users
+              .addObject()
+              .put("user_id", "user-" + i)
+              .put("user_email", "User" + i + "@openbas.io")
+              .put("user_firstname", "User")
+              .put("user_lastname", String.valueOf(i))
+              .put("user_organization", "organization-0");
+      user.putArray("user_tags").add("tag-" + (i % TAG_COUNT));
+    }
+
+    ArrayNode teams = importNode.putArray("scenario_teams");
+    for (int i = 0; i < TEAM_COUNT; i++) {
+      ObjectNode team =
+          teams
+              .addObject()
+              .put("team_id", "team-" + i)
+              .put("team_name", "Team " + i)
+              .put("team_description", "fixture")
+              .put("team_contextual", false);
+      team.putArray("team_tags").add("tag-" + i);
+      ArrayNode teamUsers = team.putArray("team_users");
+      for (int u = i; u < USER_COUNT; u += TEAM_COUNT) {
+        teamUsers.add("user-" + u);
+      }
+    }
+
+    List<ObjectNode> injects = new ArrayList<>();
+    List<Map.Entry<String, String>> dependencies = new ArrayList<>();
+    for (int i = 0; i < INJECT_COUNT; i++) {
+      String id = "inject-" + i;
+      ObjectNode inject =
+          mapper
+              .createObjectNode()
+              .put("inject_id", id)
+              .put("inject_title", id)
+              .put("inject_description", "fixture")
+              .put("inject_country", "FR")
+              .put("inject_city", "Paris")
+              .put("inject_depends_duration", i * 60L)
+              .put("inject_all_teams", false);
+      inject.putObject("inject_injector_contract").put("injector_contract_id", contractId);
+      inject.putObject("inject_content");
+      inject.putArray("inject_tags").add("tag-" + (i % TAG_COUNT));
+      inject.putArray("inject_teams").add("team-" + (i % TEAM_COUNT));
+      ArrayNode dependsOn = inject.putArray("inject_depends_on");
+      if (i > 0 && random.nextInt(10) < 7) {
+        String parentId = "inject-" + random.nextInt(i);
+        dependsOn
+            .addObject()
+            .putObject("dependency_relationship")
+            .put("inject_parent_id", parentId)
+            .put("inject_children_id", id);
+        dependencies.add(Map.entry(parentId, id));
+      }
+      injects.add(inject);
+    }
+    // Children are often listed before their parents
+    Collections.shuffle(injects, random);
+    importNode.putArray("scenario_injects").addAll(injects);
+    return new Fixture(importNode, dependencies);
+  }
+
+  // -- TEST --
+
+  @Test
+  @DisplayName("Natural keys are resolved with one query per type and injects sorted once")
+  void given_large_scenario_should_batch_lookups_and_respect_dependencies() {
+    Fixture fixture = scenarioFixture(mapper, CONTRACT_ID);
+    when(scenarioService.createScenario(any()))
+        .thenAnswer(
+            invocation -> {
+              Scenario scenario = invocation.getArgument(0);
+              scenario.setId("scenario-id");
+              return scenario;
+            });
+    // Tags and teams already exist
+    when(tagRepository.findAllByNameInIgnoreCase(anyCollection()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                    .map(
+                        name -> {
+                          Tag tag = new Tag();
+                          tag.setId(UUID.randomUUID().toString());
+                          tag.setName(name);
+                          return tag;
+                        })
+                    .toList());
+    when(teamRepository.findAllByLowerNameInAndNotContextual(anyCollection()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                    .map(
+                        name -> {
+                          Team team = new Team();
+                          team.setId(UUID.randomUUID().toString());
+                          team.setName(name);
+                          return team;
+                        })
+                    .toList());
+    // Half of the users already exist
+    when(userRepository.findAllByEmailInIgnoreCase(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<String> emails = invocation.getArgument(0);
+              return emails.stream()
+                  .limit(USER_COUNT / 2)
+                  .map(
+                      email -> {
+                        User user = new User();
+                        user.setId(UUID.randomUUID().toString());
+                        user.setEmail(email);
+                        return user;
+                      })
+                  .toList();
+            });
+    InjectorContract contract = new InjectorContract();
+    contract.setId(CONTRACT_ID);
+    when(injectorContractRepository.findAllById(any())).thenReturn(List.of(contract));
+
+    importer.importData(fixture.importNode(), Map.of(), null, null);
+
+    // One lookup per entity type
+    verify(tagRepository, times(1)).findAllByNameInIgnoreCase(anyCollection());
+    verify(organizationRepository, times(1)).findAllByNameInIgnoreCase(anyCollection());
+    verify(userRepository, times(1)).findAllByEmailInIgnoreCase(anyList());
+    verify(teamRepository, times(1)).findAllByLowerNameInAndNotContextual(anyCollection());
+    verify(injectorContractRepository, times(1)).findAllById(any());
+    verify(injectorContractRepository, never()).findById(anyString());
+    verify(injectRepository, never()).findById(anyString());
+    verify(userRepository, never()).findByEmailIgnoreCase(anyString());
+
+    // Missing rows are created with one saveAll per entity type, existing ones are not saved
+    ArgumentCaptor<List<User>> createdUsers = ArgumentCaptor.forClass(List.class);
+    verify(userRepository, times(1)).saveAll(createdUsers.capture());
+    assertEquals(USER_COUNT / 2, createdUsers.getValue().size());
+    ArgumentCaptor<List<Organization>> createdOrganizations = ArgumentCaptor.forClass(List.class);
+    verify(organizationRepository, times(1)).saveAll(createdOrganizations.capture());
+    assertEquals(1, createdOrganizations.getValue().size());
+    verify(tagRepository, never()).saveAll(any());
+    verify(teamRepository, never()).saveAll(any());
+    verify(userRepository, never()).save(any());
+    verify(organizationRepository, never()).save(any());
+    // Each saveAll is flushed with JDBC batching, restored afterwards
+    verify(session, times(2)).setJdbcBatchSize(250);
+    verify(session, times(2)).setJdbcBatchSize(null);
+    verify(entityManager, times(2)).flush();
+
+    // Injects and their links are inserted at once, every inject after its parent
+    ArgumentCaptor<String[]> titles = ArgumentCaptor.forClass(String[].class);
+    verify(injectRepository, times(1))
+        .importSaveAll(
+            any(),
+            titles.capture(),
+            any(),
+            any(),
+            any(),
+            any(),
+            any(),
+            any(),
+            isNull(),
+            eq("scenario-id"),
+            any(),
+            any());
+    Map<String, Integer> positions = new HashMap<>();
+    String[] insertedTitles = titles.getValue();
+    assertEquals(INJECT_COUNT, insertedTitles.length);
+    for (int i = 0; i < insertedTitles.length; i++) {
+      positions.put(insertedTitles[i], i);
+    }
+    fixture
+        .dependencies()
+        .forEach(
+            dependency ->
+                assertTrue(
+                    positions.get(dependency.getKey()) < positions.get(dependency.getValue())));
+    verify(entityManager, times(fixture.dependencies().size()))
+        .persist(any(InjectDependency.class));
+    ArgumentCaptor<String[]> taggedInjectIds = ArgumentCaptor.forClass(String[].class);
+    verify(injectRepository, times(1)).addAllTags(taggedInjectIds.capture(), any());
+    assertEquals(INJECT_COUNT, taggedInjectIds.getValue().length);
+    ArgumentCaptor<String[]> teamedInjectIds = ArgumentCaptor.forClass(String[].class);
+    verify(injectRepository, times(1)).addAllTeams(teamedInjectIds.capture(), any());
+    assertEquals(INJECT_COUNT, teamedInjectIds.getValue().length);
+  }
+
+  @Test
+  @DisplayName("Contextual teams sharing a name stay distinct, other teams are merged by name")
+  void given_teams_sharing_a_name_should_only_merge_non_contextual_ones() {
+    ObjectNode importNode = mapper.createObjectNode();
+    importNode.put("export_version", 1);
+    // Teams imported into an existing scenario, as from an inject export
+    ArrayNode teams = importNode.putArray("inject_teams");
+    for (String id : List.of("contextual-1", "contextual-2")) {
+      ObjectNode team =
+          teams
+              .addObject()
+              .put("team_id", id)
+              .put("team_name", "Blue team")
+              .put("team_description", "fixture")
+              .put("team_contextual", true);
+      team.putArray("team_tags");
+      team.putArray("team_users");
+    }
+    for (String id : List.of("shared-1", "shared-2")) {
+      ObjectNode team =
+          teams
+              .addObject()
+              .put("team_id", id)
+              .put("team_name", "Red team")
+              .put("team_description", "fixture")
+              .put("team_contextual", false);
+      team.putArray("team_tags");
+      team.putArray("team_users");
+    }
+    Scenario scenario = new Scenario();
+    scenario.setId("scenario-id");
+
+    importer.importData(importNode, Map.of(), null, scenario);
+
+    ArgumentCaptor<List<Team>> createdTeams = ArgumentCaptor.forClass(List.class);
+    verify(teamRepository, times(1)).findAllByLowerNameInAndNotContextual(anyCollection());
+    verify(teamRepository, times(1)).saveAll(createdTeams.capture());
+    assertEquals(
+        List.of("Blue team", "Blue team", "Red team"),
+        createdTeams.getValue().stream().map(Team::getName).toList());
+  }
+}
@@ -1,5 +1,6 @@
 package io.openbas.importer;
 
+import static io.openbas.injectors.email.EmailContract.EMAIL_DEFAULT;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_METHOD;
 
@@ -16,14 +17,18 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 
 @TestInstance(PER_METHOD)
+@Slf4j
 class V1_DataImporterTest extends IntegrationTest {
 
   @Autowired private V1_DataImporter importer;
@@ -46,6 +51,8 @@ class V1_DataImporterTest extends IntegrationTest {
 
   @Autowired private KillChainPhaseRepository killChainPhaseRepository;
 
+  @Autowired private InjectRepository injectRepository;
+
   private JsonNode importNode;
 
   public static final String EXERCISE_NAME =
@@ -141,6 +148,24 @@ class V1_DataImporterTest extends IntegrationTest {
     assertEquals(killChainPhase.getId(), killChainPhase2.getId());
   }
 
+  @DisplayName("Benchmark of a large scenario import")
+  @Test
+  @Transactional
+  @EnabledIfSystemProperty(named = "openbas.benchmark", matches = "true")
+  void benchmark_large_scenario_import() {
+    V1_DataImporterBatchTest.Fixture fixture =
+        V1_DataImporterBatchTest.scenarioFixture(new ObjectMapper(), EMAIL_DEFAULT);
+    int injectCount = fixture.importNode().get("scenario_injects").size();
+
+    long start = System.nanoTime();
+    this.importer.importData(fixture.importNode(), Map.of(), null, null);
+    long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    log.info("Scenario with {} injects imported in {} ms", injectCount, duration);
+    Scenario scenario = this.scenarioRepository.findAll().iterator().next();
+    assertEquals(injectCount, this.injectRepository.findByScenarioId(scenario.getId()).size());
+  }
+
   // -- UTILS --
 
   private static Specification<Exercise> exerciseByName(@NotNull final String name) {
@@ -0,0 +1,163 @@
+package io.openbas.injectors.caldera.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.openbas.authorisation.HttpClientFactory;
+import io.openbas.database.model.Endpoint;
+import io.openbas.injectors.caldera.client.CalderaInjectorClient;
+import io.openbas.injectors.caldera.client.model.Agent;
+import io.openbas.injectors.caldera.config.CalderaInjectorConfig;
+import io.openbas.injectors.caldera.model.CalderaAgentSnapshot;
+import io.openbas.utils.fixtures.EndpointFixture;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.X509TrustManager;
+import org.junit.jupiter.api.*;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.socket.PortFactory;
+import org.mockserver.verify.VerificationTimes;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Caldera agent snapshot tests against a stub of the Caldera API")
+public class CalderaAgentSnapshotServiceTest {
+
+  private static final String AGENTS_PATH = "/api/v2/agents";
+  private static final String CREATED =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+          .withZone(ZoneOffset.UTC)
+          .format(Instant.now());
+
+  private ClientAndServer calderaStub;
+  private CalderaAgentSnapshotService calderaAgentSnapshotService;
+
+  @BeforeAll
+  void beforeAll() {
+    calderaStub = ClientAndServer.startClientAndServer(PortFactory.findFreePort());
+  }
+
+  @AfterAll
+  void afterAll() {
+    calderaStub.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    calderaStub.reset();
+    CalderaInjectorConfig config = new CalderaInjectorConfig();
+    config.setUrl("http://localhost:" + calderaStub.getLocalPort());
+    config.setApiKey("caldera-api-key");
+    config.setAgentSnapshotRefreshInterval(0);
+    CalderaInjectorClient client =
+        new CalderaInjectorClient(config, new HttpClientFactory(mock(X509TrustManager.class)));
+    calderaAgentSnapshotService = new CalderaAgentSnapshotService(client, config);
+  }
+
+  private static String agentJson(String paw, String host, String exeName, String ip) {
+    return """
+        {"paw": "%s", "host": "%s", "exe_name": "%s", "created": "%s", "last_seen": "%s",
+         "host_ip_addrs": ["%s"]}
+        """
+        .formatted(paw, host, exeName, CREATED, CREATED, ip);
+  }
+
+  private void stubAgents(String... agents) {
+    calderaStub
+        .when(request().withMethod("GET").withPath(AGENTS_PATH))
+        .respond(response().withStatusCode(200).withBody("[" + String.join(",", agents) + "]"));
+  }
+
+  @Test
+  @DisplayName("Snapshot indexes agents by paw and short hostname")
+  void given_agents_should_index_by_paw_and_host() {
+    stubAgents(
+        agentJson("paw1", "windows hostname.domain.local", "implant-1", "192.168.1.1"),
+        agentJson("paw2", "other", "implant-2", "192.168.1.2"),
+        agentJson("paw3", "windows hostname", "splunkd", "192.168.1.1"));
+
+    CalderaAgentSnapshot snapshot = calderaAgentSnapshotService.freshSnapshot();
+
+    assertEquals(3, snapshot.getAgentsByPaw().size());
+    assertEquals("other", snapshot.findByPaw("paw2").map(Agent::getHost).orElseThrow());
+    assertEquals(2, snapshot.findByHost("Windows Hostname").size());
+    Endpoint endpoint = EndpointFixture.createEndpoint();
+    List<Agent> implants = calderaAgentSnapshotService.implantsForEndpoint(snapshot, endpoint);
+    assertEquals(1, implants.size());
+    assertEquals("paw1", implants.getFirst().getPaw());
+  }
+
+  @Test
+  @DisplayName("Concurrent refreshes share a single agent listing")
+  void given_fresh_snapshot_should_not_list_agents_again() {
+    stubAgents(agentJson("paw1", "host", "implant", "192.168.1.1"));
+    CalderaInjectorConfig config = new CalderaInjectorConfig();
+    config.setUrl("http://localhost:" + calderaStub.getLocalPort());
+    config.setApiKey("caldera-api-key");
+    CalderaAgentSnapshotService service =
+        new CalderaAgentSnapshotService(
+            new CalderaInjectorClient(config, new HttpClientFactory(mock(X509TrustManager.class))),
+            config);
+
+    service.freshSnapshot();
+    service.freshSnapshot();
+    service.refreshIfNeeded();
+
+    calderaStub.verify(
+        HttpRequest.request().withMethod("GET").withPath(AGENTS_PATH), VerificationTimes.once());
+  }
+
+  @Test
+  @DisplayName("Waiters are notified when a new agent appears")
+  void given_waiter_should_wake_up_when_new_agent_is_published() throws Exception {
+    stubAgents(agentJson("paw1", "host", "implant", "192.168.1.1"));
+    CalderaAgentSnapshot initial = calderaAgentSnapshotService.freshSnapshot();
+
+    CompletableFuture<CalderaAgentSnapshot> waiter =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return calderaAgentSnapshotService.awaitNewAgents(
+                    initial.getGeneration(), Duration.ofSeconds(30));
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+            });
+
+    // Same agents: generation does not move and the waiter keeps waiting
+    calderaAgentSnapshotService.refresh();
+    assertFalse(waiter.isDone());
+
+    calderaStub.reset();
+    stubAgents(
+        agentJson("paw1", "host", "implant", "192.168.1.1"),
+        agentJson("paw2", "host", "implant", "192.168.1.1"));
+    calderaAgentSnapshotService.refresh();
+
+    CalderaAgentSnapshot published = waiter.get(5, TimeUnit.SECONDS);
+    assertTrue(published.getGeneration() > initial.getGeneration());
+    assertTrue(published.findByPaw("paw2").isPresent());
+  }
+
+  @Test
+  @DisplayName("A failing listing keeps the previous snapshot")
+  void given_api_error_should_keep_previous_snapshot() {
+    stubAgents(agentJson("paw1", "host", "implant", "192.168.1.1"));
+    CalderaAgentSnapshot initial = calderaAgentSnapshotService.freshSnapshot();
+
+    calderaStub.reset();
+    calderaStub
+        .when(request().withMethod("GET").withPath(AGENTS_PATH))
+        .respond(response().withStatusCode(500).withBody("not json"));
+    calderaAgentSnapshotService.refresh();
+
+    assertSame(initial, calderaAgentSnapshotService.snapshot());
+  }
+}
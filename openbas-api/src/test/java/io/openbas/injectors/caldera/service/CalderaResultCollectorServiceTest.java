@@ -0,0 +1,173 @@
+package io.openbas.injectors.caldera.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+import static org.mockserver.model.StringBody.subString;
+
+import io.openbas.authorisation.HttpClientFactory;
+import io.openbas.database.model.*;
+import io.openbas.database.repository.InjectRepository;
+import io.openbas.injectors.caldera.CalderaContract;
+import io.openbas.injectors.caldera.client.CalderaInjectorClient;
+import io.openbas.injectors.caldera.config.CalderaInjectorConfig;
+import io.openbas.rest.inject.service.InjectStatusService;
+import io.openbas.utils.fixtures.InjectStatusFixture;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import javax.net.ssl.X509TrustManager;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.socket.PortFactory;
+import org.mockserver.verify.VerificationTimes;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Caldera result collector tests against a stub of the Caldera API")
+public class CalderaResultCollectorServiceTest {
+
+  private static final String RESULTS_PATH = "/api/rest";
+
+  private ClientAndServer calderaStub;
+  private InjectRepository injectRepository;
+  private InjectStatusService injectStatusService;
+  private CalderaResultCollectorService calderaResultCollectorService;
+
+  @BeforeAll
+  void beforeAll() {
+    calderaStub = ClientAndServer.startClientAndServer(PortFactory.findFreePort());
+  }
+
+  @AfterAll
+  void afterAll() {
+    calderaStub.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    calderaStub.reset();
+    CalderaInjectorConfig config = new CalderaInjectorConfig();
+    config.setUrl("http://localhost:" + calderaStub.getLocalPort());
+    config.setApiKey("caldera-api-key");
+    config.setResultCollectorConcurrency(4);
+    CalderaInjectorClient client =
+        new CalderaInjectorClient(config, new HttpClientFactory(mock(X509TrustManager.class)));
+    injectRepository = mock(InjectRepository.class);
+    injectStatusService = mock(InjectStatusService.class);
+    calderaResultCollectorService =
+        new CalderaResultCollectorService(
+            injectRepository,
+            new CalderaInjectorService(client, null, null),
+            injectStatusService,
+            config);
+  }
+
+  @AfterEach
+  void tearDown() {
+    calderaResultCollectorService.shutdown();
+  }
+
+  private static Agent agent(String id) {
+    Agent agent = new Agent();
+    agent.setId(id);
+    return agent;
+  }
+
+  private static InjectStatus pendingStatusWithLinks(List<String> linkIds) {
+    InjectStatus injectStatus = InjectStatusFixture.createPendingInjectStatus();
+    injectStatus.setId("status-" + String.join("-", linkIds));
+    Inject inject = new Inject();
+    inject.setId("inject-" + String.join("-", linkIds));
+    injectStatus.setInject(inject);
+    linkIds.forEach(
+        linkId ->
+            injectStatus.addTrace(
+                ExecutionTrace.getNewInfoTrace(
+                    "Caldera executed the ability",
+                    ExecutionTraceAction.EXECUTION,
+                    agent("agent-" + linkId),
+                    List.of(linkId))));
+    return injectStatus;
+  }
+
+  private void stubResult(String linkId, String finish, int status) {
+    String output = Base64.getEncoder().encodeToString("ok".getBytes(StandardCharsets.UTF_8));
+    String link =
+        finish == null
+            ? "{\"paw\": \"paw-%s\", \"status\": -3}".formatted(linkId)
+            : "{\"paw\": \"paw-%s\", \"finish\": \"%s\", \"status\": %d}"
+                .formatted(linkId, finish, status);
+    calderaStub
+        .when(
+            request()
+                .withMethod("POST")
+                .withPath(RESULTS_PATH)
+                .withBody(subString("\"link_id\":\"" + linkId + "\"")))
+        .respond(
+            response()
+                .withStatusCode(200)
+                .withBody("{\"link\": " + link + ", \"output\": \"" + output + "\"}"));
+  }
+
+  @Test
+  @DisplayName("Results of every link are collected and injects are saved in one batch")
+  void given_finished_links_should_add_complete_traces_and_save_once() {
+    String finish = Instant.now().toString();
+    stubResult("link1", finish, 0);
+    stubResult("link2", finish, 1);
+    stubResult("link3", finish, 0);
+    InjectStatus first = pendingStatusWithLinks(List.of("link1", "link2"));
+    InjectStatus second = pendingStatusWithLinks(List.of("link3"));
+    when(injectStatusService.findPendingInjectStatusByType(CalderaContract.TYPE))
+        .thenReturn(List.of(first, second));
+
+    calderaResultCollectorService.run();
+
+    List<ExecutionTrace> firstCompleteTraces =
+        first.getTraces().stream()
+            .filter(t -> ExecutionTraceAction.COMPLETE.equals(t.getAction()))
+            .toList();
+    assertEquals(2, firstCompleteTraces.size());
+    assertTrue(
+        firstCompleteTraces.stream()
+            .anyMatch(t -> ExecutionTraceStatus.MAYBE_PREVENTED.equals(t.getStatus())));
+    assertTrue(
+        second.getTraces().stream()
+            .anyMatch(t -> ExecutionTraceStatus.SUCCESS.equals(t.getStatus())));
+    ArgumentCaptor<List<Inject>> saved = ArgumentCaptor.forClass(List.class);
+    verify(injectRepository, times(1)).saveAll(saved.capture());
+    assertEquals(2, saved.getValue().size());
+  }
+
+  @Test
+  @DisplayName("Completed links are not polled again and running links are backed off")
+  void given_running_link_should_back_off_and_skip_completed_links() {
+    stubResult("link1", Instant.now().toString(), 0);
+    stubResult("link2", null, 0);
+    InjectStatus injectStatus = pendingStatusWithLinks(List.of("link1", "link2"));
+    when(injectStatusService.findPendingInjectStatusByType(CalderaContract.TYPE))
+        .thenReturn(List.of(injectStatus));
+
+    calderaResultCollectorService.run();
+    calderaResultCollectorService.run();
+
+    // link1 completed on the first run, link2 is still running and waits for its backoff
+    calderaStub.verify(
+        request()
+            .withMethod("POST")
+            .withPath(RESULTS_PATH)
+            .withBody(subString("\"link_id\":\"link1\"")),
+        VerificationTimes.once());
+    calderaStub.verify(
+        request()
+            .withMethod("POST")
+            .withPath(RESULTS_PATH)
+            .withBody(subString("\"link_id\":\"link2\"")),
+        VerificationTimes.once());
+    verify(injectRepository, times(1)).saveAll(any());
+  }
+}
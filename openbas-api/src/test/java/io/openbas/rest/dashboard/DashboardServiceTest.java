@@ -0,0 +1,161 @@
+package io.openbas.rest.dashboard;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.database.model.CustomDashboard;
+import io.openbas.database.model.Widget;
+import io.openbas.database.raw.RawUserAuth;
+import io.openbas.database.repository.IndexingStatusRepository;
+import io.openbas.database.repository.UserRepository;
+import io.openbas.engine.EngineService;
+import io.openbas.engine.api.DateHistogramRuntime;
+import io.openbas.engine.api.DateHistogramWidget;
+import io.openbas.engine.api.Runtime;
+import io.openbas.engine.api.StructuralHistogramRuntime;
+import io.openbas.engine.api.StructuralHistogramWidget;
+import io.openbas.engine.api.WidgetConfiguration;
+import io.openbas.engine.api.WidgetType;
+import io.openbas.engine.query.EsHistogramResult;
+import io.openbas.engine.query.EsSeries;
+import io.openbas.rest.dashboard.form.WidgetDataOutput;
+import io.openbas.service.EsAttackPathService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Dashboard widgets data")
+class DashboardServiceTest {
+
+  @Mock private EsAttackPathService esAttackPathService;
+  @Mock private EngineService engineService;
+  @Mock private UserRepository userRepository;
+  @Mock private IndexingStatusRepository indexingStatusRepository;
+  @Mock private RawUserAuth userWithAuth;
+
+  private DashboardService dashboardService;
+
+  @BeforeEach
+  void setUp() {
+    dashboardService =
+        new DashboardService(
+            esAttackPathService, engineService, userRepository, indexingStatusRepository);
+    ReflectionTestUtils.setField(dashboardService, "cacheTtl", Duration.ofMinutes(5));
+    dashboardService.init();
+  }
+
+  private static Widget widget(String id, WidgetType type, WidgetConfiguration configuration) {
+    Widget widget = new Widget();
+    widget.setId(id);
+    widget.setType(type);
+    widget.setWidgetConfiguration(configuration);
+    return widget;
+  }
+
+  private static CustomDashboard customDashboard(List<Widget> widgets) {
+    CustomDashboard customDashboard = new CustomDashboard();
+    customDashboard.setId("custom-dashboard");
+    customDashboard.setWidgets(widgets);
+    return customDashboard;
+  }
+
+  @Test
+  @DisplayName("Histograms of all the widgets are computed with one multi search")
+  @SuppressWarnings("unchecked")
+  void given_histogram_widgets_should_search_once() throws Exception {
+    List<Widget> widgets =
+        List.of(
+            widget("line", WidgetType.LINE, new DateHistogramWidget()),
+            widget("donut", WidgetType.DONUT, new StructuralHistogramWidget()));
+    when(userRepository.getUserWithAuth(any())).thenReturn(userWithAuth);
+    when(userWithAuth.getUser_admin()).thenReturn(true);
+    when(indexingStatusRepository.findLastIndexing()).thenReturn(Optional.of(Instant.EPOCH));
+    when(engineService.multiHistogram(any(), anyList()))
+        .thenReturn(
+            List.of(
+                new EsHistogramResult(List.of(new EsSeries("dates")), true),
+                new EsHistogramResult(List.of(new EsSeries("terms")), true)));
+
+    List<WidgetDataOutput> outputs =
+        dashboardService.widgets(customDashboard(widgets), widgets, Map.of());
+
+    ArgumentCaptor<List<Runtime>> runtimes = ArgumentCaptor.forClass(List.class);
+    verify(engineService).multiHistogram(any(), runtimes.capture());
+    assertInstanceOf(DateHistogramRuntime.class, runtimes.getValue().get(0));
+    assertInstanceOf(StructuralHistogramRuntime.class, runtimes.getValue().get(1));
+    verify(userRepository).getUserWithAuth(any());
+    assertEquals("line", outputs.get(0).getWidgetId());
+    assertEquals("dates", outputs.get(0).getSeries().getFirst().getLabel());
+    assertEquals("donut", outputs.get(1).getWidgetId());
+    assertEquals("terms", outputs.get(1).getSeries().getFirst().getLabel());
+  }
+
+  @Test
+  @DisplayName("Widgets data is cached until new documents are indexed")
+  void given_same_watermark_should_serve_cached_data() throws Exception {
+    List<Widget> widgets = List.of(widget("line", WidgetType.LINE, new DateHistogramWidget()));
+    CustomDashboard customDashboard = customDashboard(widgets);
+    when(userRepository.getUserWithAuth(any())).thenReturn(userWithAuth);
+    when(userWithAuth.getUser_admin()).thenReturn(true);
+    when(indexingStatusRepository.findLastIndexing())
+        .thenReturn(Optional.of(Instant.EPOCH))
+        .thenReturn(Optional.of(Instant.EPOCH))
+        .thenReturn(Optional.of(Instant.EPOCH.plusSeconds(60)));
+    when(engineService.multiHistogram(any(), anyList()))
+        .thenReturn(List.of(new EsHistogramResult(List.of(new EsSeries("dates")), true)));
+
+    dashboardService.widgets(customDashboard, widgets, Map.of());
+    dashboardService.widgets(customDashboard, widgets, Map.of());
+    verify(engineService, times(1)).multiHistogram(any(), anyList());
+
+    dashboardService.widgets(customDashboard, widgets, Map.of());
+    verify(engineService, times(2)).multiHistogram(any(), anyList());
+  }
+
+  @Test
+  @DisplayName("Widgets data with a failed search is not cached")
+  @SuppressWarnings("unchecked")
+  void given_failed_search_should_not_cache_widget_data() throws Exception {
+    List<Widget> widgets =
+        List.of(
+            widget("line", WidgetType.LINE, new DateHistogramWidget()),
+            widget("donut", WidgetType.DONUT, new StructuralHistogramWidget()));
+    CustomDashboard customDashboard = customDashboard(widgets);
+    when(userRepository.getUserWithAuth(any())).thenReturn(userWithAuth);
+    when(userWithAuth.getUser_admin()).thenReturn(true);
+    when(indexingStatusRepository.findLastIndexing()).thenReturn(Optional.of(Instant.EPOCH));
+    when(engineService.multiHistogram(any(), anyList()))
+        .thenReturn(
+            List.of(
+                new EsHistogramResult(List.of(new EsSeries("dates")), false),
+                new EsHistogramResult(List.of(new EsSeries("terms")), true)))
+        .thenReturn(List.of(new EsHistogramResult(List.of(new EsSeries("dates")), true)));
+
+    List<WidgetDataOutput> outputs = dashboardService.widgets(customDashboard, widgets, Map.of());
+    assertEquals("dates", outputs.get(0).getSeries().getFirst().getLabel());
+
+    dashboardService.widgets(customDashboard, widgets, Map.of());
+    ArgumentCaptor<List<Runtime>> runtimes = ArgumentCaptor.forClass(List.class);
+    verify(engineService, times(2)).multiHistogram(any(), runtimes.capture());
+    assertEquals(1, runtimes.getValue().size());
+    assertInstanceOf(DateHistogramRuntime.class, runtimes.getValue().getFirst());
+
+    dashboardService.widgets(customDashboard, widgets, Map.of());
+    verify(engineService, times(2)).multiHistogram(any(), anyList());
+  }
+}
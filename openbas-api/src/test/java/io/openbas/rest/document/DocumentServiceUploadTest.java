@@ -0,0 +1,115 @@
+package io.openbas.rest.document;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openbas.database.model.Document;
+import io.openbas.database.repository.ChallengeRepository;
+import io.openbas.database.repository.DocumentRepository;
+import io.openbas.rest.exception.FileTooBigException;
+import io.openbas.service.FileService;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Document upload")
+class DocumentServiceUploadTest {
+
+  private static final byte[] CONTENT = "payload content".getBytes(StandardCharsets.UTF_8);
+  private static final String TARGET = DigestUtils.md5Hex(CONTENT) + ".sh";
+
+  @Mock private DocumentRepository documentRepository;
+  @Mock private ChallengeRepository challengeRepository;
+  @Mock private FileService fileService;
+
+  private DocumentService documentService;
+
+  @BeforeEach
+  void before() throws Exception {
+    documentService = new DocumentService(documentRepository, challengeRepository, fileService);
+    ReflectionTestUtils.setField(documentService, "mapper", new ObjectMapper());
+    ReflectionTestUtils.setField(documentService, "uploadMaxSize", DataSize.ofKilobytes(1));
+    ReflectionTestUtils.setField(documentService, "uploadRateLimit", DataSize.ofBytes(0));
+  }
+
+  /** Reads the stream like the object storage would, hashing it along the way */
+  private void stageLikeStorage() throws Exception {
+    when(fileService.stageFile(anyString(), any(), anyLong(), any()))
+        .thenAnswer(
+            invocation -> {
+              InputStream data = invocation.getArgument(1);
+              return DigestUtils.md5Hex(data);
+            });
+  }
+
+  private static MockMultipartFile file(byte[] content) {
+    return new MockMultipartFile("file", "payload.sh", "text/x-sh", content);
+  }
+
+  @Test
+  @DisplayName("New content is hashed while staged, then committed under its hash")
+  void given_new_content_should_commit_staged_file() throws Exception {
+    stageLikeStorage();
+    when(documentRepository.findByTarget(TARGET)).thenReturn(Optional.empty());
+
+    String target = documentService.storeFile(file(CONTENT));
+
+    assertEquals(TARGET, target);
+    ArgumentCaptor<String> stagingName = ArgumentCaptor.forClass(String.class);
+    verify(fileService).stageFile(stagingName.capture(), any(), eq((long) CONTENT.length), any());
+    assertTrue(stagingName.getValue().startsWith(FileService.STAGING_BASE_PATH));
+    verify(fileService).commitStagedFile(stagingName.getValue(), TARGET);
+    verify(fileService, never()).deleteFile(anyString());
+  }
+
+  @Test
+  @DisplayName("Known content is not committed again and its staging object is removed")
+  void given_known_content_should_drop_staged_file() throws Exception {
+    stageLikeStorage();
+    when(documentRepository.findByTarget(TARGET)).thenReturn(Optional.of(new Document()));
+
+    String target = documentService.storeFile(file(CONTENT));
+
+    assertEquals(TARGET, target);
+    verify(fileService, never()).commitStagedFile(anyString(), anyString());
+    verify(fileService).deleteFile(startsWith(FileService.STAGING_BASE_PATH));
+  }
+
+  @Test
+  @DisplayName("Files over the size limit are rejected")
+  void given_too_big_file_should_reject_upload() throws Exception {
+    assertThrows(FileTooBigException.class, () -> documentService.storeFile(file(new byte[2048])));
+    verify(fileService, never()).stageFile(anyString(), any(), anyLong(), any());
+  }
+
+  @Test
+  @DisplayName("Streams growing over the size limit are aborted and their staging object removed")
+  void given_stream_over_limit_should_abort_upload() throws Exception {
+    stageLikeStorage();
+    MockMultipartFile file =
+        new MockMultipartFile("file", "payload.sh", "text/x-sh", new byte[2048]) {
+          @Override
+          public long getSize() {
+            return -1;
+          }
+        };
+
+    assertThrows(FileTooBigException.class, () -> documentService.storeFile(file));
+    verify(fileService).deleteFile(startsWith(FileService.STAGING_BASE_PATH));
+    verify(fileService, never()).commitStagedFile(anyString(), anyString());
+  }
+}
@@ -0,0 +1,131 @@
+package io.openbas.rest.exercise.service;
+
+import static io.openbas.utils.InjectExpectationResultUtils.getExpectationResultByTypesFromCounts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.openbas.IntegrationTest;
+import io.openbas.database.model.*;
+import io.openbas.database.model.InjectExpectation.EXPECTATION_TYPE;
+import io.openbas.database.repository.*;
+import io.openbas.migration.V4_14__Exercise_score_snapshots;
+import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
+import io.openbas.utils.ResultUtils;
+import io.openbas.utils.fixtures.AgentFixture;
+import io.openbas.utils.fixtures.EndpointFixture;
+import io.openbas.utils.fixtures.ExerciseFixture;
+import io.openbas.utils.fixtures.InjectFixture;
+import io.openbas.utils.fixtures.TeamFixture;
+import io.openbas.utils.fixtures.UserFixture;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.util.*;
+import javax.sql.DataSource;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@DisplayName("Simulation score snapshots stored in database")
+class ExerciseScoreSnapshotIntegrationTest extends IntegrationTest {
+
+  private static final List<Double> SCORES = Arrays.asList(null, 0.0, 25.0, 50.0, 100.0);
+  private static final Double EXPECTED_SCORE = 50.0;
+
+  @Autowired private ExerciseRepository exerciseRepository;
+  @Autowired private InjectRepository injectRepository;
+  @Autowired private TeamRepository teamRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private EndpointRepository endpointRepository;
+  @Autowired private AgentRepository agentRepository;
+  @Autowired private InjectExpectationRepository injectExpectationRepository;
+  @Autowired private ResultUtils resultUtils;
+  @Autowired private EntityManager entityManager;
+  @Autowired private DataSource dataSource;
+
+  private Exercise exercise;
+  private Set<String> injectIds;
+
+  private void saveExpectation(
+      Inject inject, EXPECTATION_TYPE type, Double score, Team team, User user, Agent agent) {
+    InjectExpectation expectation = new InjectExpectation();
+    expectation.setInject(inject);
+    expectation.setExercise(exercise);
+    expectation.setType(type);
+    expectation.setTeam(team);
+    expectation.setUser(user);
+    if (agent != null) {
+      expectation.setAgent(agent);
+      expectation.setAsset(agent.getAsset());
+    }
+    expectation.setScore(score);
+    expectation.setExpectedScore(EXPECTED_SCORE);
+    expectation.setExpirationTime(3600L);
+    injectExpectationRepository.save(expectation);
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    exercise = exerciseRepository.save(ExerciseFixture.createDefaultIncidentResponseExercise());
+    Team team = teamRepository.save(TeamFixture.getDefaultTeam());
+    User player = userRepository.save(UserFixture.getUserWithDefaultEmail());
+    Endpoint endpoint = endpointRepository.save(EndpointFixture.createEndpoint());
+    Agent agent = agentRepository.save(AgentFixture.createAgent(endpoint, "snapshot-agent"));
+
+    List<EXPECTATION_TYPE> types =
+        List.of(EXPECTATION_TYPE.MANUAL, EXPECTATION_TYPE.PREVENTION, EXPECTATION_TYPE.DETECTION);
+    injectIds = new HashSet<>();
+    for (EXPECTATION_TYPE type : types) {
+      Inject inject = InjectFixture.getDefaultInject();
+      inject.setExercise(exercise);
+      inject = injectRepository.save(inject);
+      injectIds.add(inject.getId());
+      // Team and asset expectations of every score, including partial ones
+      for (Double score : SCORES) {
+        saveExpectation(inject, type, score, team, null, null);
+        saveExpectation(inject, type, score, null, null, null);
+      }
+      // Player and agent expectations are not part of the global score
+      saveExpectation(inject, type, 0.0, team, player, null);
+      saveExpectation(inject, type, 0.0, null, null, agent);
+    }
+    entityManager.flush();
+  }
+
+  private List<ExpectationResultsByType> snapshotResults() {
+    return getExpectationResultByTypesFromCounts(
+        exerciseRepository.rawScoreSnapshotsByExerciseIds(new String[] {exercise.getId()}));
+  }
+
+  @Test
+  @DisplayName("Refreshed snapshot gives the same results as the expectations")
+  void given_refreshed_snapshot_should_match_live_results() {
+    exerciseRepository.upsertScoreSnapshots(new String[] {exercise.getId()});
+
+    List<ExpectationResultsByType> live = resultUtils.getResultsByTypes(injectIds);
+    assertFalse(live.isEmpty());
+    assertEquals(live, snapshotResults());
+  }
+
+  @Test
+  @DisplayName("Backfilled snapshot gives the same results as the expectations")
+  void given_backfilled_snapshot_should_match_live_results() throws Exception {
+    entityManager
+        .createNativeQuery("DELETE FROM exercise_score_snapshots WHERE exercise_id = :id")
+        .setParameter("id", exercise.getId())
+        .executeUpdate();
+
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    Context context = mock(Context.class);
+    when(context.getConnection()).thenReturn(connection);
+    new V4_14__Exercise_score_snapshots().migrate(context);
+
+    assertEquals(resultUtils.getResultsByTypes(injectIds), snapshotResults());
+  }
+}
@@ -0,0 +1,86 @@
+package io.openbas.rest.exercise.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.database.model.InjectExpectation.EXPECTATION_TYPE;
+import io.openbas.database.raw.RawExerciseExpectationCount;
+import io.openbas.database.repository.ExerciseRepository;
+import io.openbas.utils.InjectExpectationResultUtils;
+import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
+import io.openbas.utils.ResultUtils;
+import io.openbas.utils.fixtures.ExpectationResultsByTypeFixture;
+import java.util.*;
+import lombok.Builder;
+import lombok.Getter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Simulation score snapshots")
+class ExerciseScoreSnapshotServiceTest {
+
+  @Mock private ExerciseRepository exerciseRepository;
+  @Mock private ResultUtils resultUtils;
+
+  private ExerciseScoreSnapshotService exerciseScoreSnapshotService;
+
+  @BeforeEach
+  void setUp() {
+    exerciseScoreSnapshotService =
+        new ExerciseScoreSnapshotService(exerciseRepository, resultUtils);
+  }
+
+  @Getter
+  @Builder
+  private static class Count implements RawExerciseExpectationCount {
+    private String exercise_id;
+    private String inject_expectation_type;
+    private long success_count;
+    private long partial_count;
+    private long failed_count;
+    private long pending_count;
+  }
+
+  @Test
+  @DisplayName("Simulations are read from their snapshots in one query, others computed live")
+  void given_snapshot_and_missing_simulation_should_only_compute_missing_one() {
+    String snapshotExerciseId = "3e95b1ea-8957-4452-b0f7-edf4003eaa98";
+    String liveExerciseId = "c740797e-e34c-4066-a16c-a8baad9058f9";
+    Set<String> liveInjectIds = Set.of("bf05a17a-af6b-4238-9c3e-296db7f07d00");
+
+    when(exerciseRepository.rawScoreSnapshotsByExerciseIds(any()))
+        .thenReturn(
+            List.of(
+                Count.builder()
+                    .exercise_id(snapshotExerciseId)
+                    .inject_expectation_type(EXPECTATION_TYPE.DETECTION.name())
+                    .success_count(2)
+                    .failed_count(1)
+                    .build()));
+    when(exerciseRepository.findInjectsByExercise(liveExerciseId)).thenReturn(liveInjectIds);
+    when(resultUtils.getResultsByTypes(liveInjectIds))
+        .thenReturn(ExpectationResultsByTypeFixture.exercise2GlobalScores);
+
+    Map<String, List<ExpectationResultsByType>> results =
+        exerciseScoreSnapshotService.getGlobalResults(List.of(snapshotExerciseId, liveExerciseId));
+
+    List<ExpectationResultsByType> snapshotResults = results.get(snapshotExerciseId);
+    assertEquals(1, snapshotResults.size());
+    assertEquals(
+        List.of(2, 0, 0, 1),
+        snapshotResults.getFirst().distribution().stream()
+            .map(InjectExpectationResultUtils.ResultDistribution::value)
+            .toList());
+    assertEquals(
+        ExpectationResultsByTypeFixture.exercise2GlobalScores, results.get(liveExerciseId));
+    verify(exerciseRepository, never()).findInjectsByExercise(snapshotExerciseId);
+  }
+}
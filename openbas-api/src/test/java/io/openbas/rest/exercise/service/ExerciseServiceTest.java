@@ -91,6 +91,7 @@ class ExerciseServiceTest extends IntegrationTest {
             tagRuleService,
             documentService,
             injectService,
+            new ExerciseScoreSnapshotService(exerciseRepository, resultUtils),
             exerciseMapper,
             injectMapper,
             resultUtils,
@@ -0,0 +1,127 @@
+package io.openbas.rest.finding;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.database.model.ContractOutputType;
+import io.openbas.database.model.Finding;
+import io.openbas.database.raw.RawFindingAssets;
+import io.openbas.database.repository.FindingRepository;
+import io.openbas.rest.asset.endpoint.form.EndpointSimple;
+import io.openbas.rest.finding.FindingDistinctSearchService.DistinctFindingScope;
+import io.openbas.rest.finding.form.AggregatedFindingOutput;
+import io.openbas.utils.mapper.*;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Distinct findings")
+class FindingDistinctSearchServiceTest {
+
+  private static final String ENDPOINT_ID = "0c8ab5b4-6bd0-4f3c-9a3a-0b1f9c2b6c11";
+
+  @Mock private FindingRepository findingRepository;
+
+  private FindingDistinctSearchService findingDistinctSearchService;
+
+  @BeforeEach
+  void setUp() {
+    FindingMapper findingMapper =
+        new FindingMapper(
+            findingRepository,
+            mock(EndpointMapper.class),
+            mock(AssetGroupMapper.class),
+            mock(ExerciseMapper.class),
+            mock(ScenarioMapper.class),
+            mock(InjectMapper.class));
+    findingDistinctSearchService =
+        new FindingDistinctSearchService(findingRepository, findingMapper);
+  }
+
+  @Getter
+  @Builder
+  private static class Assets implements RawFindingAssets {
+    private String finding_type;
+    private String finding_value;
+    private long asset_count;
+    private List<String> asset_ids;
+    private List<String> asset_names;
+  }
+
+  private static Finding finding(String id, ContractOutputType type, String value) {
+    Finding finding = new Finding();
+    finding.setId(id);
+    finding.setType(type);
+    finding.setValue(value);
+    return finding;
+  }
+
+  @Test
+  @DisplayName("Endpoints of the page findings are aggregated in one query, by (type, value)")
+  void given_page_should_aggregate_endpoints_by_type_value() {
+    Finding cve = finding("finding-1", ContractOutputType.CVE, "CVE-2024-0001");
+    Finding port = finding("finding-2", ContractOutputType.Port, "CVE-2024-0001");
+    Page<Finding> page = new PageImpl<>(List.of(cve, port), PageRequest.of(0, 20), 2);
+    when(findingRepository.aggregateEndpointsByTypeValue(
+            new String[] {ContractOutputType.CVE.name(), ContractOutputType.Port.name()},
+            new String[] {"CVE-2024-0001", "CVE-2024-0001"},
+            null,
+            null,
+            null,
+            ENDPOINT_ID,
+            true,
+            100))
+        .thenReturn(
+            List.of(
+                Assets.builder()
+                    .finding_type(ContractOutputType.CVE.name())
+                    .finding_value("CVE-2024-0001")
+                    .asset_count(250)
+                    .asset_ids(List.of(ENDPOINT_ID))
+                    .asset_names(List.of("endpoint"))
+                    .build()));
+
+    Page<AggregatedFindingOutput> results =
+        findingDistinctSearchService.searchDistinctByScope(
+            new DistinctFindingScope(null, null, null, ENDPOINT_ID, true), page);
+
+    AggregatedFindingOutput cveOutput = results.getContent().get(0);
+    assertEquals("finding-1", cveOutput.getId());
+    assertEquals(250, cveOutput.getEndpointCount());
+    assertEquals(
+        List.of(EndpointSimple.builder().id(ENDPOINT_ID).name("endpoint").build()),
+        List.copyOf(cveOutput.getEndpoints()));
+    AggregatedFindingOutput portOutput = results.getContent().get(1);
+    assertEquals(0, portOutput.getEndpointCount());
+    assertTrue(portOutput.getEndpoints().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Empty pages do not query the endpoints")
+  void given_empty_page_should_not_query() {
+    Page<AggregatedFindingOutput> results =
+        findingDistinctSearchService.searchDistinctByScope(
+            new DistinctFindingScope(null, null, null, null, true), Page.empty());
+
+    assertTrue(results.isEmpty());
+    verify(findingRepository, never())
+        .aggregateEndpointsByTypeValue(
+            any(), any(), any(), any(), any(), any(), eq(true), anyInt());
+  }
+}
@@ -1,5 +1,6 @@
 package io.openbas.rest.scenario;
 
+import static io.openbas.injectors.channel.ChannelContract.CHANNEL_PUBLISH;
 import static io.openbas.injectors.email.EmailContract.EMAIL_DEFAULT;
 import static io.openbas.utils.fixtures.ArticleFixture.ARTICLE_NAME;
 import static io.openbas.utils.fixtures.ArticleFixture.getArticle;
@@ -12,25 +13,37 @@ import static io.openbas.utils.fixtures.TeamFixture.getTeam;
 import static io.openbas.utils.fixtures.UserFixture.getUser;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.openbas.IntegrationTest;
+import io.openbas.database.audit.BaseEvent;
+import io.openbas.database.audit.ModelBaseListener;
 import io.openbas.database.model.*;
 import io.openbas.database.repository.*;
+import io.openbas.injectors.channel.model.ChannelContent;
 import io.openbas.service.LoadService;
 import io.openbas.service.ScenarioService;
 import io.openbas.service.ScenarioToExerciseService;
+import io.openbas.utils.fixtures.EndpointFixture;
 import io.openbas.utils.fixtures.ScenarioFixture;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
+@Slf4j
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@RecordApplicationEvents
 class ScenarioToExerciseServiceTest extends IntegrationTest {
 
   @Autowired private ScenarioToExerciseService scenarioToExerciseService;
@@ -48,6 +61,11 @@ class ScenarioToExerciseServiceTest extends IntegrationTest {
   @Autowired private InjectRepository injectRepository;
   @Autowired private VariableRepository variableRepository;
   @Autowired private InjectorContractRepository injectorContractRepository;
+  @Autowired private ScenarioRepository scenarioRepository;
+  @Autowired private ArticleRepository articleRepository;
+  @Autowired private EndpointRepository endpointRepository;
+  @Autowired private ObjectMapper mapper;
+  @Autowired private ApplicationEvents applicationEvents;
 
   private static String SCENARIO_ID;
   private static String EXERCISE_ID;
@@ -283,4 +301,196 @@ class ScenarioToExerciseServiceTest extends IntegrationTest {
     // Injects
     assertEquals(1, exerciseSaved.getInjects().size());
   }
+
+  /**
+   * Scenario whose injects are chained by dependencies, all of them linked to a tag, an asset, a
+   * document and every team, the last one publishing an article
+   */
+  private Scenario scenarioWithLinkedInjects(int injectCount, int teamCount) {
+    Scenario scenario = this.scenarioRepository.save(ScenarioFixture.getScenario());
+    User user = this.userRepository.save(getUser());
+    List<Team> teams = new ArrayList<>();
+    for (int i = 0; i < teamCount; i++) {
+      teams.add(this.teamRepository.save(getTeam(user, "Team " + i, i % 2 == 0)));
+    }
+    scenario.setTeams(teams);
+    scenario.setTeamUsers(
+        teams.stream()
+            .map(
+                team -> {
+                  ScenarioTeamUser scenarioTeamUser = new ScenarioTeamUser();
+                  scenarioTeamUser.setScenario(scenario);
+                  scenarioTeamUser.setTeam(team);
+                  scenarioTeamUser.setUser(user);
+                  return scenarioTeamUser;
+                })
+            .collect(Collectors.toCollection(ArrayList::new)));
+    Tag tag = this.tagRepository.save(getTag());
+    Asset asset = this.endpointRepository.save(EndpointFixture.createEndpoint());
+    Document document = this.documentRepository.save(getDocumentJpeg());
+    scenario.setDocuments(new ArrayList<>(List.of(document)));
+
+    Channel channel = new Channel();
+    channel.setName("A channel");
+    Article article = getArticle(this.channelRepository.save(channel));
+    article.setScenario(scenario);
+    article.setDocuments(new ArrayList<>(List.of(document)));
+    scenario.setArticles(new ArrayList<>(List.of(this.articleRepository.save(article))));
+
+    InjectorContract emailContract =
+        this.injectorContractRepository.findById(EMAIL_DEFAULT).orElseThrow();
+    InjectDependencyConditions.Condition condition = new InjectDependencyConditions.Condition();
+    condition.setKey("Execution");
+    condition.setValue(true);
+    condition.setOperator(InjectDependencyConditions.DependencyOperator.eq);
+    InjectDependencyConditions.InjectDependencyCondition dependencyCondition =
+        new InjectDependencyConditions.InjectDependencyCondition();
+    dependencyCondition.setMode(InjectDependencyConditions.DependencyMode.and);
+    dependencyCondition.setConditions(List.of(condition));
+
+    Set<Inject> injects = new HashSet<>();
+    Inject previous = null;
+    for (int i = 0; i < injectCount; i++) {
+      Inject inject = getInjectForEmailContract(emailContract);
+      inject.setTitle("Inject " + i);
+      inject.setDependsDuration((long) i * 60);
+      inject.setScenario(scenario);
+      inject.setTags(new HashSet<>(Set.of(tag)));
+      inject.setTeams(new ArrayList<>(teams));
+      inject.setAssets(new ArrayList<>(List.of(asset)));
+      InjectDocument injectDocument = new InjectDocument();
+      injectDocument.setInject(inject);
+      injectDocument.setDocument(document);
+      injectDocument.setAttached(false);
+      inject.getDocuments().add(injectDocument);
+      if (previous != null) {
+        InjectDependency dependency = new InjectDependency();
+        dependency.getCompositeId().setInjectParent(previous);
+        dependency.getCompositeId().setInjectChildren(inject);
+        dependency.setInjectDependencyCondition(dependencyCondition);
+        inject.getDependsOn().add(dependency);
+      }
+      previous = this.injectRepository.save(inject);
+      injects.add(previous);
+    }
+    ChannelContent channelContent = new ChannelContent();
+    channelContent.setArticles(List.of(scenario.getArticles().getFirst().getId()));
+    Inject channelInject =
+        getInjectForEmailContract(
+            this.injectorContractRepository.findById(CHANNEL_PUBLISH).orElseThrow());
+    channelInject.setTitle("Publication");
+    channelInject.setScenario(scenario);
+    channelInject.setContent(mapper.valueToTree(channelContent));
+    injects.add(this.injectRepository.save(channelInject));
+    scenario.setInjects(injects);
+    return scenario;
+  }
+
+  @DisplayName("Injects and their links are copied to the simulation")
+  @Test
+  @Transactional
+  void given_scenario_with_linked_injects_should_copy_them_identically() throws Exception {
+    // -- PREPARE --
+    Scenario scenario = scenarioWithLinkedInjects(3, 2);
+    Map<String, Inject> scenarioInjects =
+        scenario.getInjects().stream().collect(Collectors.toMap(Inject::getTitle, i -> i));
+
+    // -- EXECUTE --
+    Exercise exercise = this.scenarioToExerciseService.toExercise(scenario, null, false);
+
+    // -- ASSERT --
+    List<Team> teams = exercise.getTeams();
+    assertEquals(scenario.getTeams().size(), teams.size());
+    assertEquals(scenario.getTeamUsers().size(), exercise.getTeamUsers().size());
+    assertEquals(1, exercise.getDocuments().size());
+    Map<String, Inject> exerciseInjects =
+        this.injectRepository.findByExerciseId(exercise.getId()).stream()
+            .collect(Collectors.toMap(Inject::getTitle, i -> i));
+    assertEquals(scenarioInjects.keySet(), exerciseInjects.keySet());
+    scenarioInjects.forEach(
+        (title, scenarioInject) -> {
+          Inject exerciseInject = exerciseInjects.get(title);
+          assertNotEquals(scenarioInject.getId(), exerciseInject.getId());
+          assertNull(exerciseInject.getScenario());
+          assertEquals(scenarioInject.getDescription(), exerciseInject.getDescription());
+          assertEquals(scenarioInject.isEnabled(), exerciseInject.isEnabled());
+          assertEquals(scenarioInject.isAllTeams(), exerciseInject.isAllTeams());
+          assertEquals(scenarioInject.getDependsDuration(), exerciseInject.getDependsDuration());
+          assertEquals(
+              scenarioInject.getInjectorContract().map(InjectorContract::getId),
+              exerciseInject.getInjectorContract().map(InjectorContract::getId));
+          assertEquals(
+              scenarioInject.getTags().stream().map(Tag::getId).collect(Collectors.toSet()),
+              exerciseInject.getTags().stream().map(Tag::getId).collect(Collectors.toSet()));
+          assertEquals(
+              scenarioInject.getAssets().stream().map(Asset::getId).toList(),
+              exerciseInject.getAssets().stream().map(Asset::getId).toList());
+          assertEquals(
+              scenarioInject.getDocuments().stream()
+                  .map(d -> d.getDocument().getId() + ":" + d.isAttached())
+                  .toList(),
+              exerciseInject.getDocuments().stream()
+                  .map(d -> d.getDocument().getId() + ":" + d.isAttached())
+                  .toList());
+          // Teams are the ones of the simulation, contextual teams being replaced by their copy
+          assertEquals(scenarioInject.getTeams().size(), exerciseInject.getTeams().size());
+          assertTrue(teams.containsAll(exerciseInject.getTeams()));
+          // Dependencies are between the injects of the simulation
+          assertEquals(
+              scenarioInject.getDependsOn().stream()
+                  .map(
+                      d ->
+                          d.getCompositeId().getInjectParent().getTitle()
+                              + d.getInjectDependencyCondition())
+                  .toList(),
+              exerciseInject.getDependsOn().stream()
+                  .map(
+                      d -> {
+                        assertEquals(
+                            exercise.getId(),
+                            d.getCompositeId().getInjectParent().getExercise().getId());
+                        return d.getCompositeId().getInjectParent().getTitle()
+                            + d.getInjectDependencyCondition();
+                      })
+                  .toList());
+        });
+    List<Team> scenarioContextualTeams =
+        scenario.getTeams().stream().filter(Team::getContextual).toList();
+    assertTrue(teams.stream().noneMatch(scenarioContextualTeams::contains));
+    // Articles published by the simulation are its own
+    ChannelContent channelContent =
+        mapper.treeToValue(exerciseInjects.get("Publication").getContent(), ChannelContent.class);
+    assertEquals(List.of(exercise.getArticles().getFirst().getId()), channelContent.getArticles());
+    // Creation of the injects copied in bulk is published like the one of the saved entities
+    Set<String> persistedInjectIds =
+        this.applicationEvents.stream(BaseEvent.class)
+            .filter(event -> ModelBaseListener.DATA_PERSIST.equals(event.getType()))
+            .filter(event -> event.getInstance() instanceof Inject)
+            .map(event -> event.getInstance().getId())
+            .collect(Collectors.toSet());
+    assertTrue(
+        persistedInjectIds.containsAll(
+            exerciseInjects.values().stream().map(Inject::getId).toList()));
+  }
+
+  @DisplayName("Benchmark of a large scenario instantiation")
+  @Test
+  @Transactional
+  @EnabledIfSystemProperty(named = "openbas.benchmark", matches = "true")
+  void benchmark_large_scenario_to_exercise() {
+    Scenario scenario = scenarioWithLinkedInjects(1500, 60);
+
+    long start = System.nanoTime();
+    Exercise exercise = this.scenarioToExerciseService.toExercise(scenario, null, false);
+    long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    log.info(
+        "Scenario with {} injects and {} teams instantiated in {} ms",
+        scenario.getInjects().size(),
+        scenario.getTeams().size(),
+        duration);
+    assertEquals(
+        scenario.getInjects().size(),
+        this.injectRepository.findByExerciseId(exercise.getId()).size());
+  }
 }
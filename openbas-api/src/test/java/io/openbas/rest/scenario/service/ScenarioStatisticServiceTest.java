@@ -9,6 +9,7 @@ import io.openbas.IntegrationTest;
 import io.openbas.database.raw.RawFinishedExerciseWithInjects;
 import io.openbas.database.repository.ExerciseRepository;
 import io.openbas.expectation.ExpectationType;
+import io.openbas.rest.exercise.service.ExerciseScoreSnapshotService;
 import io.openbas.rest.scenario.response.GlobalScoreBySimulationEndDate;
 import io.openbas.rest.scenario.response.ScenarioStatistic;
 import io.openbas.utils.ResultUtils;
@@ -34,7 +35,11 @@ class ScenarioStatisticServiceTest extends IntegrationTest {
 
   @BeforeEach
   void setUp() {
-    scenarioStatisticService = new ScenarioStatisticService(exerciseRepository, resultUtils);
+    scenarioStatisticService =
+        new ScenarioStatisticService(
+            exerciseRepository,
+            new ExerciseScoreSnapshotService(exerciseRepository, resultUtils),
+            resultUtils);
   }
 
   @Test
@@ -0,0 +1,141 @@
+package io.openbas.rest.statistic;
+
+import static io.openbas.utils.InjectExpectationResultUtils.getExpectationResultByTypes;
+import static io.openbas.utils.InjectExpectationResultUtils.getExpectationResultByTypesFromCounts;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.openbas.IntegrationTest;
+import io.openbas.database.model.*;
+import io.openbas.database.model.InjectExpectation.EXPECTATION_TYPE;
+import io.openbas.database.raw.RawInjectExpectationCount;
+import io.openbas.database.repository.*;
+import io.openbas.migration.V4_13__Statistic_inject_expectations;
+import io.openbas.utils.InjectExpectationResultUtils;
+import io.openbas.utils.InjectExpectationResultUtils.ExpectationResultsByType;
+import io.openbas.utils.fixtures.ExerciseFixture;
+import io.openbas.utils.fixtures.InjectFixture;
+import io.openbas.utils.fixtures.TeamFixture;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import javax.sql.DataSource;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+@DisplayName("Home statistics computed from rollups")
+class StatisticRollupEquivalenceTest extends IntegrationTest {
+
+  private static final List<Double> SCORES = Arrays.asList(null, 0.0, 25.0, 50.0, 100.0);
+  private static final Double EXPECTED_SCORE = 50.0;
+
+  @Autowired private ExerciseRepository exerciseRepository;
+  @Autowired private InjectRepository injectRepository;
+  @Autowired private TeamRepository teamRepository;
+  @Autowired private InjectExpectationRepository injectExpectationRepository;
+  @Autowired private EntityManager entityManager;
+  @Autowired private DataSource dataSource;
+
+  private Instant from;
+  private String[] injectIds;
+
+  @BeforeEach
+  void beforeEach() {
+    Exercise exercise = ExerciseFixture.createDefaultIncidentResponseExercise();
+    exercise = exerciseRepository.save(exercise);
+    Team team = teamRepository.save(TeamFixture.getDefaultTeam());
+
+    List<EXPECTATION_TYPE> types =
+        List.of(EXPECTATION_TYPE.MANUAL, EXPECTATION_TYPE.PREVENTION, EXPECTATION_TYPE.DETECTION);
+    Inject[] injects = new Inject[types.size()];
+    for (int i = 0; i < types.size(); i++) {
+      Inject inject = InjectFixture.getDefaultInject();
+      inject.setExercise(exercise);
+      injects[i] = injectRepository.save(inject);
+      // Team and asset expectations of every score, including partial ones
+      for (Team expectationTeam : Arrays.asList(null, team)) {
+        for (Double score : SCORES) {
+          InjectExpectation expectation = new InjectExpectation();
+          expectation.setInject(injects[i]);
+          expectation.setExercise(exercise);
+          expectation.setType(types.get(i));
+          expectation.setTeam(expectationTeam);
+          expectation.setScore(score);
+          expectation.setExpectedScore(EXPECTED_SCORE);
+          expectation.setExpirationTime(3600L);
+          injectExpectationRepository.save(expectation);
+        }
+      }
+    }
+    injectIds = Arrays.stream(injects).map(Inject::getId).toArray(String[]::new);
+
+    // Only the simulation of the test is in the time range of the statistics
+    Instant createdAt = Instant.now().plus(3650, ChronoUnit.DAYS);
+    entityManager.flush();
+    entityManager
+        .createNativeQuery(
+            "UPDATE exercises SET exercise_created_at = :createdAt WHERE exercise_id = :id")
+        .setParameter("createdAt", createdAt)
+        .setParameter("id", exercise.getId())
+        .executeUpdate();
+    from = createdAt.minus(1, ChronoUnit.DAYS);
+  }
+
+  private List<ExpectationResultsByType> liveResults() {
+    return getExpectationResultByTypes(
+        exerciseRepository.allInjectExpectationsFromDate(from),
+        InjectExpectationResultUtils::getScoresFromRaw);
+  }
+
+  private List<ExpectationResultsByType> rollupResults() {
+    return getExpectationResultByTypesFromCounts(
+        exerciseRepository.globalExpectationCountsFromDate(from));
+  }
+
+  @Test
+  @DisplayName("Refreshed rollups give the same results as the expectations")
+  void given_refreshed_rollups_should_match_live_results() {
+    injectExpectationRepository.upsertStatisticRollups(injectIds);
+
+    List<ExpectationResultsByType> live = liveResults();
+    assertFalse(live.isEmpty());
+    assertEquals(live, rollupResults());
+
+    // Non zero scores below the expected score are partial, for teams as for assets
+    for (RawInjectExpectationCount count :
+        exerciseRepository.globalExpectationCountsFromDate(from)) {
+      assertEquals(4, count.getSuccess_count());
+      assertEquals(2, count.getPartial_count());
+      assertEquals(2, count.getFailed_count());
+      assertEquals(2, count.getPending_count());
+    }
+  }
+
+  @Test
+  @DisplayName("Backfilled rollups give the same results as the expectations")
+  void given_backfilled_rollups_should_match_live_results() throws Exception {
+    entityManager
+        .createNativeQuery(
+            "DELETE FROM statistic_inject_expectations WHERE inject_id = ANY(cast(:ids as text[]))")
+        .setParameter("ids", injectIds)
+        .executeUpdate();
+
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    Context context = mock(Context.class);
+    when(context.getConnection()).thenReturn(connection);
+    new V4_13__Statistic_inject_expectations().migrate(context);
+
+    assertEquals(liveResults(), rollupResults());
+  }
+}
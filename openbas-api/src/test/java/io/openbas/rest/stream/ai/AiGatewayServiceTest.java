@@ -0,0 +1,118 @@
+package io.openbas.rest.stream.ai;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openbas.authorisation.HttpClientFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.X509TrustManager;
+import org.junit.jupiter.api.*;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.Delay;
+import org.mockserver.socket.PortFactory;
+import org.mockserver.verify.VerificationTimes;
+import reactor.core.Disposable;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("AI gateway tests against a stub completion server")
+class AiGatewayServiceTest {
+
+  private static final String COMPLETIONS_PATH = "/v1/chat/completions";
+  private static final String STREAM =
+      """
+      data: {"id": "chunk", "choices": [{"delta": {"content": "Hello"}}]}
+
+      data: {"id": "chunk", "choices": [{"delta": {"content": " world"}}]}
+
+      data: [DONE]
+
+      """;
+
+  private ClientAndServer completionStub;
+  private HttpClientFactory httpClientFactory;
+  private AiGatewayService aiGatewayService;
+
+  @BeforeAll
+  void beforeAll() {
+    completionStub = ClientAndServer.startClientAndServer(PortFactory.findFreePort());
+  }
+
+  @AfterAll
+  void afterAll() {
+    completionStub.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    completionStub.reset();
+    AiConfig aiConfig = new AiConfig();
+    aiConfig.setEnabled(true);
+    aiConfig.setType("mistralai");
+    aiConfig.setEndpoint("http://localhost:" + completionStub.getLocalPort());
+    aiConfig.setModel("mistral");
+    aiConfig.setMaxConcurrentGenerations(1);
+    aiConfig.setQueueTimeout(Duration.ofMillis(200));
+    httpClientFactory = new HttpClientFactory(mock(X509TrustManager.class));
+    aiGatewayService = new AiGatewayService(aiConfig, httpClientFactory, new ObjectMapper());
+    aiGatewayService.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    httpClientFactory.close();
+  }
+
+  private void stubCompletion(Delay delay) {
+    completionStub
+        .when(request().withMethod("POST").withPath(COMPLETIONS_PATH))
+        .respond(
+            response()
+                .withStatusCode(200)
+                .withHeader("Content-Type", "text/event-stream")
+                .withBody(STREAM)
+                .withDelay(delay));
+  }
+
+  private static String content(List<AiResult> results) {
+    return String.join("", results.stream().map(AiResult::getContent).toList());
+  }
+
+  @Test
+  @DisplayName("Completed generations are reused for identical prompts")
+  void given_identical_prompt_should_reuse_completed_generation() throws JsonProcessingException {
+    stubCompletion(Delay.milliseconds(0));
+
+    List<AiResult> generated = aiGatewayService.generate("prompt").collectList().block();
+    List<AiResult> reused = aiGatewayService.generate("prompt").collectList().block();
+
+    assertEquals(2, generated.size());
+    assertEquals("Hello world", content(generated));
+    assertEquals(1, reused.size());
+    assertEquals("Hello world", content(reused));
+    completionStub.verify(
+        request().withMethod("POST").withPath(COMPLETIONS_PATH), VerificationTimes.once());
+  }
+
+  @Test
+  @DisplayName("Generations beyond the concurrency wait, and a disconnect frees its slot")
+  void given_generation_in_progress_should_queue_and_free_on_cancel() throws Exception {
+    stubCompletion(Delay.delay(TimeUnit.SECONDS, 2));
+
+    Disposable inProgress = aiGatewayService.generate("first").subscribe();
+    Thread.sleep(100);
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () -> aiGatewayService.generate("second").collectList().block());
+
+    inProgress.dispose();
+    List<AiResult> afterCancel = aiGatewayService.generate("third").collectList().block();
+
+    assertEquals("Hello world", content(afterCancel));
+  }
+}
@@ -0,0 +1,118 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openbas.service.AgentArtifactService.AgentArtifact;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Agent artifacts")
+class AgentArtifactServiceTest {
+
+  private static final String RESOURCE_PATH = "/openbas-agent/linux/";
+  private static final String INSTALLER = "openbas-agent-installer-test.sh";
+  private static final List<String> PLACEHOLDERS =
+      List.of("OPENBAS_URL", "OPENBAS_TOKEN", "OPENBAS_SERVICE_NAME", "OPENBAS_INSTALL_DIR");
+
+  @TempDir Path cacheDirectory;
+
+  private AgentArtifactService agentArtifactService;
+
+  @BeforeEach
+  void setUp() {
+    agentArtifactService =
+        new AgentArtifactService("local", "test", "repository-version", cacheDirectory.toString());
+  }
+
+  @Test
+  @DisplayName("Artifacts are copied once in the cache, with their checksum")
+  void given_concurrent_requests_should_fetch_artifact_once() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<AgentArtifact>> futures = new ArrayList<>();
+    Callable<AgentArtifact> fetch =
+        () -> agentArtifactService.artifact(RESOURCE_PATH, INSTALLER).orElseThrow();
+    for (int i = 0; i < 16; i++) {
+      futures.add(executor.submit(fetch));
+    }
+    AgentArtifact artifact = futures.getFirst().get();
+    for (Future<AgentArtifact> future : futures) {
+      assertSame(artifact, future.get());
+    }
+    executor.shutdown();
+
+    assertEquals(cacheDirectory.resolve("openbas-agent/linux").resolve(INSTALLER), artifact.path());
+    assertEquals(
+        DigestUtils.sha256Hex(
+            getClass().getResourceAsStream("/agents" + RESOURCE_PATH + INSTALLER)),
+        artifact.checksum());
+    try (var files = Files.list(artifact.path().getParent())) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  @Test
+  @DisplayName("Unknown artifacts are empty")
+  void given_unknown_artifact_should_return_empty() throws IOException {
+    assertTrue(agentArtifactService.artifact(RESOURCE_PATH, "unknown.sh").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Corrupted cached artifacts are fetched again")
+  void given_corrupted_cache_should_fetch_again() throws IOException {
+    AgentArtifact artifact = agentArtifactService.artifact(RESOURCE_PATH, INSTALLER).orElseThrow();
+    Files.writeString(artifact.path(), "corrupted");
+
+    AgentArtifact fetchedAgain =
+        new AgentArtifactService("local", "test", "repository-version", cacheDirectory.toString())
+            .artifact(RESOURCE_PATH, INSTALLER)
+            .orElseThrow();
+
+    assertEquals(artifact.checksum(), fetchedAgain.checksum());
+    assertNotEquals("corrupted", Files.readString(fetchedAgain.path()));
+  }
+
+  @Test
+  @DisplayName("Installer placeholders are substituted, shell variables are kept")
+  void given_installer_should_render_placeholders() throws IOException {
+    AgentInstallerTemplate template =
+        agentArtifactService
+            .installerTemplate(RESOURCE_PATH, INSTALLER, PLACEHOLDERS)
+            .orElseThrow();
+    assertSame(
+        template,
+        agentArtifactService
+            .installerTemplate(RESOURCE_PATH, INSTALLER, PLACEHOLDERS)
+            .orElseThrow());
+
+    String script =
+        template.render(
+            Map.of(
+                "OPENBAS_URL", "https://openbas.local",
+                "OPENBAS_TOKEN", "token",
+                "OPENBAS_SERVICE_NAME", "openbas-agent",
+                "OPENBAS_INSTALL_DIR", "/opt/openbas-agent"));
+
+    String expected =
+        Files.readString(
+                Path.of(getClass().getResource("/agents" + RESOURCE_PATH + INSTALLER).getPath()))
+            .replace("${OPENBAS_URL}", "https://openbas.local")
+            .replace("${OPENBAS_TOKEN}", "token")
+            .replace("${OPENBAS_SERVICE_NAME}", "openbas-agent")
+            .replace("${OPENBAS_INSTALL_DIR}", "/opt/openbas-agent");
+    assertEquals(expected, script);
+    assertTrue(script.contains("${HOME}"));
+  }
+}
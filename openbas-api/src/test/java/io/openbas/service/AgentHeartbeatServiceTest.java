@@ -0,0 +1,112 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.database.model.Agent;
+import io.openbas.database.model.Endpoint;
+import io.openbas.database.repository.AgentRepository;
+import io.openbas.rest.asset.endpoint.form.EndpointRegisterInput;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Agent heartbeats")
+class AgentHeartbeatServiceTest {
+
+  private static final String AGENT_ID = "5d9b3a36-5c85-4a2c-a7a4-8c1e5e4c2a11";
+
+  @Mock private AgentRepository agentRepository;
+
+  private AgentHeartbeatService agentHeartbeatService;
+
+  @BeforeEach
+  void setUp() {
+    agentHeartbeatService = new AgentHeartbeatService(agentRepository, Duration.ofMinutes(10));
+  }
+
+  private static EndpointRegisterInput registerInput() {
+    EndpointRegisterInput input = new EndpointRegisterInput();
+    input.setExternalReference("external01");
+    input.setName("endpoint");
+    input.setHostname("endpoint");
+    input.setIps(new String[] {"192.168.1.10"});
+    input.setMacAddresses(new String[] {"00:1b:44:11:3a:b7"});
+    input.setAgentVersion("1.0.0");
+    return input;
+  }
+
+  private static Agent registeredAgent() {
+    Endpoint endpoint = new Endpoint();
+    endpoint.setId("e2b0a5a4-0e4c-4a39-9d5b-2f6a0b0b4d1e");
+    Agent agent = new Agent();
+    agent.setId(AGENT_ID);
+    agent.setAsset(endpoint);
+    return agent;
+  }
+
+  @Test
+  @DisplayName("Payloads with the same content have the same hash")
+  void given_payloads_should_hash_content() {
+    EndpointRegisterInput changed = registerInput();
+    changed.setSeenIp("10.0.0.1");
+
+    assertEquals(
+        agentHeartbeatService.payloadHash(registerInput()),
+        agentHeartbeatService.payloadHash(registerInput()));
+    assertNotEquals(
+        agentHeartbeatService.payloadHash(registerInput()),
+        agentHeartbeatService.payloadHash(changed));
+  }
+
+  @Test
+  @DisplayName("Unknown payloads require a full registration")
+  void given_unknown_payload_should_return_empty() {
+    String hash = agentHeartbeatService.payloadHash(registerInput());
+
+    assertTrue(agentHeartbeatService.heartbeat(hash, Instant.now()).isEmpty());
+    agentHeartbeatService.flush();
+    verify(agentRepository, never()).updateLastSeen(any(), any());
+  }
+
+  @Test
+  @DisplayName("Heartbeats of a registered payload are written in one statement, latest date kept")
+  void given_registered_payload_should_coalesce_last_seen() {
+    Agent agent = registeredAgent();
+    String hash = agentHeartbeatService.payloadHash(registerInput());
+    agentHeartbeatService.registered(hash, agent);
+    when(agentRepository.findById(AGENT_ID)).thenReturn(Optional.of(agent));
+
+    Instant first = Instant.parse("2025-03-01T10:00:00Z");
+    Instant second = Instant.parse("2025-03-01T10:00:30Z");
+    assertSame(agent.getAsset(), agentHeartbeatService.heartbeat(hash, second).orElseThrow());
+    assertSame(agent.getAsset(), agentHeartbeatService.heartbeat(hash, first).orElseThrow());
+    agentHeartbeatService.flush();
+    agentHeartbeatService.flush();
+
+    verify(agentRepository)
+        .updateLastSeen(new String[] {AGENT_ID}, new String[] {second.toString()});
+  }
+
+  @Test
+  @DisplayName("Payloads of a deleted agent require a full registration again")
+  void given_deleted_agent_should_forget_payload() {
+    String hash = agentHeartbeatService.payloadHash(registerInput());
+    agentHeartbeatService.registered(hash, registeredAgent());
+    when(agentRepository.findById(AGENT_ID)).thenReturn(Optional.empty());
+
+    assertTrue(agentHeartbeatService.heartbeat(hash, Instant.now()).isEmpty());
+    assertTrue(agentHeartbeatService.heartbeat(hash, Instant.now()).isEmpty());
+    verify(agentRepository).findById(AGENT_ID);
+  }
+}
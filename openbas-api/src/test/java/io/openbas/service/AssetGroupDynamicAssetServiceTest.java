@@ -0,0 +1,179 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.openbas.database.model.Endpoint;
+import io.openbas.database.raw.RawAssetGroupDynamicFilter;
+import io.openbas.database.repository.AssetGroupRepository;
+import io.openbas.database.repository.EndpointRepository;
+import io.openbas.utils.fixtures.EndpointFixture;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Materialized dynamic assets of asset groups")
+class AssetGroupDynamicAssetServiceTest {
+
+  @Mock private AssetGroupRepository assetGroupRepository;
+  @Mock private EndpointRepository endpointRepository;
+
+  @InjectMocks private AssetGroupDynamicAssetService assetGroupDynamicAssetService;
+
+  private static RawAssetGroupDynamicFilter rawFilter(String assetGroupId, String filter) {
+    return new RawAssetGroupDynamicFilter() {
+      @Override
+      public String getAsset_group_id() {
+        return assetGroupId;
+      }
+
+      @Override
+      public String getAsset_group_dynamic_filter() {
+        return filter;
+      }
+    };
+  }
+
+  private static String platformFilter(String platform) {
+    return """
+        {"mode": "and", "filters": [{"key": "endpoint_platform", "operator": "eq", "values": ["%s"]}]}
+        """
+        .formatted(platform);
+  }
+
+  @Test
+  @DisplayName("An updated endpoint only moves between the groups whose filter changed its result")
+  void given_updated_endpoint_should_apply_membership_difference() {
+    Endpoint endpoint = EndpointFixture.createEndpoint();
+    endpoint.setId("endpoint-id");
+    endpoint.setPlatform(Endpoint.PLATFORM_TYPE.Linux);
+    when(assetGroupRepository.rawDynamicFilters())
+        .thenReturn(
+            List.of(
+                rawFilter("linux-group", platformFilter("Linux")),
+                rawFilter("windows-group", platformFilter("Windows")),
+                rawFilter("static-group", "{\"mode\": \"and\", \"filters\": []}")));
+    when(assetGroupRepository.rawDynamicAssetGroupIdsByAssetIds(List.of("endpoint-id")))
+        .thenReturn(List.<Object[]>of(new Object[] {"endpoint-id", "windows-group"}));
+    // Filters evaluated by the database in the order of the groups, only the Linux one matching
+    when(endpointRepository.findAll(any(Specification.class)))
+        .thenReturn(List.of(endpoint))
+        .thenReturn(List.of());
+
+    assetGroupDynamicAssetService.refreshEndpoints(List.of("endpoint-id"));
+
+    verify(endpointRepository, times(2)).findAll(any(Specification.class));
+    verify(assetGroupRepository).addDynamicAssets("linux-group", new String[] {"endpoint-id"});
+    verify(assetGroupRepository).removeDynamicAssets("windows-group", new String[] {"endpoint-id"});
+  }
+
+  @Test
+  @DisplayName("An unchanged membership does not write anything")
+  void given_unchanged_endpoint_should_not_write() {
+    Endpoint endpoint = EndpointFixture.createEndpoint();
+    endpoint.setId("endpoint-id");
+    endpoint.setPlatform(Endpoint.PLATFORM_TYPE.Linux);
+    when(assetGroupRepository.rawDynamicFilters())
+        .thenReturn(List.of(rawFilter("linux-group", platformFilter("Linux"))));
+    when(assetGroupRepository.rawDynamicAssetGroupIdsByAssetIds(List.of("endpoint-id")))
+        .thenReturn(List.<Object[]>of(new Object[] {"endpoint-id", "linux-group"}));
+    when(endpointRepository.findAll(any(Specification.class))).thenReturn(List.of(endpoint));
+
+    assetGroupDynamicAssetService.refreshEndpoints(List.of("endpoint-id"));
+
+    verify(assetGroupRepository, never()).addDynamicAssets(any(), any());
+    verify(assetGroupRepository, never()).removeDynamicAssets(any(), any());
+  }
+
+  @Test
+  @DisplayName("Endpoints saved together are written with one statement per asset group")
+  void given_several_endpoints_should_write_membership_per_asset_group() {
+    Endpoint first = EndpointFixture.createEndpoint();
+    first.setId("endpoint-1");
+    first.setPlatform(Endpoint.PLATFORM_TYPE.Linux);
+    Endpoint second = EndpointFixture.createEndpoint();
+    second.setId("endpoint-2");
+    second.setPlatform(Endpoint.PLATFORM_TYPE.Linux);
+    when(assetGroupRepository.rawDynamicFilters())
+        .thenReturn(List.of(rawFilter("linux-group", platformFilter("Linux"))));
+    when(assetGroupRepository.rawDynamicAssetGroupIdsByAssetIds(anyCollection()))
+        .thenReturn(List.of());
+    when(endpointRepository.findAll(any(Specification.class))).thenReturn(List.of(first, second));
+
+    assetGroupDynamicAssetService.refreshEndpoints(List.of("endpoint-1", "endpoint-2"));
+
+    verify(assetGroupRepository, times(1))
+        .addDynamicAssets("linux-group", new String[] {"endpoint-1", "endpoint-2"});
+    verify(assetGroupRepository, times(1)).rawDynamicAssetGroupIdsByAssetIds(anyCollection());
+    verify(endpointRepository, times(1)).findAll(any(Specification.class));
+  }
+
+  @Test
+  @DisplayName("A filter that cannot be evaluated keeps the current membership")
+  void given_failing_filter_should_keep_current_membership() {
+    when(assetGroupRepository.rawDynamicFilters())
+        .thenReturn(List.of(rawFilter("linux-group", platformFilter("Linux"))));
+    when(assetGroupRepository.rawDynamicAssetGroupIdsByAssetIds(List.of("endpoint-id")))
+        .thenReturn(List.<Object[]>of(new Object[] {"endpoint-id", "linux-group"}));
+    when(endpointRepository.findAll(any(Specification.class)))
+        .thenThrow(new IllegalArgumentException("Unknown attribute"));
+
+    assetGroupDynamicAssetService.refreshEndpoints(List.of("endpoint-id"));
+
+    verify(assetGroupRepository, never()).addDynamicAssets(any(), any());
+    verify(assetGroupRepository, never()).removeDynamicAssets(any(), any());
+  }
+
+  @Test
+  @DisplayName("A group without dynamic filter loses all its dynamic assets")
+  void given_empty_filter_should_remove_all_members() {
+    when(assetGroupRepository.dynamicAssetIdsByAssetGroupId("group-id"))
+        .thenReturn(Set.of("endpoint-1"));
+
+    assetGroupDynamicAssetService.refreshAssetGroup("group-id", null);
+
+    verify(assetGroupRepository).removeDynamicAssets("group-id", new String[] {"endpoint-1"});
+    verify(assetGroupRepository, never()).addDynamicAssets(any(), any());
+    verifyNoInteractions(endpointRepository);
+  }
+
+  @Test
+  @DisplayName("Dynamic assets of several groups are read with one membership query")
+  void given_group_ids_should_group_members_by_asset_group() {
+    Endpoint first = EndpointFixture.createEndpoint();
+    first.setId("endpoint-1");
+    Endpoint second = EndpointFixture.createEndpoint();
+    second.setId("endpoint-2");
+    when(endpointRepository.rawDynamicAssetIdsByAssetGroupIds(anyCollection()))
+        .thenReturn(
+            List.of(
+                new Object[] {"group-1", "endpoint-1"},
+                new Object[] {"group-2", "endpoint-1"},
+                new Object[] {"group-2", "endpoint-2"}));
+    when(endpointRepository.findAllById(any())).thenReturn(List.of(first, second));
+
+    Map<String, List<Endpoint>> dynamicAssets =
+        assetGroupDynamicAssetService.dynamicAssets(List.of("group-1", "group-2", "group-3"));
+
+    assertEquals(List.of(first), dynamicAssets.get("group-1"));
+    assertEquals(List.of(first, second), dynamicAssets.get("group-2"));
+    assertFalse(dynamicAssets.containsKey("group-3"));
+    ArgumentCaptor<Iterable<String>> ids = ArgumentCaptor.forClass(Iterable.class);
+    verify(endpointRepository, times(1)).findAllById(ids.capture());
+    assertEquals(Set.of("endpoint-1", "endpoint-2"), ids.getValue());
+    verify(endpointRepository, times(1))
+        .rawDynamicAssetIdsByAssetGroupIds(eq(List.of("group-1", "group-2", "group-3")));
+  }
+}
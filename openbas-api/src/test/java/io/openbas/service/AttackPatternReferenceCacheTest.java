@@ -0,0 +1,85 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.openbas.database.model.KillChainPhase;
+import io.openbas.database.raw.RawAttackPattern;
+import io.openbas.database.repository.AttackPatternRepository;
+import io.openbas.database.repository.KillChainPhaseRepository;
+import io.openbas.service.AttackPatternReferenceCache.AttackPatternReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Attack pattern references")
+class AttackPatternReferenceCacheTest {
+
+  @Mock private AttackPatternRepository attackPatternRepository;
+  @Mock private KillChainPhaseRepository killChainPhaseRepository;
+  @Mock private RawAttackPattern rawAttackPattern;
+
+  private AttackPatternReferenceCache attackPatternReferenceCache;
+
+  @BeforeEach
+  void setUp() {
+    attackPatternReferenceCache =
+        new AttackPatternReferenceCache(
+            attackPatternRepository, killChainPhaseRepository, Duration.ofMinutes(5));
+  }
+
+  private static KillChainPhase killChainPhase(String id, String name, long order) {
+    KillChainPhase killChainPhase = new KillChainPhase();
+    killChainPhase.setId(id);
+    killChainPhase.setName(name);
+    killChainPhase.setOrder(order);
+    return killChainPhase;
+  }
+
+  @Test
+  @DisplayName("Attack patterns are loaded once, with their kill chain phases in order")
+  void given_attack_patterns_should_load_snapshot_once() {
+    when(killChainPhaseRepository.findAll())
+        .thenReturn(
+            List.of(
+                killChainPhase("execution", "Execution", 4),
+                killChainPhase("discovery", "Discovery", 9)));
+    when(rawAttackPattern.getAttack_pattern_id()).thenReturn("T1059");
+    when(rawAttackPattern.getAttack_pattern_name()).thenReturn("Command and Scripting");
+    when(rawAttackPattern.getAttack_pattern_external_id()).thenReturn("T1059");
+    when(rawAttackPattern.getAttack_pattern_kill_chain_phases())
+        .thenReturn(Set.of("discovery", "execution"));
+    when(attackPatternRepository.rawAll()).thenReturn(List.of(rawAttackPattern));
+
+    Map<String, AttackPatternReference> references =
+        attackPatternReferenceCache.references(List.of("T1059"));
+    attackPatternReferenceCache.references(List.of("T1059"));
+
+    AttackPatternReference reference = references.get("T1059");
+    assertEquals("Command and Scripting", reference.name());
+    assertEquals("execution", reference.killChainPhases().get(0).getId());
+    assertEquals("discovery", reference.killChainPhases().get(1).getId());
+    verify(attackPatternRepository, times(1)).rawAll();
+  }
+
+  @Test
+  @DisplayName("Unknown attack patterns do not reload the snapshot on every request")
+  void given_unknown_attack_pattern_should_not_reload_immediately() {
+    when(killChainPhaseRepository.findAll()).thenReturn(List.of());
+    when(attackPatternRepository.rawAll()).thenReturn(List.of());
+
+    assertTrue(attackPatternReferenceCache.references(List.of("unknown")).isEmpty());
+    assertTrue(attackPatternReferenceCache.references(List.of("unknown")).isEmpty());
+    verify(attackPatternRepository, times(1)).rawAll();
+  }
+}
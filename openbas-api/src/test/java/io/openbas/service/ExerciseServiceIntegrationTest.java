@@ -15,6 +15,7 @@ import io.openbas.database.model.*;
 import io.openbas.database.repository.*;
 import io.openbas.ee.Ee;
 import io.openbas.rest.document.DocumentService;
+import io.openbas.rest.exercise.service.ExerciseScoreSnapshotService;
 import io.openbas.rest.exercise.service.ExerciseService;
 import io.openbas.rest.inject.service.InjectDuplicateService;
 import io.openbas.rest.inject.service.InjectService;
@@ -50,6 +51,7 @@ class ExerciseServiceIntegrationTest extends IntegrationTest {
   @Autowired private ExerciseMapper exerciseMapper;
   @Autowired private InjectMapper injectMapper;
   @Autowired private ResultUtils resultUtils;
+  @Autowired private ExerciseScoreSnapshotService exerciseScoreSnapshotService;
   @Mock private ActionMetricCollector actionMetricCollector;
   @Autowired private ArticleRepository articleRepository;
   @Autowired private ExerciseRepository exerciseRepository;
@@ -84,6 +86,7 @@ class ExerciseServiceIntegrationTest extends IntegrationTest {
             tagRuleService,
             documentService,
             injectService,
+            exerciseScoreSnapshotService,
             exerciseMapper,
             injectMapper,
             resultUtils,
@@ -0,0 +1,111 @@
+package io.openbas.service;
+
+import static io.openbas.rest.payload.service.PayloadExportService.ZIP_PASSWORD;
+import static io.openbas.service.ImportService.EXPORT_ENTRY_ATTACHMENT;
+import static io.openbas.service.ImportService.EXPORT_ENTRY_SCENARIO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openbas.importer.V1_DataImporter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Archive import")
+class ImportServiceTest {
+
+  @Mock private V1_DataImporter v1DataImporter;
+
+  private ImportService importService;
+
+  @BeforeEach
+  void before() {
+    importService = new ImportService();
+    importService.setV1_dataImporter(v1DataImporter);
+    ReflectionTestUtils.setField(importService, "mapper", new ObjectMapper());
+  }
+
+  private static void putEntry(ZipOutputStream zip, String name, String comment, byte[] content)
+      throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setComment(comment);
+    zip.putNextEntry(entry);
+    zip.write(content);
+    zip.closeEntry();
+  }
+
+  private static byte[] encryptedArchive(String name, String content) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (net.lingala.zip4j.io.outputstream.ZipOutputStream encryptedZip =
+        new net.lingala.zip4j.io.outputstream.ZipOutputStream(buffer, ZIP_PASSWORD.toCharArray())) {
+      ZipParameters params = new ZipParameters();
+      params.setEncryptFiles(true);
+      params.setEncryptionMethod(EncryptionMethod.ZIP_STANDARD);
+      params.setFileNameInZip(name);
+      encryptedZip.putNextEntry(params);
+      encryptedZip.write(content.getBytes(StandardCharsets.UTF_8));
+      encryptedZip.closeEntry();
+    }
+    return buffer.toByteArray();
+  }
+
+  @Test
+  @DisplayName("Attachments are read from the archive when the importer needs them")
+  void given_archive_should_expose_attachments_lazily() throws Exception {
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+      putEntry(
+          zip,
+          "scenario.json",
+          EXPORT_ENTRY_SCENARIO,
+          "{\"export_version\": 1}".getBytes(StandardCharsets.UTF_8));
+      putEntry(
+          zip, "document.txt", EXPORT_ENTRY_ATTACHMENT, "plain".getBytes(StandardCharsets.UTF_8));
+      putEntry(zip, "attachments.zip", null, encryptedArchive("encrypted.txt", "secret"));
+    }
+
+    Map<String, String> contents = new HashMap<>();
+    Map<String, Long> lengths = new HashMap<>();
+    doAnswer(
+            invocation -> {
+              Map<String, ImportEntry> docReferences = invocation.getArgument(1);
+              for (Map.Entry<String, ImportEntry> reference : docReferences.entrySet()) {
+                try (InputStream data = reference.getValue().getData()) {
+                  contents.put(
+                      reference.getKey(), new String(data.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                lengths.put(reference.getKey(), reference.getValue().getContentLength());
+              }
+              return null;
+            })
+        .when(v1DataImporter)
+        .importData(any(), anyMap(), any(), any());
+
+    importService.handleFileImport(
+        new MockMultipartFile("file", "export.zip", "application/zip", archive.toByteArray()),
+        null,
+        null);
+
+    assertEquals(Map.of("document.txt", "plain", "encrypted.txt", "secret"), contents);
+    assertEquals(Map.of("document.txt", 5L, "encrypted.txt", 6L), lengths);
+  }
+}
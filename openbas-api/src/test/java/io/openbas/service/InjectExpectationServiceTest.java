@@ -2,13 +2,17 @@ package io.openbas.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 import io.openbas.database.model.*;
 import io.openbas.database.repository.*;
+import io.openbas.utils.TargetType;
 import io.openbas.utils.fixtures.*;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -91,4 +95,36 @@ class InjectExpectationServiceTest {
     assertEquals(2, result.size());
     assertEquals(manualExpectation.getId(), result.get(0).getId());
   }
+
+  @Test
+  void findMergedExpectationsByInjectAndTargetsAndTargetType_OneQueryForThePage() {
+    // Arrange
+    Inject inject = InjectFixture.getDefaultInject();
+    inject.setId("inject-id");
+    Team firstTeam = TeamFixture.getTeam(null, "first", false);
+    firstTeam.setId("team-1");
+    Team secondTeam = TeamFixture.getTeam(null, "second", false);
+    secondTeam.setId("team-2");
+    InjectExpectation firstPrevention =
+        InjectExpectationFixture.createPreventionInjectExpectation(firstTeam, inject);
+    InjectExpectation firstDetection =
+        InjectExpectationFixture.createDetectionInjectExpectation(firstTeam, inject);
+    InjectExpectation secondPrevention =
+        InjectExpectationFixture.createPreventionInjectExpectation(secondTeam, inject);
+
+    when(mockedInjectExpectationRepository.findAllByInjectAndTeams(any(), any()))
+        .thenReturn(List.of(firstPrevention, firstDetection, secondPrevention));
+
+    // Act
+    Map<String, List<InjectExpectation>> result =
+        testInjectExpectationService.findMergedExpectationsByInjectAndTargetsAndTargetType(
+            inject.getId(), Set.of("team-1", "team-2", "team-3"), TargetType.TEAMS.name());
+
+    // Assert
+    assertEquals(2, result.get("team-1").size());
+    assertEquals(List.of(secondPrevention), result.get("team-2"));
+    assertNull(result.get("team-3"));
+    verify(mockedInjectExpectationRepository, times(1)).findAllByInjectAndTeams(any(), any());
+    verifyNoMoreInteractions(mockedInjectExpectationRepository);
+  }
 }
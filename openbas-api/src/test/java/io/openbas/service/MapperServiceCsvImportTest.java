@@ -0,0 +1,113 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openbas.database.model.Endpoint;
+import io.openbas.database.model.Tag;
+import io.openbas.database.repository.EndpointRepository;
+import io.openbas.database.repository.ImportMapperRepository;
+import io.openbas.database.repository.InjectorContractRepository;
+import io.openbas.rest.mapper.response.CsvImportResult;
+import io.openbas.rest.tag.TagService;
+import io.openbas.rest.tag.form.TagCreateInput;
+import io.openbas.utils.TargetType;
+import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Endpoint CSV import")
+class MapperServiceCsvImportTest {
+
+  @Mock private ImportMapperRepository importMapperRepository;
+  @Mock private InjectorContractRepository injectorContractRepository;
+  @Mock private EndpointRepository endpointRepository;
+  @Mock private TagService tagService;
+  @Mock private EntityManager entityManager;
+  @Mock private Session session;
+
+  private MapperService mapperService;
+
+  @BeforeEach
+  void before() {
+    mapperService =
+        new MapperService(
+            importMapperRepository,
+            injectorContractRepository,
+            endpointRepository,
+            tagService,
+            new ObjectMapper());
+    ReflectionTestUtils.setField(mapperService, "entityManager", entityManager);
+  }
+
+  private static MockMultipartFile csv(String... rows) {
+    String content =
+        "\"name\",\"description\",\"hostname\",\"ips\",\"platform\",\"arch\",\"macAddresses\",\"tags\"\n"
+            + String.join("\n", rows);
+    return new MockMultipartFile(
+        "file", "endpoints.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String row(String name, String platform, String tags) {
+    return "\"%s\",\"desc\",\"%s\",\"[\"\"1.1.1.1\"\"]\",\"%s\",\"x86_64\",\"[\"\"aa:aa:aa:aa:aa:aa\"\"]\",\"%s\""
+        .formatted(name, name, platform, tags);
+  }
+
+  @Test
+  @DisplayName("Tags are upserted once per chunk and invalid rows are reported by line")
+  void given_rows_should_upsert_tags_once_and_report_invalid_rows() throws Exception {
+    Tag ransomware = new Tag();
+    ransomware.setId("tag-id");
+    ransomware.setName("ransomware");
+    when(tagService.upsertTags(anyCollection())).thenReturn(Map.of("ransomware", ransomware));
+    when(entityManager.unwrap(Session.class)).thenReturn(session);
+    // No session specific batch size, the configured default applies
+    when(session.getJdbcBatchSize()).thenReturn(null);
+    String tag = "[{\"\"tag_name\"\":\"\"Ransomware\"\",\"\"tag_color\"\":\"\"#8fd671\"\"}]";
+
+    CsvImportResult result =
+        mapperService.importMappersCsv(
+            csv(
+                row("first", "Windows", tag),
+                row("broken", "NotAPlatform", tag),
+                row("second", "Linux", tag)),
+            TargetType.ENDPOINTS);
+
+    assertEquals(2, result.getImportedCount());
+    assertEquals(1, result.getErrors().size());
+    assertEquals(3, result.getErrors().getFirst().getLine());
+
+    ArgumentCaptor<Collection<TagCreateInput>> tagInputs =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(tagService, times(1)).upsertTags(tagInputs.capture());
+    assertEquals(2, tagInputs.getValue().size());
+
+    ArgumentCaptor<List<Endpoint>> endpoints = ArgumentCaptor.forClass(List.class);
+    verify(endpointRepository, times(1)).saveAll(endpoints.capture());
+    assertEquals(
+        List.of("first", "second"), endpoints.getValue().stream().map(Endpoint::getName).toList());
+    endpoints.getValue().forEach(endpoint -> assertEquals(1, endpoint.getTags().size()));
+    verify(entityManager).flush();
+    // Batching is scoped to the import session
+    InOrder batching = inOrder(session, endpointRepository);
+    batching.verify(session).setJdbcBatchSize(500);
+    batching.verify(endpointRepository).saveAll(anyCollection());
+    batching.verify(session).setJdbcBatchSize(null);
+  }
+}
@@ -35,7 +35,6 @@ public class MapperServiceTest extends IntegrationTest {
   @Mock private InjectorContractRepository injectorContractRepository;
   @Mock private EndpointRepository endpointRepository;
   @Mock private ObjectMapper objectMapper;
-  @Mock private EndpointService endpointService;
   @Mock private TagService tagService;
 
   private MapperService mapperService;
@@ -48,7 +47,6 @@ public class MapperServiceTest extends IntegrationTest {
             importMapperRepository,
             injectorContractRepository,
             endpointRepository,
-            endpointService,
             tagService,
             objectMapper);
   }
@@ -1,34 +1,49 @@
 package io.openbas.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import io.openbas.IntegrationTest;
+import io.openbas.database.model.NotificationOutboxEvent;
 import io.openbas.database.model.NotificationRuleResourceType;
+import io.openbas.database.repository.NotificationOutboxEventRepository;
 import io.openbas.notification.handler.ScenarioNotificationEventHandler;
 import io.openbas.notification.model.NotificationEvent;
 import io.openbas.notification.model.NotificationEventType;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @SpringBootTest
 public class NotificationEvenServiceTest extends IntegrationTest {
 
   @Mock private ApplicationEventPublisher appPublisher;
   @Mock private ScenarioNotificationEventHandler scenarioNotificationEventHandler;
-  @Mock private ThreadPoolTaskScheduler taskScheduler;
+  @Mock private NotificationOutboxEventRepository notificationOutboxEventRepository;
+  @Mock private PlatformTransactionManager transactionManager;
 
   private NotificationEventService notificationEventService;
 
   @BeforeEach
   public void setUp() {
     notificationEventService =
-        new NotificationEventService(appPublisher, scenarioNotificationEventHandler, taskScheduler);
+        new NotificationEventService(
+            appPublisher,
+            scenarioNotificationEventHandler,
+            notificationOutboxEventRepository,
+            new TransactionTemplate(transactionManager));
   }
 
   @Test
@@ -56,4 +71,80 @@ public class NotificationEvenServiceTest extends IntegrationTest {
     notificationEventService.sendNotificationEvent(notificationEvent);
     verify(appPublisher).publishEvent(notificationEvent);
   }
+
+  @Test
+  public void test_send_event_with_delay() {
+    Instant timestamp = Instant.now();
+    NotificationEvent notificationEvent =
+        NotificationEvent.builder()
+            .eventType(NotificationEventType.SIMULATION_COMPLETED)
+            .resourceType(NotificationRuleResourceType.SCENARIO)
+            .timestamp(timestamp)
+            .resourceId("id")
+            .build();
+    notificationEventService.sendNotificationEventWithDelay(notificationEvent, 3600L);
+    verify(notificationOutboxEventRepository)
+        .enqueue(
+            any(),
+            eq(NotificationRuleResourceType.SCENARIO.name()),
+            eq("id"),
+            eq(NotificationEventType.SIMULATION_COMPLETED.name()),
+            eq(timestamp),
+            any());
+    verify(scenarioNotificationEventHandler, never()).handle(any());
+  }
+
+  private NotificationOutboxEvent outboxEvent(int attempts) {
+    NotificationOutboxEvent outboxEvent = new NotificationOutboxEvent();
+    outboxEvent.setId("event-id");
+    outboxEvent.setEventType(NotificationEventType.SIMULATION_COMPLETED.name());
+    outboxEvent.setResourceType(NotificationRuleResourceType.SCENARIO);
+    outboxEvent.setResourceId("id");
+    outboxEvent.setTimestamp(Instant.now());
+    outboxEvent.setAttempts(attempts);
+    return outboxEvent;
+  }
+
+  @Test
+  public void test_handle_outbox_event() {
+    NotificationOutboxEvent outboxEvent = outboxEvent(0);
+    when(notificationOutboxEventRepository.claimNextAvailable(any()))
+        .thenReturn(Optional.of(outboxEvent));
+
+    assertTrue(notificationEventService.handleNextOutboxEvent());
+    verify(scenarioNotificationEventHandler).handle(any());
+    verify(notificationOutboxEventRepository).delete(outboxEvent);
+  }
+
+  @Test
+  public void test_handle_empty_outbox() {
+    when(notificationOutboxEventRepository.claimNextAvailable(any())).thenReturn(Optional.empty());
+
+    assertFalse(notificationEventService.handleNextOutboxEvent());
+    verify(scenarioNotificationEventHandler, never()).handle(any());
+  }
+
+  @Test
+  public void test_failed_outbox_event_is_postponed_then_dropped() {
+    doThrow(new IllegalStateException("SMTP down"))
+        .when(scenarioNotificationEventHandler)
+        .handle(any());
+    when(notificationOutboxEventRepository.claimNextAvailable(any()))
+        .thenReturn(Optional.of(outboxEvent(0)))
+        .thenReturn(Optional.of(outboxEvent(NotificationEventService.MAX_ATTEMPTS - 1)));
+
+    assertTrue(notificationEventService.handleNextOutboxEvent());
+    verify(notificationOutboxEventRepository).postpone(eq("event-id"), any());
+    verify(notificationOutboxEventRepository, never()).deleteById(any());
+
+    assertTrue(notificationEventService.handleNextOutboxEvent());
+    verify(notificationOutboxEventRepository).deleteById("event-id");
+  }
+
+  @Test
+  public void test_retry_delay() {
+    assertEquals(Duration.ofMinutes(1), NotificationEventService.retryDelay(1));
+    assertEquals(Duration.ofMinutes(8), NotificationEventService.retryDelay(4));
+    assertEquals(Duration.ofHours(1), NotificationEventService.retryDelay(20));
+  }
 }
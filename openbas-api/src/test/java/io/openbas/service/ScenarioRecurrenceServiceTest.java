@@ -0,0 +1,84 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openbas.database.model.Scenario;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Scenario recurrence")
+class ScenarioRecurrenceServiceTest {
+
+  private static final String EVERY_DAY_AT_TEN = "0 0 10 * * *";
+
+  private final ScenarioRecurrenceService scenarioRecurrenceService =
+      new ScenarioRecurrenceService();
+
+  private static Scenario recurringScenario(Instant start, Instant end) {
+    Scenario scenario = new Scenario();
+    scenario.setRecurrence(EVERY_DAY_AT_TEN);
+    scenario.setRecurrenceStart(start);
+    scenario.setRecurrenceEnd(end);
+    return scenario;
+  }
+
+  @Test
+  @DisplayName("Next occurrence is the first execution strictly after the date")
+  void given_date_should_return_next_execution() {
+    Scenario scenario = recurringScenario(null, null);
+
+    assertEquals(
+        Optional.of(Instant.parse("2025-03-02T10:00:00Z")),
+        scenarioRecurrenceService.nextOccurrence(scenario, Instant.parse("2025-03-01T10:00:00Z")));
+    assertEquals(
+        Optional.of(Instant.parse("2025-03-01T10:00:00Z")),
+        scenarioRecurrenceService.nextOccurrence(scenario, Instant.parse("2025-03-01T09:59:00Z")));
+  }
+
+  @Test
+  @DisplayName("Next occurrence is not before the start of the recurrence")
+  void given_future_start_should_return_execution_after_start() {
+    Scenario scenario = recurringScenario(Instant.parse("2025-03-05T12:00:00Z"), null);
+
+    assertEquals(
+        Optional.of(Instant.parse("2025-03-06T10:00:00Z")),
+        scenarioRecurrenceService.nextOccurrence(scenario, Instant.parse("2025-03-01T00:00:00Z")));
+  }
+
+  @Test
+  @DisplayName("No next occurrence after the end of the recurrence")
+  void given_end_before_next_execution_should_return_empty() {
+    Scenario scenario = recurringScenario(null, Instant.parse("2025-03-01T18:00:00Z"));
+
+    assertEquals(
+        Optional.empty(),
+        scenarioRecurrenceService.nextOccurrence(scenario, Instant.parse("2025-03-01T12:00:00Z")));
+  }
+
+  @Test
+  @DisplayName("Cron expressions are parsed once")
+  void given_same_expression_should_reuse_execution_time() {
+    assertSame(
+        scenarioRecurrenceService.executionTime(EVERY_DAY_AT_TEN),
+        scenarioRecurrenceService.executionTime(EVERY_DAY_AT_TEN));
+    assertThrows(
+        IllegalArgumentException.class, () -> scenarioRecurrenceService.executionTime("invalid"));
+  }
+
+  @Test
+  @DisplayName("Changing the recurrence resets the next occurrence")
+  void given_recurrence_change_should_schedule_again() {
+    Scenario scenario = recurringScenario(null, null);
+    scenarioRecurrenceService.scheduleNextOccurrence(scenario);
+    assertNotNull(scenario.getNextOccurrence());
+
+    scenario.setRecurrence("0 30 8 * * *");
+    assertNull(scenario.getNextOccurrence());
+    scenarioRecurrenceService.scheduleNextOccurrence(scenario);
+    assertEquals(
+        Optional.of(scenario.getNextOccurrence()),
+        scenarioRecurrenceService.nextOccurrence(scenario, Instant.now()));
+  }
+}
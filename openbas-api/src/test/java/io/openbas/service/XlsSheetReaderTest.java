@@ -0,0 +1,88 @@
+package io.openbas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.openbas.service.utils.InjectImportUtils;
+import io.openbas.service.utils.XlsSheetReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Spreadsheet row reader")
+class XlsSheetReaderTest {
+
+  @TempDir private Path tempDir;
+
+  private static final Date DATE =
+      Date.from(LocalDateTime.of(2025, 1, 1, 12, 0).toInstant(ZoneOffset.UTC));
+
+  private Path write(Workbook workbook, String fileName) throws Exception {
+    Sheet other = workbook.createSheet("Other");
+    other.createRow(0).createCell(0).setCellValue("ignored");
+    Sheet sheet = workbook.createSheet("Injects");
+    Row header = sheet.createRow(0);
+    header.createCell(0).setCellValue("type");
+    header.createCell(2).setCellValue("score");
+    // Row 1 is missing from the file
+    Row inject = sheet.createRow(2);
+    inject.createCell(0).setCellValue("mail");
+    inject.createCell(1).setCellValue(DATE);
+    inject.createCell(2).setCellValue(42);
+    for (int i = 3; i < 10; i++) {
+      sheet.createRow(i).createCell(0).setCellValue("sms " + i);
+    }
+    Path file = tempDir.resolve(fileName);
+    try (OutputStream outputStream = Files.newOutputStream(file)) {
+      workbook.write(outputStream);
+    }
+    workbook.close();
+    return file;
+  }
+
+  private static void assertRowsRead(Path file) throws Exception {
+    assertEquals(List.of("Other", "Injects"), XlsSheetReader.sheetNames(file));
+
+    List<String> rows = new ArrayList<>();
+    XlsSheetReader.readRows(
+        file,
+        "Injects",
+        row -> {
+          if (row.getRowNum() == 2) {
+            assertEquals(CellType.NUMERIC, row.getCell(2).getCellType());
+            assertEquals(42.0, InjectImportUtils.getValueAsDouble(row, "C"));
+            assertEquals(
+                DATE.toString(), InjectImportUtils.getDateAsStringFromCell(row, "B", null));
+          }
+          rows.add(row.getRowNum() + ":" + InjectImportUtils.getValueAsString(row, "A"));
+          return rows.size() < 4;
+        });
+
+    assertEquals(List.of("0:type", "2:mail", "3:sms 3", "4:sms 4"), rows);
+  }
+
+  @Test
+  @DisplayName("Rows of an xlsx file are streamed and reading stops when asked")
+  void given_xlsx_should_stream_rows() throws Exception {
+    assertRowsRead(write(new XSSFWorkbook(), "import.xlsx"));
+  }
+
+  @Test
+  @DisplayName("Rows of a legacy xls file are read the same way")
+  void given_xls_should_read_rows() throws Exception {
+    assertRowsRead(write(new HSSFWorkbook(), "import.xls"));
+  }
+}
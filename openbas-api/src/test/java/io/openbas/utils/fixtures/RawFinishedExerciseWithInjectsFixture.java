@@ -3,11 +3,17 @@ package io.openbas.utils.fixtures;
 import io.openbas.database.raw.RawFinishedExerciseWithInjects;
 import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 
 public class RawFinishedExerciseWithInjectsFixture {
 
-  private record TestableRawFinishedExerciseWithInjects(Instant endDate, Set<String> injectIds)
-      implements RawFinishedExerciseWithInjects {
+  private record TestableRawFinishedExerciseWithInjects(
+      String id, Instant endDate, Set<String> injectIds) implements RawFinishedExerciseWithInjects {
+
+    @Override
+    public String getExercise_id() {
+      return id;
+    }
 
     @Override
     public Instant getExercise_end_date() {
@@ -22,6 +28,7 @@ public class RawFinishedExerciseWithInjectsFixture {
 
   public static RawFinishedExerciseWithInjects createDefaultRawFinishedExerciseWithInjects(
       Instant endDate, Set<String> injectIds) {
-    return new TestableRawFinishedExerciseWithInjects(endDate, injectIds);
+    return new TestableRawFinishedExerciseWithInjects(
+        UUID.randomUUID().toString(), endDate, injectIds);
   }
 }
@@ -0,0 +1,7 @@
+#!/bin/sh
+set -e
+
+base_url="${OPENBAS_URL}"
+install_dir="${OPENBAS_INSTALL_DIR}"
+echo "Installing ${OPENBAS_SERVICE_NAME} in ${install_dir} from ${base_url} (${HOME})"
+curl -s -H "Authorization: Bearer ${OPENBAS_TOKEN}" "${base_url}/api/agent/executable/openbas/linux/x86_64" -o "${install_dir}/openbas-agent"
@@ -0,0 +1,299 @@
+package io.openbas.utils;
+
+import static io.openbas.database.model.Filters.FilterMode.and;
+import static io.openbas.database.model.Filters.FilterMode.or;
+import static io.openbas.schema.SchemaUtils.getFilterableProperties;
+import static io.openbas.schema.SchemaUtils.retrieveProperty;
+import static java.lang.invoke.MethodType.methodType;
+import static org.springframework.util.StringUtils.hasText;
+
+import io.openbas.database.model.Filters.Filter;
+import io.openbas.database.model.Filters.FilterGroup;
+import io.openbas.database.model.Filters.FilterMode;
+import io.openbas.database.model.Filters.FilterOperator;
+import io.openbas.schema.PropertySchema;
+import io.openbas.schema.SchemaUtils;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * Turns a {@link FilterGroup} into a reusable predicate. Property accessors are resolved once per
+ * class into method handles, constant operands are normalised once and compiled predicates are
+ * cached by filter group, so evaluating a filter over many objects only costs the comparisons.
+ */
+public class FilterCompilerRuntime {
+
+  private FilterCompilerRuntime() {}
+
+  private static final Predicate<Object> EMPTY_PREDICATE = (value) -> true;
+
+  private static final int CACHE_MAX_SIZE = 1024;
+
+  private static final Map<FilterGroupKey, Predicate<Object>> CACHE = new ConcurrentHashMap<>();
+
+  public static Predicate<Object> compileFilterGroupRuntime(
+      @Nullable final FilterGroup filterGroup) {
+    if (filterGroup == null) {
+      return EMPTY_PREDICATE;
+    }
+    FilterGroupKey key = FilterGroupKey.of(filterGroup);
+    Predicate<Object> compiled = CACHE.get(key);
+    if (compiled != null) {
+      return compiled;
+    }
+    if (CACHE.size() >= CACHE_MAX_SIZE) {
+      CACHE.clear();
+    }
+    return CACHE.computeIfAbsent(key, FilterCompilerRuntime::compile);
+  }
+
+  // -- COMPILATION --
+
+  private static Predicate<Object> compile(@NotNull final FilterGroupKey filterGroup) {
+    Predicate<Object> result = null;
+    for (FilterKey filter : filterGroup.filters()) {
+      Predicate<Object> compiled = compileFilter(filter);
+      if (result == null) {
+        result = compiled;
+      } else if (or.equals(filterGroup.mode())) {
+        result = result.or(compiled);
+      } else {
+        // Default case
+        result = result.and(compiled);
+      }
+    }
+    return result == null ? EMPTY_PREDICATE : result;
+  }
+
+  private static Predicate<Object> compileFilter(@NotNull final FilterKey filter) {
+    if (filter.values().isEmpty()) {
+      return EMPTY_PREDICATE;
+    }
+    return new CompiledFilter(filter.key(), compileOperation(filter.operator(), filter.values()));
+  }
+
+  /** Compiled filter on one property, accessors being resolved lazily for each visited class */
+  private static final class CompiledFilter implements Predicate<Object> {
+
+    private final Predicate<Object> operation;
+    private final ClassValue<PropertyAccessor> accessors;
+
+    private CompiledFilter(@NotBlank final String key, @NotNull final Predicate<Object> operation) {
+      this.operation = operation;
+      this.accessors =
+          new ClassValue<>() {
+            @Override
+            protected PropertyAccessor computeValue(Class<?> type) {
+              return PropertyAccessor.resolve(type, key);
+            }
+          };
+    }
+
+    @Override
+    public boolean test(Object object) {
+      if (object == null) {
+        return false;
+      }
+      Object value = this.accessors.get(object.getClass()).read(object);
+      if (value == null) {
+        return false;
+      }
+      if (value instanceof Map<?, ?> map) {
+        return map.values().stream().anyMatch(this.operation);
+      } else if (value instanceof Collection<?> collection) {
+        return collection.stream().anyMatch(this.operation);
+      } else if (value instanceof Object[] array) {
+        return Arrays.stream(array).anyMatch(this.operation);
+      }
+      return this.operation.test(value);
+    }
+  }
+
+  // -- ACCESSORS --
+
+  /**
+   * Reads the property backing a filter key. For properties declaring a path (for instance
+   * "tags.id"), the first segment is read on the object and the second one on each element.
+   */
+  private record PropertyAccessor(MethodHandle getter, @Nullable String subProperty) {
+
+    private static final ClassValue<Map<String, MethodHandle>> SUB_GETTERS =
+        new ClassValue<>() {
+          @Override
+          protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+          }
+        };
+
+    static PropertyAccessor resolve(@NotNull final Class<?> type, @NotBlank final String key) {
+      PropertySchema property =
+          retrieveProperty(getFilterableProperties(SchemaUtils.schema(type)), key);
+      String subProperty = null;
+      if (hasText(property.getPath()) && property.getPath().contains(".")) {
+        subProperty = property.getPath().substring(property.getPath().indexOf('.') + 1);
+      }
+      return new PropertyAccessor(getter(type, property.getName()), subProperty);
+    }
+
+    Object read(@NotNull final Object object) {
+      Object value = invoke(this.getter, object);
+      if (value == null || this.subProperty == null) {
+        return value;
+      }
+      if (value instanceof Collection<?> collection) {
+        return collection.stream().filter(Objects::nonNull).map(this::readSubProperty).toList();
+      }
+      return readSubProperty(value);
+    }
+
+    private Object readSubProperty(@NotNull final Object element) {
+      MethodHandle subGetter =
+          SUB_GETTERS
+              .get(element.getClass())
+              .computeIfAbsent(this.subProperty, name -> getter(element.getClass(), name));
+      return invoke(subGetter, element);
+    }
+
+    private static Object invoke(@NotNull final MethodHandle getter, @NotNull final Object object) {
+      try {
+        return getter.invokeExact(object);
+      } catch (Throwable e) {
+        throw new IllegalStateException("Unable to read filtered property", e);
+      }
+    }
+
+    /** Field along the class hierarchy first, no-arg method of the same name otherwise */
+    private static MethodHandle getter(@NotNull final Class<?> type, @NotBlank final String name) {
+      try {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+          Optional<Field> field =
+              Arrays.stream(current.getDeclaredFields())
+                  .filter(f -> f.getName().equals(name))
+                  .findFirst();
+          if (field.isPresent()) {
+            return MethodHandles.privateLookupIn(current, MethodHandles.lookup())
+                .unreflectGetter(field.get())
+                .asType(methodType(Object.class, Object.class));
+          }
+        }
+        Method method = type.getMethod(name);
+        return MethodHandles.publicLookup()
+            .unreflect(method)
+            .asType(methodType(Object.class, Object.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new IllegalArgumentException("Property " + name + " is not readable on " + type, e);
+      }
+    }
+  }
+
+  // -- OPERATOR --
+
+  private static Predicate<Object> compileOperation(
+      @Nullable final FilterOperator operator, @NotNull final List<String> texts) {
+    List<String> lowerTexts = texts.stream().map(text -> text.toLowerCase(Locale.ROOT)).toList();
+    if (operator == null) {
+      // Default case
+      return equalsTexts(texts, lowerTexts, false);
+    }
+    return switch (operator) {
+      case not_contains ->
+          value -> {
+            String lowerValue = lowerText(value);
+            return anyMatch(lowerTexts, text -> !lowerValue.contains(text));
+          };
+      case contains ->
+          value -> {
+            String lowerValue = lowerText(value);
+            return anyMatch(lowerTexts, lowerValue::contains);
+          };
+      case not_starts_with ->
+          value -> {
+            String lowerValue = lowerText(value);
+            return anyMatch(lowerTexts, text -> !lowerValue.startsWith(text));
+          };
+      case starts_with ->
+          value -> {
+            String lowerValue = lowerText(value);
+            return anyMatch(lowerTexts, lowerValue::startsWith);
+          };
+      case not_eq -> equalsTexts(texts, lowerTexts, true);
+      case empty -> value -> value.toString().isBlank();
+      case not_empty -> value -> !value.toString().isBlank();
+      default -> equalsTexts(texts, lowerTexts, false);
+    };
+  }
+
+  /**
+   * Equality of the value with any of the texts, or difference with any of them when negated.
+   * Booleans are compared to the parsed texts, other values case-insensitively to a precomputed set
+   * of lower-cased texts.
+   */
+  private static Predicate<Object> equalsTexts(
+      @NotNull final List<String> texts,
+      @NotNull final List<String> lowerTexts,
+      final boolean negated) {
+    Set<Boolean> booleans = new HashSet<>();
+    texts.forEach(text -> booleans.add(Boolean.parseBoolean(text)));
+    Set<String> lowerSet = new HashSet<>(lowerTexts);
+    if (negated) {
+      return value -> {
+        if (value instanceof Boolean) {
+          return booleans.size() > 1 || !booleans.contains(value);
+        }
+        return lowerSet.size() > 1 || !lowerSet.contains(value.toString().toLowerCase(Locale.ROOT));
+      };
+    }
+    return value ->
+        value instanceof Boolean
+            ? booleans.contains(value)
+            : lowerSet.contains(value.toString().toLowerCase(Locale.ROOT));
+  }
+
+  private static boolean anyMatch(
+      @NotNull final List<String> texts, @NotNull final Predicate<String> predicate) {
+    for (String text : texts) {
+      if (predicate.test(text)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Text compared by contains and starts with operators: name for enums, string otherwise */
+  private static String lowerText(@NotNull final Object value) {
+    String text = value instanceof Enum<?> enumValue ? enumValue.name() : value.toString();
+    return text.toLowerCase(Locale.ROOT);
+  }
+
+  // -- CACHE KEY --
+
+  private record FilterKey(String key, FilterOperator operator, List<String> values) {}
+
+  /** Immutable copy of a filter group, its hash identifies the compiled predicate */
+  private record FilterGroupKey(FilterMode mode, List<FilterKey> filters) {
+
+    static FilterGroupKey of(@NotNull final FilterGroup filterGroup) {
+      List<FilterKey> filters = new ArrayList<>();
+      for (Filter filter : Optional.ofNullable(filterGroup.getFilters()).orElse(List.of())) {
+        if (filter != null) {
+          filters.add(
+              new FilterKey(
+                  filter.getKey(),
+                  filter.getOperator(),
+                  Optional.ofNullable(filter.getValues())
+                      .map(values -> values.stream().filter(Objects::nonNull).toList())
+                      .orElse(List.of())));
+        }
+      }
+      return new FilterGroupKey(Optional.ofNullable(filterGroup.getMode()).orElse(and), filters);
+    }
+  }
+}
@@ -5,8 +5,10 @@ import { type FunctionComponent, useContext, useEffect, useMemo, useState } from
 import RGL, { type Layout, WidthProvider } from 'react-grid-layout';
 
 import { updateCustomDashboardWidgetLayout } from '../../../../actions/custom_dashboards/customdashboardwidget-action';
+import { widgets as fetchWidgetsData } from '../../../../actions/dashboards/dashboard-action';
 import { ErrorBoundary } from '../../../../components/Error';
 import { useFormatter } from '../../../../components/i18n';
+import { type WidgetDataOutput } from '../../../../utils/api-types';
 import { type Widget } from '../../../../utils/api-types-custom';
 import { CustomDashboardContext } from './CustomDashboardContext';
 import CustomDashboardHeader from './CustomDashboardHeader';
@@ -22,7 +24,9 @@ const CustomDashboardComponent: FunctionComponent<{ readOnly: boolean }> = ({ re
   const ReactGridLayout = useMemo(() => WidthProvider(RGL), []);
   const [fullscreenWidgets, setFullscreenWidgets] = useState<Record<Widget['widget_id'], boolean | never>>({});
 
-  const { customDashboard, setCustomDashboard } = useContext(CustomDashboardContext);
+  const { customDashboard, setCustomDashboard, customDashboardParameters } = useContext(CustomDashboardContext);
+  const [widgetsData, setWidgetsData] = useState<Record<Widget['widget_id'], WidgetDataOutput>>({});
+  const [loadingWidgetsData, setLoadingWidgetsData] = useState(true);
 
   const [idToResize, setIdToResize] = useState<string | null>(null);
   const handleResize = (updatedWidget: string | null) => setIdToResize(updatedWidget);
@@ -31,6 +35,22 @@ const CustomDashboardComponent: FunctionComponent<{ readOnly: boolean }> = ({ re
     window.dispatchEvent(new Event('resize'));
   }, [customDashboard]);
 
+  // Data of all the widgets fetched at once, again when a widget is added, updated or removed but not when moved
+  const widgetsKey = useMemo(() => JSON.stringify((customDashboard?.custom_dashboard_widgets ?? []).map(widget => [
+    widget.widget_id,
+    widget.widget_type,
+    widget.widget_config,
+  ])), [customDashboard?.custom_dashboard_widgets]);
+  useEffect(() => {
+    if (!customDashboard) return;
+    setLoadingWidgetsData(true);
+    fetchWidgetsData(customDashboard.custom_dashboard_id, customDashboardParameters).then((response: { data: WidgetDataOutput[] }) => {
+      if (response.data) {
+        setWidgetsData(Object.fromEntries(response.data.map(widgetData => [widgetData.widget_id, widgetData])));
+      }
+    }).finally(() => setLoadingWidgetsData(false));
+  }, [customDashboard?.custom_dashboard_id, widgetsKey, customDashboardParameters]);
+
   const handleWidgetCreate = (newWidget: Widget) => {
     setCustomDashboard((prev) => {
       if (!prev) return prev;
@@ -193,6 +213,8 @@ const CustomDashboardComponent: FunctionComponent<{ readOnly: boolean }> = ({ re
                     >
                       <WidgetViz
                         widget={widget}
+                        data={widgetsData[widget.widget_id]}
+                        loading={loadingWidgetsData}
                         fullscreen={fullscreenWidgets[widget.widget_id]}
                         setFullscreen={setFullscreen}
                       />
@@ -1,11 +1,9 @@
-import { memo, useContext, useEffect, useState } from 'react';
+import { memo } from 'react';
 
-import { attackPaths, entities, series } from '../../../../../actions/dashboards/dashboard-action';
 import { useFormatter } from '../../../../../components/i18n';
 import Loader from '../../../../../components/Loader';
-import { type EsAttackPath, type EsBase, type EsSeries } from '../../../../../utils/api-types';
+import { type WidgetDataOutput } from '../../../../../utils/api-types';
 import { type StructuralHistogramWidget, type Widget } from '../../../../../utils/api-types-custom';
-import { CustomDashboardContext } from '../CustomDashboardContext';
 import AttackPathContextLayer from './viz/attack_paths/AttackPathContextLayer';
 import DonutChart from './viz/DonutChart';
 import HorizontalBarChart from './viz/HorizontalBarChart';
@@ -17,49 +15,23 @@ import { getWidgetTitle } from './WidgetUtils';
 
 interface WidgetTemporalVizProps {
   widget: Widget;
+  data: WidgetDataOutput | undefined;
+  loading: boolean;
   fullscreen: boolean;
   setFullscreen: (fullscreen: boolean) => void;
 }
 
-const WidgetViz = ({ widget, fullscreen, setFullscreen }: WidgetTemporalVizProps) => {
+const WidgetViz = ({ widget, data: widgetData, loading, fullscreen, setFullscreen }: WidgetTemporalVizProps) => {
   const { t } = useFormatter();
-  const [seriesVizData, setSeriesVizData] = useState<EsSeries[]>([]);
-  const [entitiesVizData, setEntitiesVizData] = useState<EsBase[]>([]);
-  const [attackPathsVizData, setAttackPathsVizData] = useState<EsAttackPath[]>([]);
-  const [loading, setLoading] = useState(true);
-
-  const { customDashboardParameters } = useContext(CustomDashboardContext);
-
-  const fetchData = <T extends EsSeries | EsBase | EsAttackPath>(
-    fetchFunction: (id: string, p: Record<string, string | undefined>) => Promise<{ data: T[] }>,
-    setData: React.Dispatch<React.SetStateAction<T[]>>,
-  ) => {
-    fetchFunction(widget.widget_id, customDashboardParameters).then((response) => {
-      if (response.data) {
-        setData(response.data);
-      }
-    }).finally(() => setLoading(false));
-  };
-
-  useEffect(() => {
-    setLoading(true);
-    switch (widget.widget_type) {
-      case 'attack-path':{
-        fetchData(attackPaths, setAttackPathsVizData);
-        break;
-      }
-      case 'list':
-        fetchData(entities, setEntitiesVizData);
-        break;
-      default:
-        fetchData(series, setSeriesVizData);
-    }
-  }, [widget, customDashboardParameters]);
 
   if (loading) {
     return <Loader variant="inElement" />;
   }
 
+  const seriesVizData = widgetData?.widget_series ?? [];
+  const entitiesVizData = widgetData?.widget_entities ?? [];
+  const attackPathsVizData = widgetData?.widget_attack_paths ?? [];
+
   const seriesData = seriesVizData.map(({ label, data }) => {
     if (data && data.length > 0) {
       return ({
@@ -107,6 +107,11 @@ export interface AggregatedFindingOutput {
    * @uniqueItems true
    */
   finding_assets: EndpointSimple[];
+  /**
+   * Number of endpoints linked to finding, the endpoints list being capped
+   * @format int64
+   */
+  finding_assets_count?: number;
   /** @format date-time */
   finding_created_at: string;
   /** Finding Id */
@@ -5893,6 +5898,13 @@ export type WidgetConfiguration = BaseWidgetConfiguration &
       >
   );
 
+export interface WidgetDataOutput {
+  widget_attack_paths?: EsAttackPath[];
+  widget_entities?: EsBase[];
+  widget_id: string;
+  widget_series?: EsSeries[];
+}
+
 export interface WidgetInput {
   widget_config:
     | DateHistogramWidget
@@ -0,0 +1,50 @@
+package io.openbas.database.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/** Notification event waiting to be handled, stored to survive a restart of the platform */
+@Entity
+@Getter
+@Setter
+@Table(name = "notification_outbox")
+public class NotificationOutboxEvent {
+
+  @Id
+  @Column(name = "outbox_event_id")
+  @NotBlank
+  private String id;
+
+  @Column(name = "outbox_event_resource_type")
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  private NotificationRuleResourceType resourceType;
+
+  @Column(name = "outbox_event_resource_id")
+  @NotBlank
+  private String resourceId;
+
+  @Column(name = "outbox_event_type")
+  @NotBlank
+  private String eventType;
+
+  // Date of the latest event merged into this one
+  @Column(name = "outbox_event_timestamp")
+  @NotNull
+  private Instant timestamp;
+
+  @Column(name = "outbox_event_available_at")
+  @NotNull
+  private Instant availableAt;
+
+  @Column(name = "outbox_event_attempts")
+  private int attempts;
+
+  @Column(name = "outbox_event_created_at")
+  @NotNull
+  private Instant createdAt;
+}
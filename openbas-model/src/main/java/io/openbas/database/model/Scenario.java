@@ -106,6 +106,26 @@ public class Scenario implements Base {
   @JsonProperty("scenario_recurrence_end")
   private Instant recurrenceEnd;
 
+  // Next occurrence of the recurrence to instantiate, reset when the recurrence changes
+  @Column(name = "scenario_next_occurrence")
+  @JsonProperty("scenario_next_occurrence")
+  private Instant nextOccurrence;
+
+  public void setRecurrence(String recurrence) {
+    this.recurrence = recurrence;
+    this.nextOccurrence = null;
+  }
+
+  public void setRecurrenceStart(Instant recurrenceStart) {
+    this.recurrenceStart = recurrenceStart;
+    this.nextOccurrence = null;
+  }
+
+  public void setRecurrenceEnd(Instant recurrenceEnd) {
+    this.recurrenceEnd = recurrenceEnd;
+    this.nextOccurrence = null;
+  }
+
   // -- MESSAGE --
 
   @Column(name = "scenario_message_header")
@@ -0,0 +1,6 @@
+package io.openbas.database.raw;
+
+public interface RawExerciseExpectationCount extends RawExpectationCount {
+
+  String getExercise_id();
+}
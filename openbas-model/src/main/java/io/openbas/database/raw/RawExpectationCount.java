@@ -0,0 +1,14 @@
+package io.openbas.database.raw;
+
+public interface RawExpectationCount {
+
+  String getInject_expectation_type();
+
+  long getSuccess_count();
+
+  long getPartial_count();
+
+  long getFailed_count();
+
+  long getPending_count();
+}
@@ -0,0 +1,16 @@
+package io.openbas.database.raw;
+
+import java.util.List;
+
+public interface RawFindingAssets {
+
+  String getFinding_type();
+
+  String getFinding_value();
+
+  long getAsset_count();
+
+  List<String> getAsset_ids();
+
+  List<String> getAsset_names();
+}
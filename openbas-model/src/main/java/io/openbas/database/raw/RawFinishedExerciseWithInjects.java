@@ -4,6 +4,8 @@ import java.time.Instant;
 import java.util.Set;
 
 public interface RawFinishedExerciseWithInjects {
+  String getExercise_id();
+
   Instant getExercise_end_date();
 
   Set<String> getInject_ids();
@@ -0,0 +1,10 @@
+package io.openbas.database.raw;
+
+import java.time.Instant;
+
+public interface RawIndexingChange {
+
+  String getChange_entity_id();
+
+  Instant getChange_date();
+}
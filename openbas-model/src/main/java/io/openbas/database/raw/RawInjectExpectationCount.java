@@ -0,0 +1,10 @@
+package io.openbas.database.raw;
+
+public interface RawInjectExpectationCount extends RawExpectationCount {
+
+  String getAttack_pattern_id();
+
+  String getInject_id();
+
+  String getInject_title();
+}
@@ -56,6 +56,24 @@ public interface AgentRepository
   @Transactional
   void deleteByAgentId(String agentId);
 
+  /**
+   * Updates the last seen date of agents, without touching their update date. A date older than the
+   * stored one is ignored.
+   *
+   * @param agentIds the agent ids
+   * @param lastSeens the last seen dates, ISO-8601 formatted, in the same order
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE agents a SET agent_last_seen = s.last_seen "
+              + "FROM unnest(cast(:agentIds as text[]), cast(:lastSeens as timestamptz[])) AS s(agent_id, last_seen) "
+              + "WHERE a.agent_id = s.agent_id "
+              + "AND (a.agent_last_seen IS NULL OR a.agent_last_seen < s.last_seen);",
+      nativeQuery = true)
+  @Transactional
+  int updateLastSeen(@Param("agentIds") String[] agentIds, @Param("lastSeens") String[] lastSeens);
+
   @Query(
       value =
           "SELECT ag.agent_id, "
@@ -4,6 +4,7 @@ import io.openbas.database.model.AssetGroup;
 import io.openbas.database.raw.RawAssetGroup;
 import io.openbas.database.raw.RawAssetGroupDynamicFilter;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -13,10 +14,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface AssetGroupRepository
@@ -70,6 +73,80 @@ public interface AssetGroupRepository
   Set<RawAssetGroup> rawByIdsOrInjectIds(
       @Param("assetGroupIds") Set<String> assetGroupIds, @Param("injectIds") Set<String> injectIds);
 
+  // -- DYNAMIC ASSETS --
+
+  @Query(
+      value =
+          "SELECT ag.asset_group_id as asset_group_id, "
+              + "CAST(asset_group_dynamic_filter as text) as asset_group_dynamic_filter "
+              + "FROM asset_groups ag "
+              + "WHERE ag.asset_group_dynamic_filter IS NOT NULL ;",
+      nativeQuery = true)
+  List<RawAssetGroupDynamicFilter> rawDynamicFilters();
+
+  @Query(
+      value =
+          "SELECT agda.asset_id FROM asset_groups_dynamic_assets agda "
+              + "WHERE agda.asset_group_id = :assetGroupId ;",
+      nativeQuery = true)
+  Set<String> dynamicAssetIdsByAssetGroupId(@Param("assetGroupId") String assetGroupId);
+
+  /**
+   * Returns the pairs (endpoint id, asset group id) of the dynamic memberships of the endpoints
+   *
+   * @param assetIds a list of endpoint ids
+   * @return the list of pairs
+   */
+  @Query(
+      value =
+          "SELECT agda.asset_id, agda.asset_group_id FROM asset_groups_dynamic_assets agda "
+              + "WHERE agda.asset_id IN :assetIds ;",
+      nativeQuery = true)
+  List<Object[]> rawDynamicAssetGroupIdsByAssetIds(@Param("assetIds") Collection<String> assetIds);
+
+  /**
+   * Returns the pairs (asset group id, asset id) of the static and dynamic members of the asset
+   * groups, static members first
+   *
+   * @param assetGroupIds a list of asset group ids
+   * @return the list of pairs
+   */
+  @Query(
+      value =
+          "SELECT m.asset_group_id, m.asset_id FROM ("
+              + "SELECT aga.asset_group_id, aga.asset_id, 0 AS member_rank FROM asset_groups_assets aga "
+              + "WHERE aga.asset_group_id IN :assetGroupIds "
+              + "UNION ALL "
+              + "SELECT agda.asset_group_id, agda.asset_id, 1 AS member_rank FROM asset_groups_dynamic_assets agda "
+              + "JOIN assets e ON e.asset_id = agda.asset_id "
+              + "WHERE agda.asset_group_id IN :assetGroupIds AND "
+              + EndpointRepository.FOR_INJECTION_OR_AGENTLESS
+              + ") m ORDER BY m.member_rank, m.asset_id",
+      nativeQuery = true)
+  List<Object[]> rawAssetIdsByAssetGroupIds(
+      @Param("assetGroupIds") Collection<String> assetGroupIds);
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO asset_groups_dynamic_assets (asset_group_id, asset_id) "
+              + "SELECT :assetGroupId, unnest(cast(:assetIds as text[])) "
+              + "ON CONFLICT DO NOTHING ;",
+      nativeQuery = true)
+  @Transactional
+  void addDynamicAssets(
+      @Param("assetGroupId") String assetGroupId, @Param("assetIds") String[] assetIds);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM asset_groups_dynamic_assets "
+              + "WHERE asset_group_id = :assetGroupId AND asset_id = ANY(cast(:assetIds as text[])) ;",
+      nativeQuery = true)
+  @Transactional
+  void removeDynamicAssets(
+      @Param("assetGroupId") String assetGroupId, @Param("assetIds") String[] assetIds);
+
   // -- PAGINATION --
 
   @Query(
@@ -1,6 +1,7 @@
 package io.openbas.database.repository;
 
 import io.openbas.database.model.Challenge;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.jetbrains.annotations.NotNull;
@@ -17,4 +18,7 @@ public interface ChallengeRepository
 
   @NotNull
   List<Challenge> findByNameIgnoreCase(@NotNull final String name);
+
+  @NotNull
+  List<Challenge> findAllByNameInIgnoreCase(@NotNull final Collection<String> names);
 }
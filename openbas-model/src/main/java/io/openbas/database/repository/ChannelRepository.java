@@ -2,6 +2,7 @@ package io.openbas.database.repository;
 
 import io.openbas.database.model.Channel;
 import jakarta.validation.constraints.NotNull;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -16,4 +17,6 @@ public interface ChannelRepository
   Optional<Channel> findById(@NotNull String id);
 
   List<Channel> findByNameIgnoreCase(String name);
+
+  List<Channel> findAllByNameInIgnoreCase(Collection<String> names);
 }
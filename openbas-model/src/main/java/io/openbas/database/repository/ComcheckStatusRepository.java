@@ -2,10 +2,15 @@ package io.openbas.database.repository;
 
 import io.openbas.database.model.ComcheckStatus;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ComcheckStatusRepository
@@ -13,4 +18,13 @@ public interface ComcheckStatusRepository
 
   @NotNull
   Optional<ComcheckStatus> findById(@NotNull String id);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE comchecks_statuses SET status_sent_date = :sentDate "
+              + "WHERE status_id = ANY(cast(:statusIds as text[])) ;",
+      nativeQuery = true)
+  @Transactional
+  void updateSentDate(@Param("statusIds") String[] statusIds, @Param("sentDate") Instant sentDate);
 }
@@ -7,6 +7,7 @@ import io.openbas.utils.Constants;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -52,6 +53,55 @@ public interface EndpointRepository
   List<Endpoint> findByExternalReference(
       @NotNull final @Param("externalReference") String externalReference);
 
+  // -- DYNAMIC ASSETS --
+
+  /** Endpoints having no agent or at least one agent usable for injection */
+  String FOR_INJECTION_OR_AGENTLESS =
+      "(NOT EXISTS (SELECT 1 FROM agents ag WHERE ag.agent_asset = e.asset_id) "
+          + "OR EXISTS (SELECT 1 FROM agents ag WHERE ag.agent_asset = e.asset_id "
+          + "AND ag.agent_parent IS NULL AND ag.agent_inject IS NULL))";
+
+  @Query(
+      value =
+          "SELECT e.* FROM assets e "
+              + "JOIN asset_groups_dynamic_assets agda ON agda.asset_id = e.asset_id "
+              + "WHERE agda.asset_group_id = :assetGroupId AND "
+              + FOR_INJECTION_OR_AGENTLESS
+              + " ORDER BY e.asset_id",
+      nativeQuery = true)
+  List<Endpoint> findDynamicAssetsByAssetGroupId(@Param("assetGroupId") String assetGroupId);
+
+  /**
+   * Returns the pairs (asset group id, endpoint id) of the dynamic members of the asset groups
+   *
+   * @param assetGroupIds a list of asset group ids
+   * @return the list of pairs
+   */
+  @Query(
+      value =
+          "SELECT agda.asset_group_id, agda.asset_id FROM asset_groups_dynamic_assets agda "
+              + "JOIN assets e ON e.asset_id = agda.asset_id "
+              + "WHERE agda.asset_group_id IN :assetGroupIds AND "
+              + FOR_INJECTION_OR_AGENTLESS
+              + " ORDER BY agda.asset_id",
+      nativeQuery = true)
+  List<Object[]> rawDynamicAssetIdsByAssetGroupIds(
+      @Param("assetGroupIds") Collection<String> assetGroupIds);
+
+  /**
+   * Returns the triples (endpoint id, tag name, tag color) of the tags of the endpoints
+   *
+   * @param endpointIds a list of endpoint ids
+   * @return the list of triples
+   */
+  @Query(
+      value =
+          "SELECT at.asset_id, t.tag_name, t.tag_color FROM assets_tags at "
+              + "JOIN tags t ON t.tag_id = at.tag_id "
+              + "WHERE at.asset_id IN :endpointIds ;",
+      nativeQuery = true)
+  List<Object[]> rawTagsByEndpointIds(@Param("endpointIds") Collection<String> endpointIds);
+
   @Override
   @Query(
       "select COUNT(DISTINCT a) from Inject i "
@@ -172,6 +172,188 @@ public interface ExerciseRepository
   Iterable<RawGlobalInjectExpectation> rawGrantedInjectExpectationResultsFromDate(
       @Param("from") Instant from, @Param("userId") String userId);
 
+  // -- STATISTIC ROLLUPS --
+
+  String ROLLUP_COUNTS =
+      "s.expectation_type AS inject_expectation_type, "
+          + "cast(sum(s.success_count) as bigint) AS success_count, "
+          + "cast(sum(s.partial_count) as bigint) AS partial_count, "
+          + "cast(sum(s.failed_count) as bigint) AS failed_count, "
+          + "cast(sum(s.pending_count) as bigint) AS pending_count ";
+
+  String ROLLUP_FROM =
+      "FROM statistic_inject_expectations s "
+          + "INNER JOIN injects i ON i.inject_id = s.inject_id "
+          + "INNER JOIN exercises e ON e.exercise_id = i.inject_exercise ";
+
+  String ROLLUP_ATTACK_PATTERN_JOIN =
+      "INNER JOIN injectors_contracts_attack_patterns icap ON icap.injector_contract_id = i.inject_injector_contract ";
+
+  String ROLLUP_WHERE =
+      "WHERE e.exercise_created_at > :from AND e.exercise_start_date is not null ";
+
+  String ROLLUP_GRANTED =
+      "AND EXISTS (SELECT 1 FROM grants g "
+          + "INNER JOIN users_groups ug ON ug.group_id = g.grant_group "
+          + "WHERE g.grant_exercise = e.exercise_id AND ug.user_id = :userId) ";
+
+  /**
+   * Returns the expectation results, by type, of the simulations created from a date, read from the
+   * statistic rollups
+   *
+   * @param from the date of creation
+   * @return the expectation counts by type
+   */
+  @Query(
+      value =
+          "SELECT " + ROLLUP_COUNTS + ROLLUP_FROM + ROLLUP_WHERE + "GROUP BY s.expectation_type ;",
+      nativeQuery = true)
+  List<RawInjectExpectationCount> globalExpectationCountsFromDate(@Param("from") Instant from);
+
+  /**
+   * Returns the expectation results, by type, of the simulations created from a date and that a
+   * user can see, read from the statistic rollups
+   *
+   * @param from the date of creation
+   * @param userId the id of the user
+   * @return the expectation counts by type
+   */
+  @Query(
+      value =
+          "SELECT "
+              + ROLLUP_COUNTS
+              + ROLLUP_FROM
+              + ROLLUP_WHERE
+              + ROLLUP_GRANTED
+              + "GROUP BY s.expectation_type ;",
+      nativeQuery = true)
+  List<RawInjectExpectationCount> grantedExpectationCountsFromDate(
+      @Param("from") Instant from, @Param("userId") String userId);
+
+  /**
+   * Returns the expectation results, by attack pattern, inject and type, of the simulations created
+   * from a date, read from the statistic rollups
+   *
+   * @param from the date of creation
+   * @return the expectation counts by attack pattern, inject and type
+   */
+  @Query(
+      value =
+          "SELECT icap.attack_pattern_id, i.inject_id, i.inject_title, "
+              + ROLLUP_COUNTS
+              + ROLLUP_FROM
+              + ROLLUP_ATTACK_PATTERN_JOIN
+              + ROLLUP_WHERE
+              + "GROUP BY icap.attack_pattern_id, i.inject_id, i.inject_title, s.expectation_type ;",
+      nativeQuery = true)
+  List<RawInjectExpectationCount> globalAttackPatternExpectationCountsFromDate(
+      @Param("from") Instant from);
+
+  /**
+   * Returns the expectation results, by attack pattern, inject and type, of the simulations created
+   * from a date and that a user can see, read from the statistic rollups
+   *
+   * @param from the date of creation
+   * @param userId the id of the user
+   * @return the expectation counts by attack pattern, inject and type
+   */
+  @Query(
+      value =
+          "SELECT icap.attack_pattern_id, i.inject_id, i.inject_title, "
+              + ROLLUP_COUNTS
+              + ROLLUP_FROM
+              + ROLLUP_ATTACK_PATTERN_JOIN
+              + ROLLUP_WHERE
+              + ROLLUP_GRANTED
+              + "GROUP BY icap.attack_pattern_id, i.inject_id, i.inject_title, s.expectation_type ;",
+      nativeQuery = true)
+  List<RawInjectExpectationCount> grantedAttackPatternExpectationCountsFromDate(
+      @Param("from") Instant from, @Param("userId") String userId);
+
+  // -- SCORE SNAPSHOTS --
+
+  // Same normalization as the global results: team expectations are either successful or failed,
+  // players and agents expectations are left out
+  String SCORE_SNAPSHOT_SELECT =
+      "SELECT ie.exercise_id, ie.inject_expectation_type, "
+          + "count(*) filter (where ie.inject_expectation_score >= ie.inject_expectation_expected_score), "
+          + "count(*) filter (where ie.team_id is null and ie.inject_expectation_score <> 0 and ie.inject_expectation_score < ie.inject_expectation_expected_score), "
+          + "count(*) filter (where ie.inject_expectation_score < ie.inject_expectation_expected_score and (ie.team_id is not null or ie.inject_expectation_score = 0)), "
+          + "count(*) filter (where ie.inject_expectation_score is null) "
+          + "FROM injects_expectations ie "
+          + "WHERE ie.exercise_id is not null and ie.inject_id is not null and ie.inject_expectation_type is not null "
+          + "AND ie.user_id is null AND ie.agent_id is null ";
+
+  String SCORE_SNAPSHOT_UPSERT =
+      "GROUP BY ie.exercise_id, ie.inject_expectation_type "
+          + "ON CONFLICT (exercise_id, expectation_type) DO UPDATE SET "
+          + "success_count = excluded.success_count, partial_count = excluded.partial_count, "
+          + "failed_count = excluded.failed_count, pending_count = excluded.pending_count "
+          + "WHERE (exercise_score_snapshots.success_count, exercise_score_snapshots.partial_count, "
+          + "exercise_score_snapshots.failed_count, exercise_score_snapshots.pending_count) "
+          + "IS DISTINCT FROM (excluded.success_count, excluded.partial_count, excluded.failed_count, excluded.pending_count) ;";
+
+  String SCORE_SNAPSHOT_STALE =
+      "NOT EXISTS (SELECT 1 FROM injects_expectations ie "
+          + "WHERE ie.exercise_id = s.exercise_id AND ie.inject_expectation_type = s.expectation_type "
+          + "AND ie.inject_id is not null AND ie.user_id is null AND ie.agent_id is null) ";
+
+  /**
+   * Returns the score snapshots of some simulations, by type of expectation. Simulations without
+   * any scored expectation have no snapshot.
+   *
+   * @param exerciseIds the ids of the simulations
+   * @return the expectation counts by simulation and type
+   */
+  @Query(
+      value =
+          "SELECT s.exercise_id, s.expectation_type AS inject_expectation_type, "
+              + "s.success_count, s.partial_count, s.failed_count, s.pending_count "
+              + "FROM exercise_score_snapshots s "
+              + "WHERE s.exercise_id = ANY(cast(:exerciseIds as text[])) ;",
+      nativeQuery = true)
+  List<RawExerciseExpectationCount> rawScoreSnapshotsByExerciseIds(
+      @Param("exerciseIds") String[] exerciseIds);
+
+  /**
+   * Recompute the score snapshots of some simulations
+   *
+   * @param exerciseIds the ids of the simulations
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO exercise_score_snapshots "
+              + SCORE_SNAPSHOT_SELECT
+              + "AND ie.exercise_id = ANY(cast(:exerciseIds as text[])) "
+              + SCORE_SNAPSHOT_UPSERT,
+      nativeQuery = true)
+  void upsertScoreSnapshots(@Param("exerciseIds") String[] exerciseIds);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM exercise_score_snapshots s "
+              + "WHERE s.exercise_id = ANY(cast(:exerciseIds as text[])) AND "
+              + SCORE_SNAPSHOT_STALE
+              + ";",
+      nativeQuery = true)
+  void deleteStaleScoreSnapshots(@Param("exerciseIds") String[] exerciseIds);
+
+  /** Recompute the score snapshots of every simulation, only writing the rows that changed */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO exercise_score_snapshots " + SCORE_SNAPSHOT_SELECT + SCORE_SNAPSHOT_UPSERT,
+      nativeQuery = true)
+  int upsertAllScoreSnapshots();
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM exercise_score_snapshots s WHERE " + SCORE_SNAPSHOT_STALE + ";",
+      nativeQuery = true)
+  int deleteAllStaleScoreSnapshots();
+
   /**
    * Get the raw version of the exercises
    *
@@ -302,6 +484,25 @@ public interface ExerciseRepository
   void removeTeams(
       @Param("exerciseId") final String exerciseId, @Param("teamIds") final List<String> teamIds);
 
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value =
+          "INSERT INTO exercises_teams (exercise_id, team_id) "
+              + "SELECT :exerciseId, unnest(cast(:teamIds as text[])) ON CONFLICT DO NOTHING ;",
+      nativeQuery = true)
+  void addTeams(@Param("exerciseId") String exerciseId, @Param("teamIds") String[] teamIds);
+
+  // -- DOCUMENT --
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value =
+          "INSERT INTO exercises_documents (exercise_id, document_id) "
+              + "SELECT :exerciseId, unnest(cast(:documentIds as text[])) ON CONFLICT DO NOTHING ;",
+      nativeQuery = true)
+  void addDocuments(
+      @Param("exerciseId") String exerciseId, @Param("documentIds") String[] documentIds);
+
   @Query(
       value =
           " SELECT ex.exercise_id, ex.exercise_end_date, "
@@ -48,6 +48,20 @@ public interface ExerciseTeamUserRepository
       @Param("teamId") String teamId,
       @Param("userId") String userId);
 
+  /** Team and user at the same position in both arrays are linked together */
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value =
+          "insert into exercises_teams_users (exercise_id, team_id, user_id) "
+              + "select :exerciseId, tu.team_id, tu.user_id "
+              + "from unnest(cast(:teamIds as text[]), cast(:userIds as text[])) as tu(team_id, user_id) "
+              + "on conflict do nothing",
+      nativeQuery = true)
+  void addExerciseTeamUsers(
+      @Param("exerciseId") String exerciseId,
+      @Param("teamIds") String[] teamIds,
+      @Param("userIds") String[] userIds);
+
   @Query(value = "SELECT * FROM exercises_teams_users WHERE team_id IN :ids ;", nativeQuery = true)
   List<RawExerciseTeamUser> rawByTeamIds(@Param("ids") List<String> ids);
 
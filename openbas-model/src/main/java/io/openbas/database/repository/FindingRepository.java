@@ -3,6 +3,7 @@ package io.openbas.database.repository;
 import io.openbas.database.model.ContractOutputType;
 import io.openbas.database.model.Finding;
 import io.openbas.database.raw.RawFinding;
+import io.openbas.database.raw.RawFindingAssets;
 import io.openbas.utils.Constants;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
@@ -30,6 +31,72 @@ public interface FindingRepository
       @NotNull @Param("type") ContractOutputType type,
       @NotBlank @Param("key") String key);
 
+  // -- DISTINCT --
+
+  /**
+   * Aggregates the endpoints of the findings having the given (type, value) pairs, within a scope.
+   * Each scope parameter is ignored when null.
+   *
+   * @param types the finding types
+   * @param values the finding values, in the same order as the types
+   * @param injectId only the findings of this inject
+   * @param simulationId only the findings of this simulation
+   * @param scenarioId only the findings of the simulations of this scenario
+   * @param endpointId only the findings linked to this endpoint
+   * @param latestSimulationsOnly only the findings of the latest finished simulation of each
+   *     scenario, and of the atomic testings
+   * @param assetLimit the maximum number of endpoints returned per (type, value)
+   * @return one row per (type, value) having endpoints, with the count of endpoints and the first
+   *     ones by name
+   */
+  @Query(
+      value =
+          """
+          WITH keys AS (
+              SELECT * FROM unnest(cast(:types as text[]), cast(:values as text[]))
+                  AS k(finding_type, finding_value)
+          ),
+          scoped_assets AS (
+              SELECT DISTINCT f.finding_type, f.finding_value, a.asset_id, a.asset_name
+              FROM findings f
+              JOIN injects i ON i.inject_id = f.finding_inject_id
+              JOIN findings_assets fa ON fa.finding_id = f.finding_id
+              JOIN assets a ON a.asset_id = fa.asset_id AND a.asset_type = 'Endpoint'
+              LEFT JOIN exercises e ON e.exercise_id = i.inject_exercise
+              LEFT JOIN scenarios_exercises se ON se.exercise_id = i.inject_exercise
+              WHERE (f.finding_type, f.finding_value) IN (SELECT k.finding_type, k.finding_value FROM keys k)
+              AND (cast(:injectId as text) IS NULL OR f.finding_inject_id = cast(:injectId as text))
+              AND (cast(:simulationId as text) IS NULL OR i.inject_exercise = cast(:simulationId as text))
+              AND (cast(:scenarioId as text) IS NULL OR se.scenario_id = cast(:scenarioId as text))
+              AND (cast(:endpointId as text) IS NULL OR EXISTS (
+                  SELECT 1 FROM findings_assets efa
+                  WHERE efa.finding_id = f.finding_id AND efa.asset_id = cast(:endpointId as text)))
+              AND (NOT cast(:latestSimulationsOnly as boolean)
+                  OR e.exercise_id IS NULL
+                  OR (e.exercise_status = 'FINISHED' AND NOT EXISTS (
+                      SELECT 1 FROM scenarios_exercises se2
+                      JOIN exercises e2 ON e2.exercise_id = se2.exercise_id
+                      WHERE se2.scenario_id = se.scenario_id
+                      AND e2.exercise_status = 'FINISHED'
+                      AND e2.exercise_launch_order > e.exercise_launch_order)))
+          )
+          SELECT finding_type, finding_value, count(*) AS asset_count,
+              (array_agg(asset_id ORDER BY asset_name, asset_id))[1:cast(:assetLimit as int)] AS asset_ids,
+              (array_agg(asset_name ORDER BY asset_name, asset_id))[1:cast(:assetLimit as int)] AS asset_names
+          FROM scoped_assets
+          GROUP BY finding_type, finding_value;
+          """,
+      nativeQuery = true)
+  List<RawFindingAssets> aggregateEndpointsByTypeValue(
+      @Param("types") String[] types,
+      @Param("values") String[] values,
+      @Param("injectId") String injectId,
+      @Param("simulationId") String simulationId,
+      @Param("scenarioId") String scenarioId,
+      @Param("endpointId") String endpointId,
+      @Param("latestSimulationsOnly") boolean latestSimulationsOnly,
+      @Param("assetLimit") int assetLimit);
+
   // -- INDEXING --
 
   @Query(
@@ -1,10 +1,15 @@
 package io.openbas.database.repository;
 
 import io.openbas.database.model.IndexingStatus;
+import io.openbas.database.raw.RawIndexingChange;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,4 +18,34 @@ public interface IndexingStatusRepository
 
   @NotNull
   Optional<IndexingStatus> findByType(@NotNull String type);
+
+  /**
+   * @return the date of the last indexing, across all the indexed types
+   */
+  @Query("SELECT max(s.lastIndexing) FROM IndexingStatus s")
+  Optional<Instant> findLastIndexing();
+
+  /**
+   * Returns the entities of a type changed since a date, as captured by the database triggers.
+   * Changes sharing the date of the last one returned are all included, so that none is skipped by
+   * the next call.
+   *
+   * @param type the indexed type, like {@code inject}
+   * @param from the exclusive lower bound of the change date
+   * @param limit the number of changes to return, before including those of the same date
+   * @return the changes, by date
+   */
+  @Query(
+      value =
+          "SELECT c.change_entity_id, c.change_date FROM indexing_changes c "
+              + "WHERE c.change_type = :type AND c.change_date > :from "
+              + "AND c.change_date <= COALESCE(("
+              + "SELECT l.change_date FROM indexing_changes l "
+              + "WHERE l.change_type = :type AND l.change_date > :from "
+              + "ORDER BY l.change_date OFFSET :limit - 1 LIMIT 1"
+              + "), 'infinity') "
+              + "ORDER BY c.change_date, c.change_entity_id ;",
+      nativeQuery = true)
+  List<RawIndexingChange> findChanges(
+      @Param("type") String type, @Param("from") Instant from, @Param("limit") int limit);
 }
@@ -35,4 +35,18 @@ public interface InjectDocumentRepository
       @Param("injectId") String injectId,
       @Param("documentId") String docId,
       @Param("documentAttached") boolean docAttached);
+
+  /** Documents of several injects, matched by position in the arrays */
+  @Modifying
+  @Query(
+      value =
+          "insert into injects_documents (inject_id, document_id, document_attached) "
+              + "select d.inject_id, d.document_id, cast(d.attached as boolean) "
+              + "from unnest(cast(:injectIds as text[]), cast(:documentIds as text[]), "
+              + "cast(:documentsAttached as text[])) as d(inject_id, document_id, attached)",
+      nativeQuery = true)
+  void addAllInjectDocs(
+      @Param("injectIds") String[] injectIds,
+      @Param("documentIds") String[] documentIds,
+      @Param("documentsAttached") String[] documentsAttached);
 }
@@ -6,10 +6,12 @@ import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -165,6 +167,55 @@ public interface InjectExpectationRepository
       @Param("injectId") @NotBlank final String injectId,
       @Param("assetGroupId") @NotBlank final String assetGroupId);
 
+  // -- RETRIEVE EXPECTATIONS FOR A PAGE OF TARGETS --
+
+  @Query(
+      value =
+          "select i from InjectExpectation i where i.inject.id = :injectId and i.team.id in :teamIds and i.user is null "
+              + "ORDER BY i.type, i.createdAt")
+  List<InjectExpectation> findAllByInjectAndTeams(
+      @Param("injectId") @NotBlank final String injectId,
+      @Param("teamIds") @NotNull final Collection<String> teamIds);
+
+  @Query(
+      value =
+          "select i from InjectExpectation i "
+              + "where i.inject.id = :injectId "
+              + "and i.user.id in :playerIds "
+              + "ORDER BY i.type, i.createdAt")
+  List<InjectExpectation> findAllByInjectAndPlayers(
+      @Param("injectId") @NotBlank final String injectId,
+      @Param("playerIds") @NotNull final Collection<String> playerIds);
+
+  @Query(
+      value =
+          "SELECT i FROM InjectExpectation i "
+              + "WHERE i.inject.id = :injectId "
+              + "AND i.agent.id in :agentIds "
+              + "ORDER BY i.type, i.createdAt")
+  List<InjectExpectation> findAllByInjectAndAgents(
+      @Param("injectId") @NotBlank String injectId,
+      @Param("agentIds") @NotNull Collection<String> agentIds);
+
+  @Query(
+      value =
+          "SELECT i FROM InjectExpectation i "
+              + "WHERE i.inject.id = :injectId "
+              + "AND i.asset.id in :assetIds "
+              + "AND i.agent IS NULL "
+              + "ORDER BY i.type, i.createdAt")
+  List<InjectExpectation> findAllByInjectAndAssets(
+      @Param("injectId") @NotBlank String injectId,
+      @Param("assetIds") @NotNull Collection<String> assetIds);
+
+  @Query(
+      value =
+          "select i from InjectExpectation i where i.inject.id = :injectId and i.assetGroup.id in :assetGroupIds and i.asset is null and i.agent is null "
+              + "ORDER BY i.type, i.createdAt")
+  List<InjectExpectation> findAllByInjectAndAssetGroups(
+      @Param("injectId") @NotBlank final String injectId,
+      @Param("assetGroupIds") @NotNull final Collection<String> assetGroupIds);
+
   @Query(
       value =
           "SELECT "
@@ -278,4 +329,69 @@ public interface InjectExpectationRepository
     """,
       nativeQuery = true)
   List<RawInjectExpectation> findForIndexing(@Param("from") Instant from);
+
+  // -- STATISTIC ROLLUPS --
+
+  // Team expectations are counted like the others, as the home statistics never told them apart
+  String STATISTIC_ROLLUP_SELECT =
+      "SELECT ie.inject_id, ie.inject_expectation_type, "
+          + "count(*) filter (where ie.inject_expectation_score >= ie.inject_expectation_expected_score), "
+          + "count(*) filter (where ie.inject_expectation_score <> 0 and ie.inject_expectation_score < ie.inject_expectation_expected_score), "
+          + "count(*) filter (where ie.inject_expectation_score = 0 and ie.inject_expectation_score < ie.inject_expectation_expected_score), "
+          + "count(*) filter (where ie.inject_expectation_score is null) "
+          + "FROM injects_expectations ie "
+          + "WHERE ie.inject_id is not null and ie.inject_expectation_type is not null ";
+
+  String STATISTIC_ROLLUP_UPSERT =
+      "GROUP BY ie.inject_id, ie.inject_expectation_type "
+          + "ON CONFLICT (inject_id, expectation_type) DO UPDATE SET "
+          + "success_count = excluded.success_count, partial_count = excluded.partial_count, "
+          + "failed_count = excluded.failed_count, pending_count = excluded.pending_count "
+          + "WHERE (statistic_inject_expectations.success_count, statistic_inject_expectations.partial_count, "
+          + "statistic_inject_expectations.failed_count, statistic_inject_expectations.pending_count) "
+          + "IS DISTINCT FROM (excluded.success_count, excluded.partial_count, excluded.failed_count, excluded.pending_count) ;";
+
+  /**
+   * Recompute the statistic rollups of some injects
+   *
+   * @param injectIds the ids of the injects
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO statistic_inject_expectations "
+              + STATISTIC_ROLLUP_SELECT
+              + "AND ie.inject_id = ANY(cast(:injectIds as text[])) "
+              + STATISTIC_ROLLUP_UPSERT,
+      nativeQuery = true)
+  void upsertStatisticRollups(@Param("injectIds") String[] injectIds);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM statistic_inject_expectations s "
+              + "WHERE s.inject_id = ANY(cast(:injectIds as text[])) AND NOT EXISTS ("
+              + "SELECT 1 FROM injects_expectations ie "
+              + "WHERE ie.inject_id = s.inject_id AND ie.inject_expectation_type = s.expectation_type) ;",
+      nativeQuery = true)
+  void deleteStaleStatisticRollups(@Param("injectIds") String[] injectIds);
+
+  /** Recompute the statistic rollups of every inject, only writing the rows that changed */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO statistic_inject_expectations "
+              + STATISTIC_ROLLUP_SELECT
+              + STATISTIC_ROLLUP_UPSERT,
+      nativeQuery = true)
+  int upsertAllStatisticRollups();
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM statistic_inject_expectations s WHERE NOT EXISTS ("
+              + "SELECT 1 FROM injects_expectations ie "
+              + "WHERE ie.inject_id = s.inject_id AND ie.inject_expectation_type = s.expectation_type) ;",
+      nativeQuery = true)
+  int deleteAllStaleStatisticRollups();
 }
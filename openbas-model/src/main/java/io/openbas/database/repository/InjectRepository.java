@@ -3,7 +3,6 @@ package io.openbas.database.repository;
 import io.openbas.database.model.Inject;
 import io.openbas.database.raw.RawInject;
 import io.openbas.database.raw.RawInjectIndexing;
-import io.openbas.utils.Constants;
 import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
 import java.util.Collection;
@@ -52,25 +51,10 @@ public interface InjectRepository
               + "LEFT JOIN injects inject_children ON inject_children.inject_id = idp.inject_children_id "
               + "LEFT JOIN injectors_contracts ic_children ON ic_children.injector_contract_id = inject_children.inject_injector_contract "
               + "LEFT JOIN injectors_contracts_attack_patterns icap_children ON icap_children.injector_contract_id = ic_children.injector_contract_id "
-              + "WHERE f.inject_updated_at > :from "
-              + "OR ic.injector_contract_updated_at > :from  "
-              + "OR EXISTS ("
-              + "    SELECT 1 "
-              + "    FROM injects_dependencies sub_idp "
-              + "    WHERE sub_idp.inject_parent_id = f.inject_id "
-              + "      AND sub_idp.dependency_updated_at > :from"
-              + ")"
-              + "OR EXISTS ("
-              + "    SELECT 1 "
-              + "    FROM injectors_contracts sub_ic "
-              + "    WHERE sub_ic.injector_contract_id = inject_children.inject_injector_contract "
-              + "      AND sub_ic.injector_contract_updated_at > :from "
-              + ")"
-              + "GROUP BY f.inject_id, f.inject_updated_at, ic.injector_contract_updated_at ORDER BY GREATEST(f.inject_updated_at, ic.injector_contract_updated_at) ASC LIMIT "
-              + Constants.INDEXING_RECORD_SET_SIZE
-              + ";",
+              + "WHERE f.inject_id = ANY(cast(:injectIds as text[])) "
+              + "GROUP BY f.inject_id, ic.injector_contract_updated_at ;",
       nativeQuery = true)
-  List<RawInjectIndexing> findForIndexing(@Param("from") Instant from);
+  List<RawInjectIndexing> findForIndexing(@Param("injectIds") String[] injectIds);
 
   @Query(
       value =
@@ -98,78 +82,177 @@ public interface InjectRepository
       @Param("scenarioId") String scenarioId, @Param("documentId") String documentId);
 
   @Modifying
+  @Query(
+      value = "insert into injects_tags (inject_id, tag_id) values (:injectId, :tagId)",
+      nativeQuery = true)
+  void addTag(@Param("injectId") String injectId, @Param("tagId") String tagId);
+
+  @Modifying
+  @Query(
+      value = "insert into injects_teams (inject_id, team_id) values (:injectId, :teamId)",
+      nativeQuery = true)
+  void addTeam(@Param("injectId") String injectId, @Param("teamId") String teamId);
+
+  /**
+   * Imported injects, matched by position in the arrays, inserted at once in a simulation, a
+   * scenario or none of them
+   */
+  @Modifying
   @Query(
       value =
-          "insert into injects (inject_id, inject_title, inject_description, inject_country, inject_city,"
-              + "inject_injector_contract, inject_all_teams, inject_enabled, inject_exercise, "
+          "insert into injects (inject_id, inject_title, inject_description, inject_country, inject_city, "
+              + "inject_injector_contract, inject_all_teams, inject_enabled, inject_exercise, inject_scenario, "
               + "inject_depends_duration, inject_content) "
-              + "values (:id, :title, :description, :country, :city, :contract, :allTeams, :enabled, :exercise, :dependsDuration, :content)",
+              + "select v.id, v.title, v.description, v.country, v.city, v.contract, cast(v.all_teams as boolean), "
+              + "cast(v.enabled as boolean), cast(:exercise as varchar), cast(:scenario as varchar), "
+              + "cast(v.depends_duration as bigint), v.content "
+              + "from unnest(cast(:ids as text[]), cast(:titles as text[]), cast(:descriptions as text[]), "
+              + "cast(:countries as text[]), cast(:cities as text[]), cast(:contracts as text[]), "
+              + "cast(:allTeams as text[]), cast(:enabled as text[]), cast(:dependsDurations as text[]), "
+              + "cast(:contents as text[])) "
+              + "as v(id, title, description, country, city, contract, all_teams, enabled, depends_duration, content)",
       nativeQuery = true)
-  void importSaveForExercise(
-      @Param("id") String id,
-      @Param("title") String title,
-      @Param("description") String description,
-      @Param("country") String country,
-      @Param("city") String city,
-      @Param("contract") String contract,
-      @Param("allTeams") boolean allTeams,
-      @Param("enabled") boolean enabled,
+  void importSaveAll(
+      @Param("ids") String[] ids,
+      @Param("titles") String[] titles,
+      @Param("descriptions") String[] descriptions,
+      @Param("countries") String[] countries,
+      @Param("cities") String[] cities,
+      @Param("contracts") String[] contracts,
+      @Param("allTeams") String[] allTeams,
+      @Param("enabled") String[] enabled,
       @Param("exercise") String exerciseId,
-      @Param("dependsDuration") Long dependsDuration,
-      @Param("content") String content);
+      @Param("scenario") String scenarioId,
+      @Param("dependsDurations") String[] dependsDurations,
+      @Param("contents") String[] contents);
 
+  /** Tags of several injects, matched by position in both arrays */
   @Modifying
   @Query(
       value =
-          "insert into injects (inject_id, inject_title, inject_description, inject_country, inject_city,"
-              + "inject_injector_contract, inject_all_teams, inject_enabled, inject_scenario, "
-              + "inject_depends_duration, inject_content) "
-              + "values (:id, :title, :description, :country, :city, :contract, :allTeams, :enabled, :scenario, :dependsDuration, :content)",
+          "insert into injects_tags (inject_id, tag_id) "
+              + "select * from unnest(cast(:injectIds as text[]), cast(:tagIds as text[])) "
+              + "on conflict do nothing",
       nativeQuery = true)
-  void importSaveForScenario(
-      @Param("id") String id,
-      @Param("title") String title,
-      @Param("description") String description,
-      @Param("country") String country,
-      @Param("city") String city,
-      @Param("contract") String contract,
-      @Param("allTeams") boolean allTeams,
-      @Param("enabled") boolean enabled,
-      @Param("scenario") String scenarioId,
-      @Param("dependsDuration") Long dependsDuration,
-      @Param("content") String content);
+  void addAllTags(@Param("injectIds") String[] injectIds, @Param("tagIds") String[] tagIds);
 
+  /** Teams of several injects, matched by position in both arrays */
   @Modifying
   @Query(
       value =
-          "insert into injects (inject_id, inject_title, inject_description, inject_country, inject_city,"
-              + "inject_injector_contract, inject_all_teams, inject_enabled, "
-              + "inject_depends_duration, inject_content) "
-              + "values (:id, :title, :description, :country, :city, :contract, :allTeams, :enabled, :dependsDuration, :content)",
+          "insert into injects_teams (inject_id, team_id) "
+              + "select * from unnest(cast(:injectIds as text[]), cast(:teamIds as text[])) "
+              + "on conflict do nothing",
       nativeQuery = true)
-  void importSaveStandAlone(
-      @Param("id") String id,
-      @Param("title") String title,
-      @Param("description") String description,
-      @Param("country") String country,
-      @Param("city") String city,
-      @Param("contract") String contract,
-      @Param("allTeams") boolean allTeams,
-      @Param("enabled") boolean enabled,
-      @Param("dependsDuration") Long dependsDuration,
-      @Param("content") String content);
+  void addAllTeams(@Param("injectIds") String[] injectIds, @Param("teamIds") String[] teamIds);
+
+  // -- COPY --
+
+  /** Source inject id to copied inject id, matched by position in both arrays */
+  String COPY_MAPPING =
+      "unnest(cast(:sourceIds as text[]), cast(:targetIds as text[])) as m(source_id, target_id) ";
+
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value =
+          "insert into injects (inject_id, inject_title, inject_description, inject_country, inject_city, "
+              + "inject_enabled, inject_content, inject_all_teams, inject_exercise, inject_depends_duration, "
+              + "inject_injector_contract, inject_user, inject_created_at, inject_updated_at) "
+              + "select m.target_id, i.inject_title, i.inject_description, i.inject_country, i.inject_city, "
+              + "i.inject_enabled, i.inject_content, i.inject_all_teams, :exerciseId, i.inject_depends_duration, "
+              + "i.inject_injector_contract, i.inject_user, now(), now() "
+              + "from "
+              + COPY_MAPPING
+              + "join injects i on i.inject_id = m.source_id",
+      nativeQuery = true)
+  void copyInjectsToExercise(
+      @Param("sourceIds") String[] sourceIds,
+      @Param("targetIds") String[] targetIds,
+      @Param("exerciseId") String exerciseId);
 
   @Modifying
   @Query(
-      value = "insert into injects_tags (inject_id, tag_id) values (:injectId, :tagId)",
+      value =
+          "update injects i set inject_content = c.content "
+              + "from unnest(cast(:injectIds as text[]), cast(:contents as text[])) as c(inject_id, content) "
+              + "where i.inject_id = c.inject_id",
       nativeQuery = true)
-  void addTag(@Param("injectId") String injectId, @Param("tagId") String tagId);
+  void updateContents(@Param("injectIds") String[] injectIds, @Param("contents") String[] contents);
 
   @Modifying
   @Query(
-      value = "insert into injects_teams (inject_id, team_id) values (:injectId, :teamId)",
+      value =
+          "insert into injects_tags (inject_id, tag_id) "
+              + "select m.target_id, it.tag_id from "
+              + COPY_MAPPING
+              + "join injects_tags it on it.inject_id = m.source_id",
       nativeQuery = true)
-  void addTeam(@Param("injectId") String injectId, @Param("teamId") String teamId);
+  void copyTags(@Param("sourceIds") String[] sourceIds, @Param("targetIds") String[] targetIds);
+
+  /** Teams found in the team mapping are replaced, the others are linked as is */
+  @Modifying
+  @Query(
+      value =
+          "insert into injects_teams (inject_id, team_id) "
+              + "select m.target_id, coalesce(tm.target_id, it.team_id) from "
+              + COPY_MAPPING
+              + "join injects_teams it on it.inject_id = m.source_id "
+              + "left join unnest(cast(:sourceTeamIds as text[]), cast(:targetTeamIds as text[])) "
+              + "as tm(source_id, target_id) on tm.source_id = it.team_id "
+              + "on conflict do nothing",
+      nativeQuery = true)
+  void copyTeams(
+      @Param("sourceIds") String[] sourceIds,
+      @Param("targetIds") String[] targetIds,
+      @Param("sourceTeamIds") String[] sourceTeamIds,
+      @Param("targetTeamIds") String[] targetTeamIds);
+
+  @Modifying
+  @Query(
+      value =
+          "insert into injects_assets (inject_id, asset_id) "
+              + "select m.target_id, ia.asset_id from "
+              + COPY_MAPPING
+              + "join injects_assets ia on ia.inject_id = m.source_id",
+      nativeQuery = true)
+  void copyAssets(@Param("sourceIds") String[] sourceIds, @Param("targetIds") String[] targetIds);
+
+  @Modifying
+  @Query(
+      value =
+          "insert into injects_asset_groups (inject_id, asset_group_id) "
+              + "select m.target_id, iag.asset_group_id from "
+              + COPY_MAPPING
+              + "join injects_asset_groups iag on iag.inject_id = m.source_id",
+      nativeQuery = true)
+  void copyAssetGroups(
+      @Param("sourceIds") String[] sourceIds, @Param("targetIds") String[] targetIds);
+
+  @Modifying
+  @Query(
+      value =
+          "insert into injects_documents (inject_id, document_id, document_attached) "
+              + "select m.target_id, id.document_id, id.document_attached from "
+              + COPY_MAPPING
+              + "join injects_documents id on id.inject_id = m.source_id",
+      nativeQuery = true)
+  void copyDocuments(
+      @Param("sourceIds") String[] sourceIds, @Param("targetIds") String[] targetIds);
+
+  /** Dependencies between copied injects, both sides being replaced by their copy */
+  @Modifying
+  @Query(
+      value =
+          "insert into injects_dependencies (inject_parent_id, inject_children_id, dependency_condition, "
+              + "dependency_created_at, dependency_updated_at) "
+              + "select parent.target_id, m.target_id, d.dependency_condition, now(), now() from "
+              + COPY_MAPPING
+              + "join injects_dependencies d on d.inject_children_id = m.source_id "
+              + "join unnest(cast(:sourceIds as text[]), cast(:targetIds as text[])) "
+              + "as parent(source_id, target_id) on parent.source_id = d.inject_parent_id",
+      nativeQuery = true)
+  void copyDependencies(
+      @Param("sourceIds") String[] sourceIds, @Param("targetIds") String[] targetIds);
 
   @Override
   @Query(
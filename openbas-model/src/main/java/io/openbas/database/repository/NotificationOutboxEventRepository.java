@@ -0,0 +1,56 @@
+package io.openbas.database.repository;
+
+import io.openbas.database.model.NotificationOutboxEvent;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationOutboxEventRepository
+    extends CrudRepository<NotificationOutboxEvent, String> {
+
+  /**
+   * Store an event, merged into the pending event of the same resource and type if any: the pending
+   * event keeps its availability date and takes the latest timestamp
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO notification_outbox (outbox_event_id, outbox_event_resource_type, "
+              + "outbox_event_resource_id, outbox_event_type, outbox_event_timestamp, "
+              + "outbox_event_available_at, outbox_event_attempts, outbox_event_created_at) "
+              + "VALUES (:id, :resourceType, :resourceId, :eventType, :timestamp, :availableAt, 0, now()) "
+              + "ON CONFLICT (outbox_event_resource_type, outbox_event_resource_id, outbox_event_type) "
+              + "DO UPDATE SET outbox_event_timestamp = "
+              + "greatest(notification_outbox.outbox_event_timestamp, excluded.outbox_event_timestamp) ;",
+      nativeQuery = true)
+  void enqueue(
+      @Param("id") String id,
+      @Param("resourceType") String resourceType,
+      @Param("resourceId") String resourceId,
+      @Param("eventType") String eventType,
+      @Param("timestamp") Instant timestamp,
+      @Param("availableAt") Instant availableAt);
+
+  /** Lock the next available event, skipping the ones being handled by another node */
+  @Query(
+      value =
+          "SELECT * FROM notification_outbox "
+              + "WHERE outbox_event_available_at <= :now "
+              + "ORDER BY outbox_event_available_at "
+              + "LIMIT 1 FOR UPDATE SKIP LOCKED ;",
+      nativeQuery = true)
+  Optional<NotificationOutboxEvent> claimNextAvailable(@Param("now") Instant now);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE notification_outbox SET outbox_event_attempts = outbox_event_attempts + 1, "
+              + "outbox_event_available_at = :availableAt WHERE outbox_event_id = :id ;",
+      nativeQuery = true)
+  void postpone(@Param("id") String id, @Param("availableAt") Instant availableAt);
+}
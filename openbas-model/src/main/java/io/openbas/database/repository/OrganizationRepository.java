@@ -2,6 +2,7 @@ package io.openbas.database.repository;
 
 import io.openbas.database.model.Organization;
 import io.openbas.database.raw.RawOrganization;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.jetbrains.annotations.NotNull;
@@ -21,6 +22,9 @@ public interface OrganizationRepository
   @NotNull
   List<Organization> findByNameIgnoreCase(@NotNull final String name);
 
+  @NotNull
+  List<Organization> findAllByNameInIgnoreCase(@NotNull final Collection<String> names);
+
   @Query(
       value =
           "SELECT org.*, "
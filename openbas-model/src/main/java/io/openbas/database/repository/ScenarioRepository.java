@@ -31,6 +31,38 @@ public interface ScenarioRepository
       nativeQuery = true)
   List<RawScenario> findForIndexing(@Param("from") Instant from);
 
+  // -- RECURRENCE --
+
+  /**
+   * Lock the recurring scenarios whose next occurrence is due, skipping the ones already locked by
+   * another node
+   *
+   * @param horizon the date until which an occurrence is due
+   * @return the due scenarios, by occurrence
+   */
+  @Query(
+      value =
+          "SELECT s.* FROM scenarios s "
+              + "WHERE s.scenario_recurrence IS NOT NULL AND s.scenario_next_occurrence <= :horizon "
+              + "ORDER BY s.scenario_next_occurrence "
+              + "FOR UPDATE SKIP LOCKED ;",
+      nativeQuery = true)
+  List<Scenario> findDueRecurringScenarios(@Param("horizon") Instant horizon);
+
+  /**
+   * Lock the recurring scenarios whose next occurrence is not computed yet, skipping the ones
+   * already locked by another node
+   *
+   * @return the scenarios to schedule
+   */
+  @Query(
+      value =
+          "SELECT s.* FROM scenarios s "
+              + "WHERE s.scenario_recurrence IS NOT NULL AND s.scenario_next_occurrence IS NULL "
+              + "FOR UPDATE SKIP LOCKED ;",
+      nativeQuery = true)
+  List<Scenario> findUnscheduledRecurringScenarios();
+
   @Query(
       value =
           "SELECT ex.exercise_id, "
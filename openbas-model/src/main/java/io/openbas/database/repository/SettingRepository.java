@@ -22,6 +22,9 @@ public interface SettingRepository
   @Query(value = "SHOW server_version", nativeQuery = true)
   String getServerVersion();
 
+  @Query(value = "SELECT version_value FROM parameters_version", nativeQuery = true)
+  Long getSettingsVersion();
+
   @Transactional
   void deleteByKeyIn(@NotNull final Collection<String> keys);
 }
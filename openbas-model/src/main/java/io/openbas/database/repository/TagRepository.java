@@ -4,6 +4,7 @@ import io.openbas.database.model.Tag;
 import io.openbas.database.raw.RawTag;
 import io.openbas.utils.Constants;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.jetbrains.annotations.NotNull;
@@ -25,6 +26,12 @@ public interface TagRepository extends CrudRepository<Tag, String>, JpaSpecifica
   @NotNull
   List<Tag> findByNameIgnoreCase(@NotNull final String name);
 
+  @NotNull
+  List<Tag> findAllByNameIn(@NotNull final Collection<String> names);
+
+  @NotNull
+  List<Tag> findAllByNameInIgnoreCase(@NotNull final Collection<String> names);
+
   @Query(
       value =
           "SELECT t.tag_id, t.tag_name, t.tag_color, "
@@ -3,6 +3,7 @@ package io.openbas.database.repository;
 import io.openbas.database.model.Team;
 import io.openbas.database.raw.RawTeam;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -34,6 +35,11 @@ public interface TeamRepository
       "SELECT team FROM Team team where lower(team.name) = lower(:name) and team.contextual = false")
   List<Team> findByNameIgnoreCaseAndNotContextual(@NotNull final String name);
 
+  @Query("SELECT team FROM Team team where lower(team.name) in :names and team.contextual = false")
+  List<Team> findAllByLowerNameInAndNotContextual(@NotNull final Collection<String> names);
+
+  List<Team> findAllByContextualFalse();
+
   @Query(
       "select team from Team team where team.organization is null or team.organization.id in :organizationIds")
   List<Team> teamsAccessibleFromOrganizations(
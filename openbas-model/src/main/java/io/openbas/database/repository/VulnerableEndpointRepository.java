@@ -3,8 +3,6 @@ package io.openbas.database.repository;
 import io.openbas.database.model.AssetType;
 import io.openbas.database.model.Endpoint;
 import io.openbas.database.raw.RawVulnerableEndpoint;
-import io.openbas.utils.Constants;
-import java.time.Instant;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -24,7 +22,8 @@ public interface VulnerableEndpointRepository extends JpaRepository<Endpoint, St
               + "FROM assets a LEFT JOIN agents ag ON a.asset_id = ag.agent_asset "
               + "WHERE a.asset_type = '"
               + AssetType.Values.ENDPOINT_TYPE
-              + "'"
+              + "' "
+              + "AND a.asset_id = ANY(cast(:assetIds as text[])) "
               + "GROUP BY a.asset_id"
               + ")"
               + "SELECT CONCAT(a.asset_id, '_', i.inject_exercise) as base_id, "
@@ -52,15 +51,12 @@ public interface VulnerableEndpointRepository extends JpaRepository<Endpoint, St
               + "LEFT JOIN assets_tags at ON a.asset_id = at.asset_id "
               + "JOIN injects i ON i.inject_id = f.finding_inject_id "
               + "JOIN exercises e ON i.inject_exercise = e.exercise_id "
-              + "WHERE (e.exercise_updated_at > :from OR a.asset_updated_at > :from) "
+              + "WHERE a.asset_id = ANY(cast(:assetIds as text[])) "
               + "AND f.finding_type = 'CVE' "
               + "AND a.asset_type = '"
               + AssetType.Values.ENDPOINT_TYPE
               + "' "
-              + "GROUP BY a.asset_id, i.inject_exercise, e.exercise_updated_at, e.exercise_created_at, ag.agent_ids, ag.agent_last_seen, ag.agent_privs "
-              + "ORDER BY e.exercise_updated_at LIMIT "
-              + Constants.INDEXING_RECORD_SET_SIZE
-              + ";",
+              + "GROUP BY a.asset_id, i.inject_exercise, e.exercise_updated_at, e.exercise_created_at, ag.agent_ids, ag.agent_last_seen, ag.agent_privs ;",
       nativeQuery = true)
-  List<RawVulnerableEndpoint> findForIndexing(@Param("from") Instant from);
+  List<RawVulnerableEndpoint> findForIndexing(@Param("assetIds") String[] assetIds);
 }
@@ -13,17 +13,43 @@ public class EngineContext {
 
   private ApplicationContext context;
 
+  private volatile EngineModelRegistry registry;
+
   @Autowired
   public void setContext(ApplicationContext context) {
     this.context = context;
   }
 
+  @SuppressWarnings("unchecked")
   public <T extends EsBase> List<EsModel<T>> getModels() {
+    return (List<EsModel<T>>) (List<?>) getRegistry().models();
+  }
+
+  /**
+   * Returns the registry of the indexed models, computed on first use
+   *
+   * @return the registry
+   */
+  public EngineModelRegistry getRegistry() {
+    EngineModelRegistry current = this.registry;
+    if (current == null) {
+      synchronized (this) {
+        current = this.registry;
+        if (current == null) {
+          current = EngineModelRegistry.of(resolveModels());
+          this.registry = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  private List<EsModel<? extends EsBase>> resolveModels() {
     return context.getBeansOfType(Handler.class).entrySet().stream()
-        .map(
+        .<EsModel<? extends EsBase>>map(
             entry -> {
-              Handler<T> handler = entry.getValue();
-              Class<T> clazz = resolveGenericType(handler);
+              Handler<EsBase> handler = entry.getValue();
+              Class<EsBase> clazz = resolveGenericType(handler);
               if (clazz == null) {
                 throw new IllegalStateException(
                     "Cannot resolve generic type for handler " + entry.getKey());
@@ -0,0 +1,116 @@
+package io.openbas.engine;
+
+import io.openbas.engine.model.EsBase;
+import io.openbas.schema.PropertySchema;
+import io.openbas.schema.SchemaUtils;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable registry of the indexed models, computed once from the {@link Handler} beans: the
+ * models by name, and the filterable properties of each model with their field in the analytics
+ * engine, so that queries do not reflect over the models.
+ */
+public final class EngineModelRegistry {
+
+  private final List<EsModel<? extends EsBase>> models;
+  private final Map<String, EsModel<? extends EsBase>> modelsByName;
+  private final Map<String, List<PropertySchema>> filterablePropertiesByModel;
+  private final Map<String, PropertySchema> indexingSchema;
+  private final Map<String, String> engineFields;
+
+  private EngineModelRegistry(List<EsModel<? extends EsBase>> models) {
+    Map<String, EsModel<? extends EsBase>> byName = new LinkedHashMap<>();
+    Map<String, List<PropertySchema>> propertiesByModel = new LinkedHashMap<>();
+    Map<String, PropertySchema> schema = new LinkedHashMap<>();
+    Map<String, String> fields = new LinkedHashMap<>();
+    for (EsModel<? extends EsBase> model : models) {
+      byName.put(model.getName(), model);
+      List<PropertySchema> properties;
+      try {
+        properties =
+            SchemaUtils.schemaWithSubtypes(model.getModel()).stream()
+                .filter(PropertySchema::isFilterable)
+                .toList();
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException("Cannot compute the schema of " + model.getName(), e);
+      }
+      propertiesByModel.put(model.getName(), properties);
+      for (PropertySchema property : properties) {
+        if (schema.putIfAbsent(property.getName(), property) == null) {
+          fields.put(
+              property.getName(),
+              property.isKeyword() ? property.getName() + ".keyword" : property.getName());
+        }
+      }
+    }
+    this.models = List.copyOf(models);
+    this.modelsByName = Map.copyOf(byName);
+    this.filterablePropertiesByModel = Map.copyOf(propertiesByModel);
+    this.indexingSchema = Map.copyOf(schema);
+    this.engineFields = Map.copyOf(fields);
+  }
+
+  /**
+   * Builds the registry of models
+   *
+   * @param models the indexed models
+   * @return the registry
+   */
+  public static EngineModelRegistry of(@NotNull final List<EsModel<? extends EsBase>> models) {
+    return new EngineModelRegistry(models);
+  }
+
+  /**
+   * @return the indexed models
+   */
+  public List<EsModel<? extends EsBase>> models() {
+    return this.models;
+  }
+
+  /**
+   * Returns an indexed model
+   *
+   * @param name the name of the model, like {@code inject}
+   * @return the model, empty if unknown
+   */
+  public Optional<EsModel<? extends EsBase>> model(@NotBlank final String name) {
+    return Optional.ofNullable(this.modelsByName.get(name));
+  }
+
+  /**
+   * Returns the filterable properties of a model
+   *
+   * @param name the name of the model
+   * @return the properties, empty if the model is unknown
+   */
+  public List<PropertySchema> filterableProperties(@NotBlank final String name) {
+    return this.filterablePropertiesByModel.getOrDefault(name, List.of());
+  }
+
+  /**
+   * @return the filterable properties of all the models, by name
+   */
+  public Map<String, PropertySchema> indexingSchema() {
+    return this.indexingSchema;
+  }
+
+  /**
+   * Translates a property to its field in the analytics engine
+   *
+   * @param property the name of the property
+   * @return the field, suffixed for keyword properties
+   * @throws IllegalArgumentException if the property is not filterable in any model
+   */
+  public String engineField(@NotBlank final String property) {
+    String field = this.engineFields.get(property);
+    if (field == null) {
+      throw new IllegalArgumentException("Unknown field: " + property);
+    }
+    return field;
+  }
+}
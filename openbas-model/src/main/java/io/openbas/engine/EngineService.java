@@ -4,8 +4,11 @@ import io.openbas.database.model.CustomDashboardParameters;
 import io.openbas.database.model.Filters;
 import io.openbas.database.raw.RawUserAuth;
 import io.openbas.engine.api.*;
+import io.openbas.engine.api.Runtime;
 import io.openbas.engine.model.EsBase;
 import io.openbas.engine.model.EsSearch;
+import io.openbas.engine.query.EsAttackPatternBucket;
+import io.openbas.engine.query.EsHistogramResult;
 import io.openbas.engine.query.EsSeries;
 import java.io.IOException;
 import java.util.List;
@@ -98,6 +101,15 @@ public interface EngineService {
    */
   List<EsSeries> multiDateHistogram(RawUserAuth user, DateHistogramRuntime runtime);
 
+  /**
+   * Get the series of several histogram widgets, with one multi search
+   *
+   * @param user the user to use
+   * @param runtimes the date or structural histogram runtimes to use
+   * @return the series of each runtime, in the same order, not complete when a search failed
+   */
+  List<EsHistogramResult> multiHistogram(RawUserAuth user, List<Runtime> runtimes);
+
   /**
    * Get a list of entities
    *
@@ -107,6 +119,21 @@ public interface EngineService {
    */
   List<EsBase> entities(RawUserAuth user, ListRuntime runtime);
 
+  /**
+   * Aggregate the injects by attack pattern
+   *
+   * @param user the user to use
+   * @param filter the filter of the injects
+   * @param parameters the parameters
+   * @param definitionParameters the definition of the parameters
+   * @return the injects and the children attack patterns of each attack pattern
+   */
+  List<EsAttackPatternBucket> attackPatternBuckets(
+      RawUserAuth user,
+      Filters.FilterGroup filter,
+      Map<String, String> parameters,
+      Map<String, CustomDashboardParameters> definitionParameters);
+
   /**
    * Create the list configuration using entities and filters
    *
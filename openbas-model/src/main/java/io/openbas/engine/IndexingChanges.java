@@ -0,0 +1,61 @@
+package io.openbas.engine;
+
+import static io.openbas.utils.Constants.INDEXING_RECORD_SET_SIZE;
+
+import io.openbas.database.raw.RawIndexingChange;
+import io.openbas.database.repository.IndexingStatusRepository;
+import io.openbas.engine.model.EsBase;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the changes captured by the database triggers in {@code indexing_changes}, so that the
+ * handlers only build the documents of the changed entities. The documents are dated by their
+ * change, which is the date the indexing resumes from.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndexingChanges {
+
+  private final IndexingStatusRepository indexingStatusRepository;
+
+  /**
+   * Builds the documents of the entities changed since a date
+   *
+   * @param type the indexed type, like {@code inject}
+   * @param from the date of the last indexing, null to index everything
+   * @param builder builds the documents from the change dates by entity id, dating each document by
+   *     the change of its entity
+   * @return the documents, dated by the change of their entity and ordered by date
+   */
+  public <T extends EsBase> List<T> fetch(
+      @NotBlank final String type,
+      final Instant from,
+      @NotNull final Function<Map<String, Instant>, List<T>> builder) {
+    Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
+    while (true) {
+      List<RawIndexingChange> changes =
+          this.indexingStatusRepository.findChanges(type, queryFrom, INDEXING_RECORD_SET_SIZE);
+      if (changes.isEmpty()) {
+        return List.of();
+      }
+      Map<String, Instant> changeDates = new LinkedHashMap<>();
+      changes.forEach(
+          change -> changeDates.put(change.getChange_entity_id(), change.getChange_date()));
+      List<T> documents = builder.apply(changeDates);
+      if (!documents.isEmpty()) {
+        return documents.stream().sorted(Comparator.comparing(EsBase::getBase_updated_at)).toList();
+      }
+      // Only removed entities in this page, go on with the next one
+      queryFrom = changes.getLast().getChange_date();
+    }
+  }
+}
@@ -7,9 +7,11 @@ import static org.springframework.util.StringUtils.hasText;
 import io.openbas.database.raw.RawInjectIndexing;
 import io.openbas.database.repository.InjectRepository;
 import io.openbas.engine.Handler;
+import io.openbas.engine.IndexingChanges;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -19,16 +21,26 @@ import org.springframework.stereotype.Service;
 public class InjectHandler implements Handler<EsInject> {
 
   private InjectRepository injectRepository;
+  private IndexingChanges indexingChanges;
 
   @Autowired
   public void setInjectRepository(InjectRepository injectRepository) {
     this.injectRepository = injectRepository;
   }
 
+  @Autowired
+  public void setIndexingChanges(IndexingChanges indexingChanges) {
+    this.indexingChanges = indexingChanges;
+  }
+
   @Override
   public List<EsInject> fetch(Instant from) {
-    Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
-    List<RawInjectIndexing> forIndexing = injectRepository.findForIndexing(queryFrom);
+    return indexingChanges.fetch("inject", from, this::fetchChanged);
+  }
+
+  private List<EsInject> fetchChanged(Map<String, Instant> changeDates) {
+    List<RawInjectIndexing> forIndexing =
+        injectRepository.findForIndexing(changeDates.keySet().toArray(String[]::new));
     return forIndexing.stream()
         .map(
             inject -> {
@@ -37,15 +49,7 @@ public class InjectHandler implements Handler<EsInject> {
               esInject.setBase_id(inject.getInject_id());
               esInject.setBase_representative(inject.getInject_title());
               esInject.setBase_created_at(inject.getInject_created_at());
-
-              if (inject.getInjector_contract_updated_at() != null
-                  && inject
-                      .getInjector_contract_updated_at()
-                      .isAfter(inject.getInject_updated_at())) {
-                esInject.setBase_updated_at(inject.getInjector_contract_updated_at());
-              } else {
-                esInject.setBase_updated_at(inject.getInject_updated_at());
-              }
+              esInject.setBase_updated_at(changeDates.get(inject.getInject_id()));
               esInject.setBase_restrictions(
                   buildRestrictions(inject.getInject_scenario(), inject.getInject_Exercise()));
               // Specific
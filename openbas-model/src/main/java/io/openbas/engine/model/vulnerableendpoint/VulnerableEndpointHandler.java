@@ -7,12 +7,14 @@ import io.openbas.database.raw.RawVulnerableEndpoint;
 import io.openbas.database.repository.FindingRepository;
 import io.openbas.database.repository.VulnerableEndpointRepository;
 import io.openbas.engine.Handler;
+import io.openbas.engine.IndexingChanges;
 import io.openbas.helper.AgentHelper;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -23,12 +25,17 @@ public class VulnerableEndpointHandler implements Handler<EsVulnerableEndpoint>
 
   private final VulnerableEndpointRepository vulnerableEndpointRepository;
   private final FindingRepository findingRepository;
+  private final IndexingChanges indexingChanges;
 
   @Override
   public List<EsVulnerableEndpoint> fetch(Instant from) {
-    Instant queryFrom = from != null ? from : Instant.ofEpochMilli(0);
+    return this.indexingChanges.fetch("vulnerable-endpoint", from, this::fetchChanged);
+  }
+
+  private List<EsVulnerableEndpoint> fetchChanged(Map<String, Instant> changeDates) {
     List<RawVulnerableEndpoint> forIndexing =
-        this.vulnerableEndpointRepository.findForIndexing(queryFrom);
+        this.vulnerableEndpointRepository.findForIndexing(
+            changeDates.keySet().toArray(String[]::new));
     return forIndexing.stream()
         .map(
             endpoint -> {
@@ -38,7 +45,8 @@ public class VulnerableEndpointHandler implements Handler<EsVulnerableEndpoint>
               esVulnerableEndpoint.setBase_representative(
                   endpoint.getVulnerable_endpoint_hostname());
               esVulnerableEndpoint.setBase_created_at(endpoint.getVulnerable_endpoint_created_at());
-              esVulnerableEndpoint.setBase_updated_at(endpoint.getVulnerable_endpoint_updated_at());
+              esVulnerableEndpoint.setBase_updated_at(
+                  changeDates.get(endpoint.getVulnerable_endpoint_id()));
               // not sure what to put here, if anything
               esVulnerableEndpoint.setBase_restrictions(
                   buildRestrictions(endpoint.getVulnerable_endpoint_id()));
@@ -0,0 +1,25 @@
+package io.openbas.engine.query;
+
+import jakarta.validation.constraints.NotBlank;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+
+/** Injects of an attack pattern, as aggregated by the analytics engine */
+@Getter
+@Setter
+public class EsAttackPatternBucket {
+
+  @NotBlank private String attackPatternId;
+  private Set<String> injectIds;
+  private Set<String> attackPatternChildrenIds;
+
+  public EsAttackPatternBucket(
+      @NotBlank String attackPatternId,
+      Set<String> injectIds,
+      Set<String> attackPatternChildrenIds) {
+    this.attackPatternId = attackPatternId;
+    this.injectIds = injectIds;
+    this.attackPatternChildrenIds = attackPatternChildrenIds;
+  }
+}
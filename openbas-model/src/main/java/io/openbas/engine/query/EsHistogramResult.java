@@ -0,0 +1,9 @@
+package io.openbas.engine.query;
+
+import java.util.List;
+
+/**
+ * Series of a histogram widget, as searched by the analytics engine. A series whose search failed
+ * is returned empty, the result being then not complete.
+ */
+public record EsHistogramResult(List<EsSeries> series, boolean complete) {}
@@ -0,0 +1,118 @@
+package io.openbas.service;
+
+import io.openbas.database.model.KillChainPhase;
+import io.openbas.database.raw.RawAttackPattern;
+import io.openbas.database.repository.AttackPatternRepository;
+import io.openbas.database.repository.KillChainPhaseRepository;
+import io.openbas.engine.query.EsAttackPath.KillChainPhaseObject;
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory snapshot of the attack patterns and their kill chain phases, as displayed on the attack
+ * paths. The snapshot is loaded with two queries, and reloaded once expired or when an unknown
+ * attack pattern is requested, at most once per minimum interval.
+ */
+@Service
+public class AttackPatternReferenceCache {
+
+  private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(30);
+
+  /** An attack pattern and its kill chain phases */
+  public record AttackPatternReference(
+      String id, String name, String externalId, List<KillChainPhaseObject> killChainPhases) {}
+
+  private final AttackPatternRepository attackPatternRepository;
+  private final KillChainPhaseRepository killChainPhaseRepository;
+  private final Duration ttl;
+
+  private volatile Map<String, AttackPatternReference> references = Map.of();
+  private volatile Instant loadedAt = Instant.EPOCH;
+
+  public AttackPatternReferenceCache(
+      AttackPatternRepository attackPatternRepository,
+      KillChainPhaseRepository killChainPhaseRepository,
+      @Value("${openbas.attack-patterns.reference-cache-ttl:5m}") Duration ttl) {
+    this.attackPatternRepository = attackPatternRepository;
+    this.killChainPhaseRepository = killChainPhaseRepository;
+    this.ttl = ttl;
+  }
+
+  /**
+   * Returns the references of attack patterns
+   *
+   * @param attackPatternIds the ids of the attack patterns
+   * @return the references by id, unknown attack patterns being absent
+   */
+  public Map<String, AttackPatternReference> references(
+      @NotNull final Collection<String> attackPatternIds) {
+    Instant now = Instant.now();
+    Map<String, AttackPatternReference> snapshot = this.references;
+    boolean expired = this.loadedAt.plus(this.ttl).isBefore(now);
+    boolean missing = !snapshot.keySet().containsAll(attackPatternIds);
+    if (expired || (missing && this.loadedAt.plus(MIN_RELOAD_INTERVAL).isBefore(now))) {
+      snapshot = reload(now);
+    }
+    Map<String, AttackPatternReference> result = new HashMap<>();
+    for (String attackPatternId : attackPatternIds) {
+      AttackPatternReference reference = snapshot.get(attackPatternId);
+      if (reference != null) {
+        result.put(attackPatternId, reference);
+      }
+    }
+    return result;
+  }
+
+  private synchronized Map<String, AttackPatternReference> reload(Instant now) {
+    if (!this.loadedAt.isBefore(now)) {
+      // Reloaded by a concurrent request meanwhile
+      return this.references;
+    }
+    Map<String, KillChainPhase> killChainPhases =
+        StreamSupport.stream(this.killChainPhaseRepository.findAll().spliterator(), false)
+            .collect(Collectors.toMap(KillChainPhase::getId, Function.identity()));
+    Map<String, AttackPatternReference> loaded =
+        this.attackPatternRepository.rawAll().stream()
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    RawAttackPattern::getAttack_pattern_id,
+                    attackPattern -> toReference(attackPattern, killChainPhases)));
+    this.references = loaded;
+    this.loadedAt = Instant.now();
+    return loaded;
+  }
+
+  private static AttackPatternReference toReference(
+      RawAttackPattern attackPattern, Map<String, KillChainPhase> killChainPhases) {
+    List<KillChainPhaseObject> phases =
+        attackPattern.getAttack_pattern_kill_chain_phases() == null
+            ? List.of()
+            : attackPattern.getAttack_pattern_kill_chain_phases().stream()
+                .map(killChainPhases::get)
+                .filter(Objects::nonNull)
+                .sorted(
+                    Comparator.comparing(
+                        KillChainPhase::getOrder, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(
+                    phase ->
+                        new KillChainPhaseObject(phase.getId(), phase.getName(), phase.getOrder()))
+                .toList();
+    return new AttackPatternReference(
+        attackPattern.getAttack_pattern_id(),
+        attackPattern.getAttack_pattern_name(),
+        attackPattern.getAttack_pattern_external_id(),
+        phases);
+  }
+}
@@ -2,11 +2,7 @@ package io.openbas.service;
 
 import io.openbas.engine.EngineContext;
 import io.openbas.schema.PropertySchema;
-import io.openbas.schema.SchemaUtils;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,27 +12,7 @@ public class CommonSearchService {
 
   private final EngineContext searchEngine;
 
-  private static final ConcurrentHashMap<String, PropertySchema> cacheMap =
-      new ConcurrentHashMap<>();
-
-  // TODO Test cache
   public Map<String, PropertySchema> getIndexingSchema() {
-    if (!cacheMap.isEmpty()) {
-      return cacheMap;
-    }
-    Set<PropertySchema> properties =
-        searchEngine.getModels().stream()
-            .flatMap(
-                model -> {
-                  try {
-                    return SchemaUtils.schemaWithSubtypes(model.getModel()).stream();
-                  } catch (ClassNotFoundException e) {
-                    throw new RuntimeException(e);
-                  }
-                })
-            .filter(PropertySchema::isFilterable)
-            .collect(Collectors.toSet());
-    properties.forEach(p -> cacheMap.putIfAbsent(p.getName(), p));
-    return cacheMap;
+    return searchEngine.getRegistry().indexingSchema();
   }
 }
@@ -1,22 +1,19 @@
 package io.openbas.service;
 
-import io.openbas.database.model.AttackPattern;
 import io.openbas.database.model.CustomDashboardParameters;
+import io.openbas.database.model.Filters;
 import io.openbas.database.raw.RawUserAuth;
-import io.openbas.database.repository.AttackPatternRepository;
 import io.openbas.engine.EngineService;
-import io.openbas.engine.api.ListConfiguration;
-import io.openbas.engine.api.ListRuntime;
 import io.openbas.engine.api.StructuralHistogramRuntime;
-import io.openbas.engine.model.inject.EsInject;
 import io.openbas.engine.query.EsAttackPath;
+import io.openbas.engine.query.EsAttackPatternBucket;
 import io.openbas.engine.query.EsSeries;
 import io.openbas.engine.query.EsSeriesData;
+import io.openbas.service.AttackPatternReferenceCache.AttackPatternReference;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,7 +22,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Slf4j
 public class EsAttackPathService {
-  private final AttackPatternRepository attackPatternRepository;
+  private final AttackPatternReferenceCache attackPatternReferenceCache;
 
   private final EngineService esService;
 
@@ -48,27 +45,36 @@ public class EsAttackPathService {
 
     String simulationId = extractSimulationIdFromSeriesFilter(runtime);
 
-    CompletableFuture<List<EsInject>> simulationEsInjectsFuture =
+    CompletableFuture<List<EsAttackPatternBucket>> attackPatternBucketsFuture =
         CompletableFuture.supplyAsync(
             () ->
-                fetchSimulationInjectsFromES(user, simulationId, parameters, definitionParameters));
+                fetchSimulationAttackPatternBuckets(
+                    user, simulationId, parameters, definitionParameters));
     CompletableFuture<List<EsSeries>> simulationSeriesFuture =
         CompletableFuture.supplyAsync(() -> esService.multiTermHistogram(user, runtime));
 
-    List<EsInject> simulationEsInjects = simulationEsInjectsFuture.get();
+    List<EsAttackPatternBucket> attackPatternBuckets = attackPatternBucketsFuture.get();
     List<EsSeries> simulationSeries = simulationSeriesFuture.get();
 
-    // Fetch attackPattern of simulation
-    Set<String> attackPatternIds = extractAttackPatternFromEsInjects(simulationEsInjects);
-    Map<String, AttackPattern> attackPatternMap = fetchAttackPatterns(attackPatternIds);
+    // Resolve attackPattern of simulation
+    Map<String, AttackPatternReference> attackPatterns =
+        attackPatternReferenceCache.references(
+            attackPatternBuckets.stream().map(EsAttackPatternBucket::getAttackPatternId).toList());
 
     // Process series results
     Map<String, Long> successRateByAttackPatternIdMap =
         computeSuccessRateSeriesByAttackPatternId(simulationSeries);
 
     // Build Attack Paths
-    return buildAttackPathsFromEsInjectList(
-        simulationEsInjects, attackPatternMap, successRateByAttackPatternIdMap);
+    return attackPatternBuckets.stream()
+        .map(
+            bucket ->
+                createAttackPath(
+                    attackPatterns.get(bucket.getAttackPatternId()),
+                    bucket,
+                    successRateByAttackPatternIdMap.get(bucket.getAttackPatternId())))
+        .filter(Objects::nonNull)
+        .toList();
   }
 
   /**
@@ -86,55 +92,21 @@ public class EsAttackPathService {
   }
 
   /**
-   * Fetches the injects associated with a given simulation ID from Elasticsearch.
+   * Aggregates the injects of a given simulation by attack pattern in the analytics engine.
    *
    * @param user the user requesting the data
-   * @param simulationId the ID of the simulation for which injects are to be fetched
-   * @return a list of EsInject objects associated with the simulation
+   * @param simulationId the ID of the simulation for which injects are to be aggregated
+   * @return the injects and children attack patterns of each attack pattern of the simulation
    */
-  private List<EsInject> fetchSimulationInjectsFromES(
+  private List<EsAttackPatternBucket> fetchSimulationAttackPatternBuckets(
       RawUserAuth user,
       String simulationId,
       Map<String, String> parameters,
       Map<String, CustomDashboardParameters> definitionParameters) {
     Map<String, List<String>> filterMap = Map.of("base_simulation_side", List.of(simulationId));
-    ListConfiguration config = esService.createListConfiguration("inject", filterMap);
-
-    return esService
-        .entities(user, new ListRuntime(config, parameters, definitionParameters))
-        .stream()
-        .filter(EsInject.class::isInstance)
-        .map(EsInject.class::cast)
-        .toList();
-  }
-
-  /**
-   * Extracts attack pattern IDs from a list of EsInject objects.
-   *
-   * @param esInject the list of EsInject objects to extract attack patterns from
-   * @return a set of unique attack pattern IDs
-   */
-  private Set<String> extractAttackPatternFromEsInjects(List<EsInject> esInject) {
-    return esInject.stream()
-        .filter(i -> i.getBase_attack_patterns_side() != null)
-        .flatMap(i -> i.getBase_attack_patterns_side().stream())
-        .collect(Collectors.toSet());
-  }
-
-  /**
-   * Fetches attack patterns from the database based on a set of attack pattern IDs.
-   *
-   * @param attackPatternIds the set of attack pattern IDs to fetch
-   * @return a map of attack pattern IDs to AttackPattern objects
-   */
-  private Map<String, AttackPattern> fetchAttackPatterns(Set<String> attackPatternIds) {
-    if (attackPatternIds.isEmpty()) {
-      return new HashMap<>();
-    }
-
-    return StreamSupport.stream(
-            attackPatternRepository.findAllById(attackPatternIds).spliterator(), false)
-        .collect(Collectors.toMap(AttackPattern::getId, attackPattern -> attackPattern));
+    Filters.FilterGroup filter =
+        esService.createListConfiguration("inject", filterMap).getSeries().getFirst().getFilter();
+    return esService.attackPatternBuckets(user, filter, parameters, definitionParameters);
   }
 
   /**
@@ -180,91 +152,26 @@ public class EsAttackPathService {
   }
 
   /**
-   * Builds a list of attack paths from a list of EsInject objects, mapping them to their
-   * corresponding attack patterns and success rates.
-   *
-   * @param esInjects the list of EsInject objects to process
-   * @param attackPatterns a map of attack pattern IDs to AttackPattern objects
-   * @param successRateMap a map of attack pattern IDs to their success rates
-   * @return a list of EsAttackPath objects representing the attack paths
-   */
-  private List<EsAttackPath> buildAttackPathsFromEsInjectList(
-      List<EsInject> esInjects,
-      Map<String, AttackPattern> attackPatterns,
-      Map<String, Long> successRateMap) {
-    Map<String, EsAttackPath> esAttackPathsMap = new HashMap<>();
-
-    for (EsInject inject : esInjects) {
-      if (inject.getBase_attack_patterns_side() == null) continue;
-
-      for (String attackId : inject.getBase_attack_patterns_side()) {
-        esAttackPathsMap.compute(
-            attackId,
-            (key, value) ->
-                value == null
-                    ? createNewAttackPath(
-                        attackPatterns.get(attackId), inject, successRateMap.get(attackId))
-                    : updateAttackPath(value, inject));
-      }
-    }
-
-    return esAttackPathsMap.values().stream().toList();
-  }
-
-  /**
-   * Creates a new EsAttackPath object based on the provided attack pattern and inject.
+   * Creates an EsAttackPath object based on the provided attack pattern and its aggregated injects.
    *
    * @param attackPattern the attack pattern to base the attack path on
-   * @param inject the inject containing the base ID and children attack patterns
+   * @param bucket the injects and children attack patterns of the attack pattern
    * @param successRate the success rate of the attack pattern
    * @return a new EsAttackPath object, or null if the attack pattern is null
    */
-  private EsAttackPath createNewAttackPath(
-      AttackPattern attackPattern, EsInject inject, Long successRate) {
+  private EsAttackPath createAttackPath(
+      AttackPatternReference attackPattern, EsAttackPatternBucket bucket, Long successRate) {
     if (attackPattern == null) {
       return null; // Or handle missing attack pattern appropriately
     }
 
-    List<EsAttackPath.KillChainPhaseObject> killChainPhases =
-        attackPattern.getKillChainPhases().stream()
-            .map(
-                killChainPhase ->
-                    new EsAttackPath.KillChainPhaseObject(
-                        killChainPhase.getId(),
-                        killChainPhase.getName(),
-                        killChainPhase.getOrder()))
-            .toList();
-
-    Set<String> childrenIds =
-        inject.getBase_attack_patterns_children_side() != null
-            ? new HashSet<>(inject.getBase_attack_patterns_children_side())
-            : new HashSet<>();
-
     return new EsAttackPath(
-        attackPattern.getId(),
-        attackPattern.getName(),
-        attackPattern.getExternalId(),
-        killChainPhases,
-        childrenIds,
-        new HashSet<>(List.of(inject.getBase_id())),
+        attackPattern.id(),
+        attackPattern.name(),
+        attackPattern.externalId(),
+        attackPattern.killChainPhases(),
+        new HashSet<>(bucket.getAttackPatternChildrenIds()),
+        new HashSet<>(bucket.getInjectIds()),
         successRate);
   }
-
-  /**
-   * Updates an existing EsAttackPath object by adding the inject's base ID and children
-   *
-   * @param attackPath the existing EsAttackPath to update
-   * @param inject the EsInject containing the base ID and children attack patterns
-   * @return the updated EsAttackPath object
-   */
-  private EsAttackPath updateAttackPath(EsAttackPath attackPath, EsInject inject) {
-    attackPath.getInjectIds().add(inject.getBase_id());
-    if (attackPath.getAttackPatternChildrenIds() != null
-        && inject.getBase_attack_patterns_children_side() != null) {
-      attackPath
-          .getAttackPatternChildrenIds()
-          .addAll(inject.getBase_attack_patterns_children_side());
-    }
-    return attackPath;
-  }
 }
@@ -7,7 +7,10 @@ import io.minio.messages.Item;
 import io.openbas.config.MinioConfig;
 import io.openbas.database.model.Document;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +28,8 @@ public class FileService {
   public static final String EXECUTORS_IMAGES_ICONS_BASE_PATH = "/executors/images/icons/";
   public static final String EXECUTORS_IMAGES_BANNERS_BASE_PATH = "/executors/images/banners/";
   public static final String EXT_PNG = ".png";
+  public static final String STAGING_BASE_PATH = "staging/";
+  private static final long STAGING_PART_SIZE = 16L * 1024 * 1024;
   private MinioConfig minioConfig;
   private MinioClient minioClient;
 
@@ -46,6 +51,44 @@ public class FileService {
             .build());
   }
 
+  /**
+   * Stream data to a staging object while hashing it, in a single pass. Large contents are sent as
+   * a multipart upload.
+   *
+   * @param stagingName the name of the staging object
+   * @param data the content, consumed but not closed
+   * @param size the size of the content, -1 if unknown
+   * @param contentType the content type
+   * @return the md5 of the content, in hexadecimal
+   */
+  public String stageFile(String stagingName, InputStream data, long size, String contentType)
+      throws Exception {
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+    minioClient.putObject(
+        PutObjectArgs.builder().bucket(minioConfig.getBucket()).object(stagingName).stream(
+                new DigestInputStream(data, md5), size, STAGING_PART_SIZE)
+            .contentType(contentType)
+            .build());
+    return HexFormat.of().formatHex(md5.digest());
+  }
+
+  /**
+   * Move a staging object to its final name with a server side copy
+   *
+   * @param stagingName the name of the staging object
+   * @param name the final name
+   */
+  public void commitStagedFile(String stagingName, String name) throws Exception {
+    minioClient.copyObject(
+        CopyObjectArgs.builder()
+            .bucket(minioConfig.getBucket())
+            .object(name)
+            .source(
+                CopySource.builder().bucket(minioConfig.getBucket()).object(stagingName).build())
+            .build());
+    deleteFile(stagingName);
+  }
+
   public String uploadStream(String path, String name, InputStream data) throws Exception {
     String file = path + "/" + name;
     minioClient.putObject(
@@ -17,9 +17,12 @@ import io.openbas.engine.EsModel;
 import io.openbas.engine.Handler;
 import io.openbas.engine.api.*;
 import io.openbas.engine.api.DateHistogramWidget.DateHistogramSeries;
+import io.openbas.engine.api.Runtime;
 import io.openbas.engine.api.StructuralHistogramWidget.StructuralHistogramSeries;
 import io.openbas.engine.model.EsBase;
 import io.openbas.engine.model.EsSearch;
+import io.openbas.engine.query.EsAttackPatternBucket;
+import io.openbas.engine.query.EsHistogramResult;
 import io.openbas.engine.query.EsSeries;
 import io.openbas.engine.query.EsSeriesData;
 import io.openbas.exception.AnalyticsEngineException;
@@ -29,6 +32,7 @@ import jakarta.validation.constraints.NotNull;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -42,11 +46,15 @@ import org.opensearch.client.opensearch._types.aggregations.*;
 import org.opensearch.client.opensearch._types.query_dsl.*;
 import org.opensearch.client.opensearch.core.*;
 import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.msearch.MultiSearchResponseItem;
 import org.opensearch.client.opensearch.core.search.Hit;
 
 @Slf4j
 public class OpenSearchService implements EngineService {
   private final List<String> BASE_FIELDS = List.of("base_id", "base_entity", "base_representative");
+  private static final int ATTACK_PATTERN_BUCKETS = 1000;
+  private static final int INJECT_BUCKETS = 1000;
+  private static final int CHILDREN_BUCKETS = 500;
 
   private final OpenSearchDriver driver;
   private final EngineContext searchEngine;
@@ -55,6 +63,26 @@ public class OpenSearchService implements EngineService {
   private final EngineConfig engineConfig;
   private final CommonSearchService commonSearchService;
 
+  /**
+   * Search of a histogram series: the query, the aggregation, and how to read the aggregate into
+   * the series. A series without aggregation is not searched and returned empty.
+   */
+  private record SeriesSearch(
+      String name,
+      Query query,
+      String aggregationKey,
+      Aggregation aggregation,
+      Function<Aggregate, EsSeries> reader) {
+
+    static SeriesSearch empty(String name) {
+      return new SeriesSearch(name, null, null, null, null);
+    }
+
+    boolean isExecuted() {
+      return aggregation != null;
+    }
+  }
+
   /**
    * Constructor for the opensearch engine
    *
@@ -475,54 +503,60 @@ public class OpenSearchService implements EngineService {
       StructuralHistogramSeries config,
       Map<String, String> parameters,
       Map<String, CustomDashboardParameters> definitionParameters) {
-    Query query = buildQuery(user, null, config.getFilter(), parameters, definitionParameters);
-    String aggregationKey = "term_histogram";
     try {
-      String field = parameters.getOrDefault(widgetConfig.getField(), widgetConfig.getField());
-      PropertySchema propertyField = commonSearchService.getIndexingSchema().get(field);
-      String elasticField = toElasticField(field);
-
-      SearchRequest.Builder searchBuilder =
-          new SearchRequest.Builder()
-              .index(engineConfig.getIndexPrefix() + "*")
-              .size(0)
-              .query(query);
-
-      // Avoid this exception
-      // co.elastic.clients.elasticsearch._types.ElasticsearchException: [es/search] failed:
-      // [x_content_parse_exception] [1:82] [terms] failed to parse field [size]
-      if (widgetConfig.getLimit() > 0) {
-        TermsAggregation termsAggregation =
-            new TermsAggregation.Builder()
-                .field(elasticField)
-                .size(widgetConfig.getLimit())
-                .build();
-
-        searchBuilder.aggregations(
-            aggregationKey, new Aggregation.Builder().terms(termsAggregation).build());
-      }
-
-      SearchResponse<Void> response = openSearchClient.search(searchBuilder.build(), Void.class);
-
-      if (widgetConfig.getLimit() == 0) {
-        return new EsSeries(config.getName());
-      }
-
-      Aggregate aggregate = response.aggregations().get(aggregationKey);
-      if (propertyField.getType() == Double.class) {
-        return termHistogramDTerms(config, aggregate);
-      } else if (propertyField.getType() == Long.class
-          || propertyField.getType() == Boolean.class) {
-        return termHistogramLTerms(config, aggregate);
-      } else {
-        return termHistogramSTerms(user, config, aggregate, field);
-      }
+      return searchSeries(
+          termHistogramSearch(user, widgetConfig, config, parameters, definitionParameters));
     } catch (Exception e) {
       log.error(String.format("termHistogram exception: %s", e.getMessage()), e);
     }
     return new EsSeries(config.getName());
   }
 
+  /**
+   * Builds the search of a structural histogram series
+   *
+   * @param user the user to use
+   * @param widgetConfig the config of the widget
+   * @param config the config of the histogram series
+   * @param parameters the parameters
+   * @param definitionParameters the definition of the parameters
+   * @return the search of the series
+   */
+  private SeriesSearch termHistogramSearch(
+      RawUserAuth user,
+      StructuralHistogramWidget widgetConfig,
+      StructuralHistogramSeries config,
+      Map<String, String> parameters,
+      Map<String, CustomDashboardParameters> definitionParameters) {
+    // Avoid this exception
+    // co.elastic.clients.elasticsearch._types.ElasticsearchException: [es/search] failed:
+    // [x_content_parse_exception] [1:82] [terms] failed to parse field [size]
+    if (widgetConfig.getLimit() == 0) {
+      return SeriesSearch.empty(config.getName());
+    }
+    Query query = buildQuery(user, null, config.getFilter(), parameters, definitionParameters);
+    String field = parameters.getOrDefault(widgetConfig.getField(), widgetConfig.getField());
+    PropertySchema propertyField = commonSearchService.getIndexingSchema().get(field);
+    String elasticField = toElasticField(field);
+    TermsAggregation termsAggregation =
+        new TermsAggregation.Builder().field(elasticField).size(widgetConfig.getLimit()).build();
+    return new SeriesSearch(
+        config.getName(),
+        query,
+        "term_histogram",
+        new Aggregation.Builder().terms(termsAggregation).build(),
+        aggregate -> {
+          if (propertyField.getType() == Double.class) {
+            return termHistogramDTerms(config, aggregate);
+          } else if (propertyField.getType() == Long.class
+              || propertyField.getType() == Boolean.class) {
+            return termHistogramLTerms(config, aggregate);
+          } else {
+            return termHistogramSTerms(user, config, aggregate, field);
+          }
+        });
+  }
+
   /**
    * Histogram for string type
    *
@@ -620,6 +654,32 @@ public class OpenSearchService implements EngineService {
       DateHistogramSeries config,
       Map<String, String> parameters,
       Map<String, CustomDashboardParameters> definitionParameters) {
+    SeriesSearch search =
+        dateHistogramSearch(user, widgetConfig, config, parameters, definitionParameters);
+    try {
+      return searchSeries(search);
+    } catch (IOException e) {
+      log.error(String.format("dateHistogram exception: %s", e.getMessage()), e);
+    }
+    return new EsSeries(config.getName());
+  }
+
+  /**
+   * Builds the search of a date histogram series
+   *
+   * @param user the user to use
+   * @param widgetConfig the config of the widget
+   * @param config the config of the histogram series
+   * @param parameters the parameters
+   * @param definitionParameters the definition of the parameters
+   * @return the search of the series
+   */
+  private SeriesSearch dateHistogramSearch(
+      RawUserAuth user,
+      DateHistogramWidget widgetConfig,
+      DateHistogramSeries config,
+      Map<String, String> parameters,
+      Map<String, CustomDashboardParameters> definitionParameters) {
     BoolQuery.Builder queryBuilder = new BoolQuery.Builder();
     String start = parameters.getOrDefault(widgetConfig.getStart(), widgetConfig.getStart());
     Instant startInstant = Instant.parse(start);
@@ -636,40 +696,33 @@ public class OpenSearchService implements EngineService {
     bounds.min(FieldDateMath.of(m -> m.value((double) startInstant.toEpochMilli())));
     bounds.max(FieldDateMath.of(m -> m.value((double) endInstant.toEpochMilli())));
     ExtendedBounds<FieldDateMath> extendedBounds = bounds.build();
-    try {
-      String aggregationKey = "date_histogram";
-      SearchResponse<Void> response =
-          openSearchClient.search(
-              b ->
-                  b.index(engineConfig.getIndexPrefix() + "*")
-                      .size(0)
-                      .query(query)
-                      .aggregations(
-                          aggregationKey,
-                          a ->
-                              a.dateHistogram(
-                                  h ->
-                                      h.field(widgetConfig.getField())
-                                          .minDocCount(0)
-                                          .format(widgetConfig.getInterval().format)
-                                          .calendarInterval(widgetConfig.getInterval().openType)
-                                          .extendedBounds(extendedBounds)
-                                          .keyed(false))),
-              Void.class);
-      Buckets<DateHistogramBucket> buckets =
-          response.aggregations().get(aggregationKey).dateHistogram().buckets();
-      List<EsSeriesData> data =
-          buckets.array().stream()
-              .map(
-                  b ->
-                      new EsSeriesData(
-                          b.keyAsString(), Instant.ofEpochMilli(b.key()).toString(), b.docCount()))
-              .toList();
-      return new EsSeries(config.getName(), data);
-    } catch (IOException e) {
-      log.error(String.format("dateHistogram exception: %s", e.getMessage()), e);
-    }
-    return new EsSeries(config.getName());
+    return new SeriesSearch(
+        config.getName(),
+        query,
+        "date_histogram",
+        Aggregation.of(
+            a ->
+                a.dateHistogram(
+                    h ->
+                        h.field(widgetConfig.getField())
+                            .minDocCount(0)
+                            .format(widgetConfig.getInterval().format)
+                            .calendarInterval(widgetConfig.getInterval().openType)
+                            .extendedBounds(extendedBounds)
+                            .keyed(false))),
+        aggregate -> {
+          Buckets<DateHistogramBucket> buckets = aggregate.dateHistogram().buckets();
+          List<EsSeriesData> data =
+              buckets.array().stream()
+                  .map(
+                      b ->
+                          new EsSeriesData(
+                              b.keyAsString(),
+                              Instant.ofEpochMilli(b.key()).toString(),
+                              b.docCount()))
+                  .toList();
+          return new EsSeries(config.getName(), data);
+        });
   }
 
   /** {@inheritDoc} */
@@ -682,6 +735,126 @@ public class OpenSearchService implements EngineService {
         .toList();
   }
 
+  /** {@inheritDoc} */
+  public List<EsHistogramResult> multiHistogram(RawUserAuth user, List<Runtime> runtimes) {
+    List<List<SeriesSearch>> searches =
+        runtimes.stream().map(runtime -> seriesSearches(user, runtime)).toList();
+    List<SeriesSearch> executed =
+        searches.stream().flatMap(List::stream).filter(SeriesSearch::isExecuted).toList();
+    Map<SeriesSearch, EsSeries> results = new IdentityHashMap<>();
+    if (!executed.isEmpty()) {
+      try {
+        MsearchResponse<Void> response =
+            openSearchClient.msearch(
+                m -> {
+                  executed.forEach(
+                      s ->
+                          m.searches(
+                              r ->
+                                  r.header(h -> h.index(engineConfig.getIndexPrefix() + "*"))
+                                      .body(
+                                          b ->
+                                              b.size(0)
+                                                  .query(s.query())
+                                                  .aggregations(
+                                                      s.aggregationKey(), s.aggregation()))));
+                  return m;
+                },
+                Void.class);
+        for (int i = 0; i < executed.size(); i++) {
+          SeriesSearch search = executed.get(i);
+          MultiSearchResponseItem<Void> item = response.responses().get(i);
+          if (item.isFailure()) {
+            log.error(
+                String.format("multiHistogram exception: %s", item.failure().error().reason()));
+            continue;
+          }
+          try {
+            results.put(
+                search,
+                search.reader().apply(item.result().aggregations().get(search.aggregationKey())));
+          } catch (Exception e) {
+            log.error(String.format("multiHistogram exception: %s", e.getMessage()), e);
+          }
+        }
+      } catch (IOException e) {
+        log.error(String.format("multiHistogram exception: %s", e.getMessage()), e);
+      }
+    }
+    return searches.stream()
+        .map(
+            list ->
+                new EsHistogramResult(
+                    list.stream()
+                        .map(s -> results.getOrDefault(s, new EsSeries(s.name())))
+                        .toList(),
+                    list.stream().filter(SeriesSearch::isExecuted).allMatch(results::containsKey)))
+        .toList();
+  }
+
+  /**
+   * Builds the searches of the series of a histogram widget, a series which cannot be built being
+   * returned empty
+   *
+   * @param user the user to use
+   * @param runtime the date or structural histogram runtime
+   * @return the searches, one per series of the widget
+   */
+  private List<SeriesSearch> seriesSearches(RawUserAuth user, Runtime runtime) {
+    Map<String, String> parameters = runtime.getParameters();
+    Map<String, CustomDashboardParameters> definitionParameters = runtime.getDefinitionParameters();
+    if (runtime instanceof DateHistogramRuntime dateRuntime) {
+      DateHistogramWidget widget = dateRuntime.getWidget();
+      return widget.getSeries().stream()
+          .map(
+              c -> {
+                try {
+                  return dateHistogramSearch(user, widget, c, parameters, definitionParameters);
+                } catch (Exception e) {
+                  log.error(String.format("dateHistogram exception: %s", e.getMessage()), e);
+                  return SeriesSearch.empty(c.getName());
+                }
+              })
+          .toList();
+    } else if (runtime instanceof StructuralHistogramRuntime structuralRuntime) {
+      StructuralHistogramWidget widget = structuralRuntime.getWidget();
+      return widget.getSeries().stream()
+          .map(
+              c -> {
+                try {
+                  return termHistogramSearch(user, widget, c, parameters, definitionParameters);
+                } catch (Exception e) {
+                  log.error(String.format("termHistogram exception: %s", e.getMessage()), e);
+                  return SeriesSearch.empty(c.getName());
+                }
+              })
+          .toList();
+    }
+    throw new UnsupportedOperationException("Unsupported runtime: " + runtime);
+  }
+
+  /**
+   * Runs the search of one series
+   *
+   * @param search the search of the series
+   * @return the series
+   * @throws IOException in case of issue communicating with the analytics engine
+   */
+  private EsSeries searchSeries(SeriesSearch search) throws IOException {
+    if (!search.isExecuted()) {
+      return new EsSeries(search.name());
+    }
+    SearchResponse<Void> response =
+        openSearchClient.search(
+            b ->
+                b.index(engineConfig.getIndexPrefix() + "*")
+                    .size(0)
+                    .query(search.query())
+                    .aggregations(search.aggregationKey(), search.aggregation()),
+            Void.class);
+    return search.reader().apply(response.aggregations().get(search.aggregationKey()));
+  }
+
   /** {@inheritDoc} */
   public List<EsBase> entities(RawUserAuth user, ListRuntime runtime) {
     Filters.FilterGroup searchFilters = runtime.getWidget().getSeries().getFirst().getFilter();
@@ -746,11 +919,66 @@ public class OpenSearchService implements EngineService {
    * @return the class itself
    */
   private Class<?> getClassForEntity(String entityName) {
-    Optional<EsModel<EsBase>> model =
-        searchEngine.getModels().stream()
-            .filter(esBaseEsModel -> entityName.equals(esBaseEsModel.getName()))
-            .findAny();
-    return model.get().getModel();
+    return searchEngine.getRegistry().model(entityName).orElseThrow().getModel();
+  }
+
+  /** {@inheritDoc} */
+  public List<EsAttackPatternBucket> attackPatternBuckets(
+      RawUserAuth user,
+      Filters.FilterGroup filter,
+      Map<String, String> parameters,
+      Map<String, CustomDashboardParameters> definitionParameters) {
+    Query query = buildQuery(user, null, filter, parameters, definitionParameters);
+    String aggregationKey = "attack_patterns";
+    try {
+      SearchResponse<Void> response =
+          openSearchClient.search(
+              b ->
+                  b.index(engineConfig.getIndexPrefix() + "*")
+                      .size(0)
+                      .query(query)
+                      .aggregations(
+                          aggregationKey,
+                          a ->
+                              a.terms(
+                                      t ->
+                                          t.field(toElasticField("base_attack_patterns_side"))
+                                              .size(ATTACK_PATTERN_BUCKETS))
+                                  .aggregations(
+                                      "injects",
+                                      i ->
+                                          i.terms(
+                                              t ->
+                                                  t.field(toElasticField("base_id"))
+                                                      .size(INJECT_BUCKETS)))
+                                  .aggregations(
+                                      "children",
+                                      c ->
+                                          c.terms(
+                                              t ->
+                                                  t.field(
+                                                          toElasticField(
+                                                              "base_attack_patterns_children_side"))
+                                                      .size(CHILDREN_BUCKETS)))),
+              Void.class);
+      return response.aggregations().get(aggregationKey).sterms().buckets().array().stream()
+          .map(
+              b ->
+                  new EsAttackPatternBucket(
+                      b.key(),
+                      termKeys(b.aggregations().get("injects")),
+                      termKeys(b.aggregations().get("children"))))
+          .toList();
+    } catch (IOException e) {
+      log.error(String.format("attackPatternBuckets exception: %s", e.getMessage()), e);
+    }
+    return List.of();
+  }
+
+  private static Set<String> termKeys(Aggregate aggregate) {
+    return aggregate.sterms().buckets().array().stream()
+        .map(b -> b.key())
+        .collect(Collectors.toSet());
   }
 
   /** {@inheritDoc} */
@@ -827,7 +1055,6 @@ public class OpenSearchService implements EngineService {
    * @return the elastic field
    */
   private String toElasticField(@NotBlank final String field) {
-    PropertySchema propertyField = commonSearchService.getIndexingSchema().get(field);
-    return propertyField.isKeyword() ? (field + ".keyword") : field;
+    return searchEngine.getRegistry().engineField(field);
   }
 }